@@ -3,9 +3,20 @@ package pl.coderstrust.configuration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ServerAddress;
 import com.mongodb.WriteConcern;
+import com.mongodb.reactivestreams.client.MongoClients;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.util.Collections;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -13,12 +24,15 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.data.mongodb.MongoDbFactory;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.data.mongodb.core.SimpleMongoDbFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import pl.coderstrust.helpers.FileHelper;
+import pl.coderstrust.model.Invoice;
 
 @Configuration
-@EnableConfigurationProperties({InFileDatabaseProperties.class, MongoDatabaseProperties.class})
-@PropertySource(factory = YamlPropertySourceFactory.class, value = {"classpath:in-file-database.yml", "classpath:mongo-database.yml"})
+@EnableConfigurationProperties({InFileDatabaseProperties.class, MongoDatabaseProperties.class, TieredDatabaseProperties.class, InvoiceCacheProperties.class, InvoiceExecutorProperties.class})
+@PropertySource(factory = YamlPropertySourceFactory.class, value = {"classpath:in-file-database.yml", "classpath:mongo-database.yml", "classpath:tiered-database.yml", "classpath:invoice-cache.yml", "classpath:invoice-executors.yml"})
 public class ApplicationConfiguration {
 
   @Autowired
@@ -27,8 +41,14 @@ public class ApplicationConfiguration {
   @Autowired
   private MongoDatabaseProperties mongoDatabaseProperties;
 
+  @Autowired
+  private InvoiceCacheProperties invoiceCacheProperties;
+
+  @Autowired
+  private InvoiceExecutorProperties invoiceExecutorProperties;
+
   @Bean
-  @ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "in-file")
+  @ConditionalOnExpression("'${pl.coderstrust.database}' == 'in-file' or '${pl.coderstrust.database}' == 'tiered'")
   public ObjectMapper getObjectMapper() {
     ObjectMapper mapper = new ObjectMapper();
     mapper.registerModule(new JavaTimeModule());
@@ -37,15 +57,89 @@ public class ApplicationConfiguration {
   }
 
   @Bean
-  @ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "in-file")
+  @ConditionalOnExpression("'${pl.coderstrust.database}' == 'in-file' or '${pl.coderstrust.database}' == 'tiered'")
   public FileHelper getFileHelper() {
     return new FileHelper(inFileDatabaseProperties.getDatabaseFilePath());
   }
 
+  @Bean
+  public Cache<String, Invoice> invoiceCache() {
+    return Caffeine.newBuilder()
+        .maximumSize(invoiceCacheProperties.getMaximumSize())
+        .expireAfterWrite(invoiceCacheProperties.getExpireAfterWrite())
+        .recordStats()
+        .build();
+  }
+
+  @Bean
+  public MeterBinder invoiceCacheMetrics(Cache<String, Invoice> invoiceCache) {
+    return new CaffeineCacheMetrics(invoiceCache, "invoices", Collections.emptyList());
+  }
+
+  @Bean
+  public ThreadPoolTaskExecutor invoiceDatabaseExecutor() {
+    return getBoundedExecutor("invoice-database-", invoiceExecutorProperties.getDatabase(), invoiceDatabaseExecutorQueueWaitMetrics());
+  }
+
+  @Bean
+  public ThreadPoolTaskExecutor invoicePdfExecutor() {
+    return getBoundedExecutor("invoice-pdf-", invoiceExecutorProperties.getPdf(), invoicePdfExecutorQueueWaitMetrics());
+  }
+
+  @Bean
+  public ThreadPoolTaskExecutor invoiceExportExecutor() {
+    return getBoundedExecutor("invoice-export-", invoiceExecutorProperties.getExport(), invoiceExportExecutorQueueWaitMetrics());
+  }
+
+  @Bean
+  public ExecutorQueueWaitMetrics invoiceDatabaseExecutorQueueWaitMetrics() {
+    return new ExecutorQueueWaitMetrics("invoice.database");
+  }
+
+  @Bean
+  public ExecutorQueueWaitMetrics invoicePdfExecutorQueueWaitMetrics() {
+    return new ExecutorQueueWaitMetrics("invoice.pdf");
+  }
+
+  @Bean
+  public ExecutorQueueWaitMetrics invoiceExportExecutorQueueWaitMetrics() {
+    return new ExecutorQueueWaitMetrics("invoice.export");
+  }
+
+  @Bean
+  public MeterBinder invoiceDatabaseExecutorMetrics(ThreadPoolTaskExecutor invoiceDatabaseExecutor) {
+    return new ExecutorServiceMetrics(invoiceDatabaseExecutor.getThreadPoolExecutor(), "invoice.database", Collections.emptyList());
+  }
+
+  @Bean
+  public MeterBinder invoicePdfExecutorMetrics(ThreadPoolTaskExecutor invoicePdfExecutor) {
+    return new ExecutorServiceMetrics(invoicePdfExecutor.getThreadPoolExecutor(), "invoice.pdf", Collections.emptyList());
+  }
+
+  @Bean
+  public MeterBinder invoiceExportExecutorMetrics(ThreadPoolTaskExecutor invoiceExportExecutor) {
+    return new ExecutorServiceMetrics(invoiceExportExecutor.getThreadPoolExecutor(), "invoice.export", Collections.emptyList());
+  }
+
+  private ThreadPoolTaskExecutor getBoundedExecutor(String threadNamePrefix, InvoiceExecutorProperties.Pool pool, ExecutorQueueWaitMetrics queueWaitMetrics) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setTaskDecorator(queueWaitMetrics);
+    executor.setThreadNamePrefix(threadNamePrefix);
+    executor.setCorePoolSize(pool.getPoolSize());
+    executor.setMaxPoolSize(pool.getPoolSize());
+    executor.setQueueCapacity(pool.getQueueCapacity());
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    return executor;
+  }
+
   @Bean
   @ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "mongodb")
   public MongoClient mongoClient() {
-    return new MongoClient(mongoDatabaseProperties.getHost(), mongoDatabaseProperties.getPort());
+    MongoClientOptions options = MongoClientOptions.builder()
+        .connectionsPerHost(mongoDatabaseProperties.getConnectionsPerHost())
+        .minConnectionsPerHost(mongoDatabaseProperties.getMinConnectionsPerHost())
+        .build();
+    return new MongoClient(new ServerAddress(mongoDatabaseProperties.getHost(), mongoDatabaseProperties.getPort()), options);
   }
 
   @Bean
@@ -61,4 +155,25 @@ public class ApplicationConfiguration {
     mongoTemplate.setWriteConcern(new WriteConcern(1));
     return mongoTemplate;
   }
+
+  @Bean
+  @ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "mongodb")
+  public com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient() {
+    MongoClientSettings settings = MongoClientSettings.builder()
+        .applyToClusterSettings(builder -> builder.hosts(Collections.singletonList(new ServerAddress(mongoDatabaseProperties.getHost(), mongoDatabaseProperties.getPort()))))
+        .applyToConnectionPoolSettings(builder -> builder
+            .maxSize(mongoDatabaseProperties.getConnectionsPerHost())
+            .minSize(mongoDatabaseProperties.getMinConnectionsPerHost())
+            .maxWaitQueueSize(mongoDatabaseProperties.getMaxWaitQueueSize()))
+        .build();
+    return MongoClients.create(settings);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "mongodb")
+  public ReactiveMongoTemplate getReactiveMongoTemplate(com.mongodb.reactivestreams.client.MongoClient reactiveMongoClient) {
+    ReactiveMongoTemplate mongoTemplate = new ReactiveMongoTemplate(reactiveMongoClient, mongoDatabaseProperties.getDatabaseName());
+    mongoTemplate.setWriteConcern(new WriteConcern(1));
+    return mongoTemplate;
+  }
 }
@@ -0,0 +1,36 @@
+package pl.coderstrust.configuration;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+public class ClasspathJCacheRegionFactory extends JCacheRegionFactory {
+
+  private static final String CLASSPATH_PREFIX = "classpath:";
+  private static final AtomicInteger SESSION_FACTORY_COUNTER = new AtomicInteger();
+
+  private final String cacheManagerName = String.format("session-factory-%d", SESSION_FACTORY_COUNTER.incrementAndGet());
+
+  @Override
+  protected URI getUri(Map properties) {
+    Object configurationUri = properties.get(ConfigSettings.CONFIG_URI);
+    if (configurationUri == null || !configurationUri.toString().startsWith(CLASSPATH_PREFIX)) {
+      return super.getUri(properties);
+    }
+    URL configuration = getClass().getClassLoader().getResource(configurationUri.toString().substring(CLASSPATH_PREFIX.length()));
+    if (configuration == null) {
+      throw new CacheException(String.format("Cache configuration was not found: %s", configurationUri));
+    }
+    try {
+      URI configurationLocation = configuration.toURI();
+      return new URI(configurationLocation.getScheme(), configurationLocation.getSchemeSpecificPart(), cacheManagerName);
+    } catch (URISyntaxException e) {
+      throw new CacheException(String.format("Encountered problems reading cache configuration: %s", configurationUri), e);
+    }
+  }
+}
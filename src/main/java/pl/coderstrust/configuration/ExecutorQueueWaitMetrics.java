@@ -0,0 +1,38 @@
+package pl.coderstrust.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.TimeUnit;
+import lombok.NonNull;
+import org.springframework.core.task.TaskDecorator;
+
+public class ExecutorQueueWaitMetrics implements MeterBinder, TaskDecorator {
+
+  private final String executorName;
+  private volatile Timer queueWaitTimer;
+
+  public ExecutorQueueWaitMetrics(@NonNull String executorName) {
+    this.executorName = executorName;
+  }
+
+  @Override
+  public void bindTo(@NonNull MeterRegistry registry) {
+    queueWaitTimer = Timer.builder("executor.queue.wait")
+        .tags("name", executorName)
+        .description("Time tasks spent waiting in the executor queue before being started")
+        .register(registry);
+  }
+
+  @Override
+  public Runnable decorate(@NonNull Runnable runnable) {
+    long submittedAt = System.nanoTime();
+    return () -> {
+      Timer timer = queueWaitTimer;
+      if (timer != null) {
+        timer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+      }
+      runnable.run();
+    };
+  }
+}
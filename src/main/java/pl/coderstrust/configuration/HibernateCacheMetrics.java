@@ -0,0 +1,64 @@
+package pl.coderstrust.configuration;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import javax.persistence.EntityManagerFactory;
+import lombok.NonNull;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "hibernate")
+@Component
+public class HibernateCacheMetrics implements MeterBinder {
+
+  private final Set<String> regions;
+  private final Statistics statistics;
+
+  @Autowired
+  public HibernateCacheMetrics(@NonNull EntityManagerFactory entityManagerFactory) {
+    SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    this.regions = sessionFactory.getCache().getCacheRegionNames();
+    this.statistics = sessionFactory.getStatistics();
+  }
+
+  @Override
+  public void bindTo(@NonNull MeterRegistry registry) {
+    for (String region : regions) {
+      if (statistics.getCacheRegionStatistics(region) == null) {
+        continue;
+      }
+      FunctionCounter.builder("hibernate.cache.region.requests", statistics, regionStatistic(region, CacheRegionStatistics::getHitCount))
+          .tags("region", region, "result", "hit")
+          .description("Number of entries found in the second-level cache region")
+          .register(registry);
+      FunctionCounter.builder("hibernate.cache.region.requests", statistics, regionStatistic(region, CacheRegionStatistics::getMissCount))
+          .tags("region", region, "result", "miss")
+          .description("Number of entries looked up in the second-level cache region but not found")
+          .register(registry);
+      FunctionCounter.builder("hibernate.cache.region.puts", statistics, regionStatistic(region, CacheRegionStatistics::getPutCount))
+          .tags("region", region)
+          .description("Number of entries put into the second-level cache region")
+          .register(registry);
+      Gauge.builder("hibernate.cache.region.size", statistics, regionStatistic(region, CacheRegionStatistics::getElementCountInMemory))
+          .tags("region", region)
+          .description("Number of entries held in memory by the second-level cache region")
+          .register(registry);
+    }
+  }
+
+  private static ToDoubleFunction<Statistics> regionStatistic(String region, ToLongFunction<CacheRegionStatistics> statistic) {
+    return sessionStatistics -> {
+      CacheRegionStatistics regionStatistics = sessionStatistics.getCacheRegionStatistics(region);
+      return regionStatistics == null ? 0 : statistic.applyAsLong(regionStatistics);
+    };
+  }
+}
@@ -0,0 +1,15 @@
+package pl.coderstrust.configuration;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("invoice-cache")
+public class InvoiceCacheProperties {
+
+  private long maximumSize = 10000;
+  private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
@@ -0,0 +1,37 @@
+package pl.coderstrust.configuration;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("invoice-executors")
+public class InvoiceExecutorProperties {
+
+  private Pool database = new Pool(16, 200, 0, Duration.ofSeconds(1));
+  private Pool pdf = new Pool(Runtime.getRuntime().availableProcessors(), 50, 2, Duration.ofSeconds(5));
+  private Pool export = new Pool(4, 16, 0, Duration.ofSeconds(5));
+  private Duration asyncRequestTimeout = Duration.ofMinutes(5);
+
+  @Getter
+  @Setter
+  public static class Pool {
+
+    private int poolSize;
+    private int queueCapacity;
+    private int maxRequestsPerClient;
+    private Duration retryAfter;
+
+    public Pool() {
+    }
+
+    Pool(int poolSize, int queueCapacity, int maxRequestsPerClient, Duration retryAfter) {
+      this.poolSize = poolSize;
+      this.queueCapacity = queueCapacity;
+      this.maxRequestsPerClient = maxRequestsPerClient;
+      this.retryAfter = retryAfter;
+    }
+  }
+}
@@ -13,4 +13,10 @@ public class MongoDatabaseProperties {
   private String collectionName;
   private String host;
   private int port;
+  private int connectionsPerHost;
+  private int minConnectionsPerHost;
+  private int maxWaitQueueSize = 5000;
+  private int batchSize = 1000;
+  private int cursorBatchSize = 500;
+  private boolean noCursorTimeout;
 }
@@ -1,13 +1,33 @@
 package pl.coderstrust.configuration;
 
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class MvcConfig implements WebMvcConfigurer {
 
+  private final ThreadPoolTaskExecutor invoiceExportExecutor;
+  private final InvoiceExecutorProperties executorProperties;
+
+  @Autowired
+  public MvcConfig(@NonNull @Qualifier("invoiceExportExecutor") ThreadPoolTaskExecutor invoiceExportExecutor, @NonNull InvoiceExecutorProperties executorProperties) {
+    this.invoiceExportExecutor = invoiceExportExecutor;
+    this.executorProperties = executorProperties;
+  }
+
   public void addViewControllers(ViewControllerRegistry registry) {
     registry.addViewController("/login").setViewName("login");
   }
+
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.setTaskExecutor(invoiceExportExecutor);
+    configurer.setDefaultTimeout(executorProperties.getAsyncRequestTimeout().toMillis());
+  }
 }
@@ -0,0 +1,29 @@
+package pl.coderstrust.configuration;
+
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+  public static final String STRATEGY = "pl.coderstrust.configuration.PooledSequenceGenerator";
+  public static final String ALLOCATION_SIZE = "pl.coderstrust.hibernate.id.allocation_size";
+
+  static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+  @Override
+  public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+    int allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE, serviceRegistry.getService(ConfigurationService.class).getSettings(), DEFAULT_ALLOCATION_SIZE);
+    if (allocationSize < 1) {
+      throw new MappingException(String.format("Identifier allocation size must be positive: %d", allocationSize));
+    }
+    params.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+    params.setProperty(OPT_PARAM, allocationSize == 1 ? StandardOptimizerDescriptor.NONE.getExternalName() : StandardOptimizerDescriptor.POOLED.getExternalName());
+    super.configure(type, params, serviceRegistry);
+  }
+}
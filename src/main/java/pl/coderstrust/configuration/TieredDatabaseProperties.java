@@ -0,0 +1,15 @@
+package pl.coderstrust.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import pl.coderstrust.database.invoice.HotTierEvictionPolicy;
+
+@Getter
+@Setter
+@ConfigurationProperties("tiered-database")
+public class TieredDatabaseProperties {
+
+  private long hotTierMaxBytes;
+  private HotTierEvictionPolicy evictionPolicy;
+}
@@ -0,0 +1,71 @@
+package pl.coderstrust.controller;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+@Slf4j
+class AdmissionControl {
+
+  private final Executor executor;
+  private final int maxRequestsPerClient;
+  private final Duration retryAfter;
+  private final Map<String, Integer> requestsInProgress = new ConcurrentHashMap<>();
+
+  AdmissionControl(@NonNull Executor executor, int maxRequestsPerClient, @NonNull Duration retryAfter) {
+    this.executor = executor;
+    this.maxRequestsPerClient = maxRequestsPerClient;
+    this.retryAfter = retryAfter;
+  }
+
+  CompletableFuture<ResponseEntity<?>> submit(@NonNull String client, @NonNull Supplier<ResponseEntity<?>> handler, @NonNull String operation) {
+    if (!tryAcquire(client)) {
+      log.warn(String.format("Rejected request of client: %s, too many of its requests are %s.", client, operation));
+      return CompletableFuture.completedFuture(getRetryLaterResponse(String.format("Too many requests %s, try again later.", operation), HttpStatus.TOO_MANY_REQUESTS));
+    }
+    try {
+      return CompletableFuture.supplyAsync(handler, executor).whenComplete((response, exception) -> release(client));
+    } catch (RejectedExecutionException e) {
+      release(client);
+      log.warn(String.format("Rejected request, too many requests are %s.", operation));
+      return CompletableFuture.completedFuture(getRetryLaterResponse(String.format("Server is busy %s, try again later.", operation), HttpStatus.SERVICE_UNAVAILABLE));
+    }
+  }
+
+  int getRequestsInProgress(String client) {
+    return requestsInProgress.getOrDefault(client, 0);
+  }
+
+  private boolean tryAcquire(String client) {
+    AtomicBoolean acquired = new AtomicBoolean();
+    requestsInProgress.compute(client, (key, requests) -> {
+      int current = requests == null ? 0 : requests;
+      if (maxRequestsPerClient > 0 && current >= maxRequestsPerClient) {
+        return requests;
+      }
+      acquired.set(true);
+      return current + 1;
+    });
+    return acquired.get();
+  }
+
+  private void release(String client) {
+    requestsInProgress.computeIfPresent(client, (key, requests) -> requests > 1 ? requests - 1 : null);
+  }
+
+  private ResponseEntity<?> getRetryLaterResponse(String message, HttpStatus status) {
+    HttpHeaders responseHeaders = new HttpHeaders();
+    responseHeaders.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter.getSeconds()));
+    return new ResponseEntity<>(new ErrorMessage(message), responseHeaders, status);
+  }
+}
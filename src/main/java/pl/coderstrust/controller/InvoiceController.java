@@ -1,17 +1,39 @@
 package pl.coderstrust.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.itextpdf.text.pdf.PdfBody;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import javax.servlet.http.HttpServletRequest;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -23,13 +45,27 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import pl.coderstrust.configuration.InvoiceExecutorProperties;
+import pl.coderstrust.database.invoice.InvoicePaging;
+import pl.coderstrust.model.BatchItemResult;
+import pl.coderstrust.model.DueDateTotals;
 import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceSummary;
+import pl.coderstrust.model.MonthlyVatTotals;
+import pl.coderstrust.model.SellerTotals;
 import pl.coderstrust.model.validators.InvoiceValidator;
 import pl.coderstrust.service.InvoicePdfService;
 import pl.coderstrust.service.InvoiceService;
+import pl.coderstrust.service.ServiceOperationException;
 
 @Slf4j
 @RestController
@@ -38,27 +74,69 @@ import pl.coderstrust.service.InvoiceService;
 @CrossOrigin
 public class InvoiceController {
 
+  private static final int DEFAULT_PAGE_SIZE = 20;
+  private static final int MAX_PAGE_SIZE = 1000;
+  private static final int MAX_BATCH_SIZE = 10000;
+  private static final String NEWLINE_DELIMITED_JSON = "application/x-ndjson";
+  private static final String INVOICE_STREAM_INTERCEPTOR_KEY = InvoiceController.class.getName() + ".invoiceStream";
+
   private final InvoiceService invoiceService;
 
   private final InvoicePdfService invoicePdfService;
 
+  private final ObjectMapper mapper;
+
+  private final AdmissionControl databaseAdmission;
+
+  private final AdmissionControl pdfAdmission;
+
   @Autowired
-  public InvoiceController(@NonNull InvoiceService invoiceService, @NonNull InvoicePdfService invoicePdfService) {
+  public InvoiceController(@NonNull InvoiceService invoiceService, @NonNull InvoicePdfService invoicePdfService, @NonNull ObjectMapper mapper,
+      @NonNull @Qualifier("invoiceDatabaseExecutor") Executor databaseExecutor, @NonNull @Qualifier("invoicePdfExecutor") Executor pdfExecutor,
+      @NonNull InvoiceExecutorProperties executorProperties) {
     this.invoiceService = invoiceService;
     this.invoicePdfService = invoicePdfService;
+    this.mapper = mapper;
+    this.databaseAdmission = getAdmissionControl(databaseExecutor, executorProperties.getDatabase());
+    this.pdfAdmission = getAdmissionControl(pdfExecutor, executorProperties.getPdf());
+  }
+
+  private static AdmissionControl getAdmissionControl(Executor executor, InvoiceExecutorProperties.Pool pool) {
+    return new AdmissionControl(executor, pool.getMaxRequestsPerClient(), pool.getRetryAfter());
   }
 
   @GetMapping
   @ApiOperation(
       value = "Get all invoices",
-      notes = "Get all invoices from database",
+      notes = "Get all invoices from database. When any of page, size or sort parameters is passed, a single page of invoices is returned. "
+          + "When from and to dates are passed, only invoices issued in that date range are returned. "
+          + "To stream all invoices as newline delimited JSON instead, pass Accept: application/x-ndjson header.",
       response = Invoice.class,
       responseContainer = "List")
   @ApiResponses(value = {
       @ApiResponse(code = 200, message = "OK", response = Invoice.class),
-      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
-  public ResponseEntity<?> getAll() {
+      @ApiResponse(code = 400, message = "Passed paging parameters or date range are invalid.", response = ErrorMessage.class),
+      @ApiResponse(code = 429, message = "Too many invoice listings of client are in progress.", response = ErrorMessage.class),
+      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class),
+      @ApiResponse(code = 503, message = "Too many invoice listings are in progress.", response = ErrorMessage.class)})
+  public CompletableFuture<ResponseEntity<?>> getAll(
+      @ApiParam(value = "Number of page to be returned, starting from 0.") @RequestParam(required = false) Integer page,
+      @ApiParam(value = "Number of invoices on page.") @RequestParam(required = false) Integer size,
+      @ApiParam(value = "Sorting criteria in format: property(,asc|desc).") @RequestParam(required = false) String[] sort,
+      @ApiParam(value = "First issue date of invoices, inclusive.") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @ApiParam(value = "Last issue date of invoices, inclusive.") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      HttpServletRequest request) {
+    return databaseAdmission.submit(getClient(request), () -> getInvoices(page, size, sort, from, to), "getting invoices");
+  }
+
+  private ResponseEntity<?> getInvoices(Integer page, Integer size, String[] sort, LocalDate from, LocalDate to) {
     try {
+      if (from != null || to != null) {
+        return getIssuedBetween(from, to, page != null || size != null || sort != null);
+      }
+      if (page != null || size != null || sort != null) {
+        return getPage(page == null ? 0 : page, size == null ? DEFAULT_PAGE_SIZE : size, sort == null ? new String[0] : sort);
+      }
       log.info("Getting all invoices");
       log.debug(String.format("Getting all invoices"));
 
@@ -69,23 +147,317 @@ public class InvoiceController {
     }
   }
 
+  private ResponseEntity<?> getIssuedBetween(LocalDate from, LocalDate to, boolean paged) throws ServiceOperationException {
+    List<String> resultOfValidation = new ArrayList<>();
+    if (from == null || to == null) {
+      resultOfValidation.add("Both from and to dates must be passed");
+    } else if (from.isAfter(to)) {
+      resultOfValidation.add("The end date must be newer or equal to start date");
+    }
+    if (paged) {
+      resultOfValidation.add("Paging parameters cannot be combined with date range");
+    }
+    if (resultOfValidation.size() > 0) {
+      log.debug(String.format("Date range validation failed: %s", resultOfValidation));
+      return new ResponseEntity<>(new ErrorMessage("Passed date range is invalid.", resultOfValidation), HttpStatus.BAD_REQUEST);
+    }
+    log.info("Getting invoices issued in given date range");
+    return new ResponseEntity<>(invoiceService.getAllInvoicesIssuedInGivenDateRange(from, to), HttpStatus.OK);
+  }
+
+  private ResponseEntity<?> getPage(int page, int size, String[] sort) throws ServiceOperationException {
+    log.info("Getting page of invoices");
+    List<String> resultOfValidation = new ArrayList<>();
+    PageRequest pageRequest = getPageRequest(page, size, sort, resultOfValidation);
+    if (resultOfValidation.size() > 0) {
+      log.debug(String.format("Paging parameters validation failed: %s", resultOfValidation));
+      return new ResponseEntity<>(new ErrorMessage("Passed paging parameters are invalid.", resultOfValidation), HttpStatus.BAD_REQUEST);
+    }
+
+    log.debug(String.format("Getting page of invoices: %s", pageRequest));
+    return new ResponseEntity<>(invoiceService.getInvoices(pageRequest), HttpStatus.OK);
+  }
+
+  @GetMapping("/summaries")
+  @ApiOperation(
+      value = "Get summaries of all invoices",
+      notes = "Get id, type, dates, seller and buyer names, totals and comments of invoices, without entries and company details. "
+          + "When any of page, size or sort parameters is passed, a single page of summaries is returned. "
+          + "When seller or buyer name is passed, all summaries of invoices of that seller or buyer are returned.",
+      response = InvoiceSummary.class,
+      responseContainer = "List")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "OK", response = InvoiceSummary.class),
+      @ApiResponse(code = 400, message = "Passed paging or filtering parameters are invalid.", response = ErrorMessage.class),
+      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
+  public ResponseEntity<?> getSummaries(
+      @ApiParam(value = "Number of page to be returned, starting from 0.") @RequestParam(required = false) Integer page,
+      @ApiParam(value = "Number of invoice summaries on page.") @RequestParam(required = false) Integer size,
+      @ApiParam(value = "Sorting criteria in format: property(,asc|desc).") @RequestParam(required = false) String[] sort,
+      @ApiParam(value = "Name of the seller.") @RequestParam(required = false) String sellerName,
+      @ApiParam(value = "Name of the buyer.") @RequestParam(required = false) String buyerName) {
+    try {
+      if (sellerName != null || buyerName != null) {
+        return getSummariesByName(sellerName, buyerName, page != null || size != null || sort != null);
+      }
+      if (page == null && size == null && sort == null) {
+        log.info("Getting summaries of all invoices");
+        return new ResponseEntity<>(invoiceService.getInvoiceSummaries(Pageable.unpaged()).getContent(), HttpStatus.OK);
+      }
+      log.info("Getting page of invoice summaries");
+      List<String> resultOfValidation = new ArrayList<>();
+      PageRequest pageRequest = getPageRequest(page == null ? 0 : page, size == null ? DEFAULT_PAGE_SIZE : size, sort == null ? new String[0] : sort, resultOfValidation);
+      if (resultOfValidation.size() > 0) {
+        log.debug(String.format("Paging parameters validation failed: %s", resultOfValidation));
+        return new ResponseEntity<>(new ErrorMessage("Passed paging parameters are invalid.", resultOfValidation), HttpStatus.BAD_REQUEST);
+      }
+      log.debug(String.format("Getting page of invoice summaries: %s", pageRequest));
+      return new ResponseEntity<>(invoiceService.getInvoiceSummaries(pageRequest), HttpStatus.OK);
+    } catch (Exception e) {
+      log.error(String.format("Internal server error while getting invoice summaries."));
+      return new ResponseEntity<>(new ErrorMessage("Internal server error while getting invoice summaries."), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  private ResponseEntity<?> getSummariesByName(String sellerName, String buyerName, boolean paged) throws ServiceOperationException {
+    List<String> resultOfValidation = new ArrayList<>();
+    if (sellerName != null && buyerName != null) {
+      resultOfValidation.add("Only one of seller name and buyer name can be passed");
+    }
+    if (paged) {
+      resultOfValidation.add("Paging parameters cannot be combined with seller or buyer name");
+    }
+    if (resultOfValidation.size() > 0) {
+      log.debug(String.format("Summary filter validation failed: %s", resultOfValidation));
+      return new ResponseEntity<>(new ErrorMessage("Passed filtering parameters are invalid.", resultOfValidation), HttpStatus.BAD_REQUEST);
+    }
+    if (sellerName != null) {
+      log.info("Getting invoice summaries by seller name");
+      return new ResponseEntity<>(invoiceService.getInvoiceSummariesBySellerName(sellerName), HttpStatus.OK);
+    }
+    log.info("Getting invoice summaries by buyer name");
+    return new ResponseEntity<>(invoiceService.getInvoiceSummariesByBuyerName(buyerName), HttpStatus.OK);
+  }
+
+  private PageRequest getPageRequest(int page, int size, String[] sort, List<String> resultOfValidation) {
+    if (page < 0) {
+      resultOfValidation.add("Page number cannot be negative");
+    }
+    if (size < 1 || size > MAX_PAGE_SIZE) {
+      resultOfValidation.add(String.format("Page size must be between 1 and %d", MAX_PAGE_SIZE));
+    }
+    List<Sort.Order> orders = new ArrayList<>();
+    List<String> properties = new ArrayList<>();
+    for (String token : String.join(",", sort).split(",")) {
+      Optional<Sort.Direction> direction = Sort.Direction.fromOptionalString(token);
+      if (direction.isPresent()) {
+        properties.forEach(property -> orders.add(new Sort.Order(direction.get(), property)));
+        properties.clear();
+      } else if (InvoicePaging.SORTABLE_PROPERTIES.contains(token)) {
+        properties.add(token);
+      } else if (!token.isEmpty()) {
+        resultOfValidation.add(String.format("Invoices cannot be sorted by property: %s", token));
+      }
+    }
+    properties.forEach(property -> orders.add(Sort.Order.asc(property)));
+    if (!orders.isEmpty() && (long) (page + 1) * size > InvoicePaging.MAX_SORTED_PAGE_WINDOW) {
+      resultOfValidation.add(String.format("Sorted pages cannot reach beyond the first %d invoices", InvoicePaging.MAX_SORTED_PAGE_WINDOW));
+    }
+    return resultOfValidation.size() > 0 ? null : PageRequest.of(page, size, Sort.by(orders));
+  }
+
+  @GetMapping(produces = NEWLINE_DELIMITED_JSON)
+  @ApiOperation(
+      value = "Stream all invoices",
+      notes = "Get all invoices from database as newline delimited JSON, selected with Accept: application/x-ndjson header. "
+          + "Each invoice is written on its own line as soon as it is read from database, without loading all of them into memory.",
+      response = Invoice.class,
+      responseContainer = "List")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "OK", response = Invoice.class),
+      @ApiResponse(code = 400, message = "Paging parameters or date range were passed, streaming always returns all invoices.", response = ErrorMessage.class),
+      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
+  public ResponseEntity<StreamingResponseBody> stream(
+      @ApiParam(value = "Not supported when streaming.") @RequestParam(required = false) Integer page,
+      @ApiParam(value = "Not supported when streaming.") @RequestParam(required = false) Integer size,
+      @ApiParam(value = "Not supported when streaming.") @RequestParam(required = false) String[] sort,
+      @ApiParam(value = "Not supported when streaming.") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @ApiParam(value = "Not supported when streaming.") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      HttpServletRequest request) {
+    if (page != null || size != null || sort != null || from != null || to != null) {
+      log.debug("Paging parameters or date range passed to invoice streaming");
+      ErrorMessage errorMessage = new ErrorMessage("Passed parameters are invalid.",
+          Collections.singletonList("Paging parameters and date range cannot be combined with streaming all invoices"));
+      return new ResponseEntity<>(outputStream -> mapper.writeValue(outputStream, errorMessage), getJsonContentTypeHeaders(), HttpStatus.BAD_REQUEST);
+    }
+    log.info("Streaming all invoices");
+    return writeAllInvoices(MediaType.parseMediaType(NEWLINE_DELIMITED_JSON), false, "streaming", request);
+  }
+
+  @GetMapping(value = "/export", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+  @ApiOperation(
+      value = "Export all invoices",
+      notes = "Get all invoices from database. Invoices are written to response one by one as they are read from database, without loading all of them into memory.",
+      response = Invoice.class,
+      responseContainer = "List")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "OK", response = Invoice.class),
+      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
+  public ResponseEntity<StreamingResponseBody> export(HttpServletRequest request) {
+    log.info("Exporting all invoices");
+    return writeAllInvoices(MediaType.APPLICATION_JSON_UTF8, true, "exporting", request);
+  }
+
+  private ResponseEntity<StreamingResponseBody> writeAllInvoices(MediaType contentType, boolean asArray, String operation, HttpServletRequest request) {
+    try {
+      Stream<Invoice> invoices = invoiceService.streamAllInvoices();
+      WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(INVOICE_STREAM_INTERCEPTOR_KEY, new CallableProcessingInterceptor() {
+        @Override
+        public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+          invoices.close();
+        }
+      });
+      StreamingResponseBody responseBody = outputStream -> {
+        try (Stream<Invoice> invoicesToWrite = invoices; JsonGenerator generator = mapper.getFactory().createGenerator(outputStream)) {
+          generator.setRootValueSeparator(null);
+          if (asArray) {
+            generator.writeStartArray();
+          }
+          Iterator<Invoice> iterator = invoicesToWrite.iterator();
+          boolean first = true;
+          while (iterator.hasNext()) {
+            generator.writeObject(iterator.next());
+            if (!asArray) {
+              generator.writeRaw('\n');
+            }
+            if (first) {
+              generator.flush();
+              first = false;
+            }
+          }
+          if (asArray) {
+            generator.writeEndArray();
+          }
+        } catch (RuntimeException e) {
+          log.error(String.format("Error while %s invoices.", operation), e);
+          throw e;
+        }
+      };
+      HttpHeaders responseHeaders = new HttpHeaders();
+      responseHeaders.setContentType(contentType);
+      return new ResponseEntity<>(responseBody, responseHeaders, HttpStatus.OK);
+    } catch (Exception e) {
+      log.error(String.format("Internal server error while %s invoices.", operation));
+      ErrorMessage errorMessage = new ErrorMessage(String.format("Internal server error while %s invoices.", operation));
+      return new ResponseEntity<>(outputStream -> mapper.writeValue(outputStream, errorMessage), getJsonContentTypeHeaders(), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  private HttpHeaders getJsonContentTypeHeaders() {
+    HttpHeaders responseHeaders = new HttpHeaders();
+    responseHeaders.setContentType(MediaType.APPLICATION_JSON_UTF8);
+    return responseHeaders;
+  }
+
+  @GetMapping("/reports/sellers")
+  @ApiOperation(
+      value = "Get invoice totals by seller",
+      notes = "Get number of invoices and sums of their net and gross values for each seller, for invoices issued in given date range.",
+      response = SellerTotals.class,
+      responseContainer = "List")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "OK", response = SellerTotals.class),
+      @ApiResponse(code = 400, message = "Passed date range is invalid.", response = ErrorMessage.class),
+      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
+  public ResponseEntity<?> getSellerTotals(
+      @ApiParam(value = "First issue date of invoices, inclusive.", required = true) @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @ApiParam(value = "Last issue date of invoices, inclusive.", required = true) @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    if (from.isAfter(to)) {
+      log.debug(String.format("Invalid date range: %s - %s", from, to));
+      return new ResponseEntity<>(new ErrorMessage("The end date must be newer or equal to start date"), HttpStatus.BAD_REQUEST);
+    }
+    try {
+      log.info("Getting invoice totals by seller");
+      return new ResponseEntity<>(invoiceService.getSellerTotals(from, to), HttpStatus.OK);
+    } catch (Exception e) {
+      log.error(String.format("Internal server error while getting invoice totals by seller."));
+      return new ResponseEntity<>(new ErrorMessage("Internal server error while getting invoice totals by seller."), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  @GetMapping("/reports/vat")
+  @ApiOperation(
+      value = "Get invoice tax totals by month",
+      notes = "Get number of invoices and sums of their net, gross and tax values for each month, for invoices issued in given date range.",
+      response = MonthlyVatTotals.class,
+      responseContainer = "List")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "OK", response = MonthlyVatTotals.class),
+      @ApiResponse(code = 400, message = "Passed date range is invalid.", response = ErrorMessage.class),
+      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
+  public ResponseEntity<?> getMonthlyVatTotals(
+      @ApiParam(value = "First issue date of invoices, inclusive.", required = true) @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @ApiParam(value = "Last issue date of invoices, inclusive.", required = true) @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    if (from.isAfter(to)) {
+      log.debug(String.format("Invalid date range: %s - %s", from, to));
+      return new ResponseEntity<>(new ErrorMessage("The end date must be newer or equal to start date"), HttpStatus.BAD_REQUEST);
+    }
+    try {
+      log.info("Getting invoice tax totals by month");
+      return new ResponseEntity<>(invoiceService.getMonthlyVatTotals(from, to), HttpStatus.OK);
+    } catch (Exception e) {
+      log.error(String.format("Internal server error while getting invoice tax totals by month."));
+      return new ResponseEntity<>(new ErrorMessage("Internal server error while getting invoice tax totals by month."), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  @GetMapping("/reports/outstanding")
+  @ApiOperation(
+      value = "Get outstanding invoice totals by due date",
+      notes = "Get number of invoices and sum of their gross values for each due date, for invoices due on or after given date.",
+      response = DueDateTotals.class,
+      responseContainer = "List")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "OK", response = DueDateTotals.class),
+      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
+  public ResponseEntity<?> getOutstandingTotals(
+      @ApiParam(value = "First due date of invoices, inclusive. Defaults to current date.") @RequestParam(value = "asOf", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+    LocalDate asOfDate = asOf == null ? LocalDate.now() : asOf;
+    try {
+      log.info("Getting outstanding invoice totals by due date");
+      return new ResponseEntity<>(invoiceService.getOutstandingTotals(asOfDate), HttpStatus.OK);
+    } catch (Exception e) {
+      log.error(String.format("Internal server error while getting outstanding invoice totals."));
+      return new ResponseEntity<>(new ErrorMessage("Internal server error while getting outstanding invoice totals."), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+  }
+
   @GetMapping("/{invoiceId}")
   @ApiOperation(
       value = "Get invoice by id.",
-      notes = "Get invoice from database using it's id.",
+      notes = "Get invoice from database using it's id. Response carries ETag header with version of the invoice and digests of its seller and buyer details. "
+          + "When it matches one of tags passed in If-None-Match header, 304 is returned without body.",
       response = Invoice.class)
   @ApiResponses(value = {
       @ApiResponse(code = 200, message = "OK", response = Invoice.class),
+      @ApiResponse(code = 304, message = "Invoice was not modified."),
       @ApiResponse(code = 404, message = "Invoice not found for passed id.", response = ErrorMessage.class),
       @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
-  public ResponseEntity<?> getById(@ApiParam(value = "ID of Invoice that need to be found.", required = true) @PathVariable("invoiceId") String invoiceId) {
+  public ResponseEntity<?> getById(
+      @ApiParam(value = "ID of Invoice that need to be found.", required = true) @PathVariable("invoiceId") String invoiceId,
+      @ApiParam(value = "Entity tags of invoice versions already held by client.") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) List<String> ifNoneMatch) {
     try {
       log.info("Getting invoice");
       Optional<Invoice> optionalInvoice = invoiceService.getInvoice(invoiceId);
 
       if (optionalInvoice.isPresent()) {
+        String entityTag = InvoiceEntityTags.of(optionalInvoice.get());
+        if (InvoiceEntityTags.matchesAny(ifNoneMatch, entityTag)) {
+          log.debug(String.format("Invoice with id: %s not modified", invoiceId));
+          return new ResponseEntity<>(getRevalidationHeaders(entityTag), HttpStatus.NOT_MODIFIED);
+        }
         log.debug(String.format("Getting invoice with id: %s", invoiceId));
-        return new ResponseEntity<>(optionalInvoice.get(), HttpStatus.OK);
+        return new ResponseEntity<>(optionalInvoice.get(), getRevalidationHeaders(entityTag), HttpStatus.OK);
       }
 
       log.debug(String.format("Invoice not found for passed id: %s", invoiceId));
@@ -132,16 +504,19 @@ public class InvoiceController {
   @PutMapping("/{invoiceId}")
   @ApiOperation(
       value = "Update invoice.",
-      notes = "Update existing invoice in database.",
+      notes = "Update existing invoice in database. When If-Match header is passed, invoice is updated only if its current ETag matches, "
+          + "and the version from the tag is used to detect concurrent modifications.",
       response = Invoice.class)
   @ApiResponses(value = {
       @ApiResponse(code = 200, message = "OK", response = Invoice.class),
       @ApiResponse(code = 400, message = "Passed data is invalid.", response = ErrorMessage.class),
       @ApiResponse(code = 404, message = "Invoice not found for passed id.", response = ErrorMessage.class),
+      @ApiResponse(code = 412, message = "Invoice was modified since passed version.", response = ErrorMessage.class),
       @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
   public ResponseEntity<?> update(
       @ApiParam(value = "Id of invoice to be updated.", required = true) @PathVariable String invoiceId,
-      @ApiParam(value = "Invoice to be updated.", required = true) @RequestBody Invoice invoice) {
+      @ApiParam(value = "Invoice to be updated.", required = true) @RequestBody Invoice invoice,
+      @ApiParam(value = "Entity tags of invoice versions the update is based on.") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) List<String> ifMatch) {
     try {
       log.info("Updating new invoice");
       log.debug(String.format("Updating new invoice: %s", invoice));
@@ -157,9 +532,25 @@ public class InvoiceController {
         return new ResponseEntity<>(new ErrorMessage("Passed data is invalid. Please verify invoice id."), HttpStatus.BAD_REQUEST);
       }
 
-      if (!invoiceService.invoiceExists(invoiceId)) {
-        log.debug("Invoice not found.");
-        return new ResponseEntity<>(new ErrorMessage("Invoice not found."), HttpStatus.NOT_FOUND);
+      if (ifMatch == null) {
+        if (!invoiceService.invoiceExists(invoiceId)) {
+          log.debug("Invoice not found.");
+          return new ResponseEntity<>(new ErrorMessage("Invoice not found."), HttpStatus.NOT_FOUND);
+        }
+      } else {
+        Optional<Invoice> currentInvoice = invoiceService.getInvoice(invoiceId);
+        if (!currentInvoice.isPresent()) {
+          log.debug("Invoice not found.");
+          return new ResponseEntity<>(new ErrorMessage("Invoice not found."), HttpStatus.NOT_FOUND);
+        }
+        if (!InvoiceEntityTags.matchesAnyStrongly(ifMatch, InvoiceEntityTags.of(currentInvoice.get()))) {
+          log.debug(String.format("Invoice with id: %s was modified since versions: %s", invoiceId, ifMatch));
+          return new ResponseEntity<>(new ErrorMessage("Invoice was modified since passed version."), HttpStatus.PRECONDITION_FAILED);
+        }
+        Long matchedVersion = InvoiceEntityTags.toVersion(ifMatch);
+        if (matchedVersion != null) {
+          invoice.setVersion(matchedVersion);
+        }
       }
 
       log.debug(String.format("Invoice successfully updated: %s", invoice));
@@ -183,49 +574,259 @@ public class InvoiceController {
   public ResponseEntity<?> delete(@ApiParam(value = "Id of invoice to be deleted.", required = true) @PathVariable("invoiceId") String invoiceId) {
     try {
       log.info("Deleting invoice");
-      Optional<Invoice> optionalInvoice = invoiceService.getInvoice(invoiceId);
+      log.debug(String.format("Deleting invoice with id: %s", invoiceId));
+      Optional<Invoice> removedInvoice = invoiceService.removeInvoice(invoiceId);
 
-      if (!optionalInvoice.isPresent()) {
+      if (!removedInvoice.isPresent()) {
         log.debug("Invoice not found.");
         return new ResponseEntity<>(new ErrorMessage("Invoice not found."), HttpStatus.NOT_FOUND);
       }
 
-      log.debug(String.format("Deleting invoice with id: %s", invoiceId));
-      invoiceService.deleteInvoice(invoiceId);
-      return new ResponseEntity<>(optionalInvoice.get(), HttpStatus.OK);
+      return new ResponseEntity<>(removedInvoice.get(), HttpStatus.OK);
     } catch (Exception e) {
       log.error(String.format("Internal server error while deleting specified invoice."));
       return new ResponseEntity<>(new ErrorMessage("Internal server error while deleting specified invoice."), HttpStatus.INTERNAL_SERVER_ERROR);
     }
   }
 
+  @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, NEWLINE_DELIMITED_JSON})
+  @ApiOperation(
+      value = "Add batch of invoices.",
+      notes = "Add many invoices to database in a single request. Invoices are passed as JSON array or newline delimited JSON and validated one by one. "
+          + "Valid invoices are saved together and result of each invoice is returned at its position in the batch.",
+      response = BatchItemResult.class,
+      responseContainer = "List")
+  @ApiResponses(value = {
+      @ApiResponse(code = 201, message = "Created", response = BatchItemResult.class),
+      @ApiResponse(code = 207, message = "Some of the invoices were not saved.", response = BatchItemResult.class),
+      @ApiResponse(code = 400, message = "Passed batch is invalid.", response = ErrorMessage.class),
+      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
+  public ResponseEntity<?> addBatch(@ApiParam(value = "Invoices need to be added to database.", required = true) InputStream batch) {
+    try {
+      log.info("Adding batch of invoices");
+      List<Invoice> invoices = readBatch(batch, Invoice.class);
+      List<String> resultOfValidation = validateBatchSize(invoices.size());
+      if (resultOfValidation.size() > 0) {
+        log.debug(String.format("Batch validation failed: %s", resultOfValidation));
+        return new ResponseEntity<>(new ErrorMessage("Passed batch is invalid.", resultOfValidation), HttpStatus.BAD_REQUEST);
+      }
+
+      List<BatchItemResult> results = new ArrayList<>();
+      List<Invoice> validInvoices = new ArrayList<>();
+      List<Integer> positions = new ArrayList<>();
+      for (int index = 0; index < invoices.size(); index++) {
+        Invoice invoice = invoices.get(index);
+        List<String> resultOfInvoiceValidation = InvoiceValidator.validateInvoice(invoice, false);
+        if (resultOfInvoiceValidation.size() > 0) {
+          results.add(BatchItemResult.failed(index, invoice == null ? null : invoice.getId(), resultOfInvoiceValidation));
+        } else {
+          validInvoices.add(invoice);
+          positions.add(index);
+        }
+      }
+      if (validInvoices.size() > 0) {
+        results.addAll(atPositions(invoiceService.addInvoices(validInvoices), positions));
+      }
+      return getBatchResponse(results, HttpStatus.CREATED);
+    } catch (JsonProcessingException e) {
+      log.debug(String.format("Batch could not be read: %s", e.getOriginalMessage()));
+      return new ResponseEntity<>(new ErrorMessage("Passed batch is invalid.", Collections.singletonList(e.getOriginalMessage())), HttpStatus.BAD_REQUEST);
+    } catch (Exception e) {
+      log.error(String.format("Internal server error while saving batch of invoices."));
+      return new ResponseEntity<>(new ErrorMessage("Internal server error while saving batch of invoices."), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  @PutMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, NEWLINE_DELIMITED_JSON})
+  @ApiOperation(
+      value = "Update batch of invoices.",
+      notes = "Update many existing invoices in database in a single request. Invoices are passed as JSON array or newline delimited JSON and validated one by one. "
+          + "Valid invoices are saved together and result of each invoice is returned at its position in the batch.",
+      response = BatchItemResult.class,
+      responseContainer = "List")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "OK", response = BatchItemResult.class),
+      @ApiResponse(code = 207, message = "Some of the invoices were not updated.", response = BatchItemResult.class),
+      @ApiResponse(code = 400, message = "Passed batch is invalid.", response = ErrorMessage.class),
+      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
+  public ResponseEntity<?> updateBatch(@ApiParam(value = "Invoices to be updated.", required = true) InputStream batch) {
+    try {
+      log.info("Updating batch of invoices");
+      List<Invoice> invoices = readBatch(batch, Invoice.class);
+      List<String> resultOfValidation = validateBatchSize(invoices.size());
+      if (resultOfValidation.size() > 0) {
+        log.debug(String.format("Batch validation failed: %s", resultOfValidation));
+        return new ResponseEntity<>(new ErrorMessage("Passed batch is invalid.", resultOfValidation), HttpStatus.BAD_REQUEST);
+      }
+
+      List<BatchItemResult> results = new ArrayList<>();
+      List<Invoice> validInvoices = new ArrayList<>();
+      List<Integer> positions = new ArrayList<>();
+      for (int index = 0; index < invoices.size(); index++) {
+        Invoice invoice = invoices.get(index);
+        List<String> resultOfInvoiceValidation = InvoiceValidator.validateInvoice(invoice, true);
+        if (resultOfInvoiceValidation.size() > 0) {
+          results.add(BatchItemResult.failed(index, invoice == null ? null : invoice.getId(), resultOfInvoiceValidation));
+        } else {
+          validInvoices.add(invoice);
+          positions.add(index);
+        }
+      }
+      if (validInvoices.size() > 0) {
+        results.addAll(atPositions(invoiceService.updateInvoices(validInvoices), positions));
+      }
+      return getBatchResponse(results, HttpStatus.OK);
+    } catch (JsonProcessingException e) {
+      log.debug(String.format("Batch could not be read: %s", e.getOriginalMessage()));
+      return new ResponseEntity<>(new ErrorMessage("Passed batch is invalid.", Collections.singletonList(e.getOriginalMessage())), HttpStatus.BAD_REQUEST);
+    } catch (Exception e) {
+      log.error(String.format("Internal server error while updating batch of invoices."));
+      return new ResponseEntity<>(new ErrorMessage("Internal server error while updating batch of invoices."), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  @DeleteMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, NEWLINE_DELIMITED_JSON})
+  @ApiOperation(
+      value = "Delete batch of invoices.",
+      notes = "Delete many invoices from database in a single request. Ids of invoices are passed as JSON array or newline delimited JSON. "
+          + "Result of each id is returned at its position in the batch.",
+      response = BatchItemResult.class,
+      responseContainer = "List")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "OK", response = BatchItemResult.class),
+      @ApiResponse(code = 207, message = "Some of the invoices were not deleted.", response = BatchItemResult.class),
+      @ApiResponse(code = 400, message = "Passed batch is invalid.", response = ErrorMessage.class),
+      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
+  public ResponseEntity<?> deleteBatch(@ApiParam(value = "Ids of invoices to be deleted.", required = true) InputStream batch) {
+    try {
+      log.info("Deleting batch of invoices");
+      List<String> invoiceIds = readBatch(batch, String.class);
+      List<String> resultOfValidation = validateBatchSize(invoiceIds.size());
+      if (resultOfValidation.size() > 0) {
+        log.debug(String.format("Batch validation failed: %s", resultOfValidation));
+        return new ResponseEntity<>(new ErrorMessage("Passed batch is invalid.", resultOfValidation), HttpStatus.BAD_REQUEST);
+      }
+
+      List<BatchItemResult> results = new ArrayList<>();
+      List<String> validIds = new ArrayList<>();
+      List<Integer> positions = new ArrayList<>();
+      for (int index = 0; index < invoiceIds.size(); index++) {
+        String invoiceId = invoiceIds.get(index);
+        if (invoiceId == null || invoiceId.trim().isEmpty()) {
+          results.add(BatchItemResult.failed(index, invoiceId, Collections.singletonList("Id cannot be empty")));
+        } else {
+          validIds.add(invoiceId);
+          positions.add(index);
+        }
+      }
+      if (validIds.size() > 0) {
+        results.addAll(atPositions(invoiceService.deleteInvoices(validIds), positions));
+      }
+      return getBatchResponse(results, HttpStatus.OK);
+    } catch (JsonProcessingException e) {
+      log.debug(String.format("Batch could not be read: %s", e.getOriginalMessage()));
+      return new ResponseEntity<>(new ErrorMessage("Passed batch is invalid.", Collections.singletonList(e.getOriginalMessage())), HttpStatus.BAD_REQUEST);
+    } catch (Exception e) {
+      log.error(String.format("Internal server error while deleting batch of invoices."));
+      return new ResponseEntity<>(new ErrorMessage("Internal server error while deleting batch of invoices."), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  private <T> List<T> readBatch(InputStream batch, Class<T> itemType) throws IOException {
+    List<T> items = new ArrayList<>();
+    try (MappingIterator<T> iterator = mapper.readerFor(itemType).readValues(batch)) {
+      while (items.size() <= MAX_BATCH_SIZE && iterator.hasNextValue()) {
+        items.add(iterator.nextValue());
+      }
+    }
+    return items;
+  }
+
+  private List<String> validateBatchSize(int size) {
+    List<String> resultOfValidation = new ArrayList<>();
+    if (size == 0) {
+      resultOfValidation.add("Batch must contain at least one item");
+    }
+    if (size > MAX_BATCH_SIZE) {
+      resultOfValidation.add(String.format("Batch cannot contain more than %d items", MAX_BATCH_SIZE));
+    }
+    return resultOfValidation;
+  }
+
+  private List<BatchItemResult> atPositions(List<BatchItemResult> results, List<Integer> positions) {
+    results.forEach(result -> result.setIndex(positions.get(result.getIndex())));
+    return results;
+  }
+
+  private ResponseEntity<List<BatchItemResult>> getBatchResponse(List<BatchItemResult> results, HttpStatus successStatus) {
+    results.sort(Comparator.comparingInt(BatchItemResult::getIndex));
+    boolean allSucceeded = results.stream().allMatch(BatchItemResult::succeeded);
+    log.debug(String.format("Batch processed. Failed items: %d", results.stream().filter(result -> !result.succeeded()).count()));
+    return new ResponseEntity<>(results, allSucceeded ? successStatus : HttpStatus.MULTI_STATUS);
+  }
+
   @GetMapping("/pdf/{invoiceId}")
   @ApiOperation(
       value = "Get pdf.",
-      notes = "Get pdf of selected invoice.",
+      notes = "Get pdf of selected invoice. Response carries ETag header with version of the invoice and digests of its seller and buyer details. "
+          + "When it matches one of tags passed in If-None-Match header, 304 is returned without rendering pdf.",
       response = PdfBody.class)
   @ApiResponses(value = {
       @ApiResponse(code = 200, message = "OK", response = byte[].class),
+      @ApiResponse(code = 304, message = "Invoice was not modified."),
       @ApiResponse(code = 404, message = "Invoice not found for passed id.", response = ErrorMessage.class),
-      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
-  public ResponseEntity<?> getPdf(@PathVariable("invoiceId") String invoiceId) throws Exception {
+      @ApiResponse(code = 429, message = "Too many pdfs of client are being generated.", response = ErrorMessage.class),
+      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class),
+      @ApiResponse(code = 503, message = "Too many pdfs are being generated.", response = ErrorMessage.class)})
+  public CompletableFuture<ResponseEntity<?>> getPdf(
+      @PathVariable("invoiceId") String invoiceId,
+      @ApiParam(value = "Entity tags of invoice versions already held by client.") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) List<String> ifNoneMatch,
+      HttpServletRequest request) {
     try {
       log.info("Generating invoice pdf");
       Optional<Invoice> optionalInvoice = invoiceService.getInvoice(invoiceId);
 
       if (!optionalInvoice.isPresent()) {
         log.debug("Invoice not found.");
-        return new ResponseEntity<>(new ErrorMessage("Invoice not found."), HttpStatus.NOT_FOUND);
+        return CompletableFuture.completedFuture(new ResponseEntity<>(new ErrorMessage("Invoice not found."), HttpStatus.NOT_FOUND));
       }
 
-      HttpHeaders responseHeaders = new HttpHeaders();
+      String entityTag = InvoiceEntityTags.of(optionalInvoice.get());
+      HttpHeaders responseHeaders = getRevalidationHeaders(entityTag);
+      if (InvoiceEntityTags.matchesAny(ifNoneMatch, entityTag)) {
+        log.debug(String.format("Invoice with id: %s not modified", invoiceId));
+        return CompletableFuture.completedFuture(new ResponseEntity<>(responseHeaders, HttpStatus.NOT_MODIFIED));
+      }
       responseHeaders.setContentType(MediaType.APPLICATION_PDF);
 
-      log.debug(String.format("Generating pdf of invoice : %s", optionalInvoice.get()));
-      return new ResponseEntity<>(invoicePdfService.createPdf(optionalInvoice.get()), responseHeaders, HttpStatus.OK);
+      return pdfAdmission.submit(getClient(request), () -> renderPdf(optionalInvoice.get(), responseHeaders), "generating pdfs");
     } catch (Exception e) {
-      log.error(String.format("Internal server error while trying to get PDF of invoice."));
-      return new ResponseEntity<>(new ErrorMessage("Internal server error while trying to get PDF of invoice."), HttpStatus.INTERNAL_SERVER_ERROR);
+      return CompletableFuture.completedFuture(getPdfErrorResponse());
     }
   }
+
+  private ResponseEntity<?> renderPdf(Invoice invoice, HttpHeaders responseHeaders) {
+    try {
+      log.debug(String.format("Generating pdf of invoice : %s", invoice));
+      return new ResponseEntity<>(invoicePdfService.createPdf(invoice), responseHeaders, HttpStatus.OK);
+    } catch (Exception e) {
+      return getPdfErrorResponse();
+    }
+  }
+
+  private ResponseEntity<?> getPdfErrorResponse() {
+    log.error(String.format("Internal server error while trying to get PDF of invoice."));
+    return new ResponseEntity<>(new ErrorMessage("Internal server error while trying to get PDF of invoice."), HttpStatus.INTERNAL_SERVER_ERROR);
+  }
+
+  private String getClient(HttpServletRequest request) {
+    return request.getUserPrincipal() == null ? request.getRemoteAddr() : request.getUserPrincipal().getName();
+  }
+
+  private HttpHeaders getRevalidationHeaders(String entityTag) {
+    HttpHeaders responseHeaders = new HttpHeaders();
+    responseHeaders.setCacheControl(CacheControl.noCache().cachePrivate());
+    responseHeaders.setETag(entityTag);
+    return responseHeaders;
+  }
 }
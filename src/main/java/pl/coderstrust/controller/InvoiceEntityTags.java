@@ -0,0 +1,90 @@
+package pl.coderstrust.controller;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import pl.coderstrust.model.Company;
+import pl.coderstrust.model.CompanySnapshotKeys;
+import pl.coderstrust.model.Invoice;
+
+final class InvoiceEntityTags {
+
+  private static final String ANY = "*";
+  private static final String WEAK_PREFIX = "W/";
+  private static final String PARTIES_SEPARATOR = "-";
+  private static final int PARTY_DIGEST_LENGTH = 8;
+  private static final String CONTENT_PREFIX = "c";
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+
+  private InvoiceEntityTags() {
+  }
+
+  static String of(Invoice invoice) {
+    if (invoice.getVersion() == null) {
+      return String.format("\"%s%s\"", CONTENT_PREFIX, getContentDigest(invoice));
+    }
+    return String.format("\"%d%s%s%s\"", invoice.getVersion(), PARTIES_SEPARATOR, getPartyDigest(invoice.getSeller()), getPartyDigest(invoice.getBuyer()));
+  }
+
+  static boolean matchesAny(List<String> entityTags, String entityTag) {
+    if (entityTags == null || entityTag == null) {
+      return false;
+    }
+    for (String candidate : entityTags) {
+      String trimmedCandidate = candidate.trim();
+      if (ANY.equals(trimmedCandidate) || stripWeakPrefix(trimmedCandidate).equals(entityTag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static boolean matchesAnyStrongly(List<String> entityTags, String entityTag) {
+    if (entityTags == null) {
+      return false;
+    }
+    for (String candidate : entityTags) {
+      String trimmedCandidate = candidate.trim();
+      if (ANY.equals(trimmedCandidate) || (entityTag != null && trimmedCandidate.equals(entityTag))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static Long toVersion(List<String> entityTags) {
+    if (entityTags == null || entityTags.size() != 1) {
+      return null;
+    }
+    String entityTag = entityTags.get(0).trim();
+    if (entityTag.length() < 3 || !entityTag.startsWith("\"") || !entityTag.endsWith("\"")) {
+      return null;
+    }
+    String value = entityTag.substring(1, entityTag.length() - 1);
+    int separatorIndex = value.indexOf(PARTIES_SEPARATOR);
+    try {
+      return Long.valueOf(separatorIndex < 0 ? value : value.substring(0, separatorIndex));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private static String getPartyDigest(Company company) {
+    return company == null ? PARTIES_SEPARATOR : CompanySnapshotKeys.of(company).substring(0, PARTY_DIGEST_LENGTH);
+  }
+
+  private static String getContentDigest(Invoice invoice) {
+    try {
+      byte[] digest = MessageDigest.getInstance(DIGEST_ALGORITHM).digest(invoice.toString().getBytes(StandardCharsets.UTF_8));
+      return String.format("%064x", new BigInteger(1, digest));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(String.format("%s message digest is not available.", DIGEST_ALGORITHM), e);
+    }
+  }
+
+  private static String stripWeakPrefix(String entityTag) {
+    return entityTag.startsWith(WEAK_PREFIX) ? entityTag.substring(WEAK_PREFIX.length()) : entityTag;
+  }
+}
@@ -0,0 +1,156 @@
+package pl.coderstrust.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import java.net.URI;
+import java.util.List;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.validators.InvoiceValidator;
+import pl.coderstrust.service.ReactiveInvoiceService;
+import reactor.core.publisher.Mono;
+
+@Slf4j
+@RestController
+@ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "mongodb")
+@Api(value = "Reactive invoices", description = "Non-blocking operations for invoice application", tags = {"Reactive invoices"})
+@RequestMapping("/reactive/invoices")
+@CrossOrigin
+public class ReactiveInvoiceController {
+
+  private final ReactiveInvoiceService invoiceService;
+
+  @Autowired
+  public ReactiveInvoiceController(@NonNull ReactiveInvoiceService invoiceService) {
+    this.invoiceService = invoiceService;
+  }
+
+  @GetMapping
+  @ApiOperation(
+      value = "Get all invoices",
+      notes = "Get all invoices from database without holding a request thread while waiting for database.",
+      response = Invoice.class,
+      responseContainer = "List")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "OK", response = Invoice.class),
+      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
+  public Mono<ResponseEntity<?>> getAll() {
+    log.info("Getting all invoices");
+    return invoiceService.getAllInvoices()
+        .collectList()
+        .<ResponseEntity<?>>map(invoices -> new ResponseEntity<>(invoices, HttpStatus.OK))
+        .onErrorResume(e -> internalServerError("Internal server error while getting invoices."));
+  }
+
+  @GetMapping("/{invoiceId}")
+  @ApiOperation(
+      value = "Get invoice by id.",
+      notes = "Get invoice from database using it's id without holding a request thread while waiting for database.",
+      response = Invoice.class)
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "OK", response = Invoice.class),
+      @ApiResponse(code = 404, message = "Invoice not found for passed id.", response = ErrorMessage.class),
+      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
+  public Mono<ResponseEntity<?>> getById(@ApiParam(value = "ID of Invoice that need to be found.", required = true) @PathVariable("invoiceId") String invoiceId) {
+    log.info("Getting invoice");
+    return invoiceService.getInvoice(invoiceId)
+        .<ResponseEntity<?>>map(invoice -> new ResponseEntity<>(invoice, HttpStatus.OK))
+        .defaultIfEmpty(new ResponseEntity<>(new ErrorMessage("Invoice not found for passed id."), HttpStatus.NOT_FOUND))
+        .onErrorResume(e -> internalServerError(String.format("Internal server error while getting invoice by id: %s", invoiceId)));
+  }
+
+  @PostMapping
+  @ApiOperation(
+      value = "Add invoice.",
+      notes = "Add invoice to database without holding a request thread while waiting for database.",
+      response = Invoice.class)
+  @ApiResponses(value = {
+      @ApiResponse(code = 201, message = "Created", response = Invoice.class),
+      @ApiResponse(code = 400, message = "Passed data is invalid.", response = ErrorMessage.class),
+      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
+  public Mono<ResponseEntity<?>> add(@ApiParam(value = "Invoice need to be added to database.", required = true) @RequestBody Invoice invoice) {
+    log.info("Adding new invoice");
+    List<String> resultOfValidation = InvoiceValidator.validateInvoice(invoice, false);
+    if (resultOfValidation.size() > 0) {
+      log.debug(String.format("Invoice validation failed: %s", resultOfValidation));
+      return Mono.just(new ResponseEntity<>(new ErrorMessage("Passed invoice is invalid.", resultOfValidation), HttpStatus.BAD_REQUEST));
+    }
+    return invoiceService.addInvoice(invoice)
+        .<ResponseEntity<?>>map(addedInvoice -> {
+          HttpHeaders responseHeaders = new HttpHeaders();
+          responseHeaders.setLocation(URI.create(String.format("/reactive/invoices/%s", addedInvoice.getId())));
+          return new ResponseEntity<>(addedInvoice, responseHeaders, HttpStatus.CREATED);
+        })
+        .onErrorResume(e -> internalServerError("Internal server error while saving specified invoice."));
+  }
+
+  @PutMapping("/{invoiceId}")
+  @ApiOperation(
+      value = "Update invoice.",
+      notes = "Update existing invoice in database without holding a request thread while waiting for database.",
+      response = Invoice.class)
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "OK", response = Invoice.class),
+      @ApiResponse(code = 400, message = "Passed data is invalid.", response = ErrorMessage.class),
+      @ApiResponse(code = 404, message = "Invoice not found for passed id.", response = ErrorMessage.class),
+      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
+  public Mono<ResponseEntity<?>> update(
+      @ApiParam(value = "Id of invoice to be updated.", required = true) @PathVariable String invoiceId,
+      @ApiParam(value = "Invoice to be updated.", required = true) @RequestBody Invoice invoice) {
+    log.info("Updating invoice");
+    List<String> resultOfValidation = InvoiceValidator.validateInvoice(invoice, true);
+    if (resultOfValidation.size() > 0) {
+      log.debug(String.format("Invoice validation failed: %s", resultOfValidation));
+      return Mono.just(new ResponseEntity<>(new ErrorMessage("Passed invoice is invalid.", resultOfValidation), HttpStatus.BAD_REQUEST));
+    }
+    if (!invoiceId.equals(invoice.getId())) {
+      log.debug("Passed data is invalid. Please verify invoice id.");
+      return Mono.just(new ResponseEntity<>(new ErrorMessage("Passed data is invalid. Please verify invoice id."), HttpStatus.BAD_REQUEST));
+    }
+    return invoiceService.invoiceExists(invoiceId)
+        .flatMap(exists -> exists
+            ? invoiceService.updateInvoice(invoice).<ResponseEntity<?>>map(updatedInvoice -> new ResponseEntity<>(updatedInvoice, HttpStatus.OK))
+            : Mono.just(new ResponseEntity<>(new ErrorMessage("Invoice not found."), HttpStatus.NOT_FOUND)))
+        .onErrorResume(e -> internalServerError("Internal server error while updating specified invoice."));
+  }
+
+  @DeleteMapping("/{invoiceId}")
+  @ApiOperation(
+      value = "Delete invoice.",
+      notes = "Delete invoice from database without holding a request thread while waiting for database.",
+      response = Invoice.class)
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "OK", response = Invoice.class),
+      @ApiResponse(code = 404, message = "Invoice not found for passed id.", response = ErrorMessage.class),
+      @ApiResponse(code = 500, message = "Internal server error.", response = ErrorMessage.class)})
+  public Mono<ResponseEntity<?>> delete(@ApiParam(value = "Id of invoice to be deleted.", required = true) @PathVariable("invoiceId") String invoiceId) {
+    log.info("Deleting invoice");
+    return invoiceService.removeInvoice(invoiceId)
+        .<ResponseEntity<?>>map(removedInvoice -> new ResponseEntity<>(removedInvoice, HttpStatus.OK))
+        .defaultIfEmpty(new ResponseEntity<>(new ErrorMessage("Invoice not found."), HttpStatus.NOT_FOUND))
+        .onErrorResume(e -> internalServerError("Internal server error while deleting specified invoice."));
+  }
+
+  private Mono<ResponseEntity<?>> internalServerError(String message) {
+    log.error(message);
+    return Mono.just(new ResponseEntity<>(new ErrorMessage(message), HttpStatus.INTERNAL_SERVER_ERROR));
+  }
+}
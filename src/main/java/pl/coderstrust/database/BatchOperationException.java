@@ -0,0 +1,37 @@
+package pl.coderstrust.database;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class BatchOperationException extends DatabaseOperationException {
+
+  private final Map<Integer, String> failures;
+  private final List<?> results;
+
+  public BatchOperationException(String message, Map<Integer, String> failures) {
+    this(message, failures, Collections.emptyList());
+  }
+
+  public BatchOperationException(String message, Map<Integer, String> failures, List<?> results) {
+    super(message);
+    this.failures = Collections.unmodifiableMap(new TreeMap<>(failures));
+    this.results = Collections.unmodifiableList(new ArrayList<>(results));
+  }
+
+  public BatchOperationException(String message, Map<Integer, String> failures, List<?> results, Throwable cause) {
+    super(message, cause);
+    this.failures = Collections.unmodifiableMap(new TreeMap<>(failures));
+    this.results = Collections.unmodifiableList(new ArrayList<>(results));
+  }
+
+  public Map<Integer, String> getFailures() {
+    return failures;
+  }
+
+  public List<?> getResults() {
+    return results;
+  }
+}
@@ -2,6 +2,8 @@ package pl.coderstrust.database;
 
 import java.io.Serializable;
 import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 public interface Database<T, ID extends Serializable> {
 
@@ -13,6 +15,8 @@ public interface Database<T, ID extends Serializable> {
 
   Iterable<T> findAll() throws DatabaseOperationException;
 
+  Page<T> findAll(Pageable pageable) throws DatabaseOperationException;
+
   long count() throws DatabaseOperationException;
 
   void deleteById(ID var1) throws DatabaseOperationException;
@@ -0,0 +1,25 @@
+package pl.coderstrust.database.invoice;
+
+final class CompactInvoice {
+
+  String id;
+  Long version;
+  byte type;
+  long issueDate;
+  long dueDate;
+  int[] seller;
+  String[] sellerIds;
+  int[] buyer;
+  String[] buyerIds;
+  String[] entryIds;
+  int[] entryItems;
+  long[] entryQuantities;
+  byte[] entryUnitsAndVatRates;
+  long[] entryAmounts;
+  byte[] entryAmountScales;
+  long totalNetValue;
+  byte totalNetValueScale;
+  long totalGrossValue;
+  byte totalGrossValueScale;
+  String comments;
+}
@@ -0,0 +1,326 @@
+package pl.coderstrust.database.invoice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import pl.coderstrust.model.AccountNumber;
+import pl.coderstrust.model.Address;
+import pl.coderstrust.model.Company;
+import pl.coderstrust.model.ContactDetails;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+import pl.coderstrust.model.InvoiceSummary;
+import pl.coderstrust.model.InvoiceType;
+import pl.coderstrust.model.UnitType;
+import pl.coderstrust.model.Vat;
+
+class CompactInvoiceCodec {
+
+  private static final long NULL_DATE = Long.MIN_VALUE;
+  private static final long NULL_QUANTITY = Long.MIN_VALUE;
+  private static final byte NULL_SCALE = Byte.MIN_VALUE;
+  private static final byte NULL_ORDINAL = -1;
+
+  private static final InvoiceType[] INVOICE_TYPES = InvoiceType.values();
+  private static final UnitType[] UNIT_TYPES = UnitType.values();
+  private static final Vat[] VAT_RATES = Vat.values();
+
+  private static final int NAME = 0;
+  private static final int TAX_IDENTIFICATION_NUMBER = 1;
+  private static final int IBAN_NUMBER = 2;
+  private static final int LOCAL_NUMBER = 3;
+  private static final int EMAIL = 4;
+  private static final int PHONE_NUMBER = 5;
+  private static final int WEBSITE = 6;
+  private static final int STREET = 7;
+  private static final int NUMBER = 8;
+  private static final int POSTAL_CODE = 9;
+  private static final int CITY = 10;
+  private static final int COUNTRY = 11;
+  private static final int PRESENCE_FLAGS = 12;
+  private static final int COMPANY_FIELDS = 13;
+
+  private static final int HAS_ACCOUNT_NUMBER = 1;
+  private static final int HAS_CONTACT_DETAILS = 1 << 1;
+  private static final int HAS_ADDRESS = 1 << 2;
+
+  private static final int COMPANY_ID = 0;
+  private static final int ACCOUNT_NUMBER_ID = 1;
+  private static final int CONTACT_DETAILS_ID = 2;
+  private static final int ADDRESS_ID = 3;
+  private static final int COMPANY_IDS = 4;
+
+  private static final int AMOUNTS_PER_ENTRY = 3;
+  private static final int PRICE = 0;
+  private static final int NET_VALUE = 1;
+  private static final int GROSS_VALUE = 2;
+
+  private final StringDictionary[] companyDictionaries = new StringDictionary[PRESENCE_FLAGS];
+  private final StringDictionary items = new StringDictionary();
+
+  CompactInvoiceCodec() {
+    for (int i = 0; i < companyDictionaries.length; i++) {
+      companyDictionaries[i] = new StringDictionary();
+    }
+  }
+
+  CompactInvoice encode(Invoice invoice) {
+    CompactInvoice compactInvoice = new CompactInvoice();
+    compactInvoice.id = invoice.getId();
+    compactInvoice.version = invoice.getVersion();
+    compactInvoice.type = encodeOrdinal(invoice.getType());
+    compactInvoice.issueDate = encodeDate(invoice.getIssueDate());
+    compactInvoice.dueDate = encodeDate(invoice.getDueDate());
+    compactInvoice.seller = encodeCompany(invoice.getSeller());
+    compactInvoice.sellerIds = encodeCompanyIds(invoice.getSeller());
+    compactInvoice.buyer = encodeCompany(invoice.getBuyer());
+    compactInvoice.buyerIds = encodeCompanyIds(invoice.getBuyer());
+    encodeEntries(compactInvoice, invoice.getEntries());
+    compactInvoice.totalNetValue = unscaledValue(invoice.getTotalNetValue());
+    compactInvoice.totalNetValueScale = scale(invoice.getTotalNetValue());
+    compactInvoice.totalGrossValue = unscaledValue(invoice.getTotalGrossValue());
+    compactInvoice.totalGrossValueScale = scale(invoice.getTotalGrossValue());
+    compactInvoice.comments = invoice.getComments();
+    return compactInvoice;
+  }
+
+  Invoice decode(CompactInvoice compactInvoice) {
+    Invoice invoice = new Invoice(
+        compactInvoice.id,
+        compactInvoice.type == NULL_ORDINAL ? null : INVOICE_TYPES[compactInvoice.type],
+        decodeDate(compactInvoice.issueDate),
+        decodeDate(compactInvoice.dueDate),
+        decodeCompany(compactInvoice.seller, compactInvoice.sellerIds),
+        decodeCompany(compactInvoice.buyer, compactInvoice.buyerIds),
+        decodeEntries(compactInvoice),
+        amount(compactInvoice.totalNetValue, compactInvoice.totalNetValueScale),
+        amount(compactInvoice.totalGrossValue, compactInvoice.totalGrossValueScale),
+        compactInvoice.comments);
+    invoice.setVersion(compactInvoice.version);
+    return invoice;
+  }
+
+  InvoiceSummary decodeSummary(CompactInvoice compactInvoice) {
+    return new InvoiceSummary(
+        compactInvoice.id,
+        compactInvoice.type == NULL_ORDINAL ? null : INVOICE_TYPES[compactInvoice.type],
+        decodeDate(compactInvoice.issueDate),
+        decodeDate(compactInvoice.dueDate),
+        decodeCompanyName(compactInvoice.seller),
+        decodeCompanyName(compactInvoice.buyer),
+        amount(compactInvoice.totalNetValue, compactInvoice.totalNetValueScale),
+        amount(compactInvoice.totalGrossValue, compactInvoice.totalGrossValueScale),
+        compactInvoice.comments);
+  }
+
+  String decodeCompanyName(int[] company) {
+    return company == null ? null : companyDictionaries[NAME].decode(company[NAME]);
+  }
+
+  LocalDate decodeIssueDate(CompactInvoice compactInvoice) {
+    return decodeDate(compactInvoice.issueDate);
+  }
+
+  LocalDate decodeDueDate(CompactInvoice compactInvoice) {
+    return decodeDate(compactInvoice.dueDate);
+  }
+
+  BigDecimal decodeTotalNetValue(CompactInvoice compactInvoice) {
+    return amount(compactInvoice.totalNetValue, compactInvoice.totalNetValueScale);
+  }
+
+  BigDecimal decodeTotalGrossValue(CompactInvoice compactInvoice) {
+    return amount(compactInvoice.totalGrossValue, compactInvoice.totalGrossValueScale);
+  }
+
+  void clear() {
+    for (StringDictionary dictionary : companyDictionaries) {
+      dictionary.clear();
+    }
+    items.clear();
+  }
+
+  private int[] encodeCompany(Company company) {
+    if (company == null) {
+      return null;
+    }
+    int[] fields = new int[COMPANY_FIELDS];
+    Arrays.fill(fields, StringDictionary.NULL_CODE);
+    int presenceFlags = 0;
+    put(fields, NAME, company.getName());
+    put(fields, TAX_IDENTIFICATION_NUMBER, company.getTaxIdentificationNumber());
+    AccountNumber accountNumber = company.getAccountNumber();
+    if (accountNumber != null) {
+      presenceFlags |= HAS_ACCOUNT_NUMBER;
+      put(fields, IBAN_NUMBER, accountNumber.getIbanNumber());
+      put(fields, LOCAL_NUMBER, accountNumber.getLocalNumber());
+    }
+    ContactDetails contactDetails = company.getContactDetails();
+    if (contactDetails != null) {
+      presenceFlags |= HAS_CONTACT_DETAILS;
+      put(fields, EMAIL, contactDetails.getEmail());
+      put(fields, PHONE_NUMBER, contactDetails.getPhoneNumber());
+      put(fields, WEBSITE, contactDetails.getWebsite());
+      Address address = contactDetails.getAddress();
+      if (address != null) {
+        presenceFlags |= HAS_ADDRESS;
+        put(fields, STREET, address.getStreet());
+        put(fields, NUMBER, address.getNumber());
+        put(fields, POSTAL_CODE, address.getPostalCode());
+        put(fields, CITY, address.getCity());
+        put(fields, COUNTRY, address.getCountry());
+      }
+    }
+    fields[PRESENCE_FLAGS] = presenceFlags;
+    return fields;
+  }
+
+  private String[] encodeCompanyIds(Company company) {
+    if (company == null) {
+      return null;
+    }
+    String[] ids = new String[COMPANY_IDS];
+    ids[COMPANY_ID] = company.getId();
+    if (company.getAccountNumber() != null) {
+      ids[ACCOUNT_NUMBER_ID] = company.getAccountNumber().getId();
+    }
+    if (company.getContactDetails() != null) {
+      ids[CONTACT_DETAILS_ID] = company.getContactDetails().getId();
+      if (company.getContactDetails().getAddress() != null) {
+        ids[ADDRESS_ID] = company.getContactDetails().getAddress().getId();
+      }
+    }
+    for (String id : ids) {
+      if (id != null) {
+        return ids;
+      }
+    }
+    return null;
+  }
+
+  private Company decodeCompany(int[] fields, String[] ids) {
+    if (fields == null) {
+      return null;
+    }
+    int presenceFlags = fields[PRESENCE_FLAGS];
+    AccountNumber accountNumber = null;
+    if ((presenceFlags & HAS_ACCOUNT_NUMBER) != 0) {
+      accountNumber = new AccountNumber(get(fields, IBAN_NUMBER), get(fields, LOCAL_NUMBER));
+      accountNumber.setId(id(ids, ACCOUNT_NUMBER_ID));
+    }
+    ContactDetails contactDetails = null;
+    if ((presenceFlags & HAS_CONTACT_DETAILS) != 0) {
+      Address address = null;
+      if ((presenceFlags & HAS_ADDRESS) != 0) {
+        address = new Address(id(ids, ADDRESS_ID), get(fields, STREET), get(fields, NUMBER), get(fields, POSTAL_CODE),
+            get(fields, CITY), get(fields, COUNTRY));
+      }
+      contactDetails = new ContactDetails(id(ids, CONTACT_DETAILS_ID), get(fields, EMAIL), get(fields, PHONE_NUMBER),
+          get(fields, WEBSITE), address);
+    }
+    return new Company(id(ids, COMPANY_ID), get(fields, NAME), get(fields, TAX_IDENTIFICATION_NUMBER), accountNumber,
+        contactDetails);
+  }
+
+  private void encodeEntries(CompactInvoice compactInvoice, List<InvoiceEntry> entries) {
+    if (entries == null) {
+      return;
+    }
+    int size = entries.size();
+    compactInvoice.entryItems = new int[size];
+    compactInvoice.entryQuantities = new long[size];
+    compactInvoice.entryUnitsAndVatRates = new byte[size];
+    compactInvoice.entryAmounts = new long[size * AMOUNTS_PER_ENTRY];
+    compactInvoice.entryAmountScales = new byte[size * AMOUNTS_PER_ENTRY];
+    String[] entryIds = new String[size];
+    boolean hasEntryIds = false;
+    for (int i = 0; i < size; i++) {
+      InvoiceEntry entry = entries.get(i);
+      entryIds[i] = entry.getId();
+      hasEntryIds |= entry.getId() != null;
+      compactInvoice.entryItems[i] = items.encode(entry.getItem());
+      compactInvoice.entryQuantities[i] = entry.getQuantity() == null ? NULL_QUANTITY : entry.getQuantity();
+      compactInvoice.entryUnitsAndVatRates[i] = (byte) ((encodeOrdinal(entry.getUnit()) + 1) << 4 | (encodeOrdinal(entry.getVatRate()) + 1));
+      putAmount(compactInvoice, i * AMOUNTS_PER_ENTRY + PRICE, entry.getPrice());
+      putAmount(compactInvoice, i * AMOUNTS_PER_ENTRY + NET_VALUE, entry.getNetValue());
+      putAmount(compactInvoice, i * AMOUNTS_PER_ENTRY + GROSS_VALUE, entry.getGrossValue());
+    }
+    compactInvoice.entryIds = hasEntryIds ? entryIds : null;
+  }
+
+  private List<InvoiceEntry> decodeEntries(CompactInvoice compactInvoice) {
+    if (compactInvoice.entryItems == null) {
+      return null;
+    }
+    int size = compactInvoice.entryItems.length;
+    List<InvoiceEntry> entries = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      int unitCode = (compactInvoice.entryUnitsAndVatRates[i] >> 4) & 0x0F;
+      int vatRateCode = compactInvoice.entryUnitsAndVatRates[i] & 0x0F;
+      long quantity = compactInvoice.entryQuantities[i];
+      entries.add(new InvoiceEntry(
+          compactInvoice.entryIds == null ? null : compactInvoice.entryIds[i],
+          items.decode(compactInvoice.entryItems[i]),
+          quantity == NULL_QUANTITY ? null : quantity,
+          unitCode == 0 ? null : UNIT_TYPES[unitCode - 1],
+          getAmount(compactInvoice, i * AMOUNTS_PER_ENTRY + PRICE),
+          vatRateCode == 0 ? null : VAT_RATES[vatRateCode - 1],
+          getAmount(compactInvoice, i * AMOUNTS_PER_ENTRY + NET_VALUE),
+          getAmount(compactInvoice, i * AMOUNTS_PER_ENTRY + GROSS_VALUE)));
+    }
+    return entries;
+  }
+
+  private void put(int[] fields, int field, String value) {
+    fields[field] = companyDictionaries[field].encode(value);
+  }
+
+  private String get(int[] fields, int field) {
+    return companyDictionaries[field].decode(fields[field]);
+  }
+
+  private static String id(String[] ids, int index) {
+    return ids == null ? null : ids[index];
+  }
+
+  private static void putAmount(CompactInvoice compactInvoice, int index, BigDecimal value) {
+    compactInvoice.entryAmounts[index] = unscaledValue(value);
+    compactInvoice.entryAmountScales[index] = scale(value);
+  }
+
+  private static BigDecimal getAmount(CompactInvoice compactInvoice, int index) {
+    return amount(compactInvoice.entryAmounts[index], compactInvoice.entryAmountScales[index]);
+  }
+
+  private static long unscaledValue(BigDecimal value) {
+    if (value == null) {
+      return 0L;
+    }
+    if (value.unscaledValue().bitLength() > 63 || value.scale() <= NULL_SCALE || value.scale() > Byte.MAX_VALUE) {
+      throw new IllegalArgumentException(String.format("Amount %s is out of supported range.", value));
+    }
+    return value.unscaledValue().longValue();
+  }
+
+  private static byte scale(BigDecimal value) {
+    return value == null ? NULL_SCALE : (byte) value.scale();
+  }
+
+  private static BigDecimal amount(long unscaledValue, byte scale) {
+    return scale == NULL_SCALE ? null : BigDecimal.valueOf(unscaledValue, scale);
+  }
+
+  private static byte encodeOrdinal(Enum<?> value) {
+    return value == null ? NULL_ORDINAL : (byte) value.ordinal();
+  }
+
+  private static long encodeDate(LocalDate date) {
+    return date == null ? NULL_DATE : date.toEpochDay();
+  }
+
+  private static LocalDate decodeDate(long epochDay) {
+    return epochDay == NULL_DATE ? null : LocalDate.ofEpochDay(epochDay);
+  }
+}
@@ -0,0 +1,127 @@
+package pl.coderstrust.database.invoice;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import org.hibernate.Session;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.model.AccountNumber;
+import pl.coderstrust.model.Address;
+import pl.coderstrust.model.Company;
+import pl.coderstrust.model.ContactDetails;
+import pl.coderstrust.model.Invoice;
+
+// Company rows are immutable snapshots cached by snapshot key in the second-level cache,
+// so they must never be written or deleted outside of this SessionFactory.
+class HibernateCompanyResolver {
+
+  private static final String FIND_BY_SNAPSHOT_KEYS_QUERY = "select company from Company company"
+      + " left join fetch company.accountNumber left join fetch company.contactDetails contactDetails left join fetch contactDetails.address"
+      + " where company.snapshotKey in :snapshotKeys";
+  private static final int MAX_INSERT_ATTEMPTS = 3;
+  private static final int MAX_NATURAL_ID_LOOKUPS = 2;
+  private static final HibernateJpaDialect JPA_DIALECT = new HibernateJpaDialect();
+
+  private final EntityManager entityManager;
+  private final TransactionTemplate newTransaction;
+
+  HibernateCompanyResolver(EntityManager entityManager, PlatformTransactionManager transactionManager) {
+    this.entityManager = entityManager;
+    this.newTransaction = new TransactionTemplate(transactionManager);
+    this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  void resolveParties(Collection<? extends Invoice> invoices) throws DatabaseOperationException {
+    Map<String, Company> companies = invoices.stream()
+        .flatMap(invoice -> Stream.of(invoice.getSeller(), invoice.getBuyer()))
+        .filter(Objects::nonNull)
+        .collect(Collectors.toMap(Company::getSnapshotKey, company -> company, (first, second) -> first, LinkedHashMap::new));
+    if (companies.isEmpty()) {
+      return;
+    }
+    Map<String, Company> resolvedCompanies = findBySnapshotKeys(companies.keySet());
+    DataIntegrityViolationException insertFailure = null;
+    for (int attempt = 0; resolvedCompanies.size() < companies.size(); attempt++) {
+      List<Company> missingCompanies = companies.entrySet().stream()
+          .filter(company -> !resolvedCompanies.containsKey(company.getKey()))
+          .map(Map.Entry::getValue)
+          .collect(Collectors.toList());
+      Set<String> missingSnapshotKeys = missingCompanies.stream().map(Company::getSnapshotKey).collect(Collectors.toCollection(LinkedHashSet::new));
+      if (attempt >= MAX_INSERT_ATTEMPTS) {
+        throw new DatabaseOperationException(String.format("Could not resolve companies with snapshot keys: %s", missingSnapshotKeys), insertFailure);
+      }
+      try {
+        insert(missingCompanies);
+      } catch (DataIntegrityViolationException e) {
+        insertFailure = e;
+      }
+      resolvedCompanies.putAll(findBySnapshotKeys(missingSnapshotKeys));
+    }
+    for (Invoice invoice : invoices) {
+      invoice.setSeller(invoice.getSeller() == null ? null : resolvedCompanies.get(invoice.getSeller().getSnapshotKey()));
+      invoice.setBuyer(invoice.getBuyer() == null ? null : resolvedCompanies.get(invoice.getBuyer().getSnapshotKey()));
+    }
+  }
+
+  private Map<String, Company> findBySnapshotKeys(Set<String> snapshotKeys) {
+    Map<String, Company> companies = new HashMap<>();
+    if (snapshotKeys.size() <= MAX_NATURAL_ID_LOOKUPS) {
+      for (String snapshotKey : snapshotKeys) {
+        Company company = entityManager.unwrap(Session.class).bySimpleNaturalId(Company.class).load(snapshotKey);
+        if (company != null) {
+          companies.put(snapshotKey, company);
+        }
+      }
+      return companies;
+    }
+    entityManager.createQuery(FIND_BY_SNAPSHOT_KEYS_QUERY, Company.class)
+        .setParameter("snapshotKeys", snapshotKeys)
+        .getResultList()
+        .forEach(company -> companies.put(company.getSnapshotKey(), company));
+    return companies;
+  }
+
+  private void insert(List<Company> companies) {
+    List<Company> snapshots = companies.stream()
+        .map(this::copyWithoutIds)
+        .collect(Collectors.toList());
+    newTransaction.execute(status -> {
+      try {
+        snapshots.forEach(entityManager::persist);
+        entityManager.flush();
+      } catch (PersistenceException e) {
+        DataAccessException translatedException = JPA_DIALECT.translateExceptionIfPossible(e);
+        throw translatedException == null ? e : translatedException;
+      }
+      return null;
+    });
+  }
+
+  private Company copyWithoutIds(Company company) {
+    AccountNumber accountNumber = company.getAccountNumber() == null ? null
+        : new AccountNumber(company.getAccountNumber().getIbanNumber(), company.getAccountNumber().getLocalNumber());
+    ContactDetails contactDetails = null;
+    if (company.getContactDetails() != null) {
+      Address address = company.getContactDetails().getAddress();
+      contactDetails = new ContactDetails(company.getContactDetails().getEmail(), company.getContactDetails().getPhoneNumber(),
+          company.getContactDetails().getWebsite(), address == null ? null
+          : new Address(address.getStreet(), address.getNumber(), address.getPostalCode(), address.getCity(), address.getCountry()));
+    }
+    return new Company(company.getName(), company.getTaxIdentificationNumber(), accountNumber, contactDetails);
+  }
+}
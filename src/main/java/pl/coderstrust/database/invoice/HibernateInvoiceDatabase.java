@@ -1,17 +1,35 @@
 package pl.coderstrust.database.invoice;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.NonNull;
-import lombok.Synchronized;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
+import pl.coderstrust.database.BatchOperationException;
 import pl.coderstrust.database.DatabaseOperationException;
 import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceSummary;
+import pl.coderstrust.model.SurrogateKeys;
 
 @ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "hibernate")
 @Repository
@@ -24,37 +42,73 @@ public class HibernateInvoiceDatabase implements InvoiceDatabase {
     this.hibernateInvoiceRepository = hibernateInvoiceRepository;
   }
 
-  @Synchronized
   @Override
   public Invoice save(@NonNull Invoice invoice) throws DatabaseOperationException {
     try {
-      return hibernateInvoiceRepository.save(invoice);
+      return hibernateInvoiceRepository.save(withCurrentVersion(invoice));
+    } catch (OptimisticLockingFailureException e) {
+      throw new DatabaseOperationException(String.format("Invoice was modified concurrently, passed version is out of date: %s", invoice), e);
     } catch (NonTransientDataAccessException e) {
       throw new DatabaseOperationException(String.format("Encountered problems saving invoice: %s", invoice), e);
     }
   }
 
-  @Synchronized
+  @Override
+  public List<Invoice> saveAll(@NonNull Iterable<Invoice> invoices) throws DatabaseOperationException {
+    int batchSize = hibernateInvoiceRepository.getBatchSize();
+    List<Invoice> savedInvoices = new ArrayList<>();
+    List<Invoice> batch = new ArrayList<>(batchSize);
+    for (Invoice invoice : invoices) {
+      batch.add(invoice);
+      if (batch.size() == batchSize) {
+        saveBatch(batch, savedInvoices);
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) {
+      saveBatch(batch, savedInvoices);
+    }
+    return savedInvoices;
+  }
+
   @Override
   public Optional<Invoice> findById(@NonNull String id) throws DatabaseOperationException {
     try {
-      return hibernateInvoiceRepository.findById(id);
+      Long key = SurrogateKeys.toKey(id);
+      return key == null ? Optional.empty() : hibernateInvoiceRepository.findById(key);
     } catch (NoSuchElementException e) {
       throw new DatabaseOperationException(String.format("Encountered problems while searching for invoice:, %s", id), e);
     }
   }
 
-  @Synchronized
   @Override
   public boolean existsById(@NonNull String id) throws DatabaseOperationException {
     try {
-      return hibernateInvoiceRepository.existsById(id);
+      Long key = SurrogateKeys.toKey(id);
+      return key != null && hibernateInvoiceRepository.existsById(key);
     } catch (NonTransientDataAccessException e) {
       throw new DatabaseOperationException(String.format("Encountered problems looking for invoice: %s", id), e);
     }
   }
 
-  @Synchronized
+  @Override
+  public Set<String> findExistingIds(@NonNull Iterable<String> ids) throws DatabaseOperationException {
+    List<Long> keys = StreamSupport.stream(ids.spliterator(), false)
+        .map(SurrogateKeys::toKey)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+    if (keys.isEmpty()) {
+      return Collections.emptySet();
+    }
+    try {
+      return hibernateInvoiceRepository.findExistingKeys(keys).stream()
+          .map(SurrogateKeys::toId)
+          .collect(Collectors.toSet());
+    } catch (NonTransientDataAccessException e) {
+      throw new DatabaseOperationException("Encountered problems looking for invoices.", e);
+    }
+  }
+
   @Override
   public Iterable<Invoice> findAll() throws DatabaseOperationException {
     try {
@@ -64,7 +118,24 @@ public class HibernateInvoiceDatabase implements InvoiceDatabase {
     }
   }
 
-  @Synchronized
+  @Override
+  public Stream<Invoice> streamAll() throws DatabaseOperationException {
+    try {
+      return hibernateInvoiceRepository.streamAll();
+    } catch (NonTransientDataAccessException e) {
+      throw new DatabaseOperationException("Encountered problems while streaming invoices.", e);
+    }
+  }
+
+  @Override
+  public Page<Invoice> findAll(@NonNull Pageable pageable) throws DatabaseOperationException {
+    try {
+      return hibernateInvoiceRepository.findAll(withKeySort(pageable));
+    } catch (NonTransientDataAccessException e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while searching for invoices page: %s", pageable), e);
+    }
+  }
+
   @Override
   public long count() throws DatabaseOperationException {
     try {
@@ -74,17 +145,19 @@ public class HibernateInvoiceDatabase implements InvoiceDatabase {
     }
   }
 
-  @Synchronized
   @Override
   public void deleteById(@NonNull String id) throws DatabaseOperationException {
+    Long key = SurrogateKeys.toKey(id);
+    if (key == null) {
+      throw new DatabaseOperationException(String.format("There was no invoice in database with id %s", id));
+    }
     try {
-      hibernateInvoiceRepository.deleteById(id);
+      hibernateInvoiceRepository.deleteById(key);
     } catch (EmptyResultDataAccessException e) {
       throw new DatabaseOperationException(String.format("There was no invoice in database with id %s", id), e);
     }
   }
 
-  @Synchronized
   @Override
   public void deleteAll() throws DatabaseOperationException {
     try {
@@ -94,29 +167,123 @@ public class HibernateInvoiceDatabase implements InvoiceDatabase {
     }
   }
 
-  @Synchronized
   @Override
   public Iterable<Invoice> findAllBySellerName(@NonNull String sellerName) throws DatabaseOperationException {
     try {
-      return hibernateInvoiceRepository.findAll()
-          .stream()
-          .filter(invoice -> invoice.getSeller().getName().equals(sellerName))
-          .collect(Collectors.toList());
+      return hibernateInvoiceRepository.findAllBySellerName(sellerName);
     } catch (NonTransientDataAccessException e) {
       throw new DatabaseOperationException(String.format("Encountered problems while searching for invoices with seller name: %s", sellerName), e);
     }
   }
 
-  @Synchronized
   @Override
   public Iterable<Invoice> findAllByBuyerName(@NonNull String buyerName) throws DatabaseOperationException {
     try {
-      return hibernateInvoiceRepository.findAll()
-          .stream()
-          .filter(invoice -> invoice.getBuyer().getName().equals(buyerName))
-          .collect(Collectors.toList());
+      return hibernateInvoiceRepository.findAllByBuyerName(buyerName);
     } catch (NonTransientDataAccessException e) {
       throw new DatabaseOperationException(String.format("Encountered problems while searching for invoices with buyer name: %s", buyerName), e);
     }
   }
+
+  @Override
+  public Iterable<Invoice> findAllByIssueDateBetween(@NonNull LocalDate fromDate, @NonNull LocalDate toDate) throws DatabaseOperationException {
+    InvoiceReports.validateDateRange(fromDate, toDate);
+    try {
+      return hibernateInvoiceRepository.findAllByIssueDateBetween(fromDate, toDate);
+    } catch (NonTransientDataAccessException e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while searching for invoices issued between %s and %s", fromDate, toDate), e);
+    }
+  }
+
+  @Override
+  public Iterable<Invoice> findAllByDueDateBetween(@NonNull LocalDate fromDate, @NonNull LocalDate toDate) throws DatabaseOperationException {
+    InvoiceReports.validateDateRange(fromDate, toDate);
+    try {
+      return hibernateInvoiceRepository.findAllByDueDateBetween(fromDate, toDate);
+    } catch (NonTransientDataAccessException e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while searching for invoices due between %s and %s", fromDate, toDate), e);
+    }
+  }
+
+  @Override
+  public Page<InvoiceSummary> findAllSummaries(@NonNull Pageable pageable) throws DatabaseOperationException {
+    try {
+      return hibernateInvoiceRepository.findAllSummaries(withKeySort(pageable));
+    } catch (NonTransientDataAccessException e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while searching for invoice summaries page: %s", pageable), e);
+    }
+  }
+
+  private Invoice withCurrentVersion(@NonNull Invoice invoice) {
+    if (invoice.getId() == null || invoice.getVersion() != null) {
+      return invoice;
+    }
+    Invoice invoiceToSave = new Invoice(invoice);
+    Long key = SurrogateKeys.toKey(invoice.getId());
+    Optional<Long> currentVersion = key == null ? Optional.empty() : hibernateInvoiceRepository.findVersionById(key);
+    if (currentVersion.isPresent()) {
+      invoiceToSave.setVersion(currentVersion.get());
+    } else {
+      invoiceToSave.setId(null);
+    }
+    return invoiceToSave;
+  }
+
+  private void saveBatch(List<Invoice> batch, List<Invoice> savedInvoices) throws DatabaseOperationException {
+    try {
+      savedInvoices.addAll(hibernateInvoiceRepository.saveBatch(withCurrentVersions(batch)));
+    } catch (OptimisticLockingFailureException e) {
+      throw batchFailure(batch, savedInvoices, "Some of the invoices were modified concurrently, passed versions are out of date.", e);
+    } catch (NonTransientDataAccessException e) {
+      throw batchFailure(batch, savedInvoices, "Encountered problems saving invoices.", e);
+    }
+  }
+
+  private BatchOperationException batchFailure(List<Invoice> batch, List<Invoice> savedInvoices, String message, Exception cause) {
+    Map<Integer, String> failures = new TreeMap<>();
+    for (int index = 0; index < batch.size(); index++) {
+      failures.put(savedInvoices.size() + index, message);
+    }
+    return new BatchOperationException(String.format("%s %d invoices saved in earlier batches were kept.", message, savedInvoices.size()), failures, savedInvoices, cause);
+  }
+
+  private List<Invoice> withCurrentVersions(List<Invoice> batch) {
+    List<Long> keys = batch.stream()
+        .filter(invoice -> invoice.getId() != null && invoice.getVersion() == null)
+        .map(invoice -> SurrogateKeys.toKey(invoice.getId()))
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+    Map<Long, Long> currentVersions = new HashMap<>();
+    if (!keys.isEmpty()) {
+      hibernateInvoiceRepository.findVersionsByKeys(keys)
+          .forEach(keyAndVersion -> currentVersions.put((Long) keyAndVersion[0], (Long) keyAndVersion[1]));
+    }
+    return batch.stream()
+        .map(invoice -> withVersion(invoice, currentVersions))
+        .collect(Collectors.toList());
+  }
+
+  private Invoice withVersion(Invoice invoice, Map<Long, Long> currentVersions) {
+    if (invoice.getId() == null || invoice.getVersion() != null) {
+      return invoice;
+    }
+    Invoice invoiceToSave = new Invoice(invoice);
+    Long currentVersion = currentVersions.get(SurrogateKeys.toKey(invoice.getId()));
+    if (currentVersion != null) {
+      invoiceToSave.setVersion(currentVersion);
+    } else {
+      invoiceToSave.setId(null);
+    }
+    return invoiceToSave;
+  }
+
+  private Pageable withKeySort(Pageable pageable) {
+    if (pageable.isUnpaged() || pageable.getSort().getOrderFor("id") == null) {
+      return pageable;
+    }
+    Sort sort = Sort.by(pageable.getSort().stream()
+        .map(order -> "id".equals(order.getProperty()) ? order.withProperty("key") : order)
+        .collect(Collectors.toList()));
+    return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+  }
 }
@@ -1,7 +1,77 @@
 package pl.coderstrust.database.invoice;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceSummary;
 
-public interface HibernateInvoiceRepository extends JpaRepository<Invoice, String> {
+public interface HibernateInvoiceRepository extends JpaRepository<Invoice, Long>, HibernateInvoiceSaveRepository, HibernateInvoiceStreamRepository {
+
+  @Override
+  <S extends Invoice> S save(S invoice);
+
+  @Override
+  <S extends Invoice> List<S> saveAll(Iterable<S> invoices);
+
+  @Override
+  @EntityGraph(Invoice.PARTIES_GRAPH)
+  @Query("select invoice from Invoice invoice where invoice.key = :key")
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+  Optional<Invoice> findById(@Param("key") Long key);
+
+  @Override
+  @EntityGraph(Invoice.PARTIES_GRAPH)
+  List<Invoice> findAll();
+
+  @Override
+  @EntityGraph(Invoice.PARTIES_GRAPH)
+  Page<Invoice> findAll(Pageable pageable);
+
+  @EntityGraph(Invoice.PARTIES_GRAPH)
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+  List<Invoice> findAllBySellerName(String sellerName);
+
+  @EntityGraph(Invoice.PARTIES_GRAPH)
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+  List<Invoice> findAllByBuyerName(String buyerName);
+
+  @EntityGraph(Invoice.PARTIES_GRAPH)
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+  List<Invoice> findAllBySellerTaxIdentificationNumber(String taxIdentificationNumber);
+
+  @EntityGraph(Invoice.PARTIES_GRAPH)
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+  List<Invoice> findAllByBuyerTaxIdentificationNumber(String taxIdentificationNumber);
+
+  @EntityGraph(Invoice.PARTIES_GRAPH)
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+  List<Invoice> findAllByIssueDateBetween(LocalDate fromDate, LocalDate toDate);
+
+  @EntityGraph(Invoice.PARTIES_GRAPH)
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+  List<Invoice> findAllByDueDateBetween(LocalDate fromDate, LocalDate toDate);
+
+  @Query(value = "select new pl.coderstrust.model.InvoiceSummary(str(invoice.key), invoice.type, invoice.issueDate, invoice.dueDate, seller.name, buyer.name, "
+      + "invoice.totalNetValue, invoice.totalGrossValue, invoice.comments) from Invoice invoice left join invoice.seller seller left join invoice.buyer buyer",
+      countQuery = "select count(invoice) from Invoice invoice")
+  Page<InvoiceSummary> findAllSummaries(Pageable pageable);
+
+  @Query("select invoice.key from Invoice invoice where invoice.key in :keys")
+  List<Long> findExistingKeys(@Param("keys") Collection<Long> keys);
+
+  @Query("select invoice.version from Invoice invoice where invoice.key = :key")
+  Optional<Long> findVersionById(@Param("key") Long key);
+
+  @Query("select invoice.key, invoice.version from Invoice invoice where invoice.key in :keys")
+  List<Object[]> findVersionsByKeys(@Param("keys") Collection<Long> keys);
 }
@@ -0,0 +1,15 @@
+package pl.coderstrust.database.invoice;
+
+import java.util.List;
+import pl.coderstrust.model.Invoice;
+
+public interface HibernateInvoiceSaveRepository {
+
+  <S extends Invoice> S save(S invoice);
+
+  <S extends Invoice> List<S> saveAll(Iterable<S> invoices);
+
+  List<Invoice> saveBatch(List<Invoice> batch);
+
+  int getBatchSize();
+}
@@ -0,0 +1,85 @@
+package pl.coderstrust.database.invoice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.model.Invoice;
+
+class HibernateInvoiceSaveRepositoryImpl implements HibernateInvoiceSaveRepository {
+
+  static final String BATCH_SIZE_PROPERTY = "hibernate.jdbc.batch_size";
+  static final int DEFAULT_BATCH_SIZE = 50;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Override
+  @Transactional
+  public <S extends Invoice> S save(S invoice) {
+    resolveParties(Collections.singletonList(invoice));
+    return persistOrMerge(invoice);
+  }
+
+  @Override
+  @Transactional
+  public <S extends Invoice> List<S> saveAll(Iterable<S> invoices) {
+    List<S> invoicesToSave = new ArrayList<>();
+    invoices.forEach(invoicesToSave::add);
+    resolveParties(invoicesToSave);
+    List<S> savedInvoices = new ArrayList<>(invoicesToSave.size());
+    for (S invoice : invoicesToSave) {
+      savedInvoices.add(persistOrMerge(invoice));
+    }
+    return savedInvoices;
+  }
+
+  @Override
+  @Transactional
+  public List<Invoice> saveBatch(List<Invoice> batch) {
+    resolveParties(batch);
+    List<Invoice> savedInvoices = new ArrayList<>(batch.size());
+    for (Invoice invoice : batch) {
+      savedInvoices.add(persistOrMerge(invoice));
+    }
+    entityManager.flush();
+    entityManager.clear();
+    return savedInvoices;
+  }
+
+  private void resolveParties(List<? extends Invoice> invoices) {
+    try {
+      new HibernateCompanyResolver(entityManager, transactionManager).resolveParties(invoices);
+    } catch (DatabaseOperationException e) {
+      throw new DataRetrievalFailureException(e.getMessage(), e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <S extends Invoice> S persistOrMerge(S invoice) {
+    if (invoice.getVersion() == null) {
+      entityManager.persist(invoice);
+      return invoice;
+    }
+    return (S) entityManager.merge(invoice);
+  }
+
+  @Override
+  public int getBatchSize() {
+    Object batchSize = entityManager.getEntityManagerFactory().getProperties().get(BATCH_SIZE_PROPERTY);
+    if (batchSize == null) {
+      return DEFAULT_BATCH_SIZE;
+    }
+    int size = Integer.parseInt(batchSize.toString().trim());
+    return size > 0 ? size : DEFAULT_BATCH_SIZE;
+  }
+}
@@ -0,0 +1,9 @@
+package pl.coderstrust.database.invoice;
+
+import java.util.stream.Stream;
+import pl.coderstrust.model.Invoice;
+
+public interface HibernateInvoiceStreamRepository {
+
+  Stream<Invoice> streamAll();
+}
@@ -0,0 +1,110 @@
+package pl.coderstrust.database.invoice;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import pl.coderstrust.model.Invoice;
+
+class HibernateInvoiceStreamRepositoryImpl implements HibernateInvoiceStreamRepository {
+
+  static final String FETCH_SIZE_PROPERTY = "hibernate.jdbc.fetch_size";
+  static final int DEFAULT_FETCH_SIZE = 100;
+
+  private static final String STREAM_ALL_QUERY = "select invoice from Invoice invoice"
+      + " left join fetch invoice.seller seller left join fetch seller.accountNumber"
+      + " left join fetch seller.contactDetails sellerContactDetails left join fetch sellerContactDetails.address"
+      + " left join fetch invoice.buyer buyer left join fetch buyer.accountNumber"
+      + " left join fetch buyer.contactDetails buyerContactDetails left join fetch buyerContactDetails.address"
+      + " left join fetch invoice.entries"
+      + " order by invoice.key";
+
+  @PersistenceUnit
+  private EntityManagerFactory entityManagerFactory;
+
+  @Override
+  public Stream<Invoice> streamAll() {
+    int fetchSize = getFetchSize();
+    Session session = entityManagerFactory.createEntityManager().unwrap(Session.class);
+    try {
+      session.setDefaultReadOnly(true);
+      session.setCacheMode(CacheMode.IGNORE);
+      session.beginTransaction();
+      ScrollableResults results = session.createQuery(STREAM_ALL_QUERY)
+          .setFetchSize(fetchSize)
+          .setReadOnly(true)
+          .scroll(ScrollMode.FORWARD_ONLY);
+      return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new InvoiceIterator(session, results, fetchSize), Spliterator.ORDERED | Spliterator.NONNULL), false)
+          .onClose(() -> close(session, results));
+    } catch (RuntimeException e) {
+      close(session, null);
+      throw e;
+    }
+  }
+
+  private void close(Session session, ScrollableResults results) {
+    try {
+      if (results != null) {
+        results.close();
+      }
+      if (session.getTransaction().isActive()) {
+        session.getTransaction().rollback();
+      }
+    } finally {
+      session.close();
+    }
+  }
+
+  private int getFetchSize() {
+    Object fetchSize = entityManagerFactory.getProperties().get(FETCH_SIZE_PROPERTY);
+    if (fetchSize == null) {
+      return DEFAULT_FETCH_SIZE;
+    }
+    int size = Integer.parseInt(fetchSize.toString().trim());
+    return size > 0 ? size : DEFAULT_FETCH_SIZE;
+  }
+
+  private static class InvoiceIterator implements Iterator<Invoice> {
+
+    private final Session session;
+    private final ScrollableResults results;
+    private final int clearInterval;
+    private Boolean hasNext;
+    private long count;
+
+    InvoiceIterator(Session session, ScrollableResults results, int clearInterval) {
+      this.session = session;
+      this.results = results;
+      this.clearInterval = clearInterval;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (hasNext == null) {
+        hasNext = results.next();
+      }
+      return hasNext;
+    }
+
+    @Override
+    public Invoice next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      hasNext = null;
+      Invoice invoice = (Invoice) results.get(0);
+      if (++count % clearInterval == 0) {
+        session.clear();
+      }
+      return invoice;
+    }
+  }
+}
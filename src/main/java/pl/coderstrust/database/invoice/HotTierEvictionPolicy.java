@@ -0,0 +1,7 @@
+package pl.coderstrust.database.invoice;
+
+public enum HotTierEvictionPolicy {
+
+  LRU,
+  LFU
+}
@@ -2,19 +2,34 @@ package pl.coderstrust.database.invoice;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.NonNull;
 import lombok.Synchronized;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 import pl.coderstrust.database.DatabaseOperationException;
 import pl.coderstrust.helpers.FileHelper;
 import pl.coderstrust.helpers.FileHelperException;
 import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceSummary;
 
 @ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "in-file")
 @Repository
@@ -23,6 +38,8 @@ public class InFileInvoiceDatabase implements InvoiceDatabase {
   private FileHelper fileHelper;
   private ObjectMapper mapper;
   private int lastInvoiceId;
+  private Map<String, InvoiceSummary> summaries;
+  private InvoiceDateIndex dateIndex;
 
   @Autowired
   public InFileInvoiceDatabase(@NonNull FileHelper fileHelper, @NonNull ObjectMapper mapper) throws DatabaseOperationException {
@@ -51,16 +68,24 @@ public class InFileInvoiceDatabase implements InvoiceDatabase {
   @Synchronized
   public Invoice save(@NonNull Invoice invoice) throws DatabaseOperationException {
     Invoice invoiceToAddOrUpdate = new Invoice(invoice);
-    if (invoiceToAddOrUpdate.getId() != null && existsById(invoiceToAddOrUpdate.getId())) {
+    Optional<Invoice> storedInvoice = invoiceToAddOrUpdate.getId() == null ? Optional.empty() : findById(invoiceToAddOrUpdate.getId());
+    if (storedInvoice.isPresent()) {
+      long storedVersion = storedInvoice.get().getVersion() == null ? 0L : storedInvoice.get().getVersion();
+      if (invoice.getVersion() != null && invoice.getVersion() != storedVersion) {
+        throw new DatabaseOperationException(String.format("Invoice was modified concurrently, passed version is out of date: %s", invoice));
+      }
       deleteById(invoiceToAddOrUpdate.getId());
+      invoiceToAddOrUpdate.setVersion(storedVersion + 1);
     } else {
       invoiceToAddOrUpdate.setId(String.valueOf(getNextInvoiceId()));
+      invoiceToAddOrUpdate.setVersion(0L);
     }
     try {
       fileHelper.writeLine(mapper.writeValueAsString(invoiceToAddOrUpdate));
     } catch (IOException e) {
       throw new DatabaseOperationException(String.format("Encountered problems saving invoice: %s", invoiceToAddOrUpdate), e);
     }
+    updateIndexes(invoiceToAddOrUpdate);
     return invoiceToAddOrUpdate;
   }
 
@@ -85,6 +110,36 @@ public class InFileInvoiceDatabase implements InvoiceDatabase {
     }
   }
 
+  @Override
+  @Synchronized
+  public Page<Invoice> findAll(@NonNull Pageable pageable) throws DatabaseOperationException {
+    try (Stream<String> lines = fileHelper.streamLines()) {
+      if (pageable.getSort().isUnsorted()) {
+        Page<String> page = InvoicePaging.page(lines.iterator(), pageable, null);
+        List<Invoice> invoices = page.getContent().stream()
+            .map(this::deserializeJsonToInvoice)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        return new PageImpl<>(invoices, pageable, page.getTotalElements());
+      }
+      return InvoicePaging.page(lines.map(this::deserializeJsonToInvoice).filter(Objects::nonNull).iterator(), pageable,
+          InvoicePaging.invoiceComparator(pageable.getSort()));
+    } catch (IOException | UncheckedIOException e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while searching for invoices page: %s", pageable), e);
+    }
+  }
+
+  @Override
+  @Synchronized
+  public Page<InvoiceSummary> findAllSummaries(@NonNull Pageable pageable) throws DatabaseOperationException {
+    try {
+      Comparator<InvoiceSummary> comparator = pageable.getSort().isSorted() ? InvoicePaging.summaryComparator(pageable.getSort()) : null;
+      return InvoicePaging.page(getSummaries().values().iterator(), pageable, comparator);
+    } catch (IOException | UncheckedIOException e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while searching for invoice summaries page: %s", pageable), e);
+    }
+  }
+
   @Override
   @Synchronized
   public Iterable<Invoice> findAllBySellerName(@NonNull String sellerName) throws DatabaseOperationException {
@@ -109,6 +164,30 @@ public class InFileInvoiceDatabase implements InvoiceDatabase {
     }
   }
 
+  @Override
+  @Synchronized
+  public Iterable<Invoice> findAllByIssueDateBetween(@NonNull LocalDate fromDate, @NonNull LocalDate toDate) throws DatabaseOperationException {
+    InvoiceReports.validateDateRange(fromDate, toDate);
+    try {
+      buildIndexes();
+      return findAllByIds(dateIndex.findIssuedBetween(fromDate, toDate));
+    } catch (IOException | UncheckedIOException e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while searching for invoices issued between %s and %s", fromDate, toDate), e);
+    }
+  }
+
+  @Override
+  @Synchronized
+  public Iterable<Invoice> findAllByDueDateBetween(@NonNull LocalDate fromDate, @NonNull LocalDate toDate) throws DatabaseOperationException {
+    InvoiceReports.validateDateRange(fromDate, toDate);
+    try {
+      buildIndexes();
+      return findAllByIds(dateIndex.findDueBetween(fromDate, toDate));
+    } catch (IOException | UncheckedIOException e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while searching for invoices due between %s and %s", fromDate, toDate), e);
+    }
+  }
+
   @Override
   @Synchronized
   public long count() throws DatabaseOperationException {
@@ -131,6 +210,10 @@ public class InFileInvoiceDatabase implements InvoiceDatabase {
           .findFirst();
       if (invoice.isPresent()) {
         fileHelper.removeLine(invoices.indexOf(invoice.get()) + 1);
+        if (summaries != null) {
+          summaries.remove(id);
+          dateIndex.remove(id);
+        }
       } else {
         throw new DatabaseOperationException(String.format("There was no invoice in database with id %s", id));
       }
@@ -154,6 +237,8 @@ public class InFileInvoiceDatabase implements InvoiceDatabase {
   public void deleteAll() throws DatabaseOperationException {
     try {
       fileHelper.clear();
+      summaries = null;
+      dateIndex = null;
     } catch (IOException e) {
       throw new DatabaseOperationException("Encountered problem while deleting invoices.", e);
     }
@@ -175,6 +260,56 @@ public class InFileInvoiceDatabase implements InvoiceDatabase {
         .collect(Collectors.toList());
   }
 
+  private List<Invoice> findAllByIds(List<String> ids) throws IOException {
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+    Set<String> wantedIds = new HashSet<>(ids);
+    Map<String, Invoice> foundInvoices = new HashMap<>();
+    try (Stream<String> lines = fileHelper.streamLines()) {
+      Iterator<String> iterator = lines.iterator();
+      while (iterator.hasNext() && foundInvoices.size() < wantedIds.size()) {
+        Invoice invoice = deserializeJsonToInvoice(iterator.next());
+        if (invoice != null && wantedIds.contains(invoice.getId())) {
+          foundInvoices.put(invoice.getId(), invoice);
+        }
+      }
+    }
+    return ids.stream()
+        .map(foundInvoices::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  private Map<String, InvoiceSummary> getSummaries() throws IOException {
+    buildIndexes();
+    return summaries;
+  }
+
+  private void buildIndexes() throws IOException {
+    if (summaries == null) {
+      Map<String, InvoiceSummary> summaryIndex = new LinkedHashMap<>();
+      InvoiceDateIndex dates = new InvoiceDateIndex();
+      try (Stream<String> lines = fileHelper.streamLines()) {
+        lines.map(this::deserializeJsonToInvoice)
+            .filter(Objects::nonNull)
+            .forEach(invoice -> {
+              summaryIndex.put(invoice.getId(), new InvoiceSummary(invoice));
+              dates.put(invoice.getId(), invoice.getIssueDate(), invoice.getDueDate());
+            });
+      }
+      summaries = summaryIndex;
+      dateIndex = dates;
+    }
+  }
+
+  private void updateIndexes(Invoice invoice) {
+    if (summaries != null) {
+      summaries.put(invoice.getId(), new InvoiceSummary(invoice));
+      dateIndex.put(invoice.getId(), invoice.getIssueDate(), invoice.getDueDate());
+    }
+  }
+
   private int getNextInvoiceId() {
     return ++lastInvoiceId;
   }
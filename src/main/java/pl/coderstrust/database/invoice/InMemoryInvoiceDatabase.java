@@ -1,16 +1,22 @@
 package pl.coderstrust.database.invoice;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
+import lombok.Synchronized;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 import pl.coderstrust.database.DatabaseOperationException;
 import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceSummary;
 
 @NoArgsConstructor
 @ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "in-memory")
@@ -18,81 +24,144 @@ import pl.coderstrust.model.Invoice;
 public class InMemoryInvoiceDatabase implements InvoiceDatabase {
 
   private static int lastInvoiceId = 1;
-  private List<Invoice> invoices = Collections.synchronizedList(new ArrayList<>());
+  private final CompactInvoiceCodec codec = new CompactInvoiceCodec();
+  private final Map<String, CompactInvoice> invoices = new LinkedHashMap<>();
+  private final InvoiceDateIndex dateIndex = new InvoiceDateIndex();
 
   @Override
+  @Synchronized
   public boolean existsById(@NonNull String id) {
-    return invoices
-        .stream()
-        .anyMatch(i -> i.getId().equals(id));
+    return invoices.containsKey(id);
   }
 
   @Override
+  @Synchronized
   public Invoice save(@NonNull Invoice invoice) throws DatabaseOperationException {
     Invoice invoiceToAddOrUpdate = new Invoice(invoice);
-    if (invoiceToAddOrUpdate.getId() != null && existsById(invoiceToAddOrUpdate.getId())) {
-      return updateInvoice(invoiceToAddOrUpdate);
+    CompactInvoice storedInvoice = invoiceToAddOrUpdate.getId() == null ? null : invoices.get(invoiceToAddOrUpdate.getId());
+    boolean isNewInvoice = storedInvoice == null;
+    if (isNewInvoice) {
+      invoiceToAddOrUpdate.setId(String.valueOf(lastInvoiceId));
+      invoiceToAddOrUpdate.setVersion(0L);
+    } else {
+      long storedVersion = storedInvoice.version == null ? 0L : storedInvoice.version;
+      if (invoice.getVersion() != null && invoice.getVersion() != storedVersion) {
+        throw new DatabaseOperationException(String.format("Invoice was modified concurrently, passed version is out of date: %s", invoice));
+      }
+      invoiceToAddOrUpdate.setVersion(storedVersion + 1);
+    }
+    try {
+      CompactInvoice compactInvoice = codec.encode(invoiceToAddOrUpdate);
+      invoices.remove(compactInvoice.id);
+      invoices.put(compactInvoice.id, compactInvoice);
+      if (isNewInvoice) {
+        lastInvoiceId++;
+      }
+      dateIndex.put(compactInvoice.id, invoiceToAddOrUpdate.getIssueDate(), invoiceToAddOrUpdate.getDueDate());
+    } catch (IllegalArgumentException e) {
+      throw new DatabaseOperationException(String.format("Encountered problems saving invoice: %s", invoice), e);
     }
-    return addInvoice(invoiceToAddOrUpdate);
+    return invoiceToAddOrUpdate;
   }
 
   @Override
+  @Synchronized
   public void deleteById(@NonNull String id) throws DatabaseOperationException {
-    if (invoices.removeIf(i -> i.getId().equals(id))) {
-      return;
-    } else {
+    if (invoices.remove(id) == null) {
       throw new DatabaseOperationException(String.format("There was no invoice in database with id %s", id));
     }
+    dateIndex.remove(id);
   }
 
   @Override
+  @Synchronized
   public void deleteAll() {
     invoices.clear();
+    codec.clear();
+    dateIndex.clear();
   }
 
   @Override
+  @Synchronized
   public long count() {
     return (long) invoices.size();
   }
 
   @Override
+  @Synchronized
   public Optional<Invoice> findById(@NonNull String id) {
-    return invoices
-        .stream()
-        .filter(invoice -> invoice.getId().equals(id))
-        .findFirst();
+    return Optional.ofNullable(invoices.get(id))
+        .map(codec::decode);
   }
 
   @Override
+  @Synchronized
   public Iterable<Invoice> findAll() {
-    return invoices;
+    return invoices.values()
+        .stream()
+        .map(codec::decode)
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  @Synchronized
+  public Page<Invoice> findAll(@NonNull Pageable pageable) {
+    return InvoicePaging.page(invoices.values().iterator(), pageable, compactInvoiceComparator(pageable))
+        .map(codec::decode);
   }
 
   @Override
+  @Synchronized
+  public Page<InvoiceSummary> findAllSummaries(@NonNull Pageable pageable) {
+    return InvoicePaging.page(invoices.values().iterator(), pageable, compactInvoiceComparator(pageable))
+        .map(codec::decodeSummary);
+  }
+
+  @Override
+  @Synchronized
   public Iterable<Invoice> findAllBySellerName(@NonNull String sellerName) {
-    return invoices
+    return invoices.values()
         .stream()
-        .filter(invoice -> invoice.getSeller().getName().equals(sellerName))
+        .filter(invoice -> sellerName.equals(codec.decodeCompanyName(invoice.seller)))
+        .map(codec::decode)
         .collect(Collectors.toList());
   }
 
   @Override
+  @Synchronized
   public Iterable<Invoice> findAllByBuyerName(@NonNull String buyerName) {
-    return invoices
+    return invoices.values()
         .stream()
-        .filter(invoice -> invoice.getBuyer().getName().equals(buyerName))
+        .filter(invoice -> buyerName.equals(codec.decodeCompanyName(invoice.buyer)))
+        .map(codec::decode)
         .collect(Collectors.toList());
   }
 
-  private Invoice updateInvoice(Invoice invoice) throws DatabaseOperationException {
-    deleteById(invoice.getId());
-    invoices.add(invoice);
-    return invoice;
+  @Override
+  @Synchronized
+  public Iterable<Invoice> findAllByIssueDateBetween(@NonNull LocalDate fromDate, @NonNull LocalDate toDate) {
+    InvoiceReports.validateDateRange(fromDate, toDate);
+    return findAllByIds(dateIndex.findIssuedBetween(fromDate, toDate));
+  }
+
+  @Override
+  @Synchronized
+  public Iterable<Invoice> findAllByDueDateBetween(@NonNull LocalDate fromDate, @NonNull LocalDate toDate) {
+    InvoiceReports.validateDateRange(fromDate, toDate);
+    return findAllByIds(dateIndex.findDueBetween(fromDate, toDate));
+  }
+
+  private List<Invoice> findAllByIds(List<String> ids) {
+    return ids.stream()
+        .map(invoices::get)
+        .map(codec::decode)
+        .collect(Collectors.toList());
   }
 
-  private Invoice addInvoice(Invoice invoice) {
-    invoice.setId(String.valueOf(lastInvoiceId++));
-    invoices.add(invoice);
-    return invoice;
+  private Comparator<CompactInvoice> compactInvoiceComparator(Pageable pageable) {
+    return pageable.getSort().isSorted()
+        ? InvoicePaging.comparator(pageable.getSort(), new InvoicePaging.SortKeys<CompactInvoice>(invoice -> invoice.id, codec::decodeIssueDate,
+            codec::decodeDueDate, codec::decodeTotalNetValue, codec::decodeTotalGrossValue))
+        : null;
   }
 }
@@ -1,12 +1,143 @@
 package pl.coderstrust.database.invoice;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import pl.coderstrust.database.BatchOperationException;
 import pl.coderstrust.database.Database;
 import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.model.DueDateTotals;
 import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceSummary;
+import pl.coderstrust.model.MonthlyVatTotals;
+import pl.coderstrust.model.SellerTotals;
 
 public interface InvoiceDatabase extends Database<Invoice, String> {
 
   Iterable<Invoice> findAllBySellerName(String sellerName) throws DatabaseOperationException;
 
   Iterable<Invoice> findAllByBuyerName(String buyerName) throws DatabaseOperationException;
+
+  Iterable<Invoice> findAllByIssueDateBetween(LocalDate fromDate, LocalDate toDate) throws DatabaseOperationException;
+
+  Iterable<Invoice> findAllByDueDateBetween(LocalDate fromDate, LocalDate toDate) throws DatabaseOperationException;
+
+  Page<InvoiceSummary> findAllSummaries(Pageable pageable) throws DatabaseOperationException;
+
+  default List<InvoiceSummary> findAllSummariesBySellerName(String sellerName) throws DatabaseOperationException {
+    return StreamSupport.stream(findAllBySellerName(sellerName).spliterator(), false)
+        .map(InvoiceSummary::new)
+        .collect(Collectors.toList());
+  }
+
+  default List<InvoiceSummary> findAllSummariesByBuyerName(String buyerName) throws DatabaseOperationException {
+    return StreamSupport.stream(findAllByBuyerName(buyerName).spliterator(), false)
+        .map(InvoiceSummary::new)
+        .collect(Collectors.toList());
+  }
+
+  default Optional<Invoice> findAndDeleteById(String id) throws DatabaseOperationException {
+    Optional<Invoice> invoice = findById(id);
+    if (invoice.isPresent()) {
+      try {
+        deleteById(id);
+      } catch (DatabaseOperationException e) {
+        if (existsById(id)) {
+          throw e;
+        }
+        return Optional.empty();
+      }
+    }
+    return invoice;
+  }
+
+  default List<Invoice> saveAll(Iterable<Invoice> invoices) throws DatabaseOperationException {
+    if (invoices == null) {
+      throw new IllegalArgumentException("Invoices cannot be null.");
+    }
+    List<Invoice> savedInvoices = new ArrayList<>();
+    Map<Integer, String> failures = new TreeMap<>();
+    int index = 0;
+    for (Invoice invoice : invoices) {
+      try {
+        savedInvoices.add(save(invoice));
+      } catch (DatabaseOperationException e) {
+        failures.put(index, e.getMessage());
+      }
+      index++;
+    }
+    if (!failures.isEmpty()) {
+      throw new BatchOperationException(String.format("%d of %d invoices could not be saved.", failures.size(), index), failures, savedInvoices);
+    }
+    return savedInvoices;
+  }
+
+  default Set<String> findExistingIds(Iterable<String> ids) throws DatabaseOperationException {
+    if (ids == null) {
+      throw new IllegalArgumentException("Ids cannot be null.");
+    }
+    Set<String> existingIds = new HashSet<>();
+    for (String id : ids) {
+      if (existsById(id)) {
+        existingIds.add(id);
+      }
+    }
+    return existingIds;
+  }
+
+  default void deleteAllById(Iterable<String> ids) throws DatabaseOperationException {
+    if (ids == null) {
+      throw new IllegalArgumentException("Ids cannot be null.");
+    }
+    Map<Integer, String> failures = new TreeMap<>();
+    int position = 0;
+    for (String id : ids) {
+      try {
+        deleteById(id);
+      } catch (DatabaseOperationException e) {
+        failures.put(position, e.getMessage());
+      }
+      position++;
+    }
+    if (!failures.isEmpty()) {
+      throw new BatchOperationException(String.format("%d of %d invoices could not be deleted.", failures.size(), position), failures);
+    }
+  }
+
+  default Stream<Invoice> streamAll() throws DatabaseOperationException {
+    return StreamSupport.stream(findAll().spliterator(), false);
+  }
+
+  default List<SellerTotals> findTotalsBySeller(LocalDate fromDate, LocalDate toDate) throws DatabaseOperationException {
+    InvoiceReports.validateDateRange(fromDate, toDate);
+    try (Stream<Invoice> invoices = streamAll()) {
+      return InvoiceReports.totalsBySeller(invoices, fromDate, toDate);
+    }
+  }
+
+  default List<MonthlyVatTotals> findVatTotalsByMonth(LocalDate fromDate, LocalDate toDate) throws DatabaseOperationException {
+    InvoiceReports.validateDateRange(fromDate, toDate);
+    try (Stream<Invoice> invoices = streamAll()) {
+      return InvoiceReports.vatByMonth(invoices, fromDate, toDate);
+    }
+  }
+
+  default List<DueDateTotals> findOutstandingTotalsByDueDate(LocalDate asOfDate) throws DatabaseOperationException {
+    if (asOfDate == null) {
+      throw new IllegalArgumentException("Date cannot be null.");
+    }
+    try (Stream<Invoice> invoices = streamAll()) {
+      return InvoiceReports.totalsByDueDate(invoices, asOfDate);
+    }
+  }
 }
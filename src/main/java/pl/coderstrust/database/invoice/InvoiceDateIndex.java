@@ -0,0 +1,69 @@
+package pl.coderstrust.database.invoice;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+class InvoiceDateIndex {
+
+  private final NavigableMap<LocalDate, Set<String>> issueDates = new TreeMap<>();
+  private final NavigableMap<LocalDate, Set<String>> dueDates = new TreeMap<>();
+  private final Map<String, LocalDate[]> indexedDates = new HashMap<>();
+
+  void put(String id, LocalDate issueDate, LocalDate dueDate) {
+    remove(id);
+    add(issueDates, issueDate, id);
+    add(dueDates, dueDate, id);
+    indexedDates.put(id, new LocalDate[] {issueDate, dueDate});
+  }
+
+  void remove(String id) {
+    LocalDate[] dates = indexedDates.remove(id);
+    if (dates != null) {
+      remove(issueDates, dates[0], id);
+      remove(dueDates, dates[1], id);
+    }
+  }
+
+  List<String> findIssuedBetween(LocalDate fromDate, LocalDate toDate) {
+    return find(issueDates, fromDate, toDate);
+  }
+
+  List<String> findDueBetween(LocalDate fromDate, LocalDate toDate) {
+    return find(dueDates, fromDate, toDate);
+  }
+
+  void clear() {
+    issueDates.clear();
+    dueDates.clear();
+    indexedDates.clear();
+  }
+
+  private static void add(NavigableMap<LocalDate, Set<String>> index, LocalDate date, String id) {
+    if (date != null) {
+      index.computeIfAbsent(date, key -> new LinkedHashSet<>()).add(id);
+    }
+  }
+
+  private static void remove(NavigableMap<LocalDate, Set<String>> index, LocalDate date, String id) {
+    if (date == null) {
+      return;
+    }
+    Set<String> ids = index.get(date);
+    if (ids != null && ids.remove(id) && ids.isEmpty()) {
+      index.remove(date);
+    }
+  }
+
+  private static List<String> find(NavigableMap<LocalDate, Set<String>> index, LocalDate fromDate, LocalDate toDate) {
+    List<String> ids = new ArrayList<>();
+    index.subMap(fromDate, true, toDate, true).values().forEach(ids::addAll);
+    return ids;
+  }
+}
@@ -0,0 +1,145 @@
+package pl.coderstrust.database.invoice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceSummary;
+
+public final class InvoicePaging {
+
+  public static final List<String> SORTABLE_PROPERTIES = Collections.unmodifiableList(Arrays.asList("id", "issueDate", "dueDate", "totalNetValue", "totalGrossValue"));
+  public static final int MAX_SORTED_PAGE_WINDOW = 10000;
+
+  private static final Comparator<String> ID_ORDER = Comparator
+      .comparing(InvoicePaging::toNumericId, Comparator.nullsLast(Comparator.<Long>naturalOrder()))
+      .thenComparing(Comparator.naturalOrder());
+
+  private InvoicePaging() {
+  }
+
+  static Comparator<Invoice> invoiceComparator(Sort sort) {
+    return comparator(sort, new SortKeys<>(Invoice::getId, Invoice::getIssueDate, Invoice::getDueDate, Invoice::getTotalNetValue,
+        Invoice::getTotalGrossValue));
+  }
+
+  static Comparator<InvoiceSummary> summaryComparator(Sort sort) {
+    return comparator(sort, new SortKeys<>(InvoiceSummary::getId, InvoiceSummary::getIssueDate, InvoiceSummary::getDueDate,
+        InvoiceSummary::getTotalNetValue, InvoiceSummary::getTotalGrossValue));
+  }
+
+  static <T> Comparator<T> comparator(Sort sort, SortKeys<T> sortKeys) {
+    Comparator<T> comparator = null;
+    for (Sort.Order order : sort) {
+      Comparator<T> propertyComparator = propertyComparator(order.getProperty(), sortKeys);
+      if (order.isDescending()) {
+        propertyComparator = propertyComparator.reversed();
+      }
+      comparator = comparator == null ? propertyComparator : comparator.thenComparing(propertyComparator);
+    }
+    Comparator<T> idComparator = Comparator.comparing(sortKeys.id, Comparator.nullsFirst(ID_ORDER));
+    return comparator == null ? idComparator : comparator.thenComparing(idComparator);
+  }
+
+  static <T> Page<T> page(Iterator<T> items, Pageable pageable, Comparator<? super T> comparator) {
+    if (pageable.isUnpaged()) {
+      List<T> content = new ArrayList<>();
+      items.forEachRemaining(content::add);
+      if (comparator != null) {
+        content.sort(comparator);
+      }
+      return new PageImpl<>(content, pageable, content.size());
+    }
+    return comparator == null ? slice(items, pageable) : sortAndSlice(items, pageable, comparator);
+  }
+
+  private static <T> Page<T> slice(Iterator<T> items, Pageable pageable) {
+    List<T> content = new ArrayList<>(pageable.getPageSize());
+    long total = 0;
+    while (items.hasNext()) {
+      T item = items.next();
+      if (total >= pageable.getOffset() && content.size() < pageable.getPageSize()) {
+        content.add(item);
+      }
+      total++;
+    }
+    return new PageImpl<>(content, pageable, total);
+  }
+
+  private static <T> Page<T> sortAndSlice(Iterator<T> items, Pageable pageable, Comparator<? super T> comparator) {
+    long limit = pageable.getOffset() + pageable.getPageSize();
+    if (limit > MAX_SORTED_PAGE_WINDOW) {
+      throw new IllegalArgumentException(String.format("Sorted pages cannot reach beyond the first %d invoices", MAX_SORTED_PAGE_WINDOW));
+    }
+    PriorityQueue<T> firstItems = new PriorityQueue<>(Collections.reverseOrder(comparator));
+    long total = 0;
+    while (items.hasNext()) {
+      firstItems.add(items.next());
+      if (firstItems.size() > limit) {
+        firstItems.poll();
+      }
+      total++;
+    }
+    List<T> sortedItems = new ArrayList<>(firstItems);
+    sortedItems.sort(comparator);
+    int fromIndex = (int) Math.min(pageable.getOffset(), sortedItems.size());
+    return new PageImpl<>(new ArrayList<>(sortedItems.subList(fromIndex, sortedItems.size())), pageable, total);
+  }
+
+  private static <T> Comparator<T> propertyComparator(String property, SortKeys<T> sortKeys) {
+    switch (property) {
+      case "id":
+        return Comparator.comparing(sortKeys.id, Comparator.nullsFirst(ID_ORDER));
+      case "issueDate":
+        return Comparator.comparing(sortKeys.issueDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+      case "dueDate":
+        return Comparator.comparing(sortKeys.dueDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+      case "totalNetValue":
+        return Comparator.comparing(sortKeys.totalNetValue, Comparator.nullsFirst(Comparator.naturalOrder()));
+      case "totalGrossValue":
+        return Comparator.comparing(sortKeys.totalGrossValue, Comparator.nullsFirst(Comparator.naturalOrder()));
+      default:
+        throw new IllegalArgumentException(String.format("Invoices cannot be sorted by property: %s", property));
+    }
+  }
+
+  private static Long toNumericId(String id) {
+    if (id.isEmpty() || !id.chars().allMatch(Character::isDigit)) {
+      return null;
+    }
+    try {
+      return Long.parseLong(id);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  static final class SortKeys<T> {
+
+    private final Function<T, String> id;
+    private final Function<T, LocalDate> issueDate;
+    private final Function<T, LocalDate> dueDate;
+    private final Function<T, BigDecimal> totalNetValue;
+    private final Function<T, BigDecimal> totalGrossValue;
+
+    SortKeys(Function<T, String> id, Function<T, LocalDate> issueDate, Function<T, LocalDate> dueDate, Function<T, BigDecimal> totalNetValue,
+        Function<T, BigDecimal> totalGrossValue) {
+      this.id = id;
+      this.issueDate = issueDate;
+      this.dueDate = dueDate;
+      this.totalNetValue = totalNetValue;
+      this.totalGrossValue = totalGrossValue;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package pl.coderstrust.database.invoice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import pl.coderstrust.model.DueDateTotals;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.MonthlyVatTotals;
+import pl.coderstrust.model.SellerTotals;
+
+final class InvoiceReports {
+
+  private InvoiceReports() {
+  }
+
+  static void validateDateRange(LocalDate fromDate, LocalDate toDate) {
+    if (fromDate == null || toDate == null) {
+      throw new IllegalArgumentException("Dates cannot be null.");
+    }
+    if (fromDate.isAfter(toDate)) {
+      throw new IllegalArgumentException("The end date must be newer or equal to start date");
+    }
+  }
+
+  static List<SellerTotals> totalsBySeller(Stream<Invoice> invoices, LocalDate fromDate, LocalDate toDate) {
+    Map<String, SellerTotals> totals = new HashMap<>();
+    invoices.filter(invoice -> isIssuedBetween(invoice, fromDate, toDate)).forEach(invoice -> {
+      String sellerName = invoice.getSeller() == null ? null : invoice.getSeller().getName();
+      SellerTotals sellerTotals = totals.computeIfAbsent(sellerName, name -> new SellerTotals(name, 0, BigDecimal.ZERO, BigDecimal.ZERO));
+      sellerTotals.setInvoiceCount(sellerTotals.getInvoiceCount() + 1);
+      sellerTotals.setTotalNetValue(sellerTotals.getTotalNetValue().add(valueOf(invoice.getTotalNetValue())));
+      sellerTotals.setTotalGrossValue(sellerTotals.getTotalGrossValue().add(valueOf(invoice.getTotalGrossValue())));
+    });
+    List<SellerTotals> result = new ArrayList<>(totals.values());
+    result.sort(Comparator.comparing(SellerTotals::getSellerName, Comparator.nullsFirst(Comparator.naturalOrder())));
+    return result;
+  }
+
+  static List<MonthlyVatTotals> vatByMonth(Stream<Invoice> invoices, LocalDate fromDate, LocalDate toDate) {
+    Map<YearMonth, MonthlyVatTotals> totals = new TreeMap<>();
+    invoices.filter(invoice -> isIssuedBetween(invoice, fromDate, toDate)).forEach(invoice -> {
+      YearMonth month = YearMonth.from(invoice.getIssueDate());
+      MonthlyVatTotals monthlyTotals = totals.computeIfAbsent(month,
+          key -> new MonthlyVatTotals(key.getYear(), key.getMonthValue(), 0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
+      monthlyTotals.setInvoiceCount(monthlyTotals.getInvoiceCount() + 1);
+      monthlyTotals.setTotalNetValue(monthlyTotals.getTotalNetValue().add(valueOf(invoice.getTotalNetValue())));
+      monthlyTotals.setTotalGrossValue(monthlyTotals.getTotalGrossValue().add(valueOf(invoice.getTotalGrossValue())));
+      monthlyTotals.setTotalVatValue(monthlyTotals.getTotalGrossValue().subtract(monthlyTotals.getTotalNetValue()));
+    });
+    return new ArrayList<>(totals.values());
+  }
+
+  static List<DueDateTotals> totalsByDueDate(Stream<Invoice> invoices, LocalDate asOfDate) {
+    Map<LocalDate, DueDateTotals> totals = new TreeMap<>();
+    invoices.filter(invoice -> invoice.getDueDate() != null && !invoice.getDueDate().isBefore(asOfDate)).forEach(invoice -> {
+      DueDateTotals dueDateTotals = totals.computeIfAbsent(invoice.getDueDate(), dueDate -> new DueDateTotals(dueDate, 0, BigDecimal.ZERO));
+      dueDateTotals.setInvoiceCount(dueDateTotals.getInvoiceCount() + 1);
+      dueDateTotals.setTotalGrossValue(dueDateTotals.getTotalGrossValue().add(valueOf(invoice.getTotalGrossValue())));
+    });
+    return new ArrayList<>(totals.values());
+  }
+
+  static boolean isBetween(LocalDate date, LocalDate fromDate, LocalDate toDate) {
+    return date != null && !date.isBefore(fromDate) && !date.isAfter(toDate);
+  }
+
+  private static boolean isIssuedBetween(Invoice invoice, LocalDate fromDate, LocalDate toDate) {
+    return isBetween(invoice.getIssueDate(), fromDate, toDate);
+  }
+
+  private static BigDecimal valueOf(BigDecimal value) {
+    return value == null ? BigDecimal.ZERO : value;
+  }
+}
@@ -1,23 +1,65 @@
 package pl.coderstrust.database.invoice;
 
+import com.mongodb.BulkWriteError;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PostConstruct;
 import lombok.NonNull;
-import lombok.Synchronized;
 import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.data.util.Pair;
+import org.springframework.data.util.StreamUtils;
 import org.springframework.stereotype.Repository;
 import pl.coderstrust.configuration.MongoDatabaseProperties;
+import pl.coderstrust.database.BatchOperationException;
 import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.model.DueDateTotals;
 import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceSummary;
+import pl.coderstrust.model.MonthlyVatTotals;
+import pl.coderstrust.model.SellerTotals;
 
 @ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "mongodb")
 @Repository
 public class MongoInvoiceDatabase implements InvoiceDatabase {
 
+  private static final String[] INDEXED_FIELDS = {"seller.name", "buyer.name", "seller.taxIdentificationNumber", "issueDate", "dueDate"};
+  private static final String[] SUMMARY_FIELDS = {"type", "issueDate", "dueDate", "seller.name", "buyer.name", "totalNetValue", "totalGrossValue", "comments"};
+
   private final MongoDatabaseProperties properties;
   private MongoTemplate mongoTemplate;
 
@@ -27,17 +69,58 @@ public class MongoInvoiceDatabase implements InvoiceDatabase {
     this.properties = properties;
   }
 
-  @Synchronized
+  @PostConstruct
+  public void ensureIndexes() {
+    IndexOperations indexOperations = mongoTemplate.indexOps(properties.getCollectionName());
+    for (String field : INDEXED_FIELDS) {
+      indexOperations.ensureIndex(new Index().on(field, Sort.Direction.ASC).named(String.format("invoice_%s_idx", field.replace('.', '_'))));
+    }
+  }
+
   @Override
   public Invoice save(@NonNull Invoice invoice) throws DatabaseOperationException {
     try {
-      return mongoTemplate.save(invoice, properties.getCollectionName());
+      if (invoice.getId() != null && invoice.getVersion() != null) {
+        return replaceVersion(invoice);
+      }
+      Invoice invoiceToSave = new Invoice(invoice);
+      invoiceToSave.setVersion(invoice.getId() == null ? 0L : findCurrentVersion(invoice.getId()).map(version -> version + 1).orElse(0L));
+      return mongoTemplate.save(invoiceToSave, properties.getCollectionName());
+    } catch (OptimisticLockingFailureException e) {
+      throw new DatabaseOperationException(String.format("Invoice was modified concurrently, passed version is out of date: %s", invoice), e);
     } catch (Exception e) {
       throw new DatabaseOperationException(String.format("Encountered problems saving invoice: %s", invoice), e);
     }
   }
 
-  @Synchronized
+  @Override
+  public List<Invoice> saveAll(@NonNull Iterable<Invoice> invoices) throws DatabaseOperationException {
+    List<Invoice> savedInvoices = new ArrayList<>();
+    Map<Integer, String> failures = new TreeMap<>();
+    int total = 0;
+    try {
+      List<Invoice> batch = new ArrayList<>(properties.getBatchSize());
+      for (Invoice invoice : invoices) {
+        batch.add(invoice);
+        if (batch.size() == properties.getBatchSize()) {
+          savedInvoices.addAll(saveBatch(batch, total, failures));
+          total += batch.size();
+          batch.clear();
+        }
+      }
+      if (!batch.isEmpty()) {
+        savedInvoices.addAll(saveBatch(batch, total, failures));
+        total += batch.size();
+      }
+    } catch (Exception e) {
+      throw new DatabaseOperationException("Encountered problems saving invoices.", e);
+    }
+    if (!failures.isEmpty()) {
+      throw new BatchOperationException(String.format("%d of %d invoices could not be saved.", failures.size(), total), failures, savedInvoices);
+    }
+    return savedInvoices;
+  }
+
   @Override
   public Optional<Invoice> findById(@NonNull String id) throws DatabaseOperationException {
     try {
@@ -47,7 +130,6 @@ public class MongoInvoiceDatabase implements InvoiceDatabase {
     }
   }
 
-  @Synchronized
   @Override
   public boolean existsById(@NonNull String id) throws DatabaseOperationException {
     try {
@@ -57,7 +139,6 @@ public class MongoInvoiceDatabase implements InvoiceDatabase {
     }
   }
 
-  @Synchronized
   @Override
   public Iterable<Invoice> findAll() throws DatabaseOperationException {
     try {
@@ -67,7 +148,29 @@ public class MongoInvoiceDatabase implements InvoiceDatabase {
     }
   }
 
-  @Synchronized
+  @Override
+  public Stream<Invoice> streamAll() throws DatabaseOperationException {
+    try {
+      Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).cursorBatchSize(properties.getCursorBatchSize());
+      if (properties.isNoCursorTimeout()) {
+        query.noCursorTimeout();
+      }
+      return StreamUtils.createStreamFromIterator(mongoTemplate.stream(query, Invoice.class, properties.getCollectionName()));
+    } catch (Exception e) {
+      throw new DatabaseOperationException("Encountered problems while streaming invoices.", e);
+    }
+  }
+
+  @Override
+  public Page<Invoice> findAll(@NonNull Pageable pageable) throws DatabaseOperationException {
+    try {
+      List<Invoice> invoices = mongoTemplate.find(new Query().with(pageable), Invoice.class, properties.getCollectionName());
+      return PageableExecutionUtils.getPage(invoices, pageable, () -> mongoTemplate.count(new Query(), Invoice.class, properties.getCollectionName()));
+    } catch (Exception e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while searching for invoices page: %s", pageable), e);
+    }
+  }
+
   @Override
   public long count() throws DatabaseOperationException {
     try {
@@ -77,7 +180,6 @@ public class MongoInvoiceDatabase implements InvoiceDatabase {
     }
   }
 
-  @Synchronized
   @Override
   public void deleteById(@NonNull String id) throws DatabaseOperationException {
     try {
@@ -90,7 +192,52 @@ public class MongoInvoiceDatabase implements InvoiceDatabase {
     }
   }
 
-  @Synchronized
+  @Override
+  public Optional<Invoice> findAndDeleteById(@NonNull String id) throws DatabaseOperationException {
+    try {
+      return Optional.ofNullable(mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(id)), Invoice.class, properties.getCollectionName()));
+    } catch (Exception e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while deleting invoice: %s", id), e);
+    }
+  }
+
+  @Override
+  public Set<String> findExistingIds(@NonNull Iterable<String> ids) throws DatabaseOperationException {
+    try {
+      List<String> idsToFind = new ArrayList<>();
+      ids.forEach(idsToFind::add);
+      return findCurrentVersions(idsToFind).keySet();
+    } catch (Exception e) {
+      throw new DatabaseOperationException("Encountered problems looking for invoices.", e);
+    }
+  }
+
+  @Override
+  public void deleteAllById(@NonNull Iterable<String> ids) throws DatabaseOperationException {
+    Map<Integer, String> failures = new TreeMap<>();
+    int total = 0;
+    try {
+      List<String> batch = new ArrayList<>(properties.getBatchSize());
+      for (String id : ids) {
+        batch.add(id);
+        if (batch.size() == properties.getBatchSize()) {
+          deleteBatch(batch, total, failures);
+          total += batch.size();
+          batch.clear();
+        }
+      }
+      if (!batch.isEmpty()) {
+        deleteBatch(batch, total, failures);
+        total += batch.size();
+      }
+    } catch (Exception e) {
+      throw new DatabaseOperationException("Encountered problems while deleting invoices.", e);
+    }
+    if (!failures.isEmpty()) {
+      throw new BatchOperationException(String.format("%d of %d invoices could not be deleted.", failures.size(), total), failures);
+    }
+  }
+
   @Override
   public void deleteAll() throws DatabaseOperationException {
     try {
@@ -100,23 +247,294 @@ public class MongoInvoiceDatabase implements InvoiceDatabase {
     }
   }
 
-  @Synchronized
   @Override
   public Iterable<Invoice> findAllBySellerName(@NonNull String sellerName) throws DatabaseOperationException {
     try {
-      return mongoTemplate.find(Query.query(Criteria.where("sellerName").is(sellerName)), Invoice.class, properties.getCollectionName());
+      return mongoTemplate.find(Query.query(Criteria.where("seller.name").is(sellerName)), Invoice.class, properties.getCollectionName());
     } catch (Exception e) {
       throw new DatabaseOperationException(String.format("Encountered problems while searching for invoices with seller name: %s", sellerName), e);
     }
   }
 
-  @Synchronized
   @Override
   public Iterable<Invoice> findAllByBuyerName(@NonNull String buyerName) throws DatabaseOperationException {
     try {
-      return mongoTemplate.find(Query.query(Criteria.where("buyerName").is(buyerName)), Invoice.class, properties.getCollectionName());
+      return mongoTemplate.find(Query.query(Criteria.where("buyer.name").is(buyerName)), Invoice.class, properties.getCollectionName());
     } catch (Exception e) {
       throw new DatabaseOperationException(String.format("Encountered problems while searching for invoices with buyer name: %s", buyerName), e);
     }
   }
+
+  @Override
+  public Iterable<Invoice> findAllByIssueDateBetween(@NonNull LocalDate fromDate, @NonNull LocalDate toDate) throws DatabaseOperationException {
+    InvoiceReports.validateDateRange(fromDate, toDate);
+    try {
+      return mongoTemplate.find(Query.query(Criteria.where("issueDate").gte(fromDate).lte(toDate)), Invoice.class, properties.getCollectionName());
+    } catch (Exception e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while searching for invoices issued between %s and %s", fromDate, toDate), e);
+    }
+  }
+
+  @Override
+  public Iterable<Invoice> findAllByDueDateBetween(@NonNull LocalDate fromDate, @NonNull LocalDate toDate) throws DatabaseOperationException {
+    InvoiceReports.validateDateRange(fromDate, toDate);
+    try {
+      return mongoTemplate.find(Query.query(Criteria.where("dueDate").gte(fromDate).lte(toDate)), Invoice.class, properties.getCollectionName());
+    } catch (Exception e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while searching for invoices due between %s and %s", fromDate, toDate), e);
+    }
+  }
+
+  @Override
+  public List<InvoiceSummary> findAllSummariesBySellerName(@NonNull String sellerName) throws DatabaseOperationException {
+    try {
+      return findSummaries(Query.query(Criteria.where("seller.name").is(sellerName)));
+    } catch (Exception e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while searching for invoice summaries with seller name: %s", sellerName), e);
+    }
+  }
+
+  @Override
+  public List<InvoiceSummary> findAllSummariesByBuyerName(@NonNull String buyerName) throws DatabaseOperationException {
+    try {
+      return findSummaries(Query.query(Criteria.where("buyer.name").is(buyerName)));
+    } catch (Exception e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while searching for invoice summaries with buyer name: %s", buyerName), e);
+    }
+  }
+
+  @Override
+  public Page<InvoiceSummary> findAllSummaries(@NonNull Pageable pageable) throws DatabaseOperationException {
+    try {
+      List<InvoiceSummary> summaries = findSummaries(new Query().with(pageable));
+      return PageableExecutionUtils.getPage(summaries, pageable, () -> mongoTemplate.count(new Query(), Invoice.class, properties.getCollectionName()));
+    } catch (Exception e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while searching for invoice summaries page: %s", pageable), e);
+    }
+  }
+
+  @Override
+  public List<SellerTotals> findTotalsBySeller(@NonNull LocalDate fromDate, @NonNull LocalDate toDate) throws DatabaseOperationException {
+    InvoiceReports.validateDateRange(fromDate, toDate);
+    try {
+      TypedAggregation<Invoice> aggregation = Aggregation.newAggregation(Invoice.class,
+          Aggregation.match(Criteria.where("issueDate").gte(fromDate).lte(toDate)),
+          Aggregation.group(Fields.from(Fields.field("sellerName", "seller.name")))
+              .count().as("invoiceCount")
+              .sum(toDecimal("totalNetValue")).as("totalNetValue")
+              .sum(toDecimal("totalGrossValue")).as("totalGrossValue"),
+          Aggregation.project("invoiceCount")
+              .and("sellerName").previousOperation()
+              .and(toText("totalNetValue")).as("totalNetValue")
+              .and(toText("totalGrossValue")).as("totalGrossValue"),
+          Aggregation.sort(Sort.Direction.ASC, "sellerName"));
+      return mongoTemplate.aggregate(aggregation, properties.getCollectionName(), SellerTotals.class).getMappedResults();
+    } catch (Exception e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while summing invoices by seller issued between %s and %s", fromDate, toDate), e);
+    }
+  }
+
+  @Override
+  public List<MonthlyVatTotals> findVatTotalsByMonth(@NonNull LocalDate fromDate, @NonNull LocalDate toDate) throws DatabaseOperationException {
+    InvoiceReports.validateDateRange(fromDate, toDate);
+    try {
+      DateOperators.Timezone timezone = DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId());
+      TypedAggregation<Invoice> aggregation = Aggregation.newAggregation(Invoice.class,
+          Aggregation.match(Criteria.where("issueDate").gte(fromDate).lte(toDate)),
+          Aggregation.project("totalNetValue", "totalGrossValue")
+              .and(DateOperators.dateOf("issueDate").withTimezone(timezone).year()).as("year")
+              .and(DateOperators.dateOf("issueDate").withTimezone(timezone).month()).as("month"),
+          Aggregation.group("year", "month")
+              .count().as("invoiceCount")
+              .sum(toDecimal("totalNetValue")).as("totalNetValue")
+              .sum(toDecimal("totalGrossValue")).as("totalGrossValue"),
+          Aggregation.project("year", "month", "invoiceCount")
+              .and(toText("totalNetValue")).as("totalNetValue")
+              .and(toText("totalGrossValue")).as("totalGrossValue")
+              .and(ConvertOperators.valueOf(ArithmeticOperators.valueOf("totalGrossValue").subtract("totalNetValue")).convertToString()).as("totalVatValue"),
+          Aggregation.sort(Sort.Direction.ASC, "year", "month"));
+      return mongoTemplate.aggregate(aggregation, properties.getCollectionName(), MonthlyVatTotals.class).getMappedResults();
+    } catch (Exception e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while summing tax of invoices by month issued between %s and %s", fromDate, toDate), e);
+    }
+  }
+
+  @Override
+  public List<DueDateTotals> findOutstandingTotalsByDueDate(@NonNull LocalDate asOfDate) throws DatabaseOperationException {
+    try {
+      TypedAggregation<Invoice> aggregation = Aggregation.newAggregation(Invoice.class,
+          Aggregation.match(Criteria.where("dueDate").gte(asOfDate)),
+          Aggregation.group("dueDate")
+              .count().as("invoiceCount")
+              .sum(toDecimal("totalGrossValue")).as("totalGrossValue"),
+          Aggregation.project("invoiceCount")
+              .and("dueDate").previousOperation()
+              .and(toText("totalGrossValue")).as("totalGrossValue"),
+          Aggregation.sort(Sort.Direction.ASC, "dueDate"));
+      return mongoTemplate.aggregate(aggregation, properties.getCollectionName(), DueDateTotals.class).getMappedResults();
+    } catch (Exception e) {
+      throw new DatabaseOperationException(String.format("Encountered problems while summing invoices due on or after %s", asOfDate), e);
+    }
+  }
+
+  private List<InvoiceSummary> findSummaries(Query query) {
+    for (String field : SUMMARY_FIELDS) {
+      query.fields().include(field);
+    }
+    return mongoTemplate.find(query, Invoice.class, properties.getCollectionName()).stream()
+        .map(InvoiceSummary::new)
+        .collect(Collectors.toList());
+  }
+
+  private static AggregationExpression toDecimal(String field) {
+    return ConvertOperators.valueOf(field).convertToDecimal();
+  }
+
+  private static AggregationExpression toText(String field) {
+    return ConvertOperators.valueOf(field).convertToString();
+  }
+
+  private List<Invoice> saveBatch(List<Invoice> batch, int offset, Map<Integer, String> failures) {
+    Map<String, Long> currentVersions = findCurrentVersions(batch.stream().map(Invoice::getId).filter(Objects::nonNull).collect(Collectors.toList()));
+    List<Invoice> invoicesToSave = new ArrayList<>(batch.size());
+    List<Invoice> inserts = new ArrayList<>();
+    List<Integer> insertPositions = new ArrayList<>();
+    List<Pair<Query, Update>> updates = new ArrayList<>();
+    List<Integer> updatePositions = new ArrayList<>();
+    for (int position = 0; position < batch.size(); position++) {
+      Invoice invoice = batch.get(position);
+      Invoice invoiceToSave = new Invoice(invoice);
+      if (invoice.getId() != null && currentVersions.containsKey(invoice.getId())) {
+        Long expectedVersion = invoice.getVersion() == null ? currentVersions.get(invoice.getId()) : invoice.getVersion();
+        invoiceToSave.setVersion(expectedVersion == null ? 0L : expectedVersion + 1);
+        currentVersions.put(invoice.getId(), invoiceToSave.getVersion());
+        updates.add(Pair.of(Query.query(Criteria.where("_id").is(invoice.getId()).and("version").is(expectedVersion)), toReplacement(invoiceToSave)));
+        updatePositions.add(position);
+      } else if (invoice.getId() != null && invoice.getVersion() != null) {
+        failures.put(offset + position, String.format("There is no invoice with id: %s and version: %s in database.", invoice.getId(), invoice.getVersion()));
+        invoiceToSave = null;
+      } else {
+        if (invoiceToSave.getId() == null) {
+          invoiceToSave.setId(ObjectId.get().toHexString());
+        }
+        invoiceToSave.setVersion(0L);
+        currentVersions.put(invoiceToSave.getId(), 0L);
+        inserts.add(invoiceToSave);
+        insertPositions.add(position);
+      }
+      invoicesToSave.add(invoiceToSave);
+    }
+    if (!inserts.isEmpty() || !updates.isEmpty()) {
+      BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Invoice.class, properties.getCollectionName());
+      operations.insert(inserts);
+      operations.updateOne(updates);
+      List<Integer> positions = new ArrayList<>(insertPositions);
+      positions.addAll(updatePositions);
+      int matchedCount = execute(operations, positions, offset, failures, invoicesToSave);
+      if (matchedCount < updates.size()) {
+        markUnmatchedUpdates(batch, updatePositions, offset, failures, invoicesToSave);
+      }
+    }
+    return invoicesToSave.stream()
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  private void deleteBatch(List<String> ids, int offset, Map<Integer, String> failures) {
+    Set<String> existingIds = findCurrentVersions(ids).keySet();
+    List<Query> removals = new ArrayList<>();
+    List<Integer> removalPositions = new ArrayList<>();
+    for (int position = 0; position < ids.size(); position++) {
+      String id = ids.get(position);
+      if (existingIds.contains(id)) {
+        removals.add(Query.query(Criteria.where("_id").is(id)));
+        removalPositions.add(position);
+      } else {
+        failures.put(offset + position, String.format("There is no invoice with id: %s present in database. Nothing was removed.", id));
+      }
+    }
+    if (!removals.isEmpty()) {
+      BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Invoice.class, properties.getCollectionName());
+      operations.remove(removals);
+      execute(operations, removalPositions, offset, failures, null);
+    }
+  }
+
+  private int execute(BulkOperations operations, List<Integer> positions, int offset, Map<Integer, String> failures, List<Invoice> results) {
+    try {
+      return operations.execute().getMatchedCount();
+    } catch (BulkOperationException e) {
+      for (BulkWriteError error : e.getErrors()) {
+        int position = positions.get(error.getIndex());
+        failures.put(offset + position, error.getMessage());
+        if (results != null) {
+          results.set(position, null);
+        }
+      }
+      return e.getResult().getMatchedCount();
+    }
+  }
+
+  private void markUnmatchedUpdates(List<Invoice> batch, List<Integer> updatePositions, int offset, Map<Integer, String> failures, List<Invoice> results) {
+    Map<String, Long> storedVersions = findCurrentVersions(updatePositions.stream().map(position -> batch.get(position).getId()).distinct().collect(Collectors.toList()));
+    for (int position : updatePositions) {
+      Invoice updatedInvoice = results.get(position);
+      if (updatedInvoice == null) {
+        continue;
+      }
+      Long storedVersion = storedVersions.get(updatedInvoice.getId());
+      if (storedVersion == null || storedVersion < updatedInvoice.getVersion()) {
+        failures.put(offset + position, String.format("Invoice was modified or removed concurrently, passed version is out of date: %s", updatedInvoice.getId()));
+        results.set(position, null);
+      }
+    }
+  }
+
+  private Map<String, Long> findCurrentVersions(List<String> ids) {
+    Map<String, Long> currentVersions = new HashMap<>();
+    if (ids.isEmpty()) {
+      return currentVersions;
+    }
+    Query query = Query.query(Criteria.where("_id").in(ids));
+    query.fields().include("version");
+    mongoTemplate.find(query, Invoice.class, properties.getCollectionName())
+        .forEach(invoice -> currentVersions.put(invoice.getId(), invoice.getVersion()));
+    return currentVersions;
+  }
+
+  private Update toReplacement(Invoice invoice) {
+    Document document = new Document();
+    mongoTemplate.getConverter().write(invoice, document);
+    Update update = new Update();
+    for (MongoPersistentProperty property : mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Invoice.class)) {
+      if (property.isIdProperty()) {
+        continue;
+      }
+      if (document.containsKey(property.getFieldName())) {
+        update.set(property.getFieldName(), document.get(property.getFieldName()));
+      } else {
+        update.unset(property.getFieldName());
+      }
+    }
+    return update;
+  }
+
+  private Invoice replaceVersion(Invoice invoice) {
+    Invoice invoiceToSave = new Invoice(invoice);
+    invoiceToSave.setVersion(invoice.getVersion() + 1);
+    Query query = Query.query(Criteria.where("_id").is(invoice.getId()).and("version").is(invoice.getVersion()));
+    Invoice replacedInvoice = mongoTemplate.findAndReplace(query, invoiceToSave, FindAndReplaceOptions.options().returnNew(), Invoice.class,
+        properties.getCollectionName(), Invoice.class);
+    if (replacedInvoice == null) {
+      throw new OptimisticLockingFailureException(String.format("There is no invoice with id: %s and version: %s in database.", invoice.getId(), invoice.getVersion()));
+    }
+    return replacedInvoice;
+  }
+
+  private Optional<Long> findCurrentVersion(String id) {
+    Query query = Query.query(Criteria.where("_id").is(id));
+    query.fields().include("version");
+    return Optional.ofNullable(mongoTemplate.findOne(query, Invoice.class, properties.getCollectionName()))
+        .map(Invoice::getVersion);
+  }
 }
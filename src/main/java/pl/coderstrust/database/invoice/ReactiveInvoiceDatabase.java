@@ -0,0 +1,28 @@
+package pl.coderstrust.database.invoice;
+
+import pl.coderstrust.model.Invoice;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveInvoiceDatabase {
+
+  Mono<Invoice> save(Invoice invoice);
+
+  Mono<Invoice> findById(String id);
+
+  Mono<Boolean> existsById(String id);
+
+  Flux<Invoice> findAll();
+
+  Mono<Long> count();
+
+  Mono<Invoice> deleteById(String id);
+
+  Mono<Invoice> findAndDeleteById(String id);
+
+  Mono<Void> deleteAll();
+
+  Flux<Invoice> findAllBySellerName(String sellerName);
+
+  Flux<Invoice> findAllByBuyerName(String buyerName);
+}
@@ -0,0 +1,122 @@
+package pl.coderstrust.database.invoice;
+
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+import pl.coderstrust.configuration.MongoDatabaseProperties;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.model.Invoice;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "mongodb")
+@Repository
+public class ReactiveMongoInvoiceDatabase implements ReactiveInvoiceDatabase {
+
+  private final ReactiveMongoTemplate mongoTemplate;
+  private final MongoDatabaseProperties properties;
+
+  @Autowired
+  public ReactiveMongoInvoiceDatabase(@NonNull ReactiveMongoTemplate mongoTemplate, @NonNull MongoDatabaseProperties properties) {
+    this.mongoTemplate = mongoTemplate;
+    this.properties = properties;
+  }
+
+  @Override
+  public Mono<Invoice> save(@NonNull Invoice invoice) {
+    Mono<Invoice> savedInvoice;
+    if (invoice.getId() != null && invoice.getVersion() != null) {
+      savedInvoice = replaceVersion(invoice);
+    } else if (invoice.getId() != null) {
+      savedInvoice = findCurrentVersion(invoice.getId())
+          .map(version -> version + 1)
+          .defaultIfEmpty(0L)
+          .flatMap(version -> insertVersion(invoice, version));
+    } else {
+      savedInvoice = insertVersion(invoice, 0L);
+    }
+    return savedInvoice.onErrorMap(e -> !(e instanceof DatabaseOperationException),
+        e -> new DatabaseOperationException(String.format("Encountered problems saving invoice: %s", invoice), e));
+  }
+
+  @Override
+  public Mono<Invoice> findById(@NonNull String id) {
+    return mongoTemplate.findById(id, Invoice.class, properties.getCollectionName())
+        .onErrorMap(e -> new DatabaseOperationException(String.format("Encountered problems while searching for invoice: %s", id), e));
+  }
+
+  @Override
+  public Mono<Boolean> existsById(@NonNull String id) {
+    return mongoTemplate.exists(Query.query(Criteria.where("_id").is(id)), Invoice.class, properties.getCollectionName())
+        .onErrorMap(e -> new DatabaseOperationException(String.format("Encountered problems while searching for invoice: %s", id), e));
+  }
+
+  @Override
+  public Flux<Invoice> findAll() {
+    return mongoTemplate.findAll(Invoice.class, properties.getCollectionName())
+        .onErrorMap(e -> new DatabaseOperationException("Encountered problems while searching for invoices.", e));
+  }
+
+  @Override
+  public Mono<Long> count() {
+    return mongoTemplate.count(new Query(), Invoice.class, properties.getCollectionName())
+        .onErrorMap(e -> new DatabaseOperationException("Encountered problems while counting invoices.", e));
+  }
+
+  @Override
+  public Mono<Invoice> deleteById(@NonNull String id) {
+    return findAndDeleteById(id)
+        .switchIfEmpty(Mono.defer(() -> Mono.error(new DatabaseOperationException(String.format("There is no invoice with id: %s present in database. Nothing was removed.", id)))));
+  }
+
+  @Override
+  public Mono<Invoice> findAndDeleteById(@NonNull String id) {
+    return mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(id)), Invoice.class, properties.getCollectionName())
+        .onErrorMap(e -> new DatabaseOperationException(String.format("Encountered problems while deleting invoice: %s", id), e));
+  }
+
+  @Override
+  public Mono<Void> deleteAll() {
+    return mongoTemplate.remove(new Query(), Invoice.class, properties.getCollectionName())
+        .then()
+        .onErrorMap(e -> new DatabaseOperationException("Encountered problem while deleting invoices.", e));
+  }
+
+  @Override
+  public Flux<Invoice> findAllBySellerName(@NonNull String sellerName) {
+    return mongoTemplate.find(Query.query(Criteria.where("seller.name").is(sellerName)), Invoice.class, properties.getCollectionName())
+        .onErrorMap(e -> new DatabaseOperationException(String.format("Encountered problems while searching for invoices with seller name: %s", sellerName), e));
+  }
+
+  @Override
+  public Flux<Invoice> findAllByBuyerName(@NonNull String buyerName) {
+    return mongoTemplate.find(Query.query(Criteria.where("buyer.name").is(buyerName)), Invoice.class, properties.getCollectionName())
+        .onErrorMap(e -> new DatabaseOperationException(String.format("Encountered problems while searching for invoices with buyer name: %s", buyerName), e));
+  }
+
+  private Mono<Invoice> insertVersion(Invoice invoice, long version) {
+    Invoice invoiceToSave = new Invoice(invoice);
+    invoiceToSave.setVersion(version);
+    return mongoTemplate.save(invoiceToSave, properties.getCollectionName());
+  }
+
+  private Mono<Invoice> replaceVersion(Invoice invoice) {
+    Invoice invoiceToSave = new Invoice(invoice);
+    invoiceToSave.setVersion(invoice.getVersion() + 1);
+    Query query = Query.query(Criteria.where("_id").is(invoice.getId()).and("version").is(invoice.getVersion()));
+    return mongoTemplate.findAndReplace(query, invoiceToSave, FindAndReplaceOptions.options().returnNew(), Invoice.class, properties.getCollectionName(), Invoice.class)
+        .switchIfEmpty(Mono.defer(() -> Mono.error(new DatabaseOperationException(String.format("Invoice was modified concurrently, passed version is out of date: %s", invoice)))));
+  }
+
+  private Mono<Long> findCurrentVersion(String id) {
+    Query query = Query.query(Criteria.where("_id").is(id));
+    query.fields().include("version");
+    return mongoTemplate.findOne(query, Invoice.class, properties.getCollectionName())
+        .flatMap(invoice -> Mono.justOrEmpty(invoice.getVersion()));
+  }
+}
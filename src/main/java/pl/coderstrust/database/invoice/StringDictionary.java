@@ -0,0 +1,43 @@
+package pl.coderstrust.database.invoice;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class StringDictionary {
+
+  static final int NULL_CODE = -1;
+
+  private final Map<String, Integer> codes = new HashMap<>();
+  private final List<String> values = new ArrayList<>();
+
+  int encode(String value) {
+    if (value == null) {
+      return NULL_CODE;
+    }
+    Integer code = codes.get(value);
+    if (code == null) {
+      code = values.size();
+      codes.put(value, code);
+      values.add(value);
+    }
+    return code;
+  }
+
+  String decode(int code) {
+    if (code == NULL_CODE) {
+      return null;
+    }
+    return values.get(code);
+  }
+
+  int size() {
+    return values.size();
+  }
+
+  void clear() {
+    codes.clear();
+    values.clear();
+  }
+}
@@ -0,0 +1,279 @@
+package pl.coderstrust.database.invoice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import lombok.NonNull;
+import lombok.Synchronized;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+import pl.coderstrust.configuration.TieredDatabaseProperties;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.helpers.FileHelper;
+import pl.coderstrust.model.AccountNumber;
+import pl.coderstrust.model.Address;
+import pl.coderstrust.model.Company;
+import pl.coderstrust.model.ContactDetails;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceCopies;
+import pl.coderstrust.model.InvoiceEntry;
+import pl.coderstrust.model.InvoiceSummary;
+
+@ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "tiered")
+@Repository
+public class TieredInvoiceDatabase implements InvoiceDatabase {
+
+  private static final long OBJECT_SIZE = 16L;
+  private static final long REFERENCE_SIZE = 8L;
+  private static final long STRING_SIZE = 40L;
+  private static final long BIG_DECIMAL_SIZE = 40L;
+  private static final long LOCAL_DATE_SIZE = 24L;
+  private static final long HOT_ENTRY_SIZE = 96L;
+
+  private final InFileInvoiceDatabase coldTier;
+  private final long hotTierMaxBytes;
+  private final Map<String, HotEntry> hotTier = new HashMap<>();
+  private final TreeSet<HotEntry> evictionOrder;
+  private long hotTierBytes;
+  private long accessClock;
+
+  private final Counter hotTierHits;
+  private final Counter coldTierHits;
+  private final Counter misses;
+  private final Counter evictions;
+
+  @Autowired
+  public TieredInvoiceDatabase(@NonNull FileHelper fileHelper, @NonNull ObjectMapper mapper, @NonNull TieredDatabaseProperties properties,
+      @NonNull MeterRegistry meterRegistry) throws DatabaseOperationException {
+    this(new InFileInvoiceDatabase(fileHelper, mapper), properties, meterRegistry);
+  }
+
+  TieredInvoiceDatabase(@NonNull InFileInvoiceDatabase coldTier, @NonNull TieredDatabaseProperties properties,
+      @NonNull MeterRegistry meterRegistry) {
+    this.coldTier = coldTier;
+    this.hotTierMaxBytes = properties.getHotTierMaxBytes();
+    this.evictionOrder = new TreeSet<>(properties.getEvictionPolicy() == HotTierEvictionPolicy.LFU
+        ? Comparator.comparingLong((HotEntry entry) -> entry.accessCount).thenComparingLong(entry -> entry.lastAccess)
+        : Comparator.comparingLong((HotEntry entry) -> entry.lastAccess));
+    hotTierHits = meterRegistry.counter("invoice.database.tier.hits", "tier", "hot");
+    coldTierHits = meterRegistry.counter("invoice.database.tier.hits", "tier", "cold");
+    misses = meterRegistry.counter("invoice.database.tier.misses");
+    evictions = meterRegistry.counter("invoice.database.tier.evictions");
+    Gauge.builder("invoice.database.tier.hit.ratio", this, database -> database.hitRatio(database.hotTierHits))
+        .tag("tier", "hot")
+        .register(meterRegistry);
+    Gauge.builder("invoice.database.tier.hit.ratio", this, database -> database.hitRatio(database.coldTierHits))
+        .tag("tier", "cold")
+        .register(meterRegistry);
+    Gauge.builder("invoice.database.tier.hot.bytes", this, database -> database.hotTierBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    Gauge.builder("invoice.database.tier.hot.size", this, database -> database.hotTier.size())
+        .register(meterRegistry);
+  }
+
+  @Override
+  @Synchronized
+  public Invoice save(@NonNull Invoice invoice) throws DatabaseOperationException {
+    if (invoice.getId() != null) {
+      removeFromHotTier(invoice.getId());
+    }
+    Invoice savedInvoice = coldTier.save(invoice);
+    putIntoHotTier(savedInvoice);
+    return new Invoice(savedInvoice);
+  }
+
+  @Override
+  @Synchronized
+  public Optional<Invoice> findById(@NonNull String id) throws DatabaseOperationException {
+    HotEntry entry = hotTier.get(id);
+    if (entry != null) {
+      hotTierHits.increment();
+      touch(entry);
+      return Optional.of(InvoiceCopies.deepCopy(entry.invoice));
+    }
+    Optional<Invoice> invoice = coldTier.findById(id);
+    if (invoice.isPresent()) {
+      coldTierHits.increment();
+      putIntoHotTier(invoice.get());
+      return invoice;
+    }
+    misses.increment();
+    return Optional.empty();
+  }
+
+  @Override
+  @Synchronized
+  public boolean existsById(@NonNull String id) throws DatabaseOperationException {
+    return hotTier.containsKey(id) || coldTier.existsById(id);
+  }
+
+  @Override
+  @Synchronized
+  public Iterable<Invoice> findAll() throws DatabaseOperationException {
+    return coldTier.findAll();
+  }
+
+  @Override
+  @Synchronized
+  public Page<Invoice> findAll(@NonNull Pageable pageable) throws DatabaseOperationException {
+    return coldTier.findAll(pageable);
+  }
+
+  @Override
+  @Synchronized
+  public long count() throws DatabaseOperationException {
+    return coldTier.count();
+  }
+
+  @Override
+  @Synchronized
+  public void deleteById(@NonNull String id) throws DatabaseOperationException {
+    removeFromHotTier(id);
+    coldTier.deleteById(id);
+  }
+
+  @Override
+  @Synchronized
+  public void deleteAll() throws DatabaseOperationException {
+    hotTier.clear();
+    evictionOrder.clear();
+    hotTierBytes = 0;
+    coldTier.deleteAll();
+  }
+
+  @Override
+  @Synchronized
+  public Iterable<Invoice> findAllBySellerName(@NonNull String sellerName) throws DatabaseOperationException {
+    return coldTier.findAllBySellerName(sellerName);
+  }
+
+  @Override
+  @Synchronized
+  public Iterable<Invoice> findAllByBuyerName(@NonNull String buyerName) throws DatabaseOperationException {
+    return coldTier.findAllByBuyerName(buyerName);
+  }
+
+  @Override
+  @Synchronized
+  public Iterable<Invoice> findAllByIssueDateBetween(@NonNull LocalDate fromDate, @NonNull LocalDate toDate) throws DatabaseOperationException {
+    return coldTier.findAllByIssueDateBetween(fromDate, toDate);
+  }
+
+  @Override
+  @Synchronized
+  public Iterable<Invoice> findAllByDueDateBetween(@NonNull LocalDate fromDate, @NonNull LocalDate toDate) throws DatabaseOperationException {
+    return coldTier.findAllByDueDateBetween(fromDate, toDate);
+  }
+
+  @Override
+  @Synchronized
+  public Page<InvoiceSummary> findAllSummaries(@NonNull Pageable pageable) throws DatabaseOperationException {
+    return coldTier.findAllSummaries(pageable);
+  }
+
+  private void putIntoHotTier(Invoice invoice) {
+    HotEntry previousEntry = removeFromHotTier(invoice.getId());
+    HotEntry entry = new HotEntry(InvoiceCopies.deepCopy(invoice), estimateSize(invoice));
+    entry.accessCount = previousEntry == null ? 1 : previousEntry.accessCount + 1;
+    entry.lastAccess = ++accessClock;
+    hotTier.put(invoice.getId(), entry);
+    evictionOrder.add(entry);
+    hotTierBytes += entry.size;
+    while (hotTierBytes > hotTierMaxBytes) {
+      HotEntry victim = evictionOrder.first();
+      if (victim == entry) {
+        victim = evictionOrder.higher(entry);
+      }
+      removeFromHotTier((victim == null ? entry : victim).invoice.getId());
+      evictions.increment();
+    }
+  }
+
+  private HotEntry removeFromHotTier(String id) {
+    HotEntry entry = hotTier.remove(id);
+    if (entry != null) {
+      evictionOrder.remove(entry);
+      hotTierBytes -= entry.size;
+    }
+    return entry;
+  }
+
+  private void touch(HotEntry entry) {
+    evictionOrder.remove(entry);
+    entry.accessCount++;
+    entry.lastAccess = ++accessClock;
+    evictionOrder.add(entry);
+  }
+
+  private double hitRatio(Counter tierHits) {
+    double requests = hotTierHits.count() + coldTierHits.count() + misses.count();
+    return requests == 0 ? 0 : tierHits.count() / requests;
+  }
+
+  static long estimateSize(Invoice invoice) {
+    long size = HOT_ENTRY_SIZE + OBJECT_SIZE + 10 * REFERENCE_SIZE + 2 * LOCAL_DATE_SIZE + 2 * BIG_DECIMAL_SIZE
+        + estimateSize(invoice.getId()) + estimateSize(invoice.getComments())
+        + estimateSize(invoice.getSeller()) + estimateSize(invoice.getBuyer());
+    if (invoice.getEntries() != null) {
+      size += OBJECT_SIZE + invoice.getEntries().size() * REFERENCE_SIZE;
+      for (InvoiceEntry entry : invoice.getEntries()) {
+        size += OBJECT_SIZE + 8 * REFERENCE_SIZE + 3 * BIG_DECIMAL_SIZE + OBJECT_SIZE
+            + estimateSize(entry.getId()) + estimateSize(entry.getItem());
+      }
+    }
+    return size;
+  }
+
+  private static long estimateSize(Company company) {
+    if (company == null) {
+      return 0;
+    }
+    long size = OBJECT_SIZE + 5 * REFERENCE_SIZE + estimateSize(company.getId()) + estimateSize(company.getName())
+        + estimateSize(company.getTaxIdentificationNumber());
+    AccountNumber accountNumber = company.getAccountNumber();
+    if (accountNumber != null) {
+      size += OBJECT_SIZE + 3 * REFERENCE_SIZE + estimateSize(accountNumber.getId()) + estimateSize(accountNumber.getIbanNumber())
+          + estimateSize(accountNumber.getLocalNumber());
+    }
+    ContactDetails contactDetails = company.getContactDetails();
+    if (contactDetails != null) {
+      size += OBJECT_SIZE + 5 * REFERENCE_SIZE + estimateSize(contactDetails.getId()) + estimateSize(contactDetails.getEmail())
+          + estimateSize(contactDetails.getPhoneNumber()) + estimateSize(contactDetails.getWebsite());
+      Address address = contactDetails.getAddress();
+      if (address != null) {
+        size += OBJECT_SIZE + 6 * REFERENCE_SIZE + estimateSize(address.getId()) + estimateSize(address.getStreet())
+            + estimateSize(address.getNumber()) + estimateSize(address.getPostalCode()) + estimateSize(address.getCity())
+            + estimateSize(address.getCountry());
+      }
+    }
+    return size;
+  }
+
+  private static long estimateSize(String value) {
+    return value == null ? 0 : STRING_SIZE + 2L * value.length();
+  }
+
+  private static class HotEntry {
+
+    private final Invoice invoice;
+    private final long size;
+    private long accessCount;
+    private long lastAccess;
+
+    private HotEntry(Invoice invoice, long size) {
+      this.invoice = invoice;
+      this.size = size;
+    }
+  }
+}
@@ -1,11 +1,15 @@
 package pl.coderstrust.helpers;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileReader;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
 import org.apache.commons.io.FileUtils;
@@ -81,6 +85,17 @@ public class FileHelper {
     return FileUtils.readLines(new java.io.File(filePath));
   }
 
+  public Stream<String> streamLines() throws IOException {
+    BufferedReader reader = new BufferedReader(new FileReader(filePath));
+    return reader.lines().onClose(() -> {
+      try {
+        reader.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
   public void clear() throws IOException {
     if (!exists()) {
       throw new FileNotFoundException("File does not exist");
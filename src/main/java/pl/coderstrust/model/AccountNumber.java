@@ -1,22 +1,31 @@
 package pl.coderstrust.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModelProperty;
+import javax.persistence.Access;
+import javax.persistence.AccessType;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Transient;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import pl.coderstrust.configuration.PooledSequenceGenerator;
 
 @Data
 @NoArgsConstructor
 @Entity
+@Access(AccessType.FIELD)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "accountNumber")
 public class AccountNumber {
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY, generator = "uuid2")
-  @GenericGenerator(name = "uuid2", strategy = "uuid2")
+  @Transient
   @ApiModelProperty(value = "The id of account number.")
   String id;
 
@@ -34,4 +43,19 @@ public class AccountNumber {
     this.ibanNumber = ibanNumber;
     this.localNumber = localNumber;
   }
+
+  @Id
+  @Access(AccessType.PROPERTY)
+  @Column(name = "id")
+  @GeneratedValue(generator = "account_number_seq")
+  @GenericGenerator(name = "account_number_seq", strategy = PooledSequenceGenerator.STRATEGY, parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "account_number_seq"))
+  @JsonIgnore
+  @org.springframework.data.annotation.Transient
+  public Long getKey() {
+    return SurrogateKeys.toKey(id);
+  }
+
+  public void setKey(Long key) {
+    this.id = SurrogateKeys.toId(key);
+  }
 }
@@ -1,24 +1,33 @@
 package pl.coderstrust.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModelProperty;
+import javax.persistence.Access;
+import javax.persistence.AccessType;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Transient;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import pl.coderstrust.configuration.PooledSequenceGenerator;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Access(AccessType.FIELD)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "address")
 public class Address {
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY, generator = "uuid2")
-  @GenericGenerator(name = "uuid2", strategy = "uuid2")
+  @Transient
   @ApiModelProperty(value = "The id of address.")
   String id;
 
@@ -45,4 +54,19 @@ public class Address {
     this.city = city;
     this.country = country;
   }
+
+  @Id
+  @Access(AccessType.PROPERTY)
+  @Column(name = "id")
+  @GeneratedValue(generator = "address_seq")
+  @GenericGenerator(name = "address_seq", strategy = PooledSequenceGenerator.STRATEGY, parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "address_seq"))
+  @JsonIgnore
+  @org.springframework.data.annotation.Transient
+  public Long getKey() {
+    return SurrogateKeys.toKey(id);
+  }
+
+  public void setKey(Long key) {
+    this.id = SurrogateKeys.toId(key);
+  }
 }
@@ -0,0 +1,42 @@
+package pl.coderstrust.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import java.util.Collections;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemResult {
+
+  @ApiModelProperty(value = "Position of the item in the batch, starting from 0.", example = "0")
+  private int index;
+
+  @ApiModelProperty(value = "Id of the invoice the item refers to.", example = "1")
+  private String id;
+
+  @ApiModelProperty(value = "Invoice saved for the item, absent for deletions and failed items.")
+  private Invoice invoice;
+
+  @ApiModelProperty(value = "Reasons why the item was not processed, empty when it succeeded.")
+  private List<String> errors;
+
+  public static BatchItemResult saved(int index, Invoice invoice) {
+    return new BatchItemResult(index, invoice.getId(), invoice, Collections.emptyList());
+  }
+
+  public static BatchItemResult deleted(int index, String id) {
+    return new BatchItemResult(index, id, null, Collections.emptyList());
+  }
+
+  public static BatchItemResult failed(int index, String id, List<String> errors) {
+    return new BatchItemResult(index, id, null, errors);
+  }
+
+  public boolean succeeded() {
+    return errors.isEmpty();
+  }
+}
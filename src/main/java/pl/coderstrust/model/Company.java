@@ -1,26 +1,44 @@
 package pl.coderstrust.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModelProperty;
+import javax.persistence.Access;
+import javax.persistence.AccessType;
 import javax.persistence.CascadeType;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToOne;
+import javax.persistence.Table;
+import javax.persistence.Transient;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import pl.coderstrust.configuration.PooledSequenceGenerator;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Access(AccessType.FIELD)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "company")
+@NaturalIdCache(region = "company.snapshotKey")
+@Table(indexes = {
+    @Index(name = "company_name_idx", columnList = "name"),
+    @Index(name = "company_tax_identification_number_idx", columnList = "taxIdentificationNumber")
+})
 public class Company {
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY, generator = "uuid2")
-  @GenericGenerator(name = "uuid2", strategy = "uuid2")
+  @Transient
   @ApiModelProperty(value = "The id of company.")
   String id;
 
@@ -43,4 +61,31 @@ public class Company {
     this.accountNumber = accountNumber;
     this.contactDetails = contactDetails;
   }
+
+  @Id
+  @Access(AccessType.PROPERTY)
+  @Column(name = "id")
+  @GeneratedValue(generator = "company_seq")
+  @GenericGenerator(name = "company_seq", strategy = PooledSequenceGenerator.STRATEGY, parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "company_seq"))
+  @JsonIgnore
+  @org.springframework.data.annotation.Transient
+  public Long getKey() {
+    return SurrogateKeys.toKey(id);
+  }
+
+  public void setKey(Long key) {
+    this.id = SurrogateKeys.toId(key);
+  }
+
+  @NaturalId
+  @Access(AccessType.PROPERTY)
+  @Column(name = "snapshotKey", length = 64)
+  @JsonIgnore
+  @org.springframework.data.annotation.Transient
+  public String getSnapshotKey() {
+    return CompanySnapshotKeys.of(this);
+  }
+
+  public void setSnapshotKey(String snapshotKey) {
+  }
 }
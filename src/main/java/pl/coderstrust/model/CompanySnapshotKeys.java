@@ -0,0 +1,60 @@
+package pl.coderstrust.model;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public final class CompanySnapshotKeys {
+
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+
+  private CompanySnapshotKeys() {
+  }
+
+  public static String of(Company company) {
+    StringBuilder details = new StringBuilder();
+    append(details, company.getName());
+    append(details, company.getTaxIdentificationNumber());
+    AccountNumber accountNumber = company.getAccountNumber();
+    if (appendPresence(details, accountNumber)) {
+      append(details, accountNumber.getIbanNumber());
+      append(details, accountNumber.getLocalNumber());
+    }
+    ContactDetails contactDetails = company.getContactDetails();
+    if (appendPresence(details, contactDetails)) {
+      append(details, contactDetails.getEmail());
+      append(details, contactDetails.getPhoneNumber());
+      append(details, contactDetails.getWebsite());
+      Address address = contactDetails.getAddress();
+      if (appendPresence(details, address)) {
+        append(details, address.getStreet());
+        append(details, address.getNumber());
+        append(details, address.getPostalCode());
+        append(details, address.getCity());
+        append(details, address.getCountry());
+      }
+    }
+    return digest(details.toString());
+  }
+
+  private static boolean appendPresence(StringBuilder details, Object value) {
+    details.append(value == null ? '-' : '+');
+    return value != null;
+  }
+
+  private static void append(StringBuilder details, String value) {
+    if (appendPresence(details, value)) {
+      details.append(value.length()).append(':').append(value);
+    }
+  }
+
+  private static String digest(String details) {
+    try {
+      byte[] digest = MessageDigest.getInstance(DIGEST_ALGORITHM).digest(details.getBytes(StandardCharsets.UTF_8));
+      return String.format("%064x", new BigInteger(1, digest));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(String.format("%s message digest is not available.", DIGEST_ALGORITHM), e);
+    }
+  }
+}
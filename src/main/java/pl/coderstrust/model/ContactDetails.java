@@ -1,26 +1,35 @@
 package pl.coderstrust.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModelProperty;
+import javax.persistence.Access;
+import javax.persistence.AccessType;
 import javax.persistence.CascadeType;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.OneToOne;
+import javax.persistence.Transient;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import pl.coderstrust.configuration.PooledSequenceGenerator;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Access(AccessType.FIELD)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "contactDetails")
 public class ContactDetails {
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY, generator = "uuid2")
-  @GenericGenerator(name = "uuid2", strategy = "uuid2")
+  @Transient
   @ApiModelProperty(value = "The id of contact details.")
   String id;
 
@@ -43,4 +52,19 @@ public class ContactDetails {
     this.website = website;
     this.address = address;
   }
+
+  @Id
+  @Access(AccessType.PROPERTY)
+  @Column(name = "id")
+  @GeneratedValue(generator = "contact_details_seq")
+  @GenericGenerator(name = "contact_details_seq", strategy = PooledSequenceGenerator.STRATEGY, parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "contact_details_seq"))
+  @JsonIgnore
+  @org.springframework.data.annotation.Transient
+  public Long getKey() {
+    return SurrogateKeys.toKey(id);
+  }
+
+  public void setKey(Long key) {
+    this.id = SurrogateKeys.toId(key);
+  }
 }
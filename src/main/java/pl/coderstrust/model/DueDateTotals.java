@@ -0,0 +1,23 @@
+package pl.coderstrust.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DueDateTotals {
+
+  @ApiModelProperty(value = "Due date of invoices.", example = "2019-01-01")
+  LocalDate dueDate;
+
+  @ApiModelProperty(value = "Number of invoices due on the date.", example = "12")
+  long invoiceCount;
+
+  @ApiModelProperty(value = "Sum of total values with tax of invoices.", example = "1476")
+  BigDecimal totalGrossValue;
+}
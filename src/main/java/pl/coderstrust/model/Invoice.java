@@ -1,31 +1,65 @@
 package pl.coderstrust.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.annotations.ApiModelProperty;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import javax.persistence.Access;
+import javax.persistence.AccessType;
 import javax.persistence.CascadeType;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedSubgraph;
 import javax.persistence.OneToMany;
-import lombok.AllArgsConstructor;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+import javax.persistence.Version;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import pl.coderstrust.configuration.PooledSequenceGenerator;
 
 @Data
-@AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Access(AccessType.FIELD)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "invoice")
+@NamedEntityGraph(name = Invoice.PARTIES_GRAPH,
+    attributeNodes = {
+        @NamedAttributeNode(value = "seller", subgraph = "company"),
+        @NamedAttributeNode(value = "buyer", subgraph = "company")
+    },
+    subgraphs = {
+        @NamedSubgraph(name = "company", attributeNodes = {
+            @NamedAttributeNode("accountNumber"),
+            @NamedAttributeNode(value = "contactDetails", subgraph = "contactDetails")
+        }),
+        @NamedSubgraph(name = "contactDetails", attributeNodes = @NamedAttributeNode("address"))
+    })
+@Table(indexes = {
+    @Index(name = "invoice_seller_idx", columnList = "seller_id"),
+    @Index(name = "invoice_buyer_idx", columnList = "buyer_id"),
+    @Index(name = "invoice_issue_date_idx", columnList = "issueDate"),
+    @Index(name = "invoice_due_date_idx", columnList = "dueDate")
+})
 public class Invoice {
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY, generator = "uuid2")
-  @GenericGenerator(name = "uuid2", strategy = "uuid2")
+  public static final String PARTIES_GRAPH = "Invoice.parties";
+
+  @Transient
   @ApiModelProperty(value = "The id of invoice.", example = "'1'")
   String id;
 
@@ -38,14 +72,16 @@ public class Invoice {
   @ApiModelProperty(value = "Due date of invoice.", example = "2019-01-01")
   LocalDate dueDate;
 
-  @ManyToOne(cascade = CascadeType.ALL)
+  @ManyToOne
   Company seller;
 
-  @ManyToOne(cascade = CascadeType.ALL)
+  @ManyToOne
   Company buyer;
 
   @ApiModelProperty(value = "List of purchased products.")
   @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+  @BatchSize(size = 100)
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "invoice.entries")
   List<InvoiceEntry> entries;
 
   @ApiModelProperty(value = "Total net value of the invoice.", example = "100")
@@ -57,6 +93,17 @@ public class Invoice {
   @ApiModelProperty(value = "Comments fot the invoice.", example = "Some informations")
   String comments;
 
+  @Version
+  @ApiModelProperty(value = "Version of the invoice used to detect concurrent modifications. Omit to overwrite the latest version.", example = "0")
+  Long version;
+
+  public Invoice(String id, InvoiceType type, LocalDate issueDate, LocalDate dueDate,
+                 Company seller, Company buyer, List<InvoiceEntry> entries, BigDecimal totalNetValue,
+                 BigDecimal totalGrossValue, String comments) {
+    this(type, issueDate, dueDate, seller, buyer, entries, totalNetValue, totalGrossValue, comments);
+    this.id = id;
+  }
+
   public Invoice(InvoiceType type, LocalDate issueDate, LocalDate dueDate,
                  Company seller, Company buyer, List<InvoiceEntry> entries, BigDecimal totalNetValue,
                  BigDecimal totalGrossValue, String comments) {
@@ -73,5 +120,21 @@ public class Invoice {
 
   public Invoice(Invoice that) {
     this(that.getId(), that.getType(), that.getIssueDate(), that.getDueDate(), that.getSeller(), that.getBuyer(), that.getEntries(), that.getTotalNetValue(), that.getTotalGrossValue(), that.getComments());
+    this.version = that.getVersion();
+  }
+
+  @Id
+  @Access(AccessType.PROPERTY)
+  @Column(name = "id")
+  @GeneratedValue(generator = "invoice_seq")
+  @GenericGenerator(name = "invoice_seq", strategy = PooledSequenceGenerator.STRATEGY, parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "invoice_seq"))
+  @JsonIgnore
+  @org.springframework.data.annotation.Transient
+  public Long getKey() {
+    return SurrogateKeys.toKey(id);
+  }
+
+  public void setKey(Long key) {
+    this.id = SurrogateKeys.toId(key);
   }
 }
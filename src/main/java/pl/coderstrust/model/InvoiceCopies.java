@@ -0,0 +1,64 @@
+package pl.coderstrust.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class InvoiceCopies {
+
+  private InvoiceCopies() {
+  }
+
+  public static Invoice deepCopy(Invoice invoice) {
+    if (invoice == null) {
+      return null;
+    }
+    Invoice copy = new Invoice(invoice.getId(), invoice.getType(), invoice.getIssueDate(), invoice.getDueDate(), deepCopy(invoice.getSeller()),
+        deepCopy(invoice.getBuyer()), deepCopy(invoice.getEntries()), invoice.getTotalNetValue(), invoice.getTotalGrossValue(), invoice.getComments());
+    copy.setVersion(invoice.getVersion());
+    return copy;
+  }
+
+  public static Company deepCopy(Company company) {
+    if (company == null) {
+      return null;
+    }
+    return new Company(company.getId(), company.getName(), company.getTaxIdentificationNumber(), deepCopy(company.getAccountNumber()),
+        deepCopy(company.getContactDetails()));
+  }
+
+  private static AccountNumber deepCopy(AccountNumber accountNumber) {
+    if (accountNumber == null) {
+      return null;
+    }
+    AccountNumber copy = new AccountNumber(accountNumber.getIbanNumber(), accountNumber.getLocalNumber());
+    copy.setId(accountNumber.getId());
+    return copy;
+  }
+
+  private static ContactDetails deepCopy(ContactDetails contactDetails) {
+    if (contactDetails == null) {
+      return null;
+    }
+    return new ContactDetails(contactDetails.getId(), contactDetails.getEmail(), contactDetails.getPhoneNumber(), contactDetails.getWebsite(),
+        deepCopy(contactDetails.getAddress()));
+  }
+
+  private static Address deepCopy(Address address) {
+    if (address == null) {
+      return null;
+    }
+    return new Address(address.getId(), address.getStreet(), address.getNumber(), address.getPostalCode(), address.getCity(), address.getCountry());
+  }
+
+  private static List<InvoiceEntry> deepCopy(List<InvoiceEntry> entries) {
+    if (entries == null) {
+      return null;
+    }
+    List<InvoiceEntry> copies = new ArrayList<>(entries.size());
+    for (InvoiceEntry entry : entries) {
+      copies.add(entry == null ? null : new InvoiceEntry(entry.getId(), entry.getItem(), entry.getQuantity(), entry.getUnit(), entry.getPrice(),
+          entry.getVatRate(), entry.getNetValue(), entry.getGrossValue()));
+    }
+    return copies;
+  }
+}
@@ -0,0 +1,31 @@
+package pl.coderstrust.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MonthlyVatTotals {
+
+  @ApiModelProperty(value = "Year of issue date of invoices.", example = "2019")
+  int year;
+
+  @ApiModelProperty(value = "Month of issue date of invoices, starting from 1.", example = "1")
+  int month;
+
+  @ApiModelProperty(value = "Number of invoices issued in the month.", example = "12")
+  long invoiceCount;
+
+  @ApiModelProperty(value = "Sum of total net values of invoices.", example = "1200")
+  BigDecimal totalNetValue;
+
+  @ApiModelProperty(value = "Sum of total values with tax of invoices.", example = "1476")
+  BigDecimal totalGrossValue;
+
+  @ApiModelProperty(value = "Sum of tax values of invoices.", example = "276")
+  BigDecimal totalVatValue;
+}
@@ -0,0 +1,25 @@
+package pl.coderstrust.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SellerTotals {
+
+  @ApiModelProperty(value = "Name of the seller.", example = "PolStal")
+  String sellerName;
+
+  @ApiModelProperty(value = "Number of invoices issued by the seller.", example = "12")
+  long invoiceCount;
+
+  @ApiModelProperty(value = "Sum of total net values of invoices.", example = "1200")
+  BigDecimal totalNetValue;
+
+  @ApiModelProperty(value = "Sum of total values with tax of invoices.", example = "1476")
+  BigDecimal totalGrossValue;
+}
@@ -0,0 +1,22 @@
+package pl.coderstrust.model;
+
+public final class SurrogateKeys {
+
+  private SurrogateKeys() {
+  }
+
+  public static Long toKey(String id) {
+    if (id == null) {
+      return null;
+    }
+    try {
+      return Long.valueOf(id);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  public static String toId(Long key) {
+    return key == null ? null : String.valueOf(key);
+  }
+}
@@ -1,28 +1,49 @@
 package pl.coderstrust.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import pl.coderstrust.database.BatchOperationException;
 import pl.coderstrust.database.DatabaseOperationException;
 import pl.coderstrust.database.invoice.InvoiceDatabase;
+import pl.coderstrust.model.BatchItemResult;
+import pl.coderstrust.model.DueDateTotals;
 import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceCopies;
+import pl.coderstrust.model.InvoiceSummary;
+import pl.coderstrust.model.MonthlyVatTotals;
+import pl.coderstrust.model.SellerTotals;
 
 @Slf4j
 @Service
 public class InvoiceService {
 
   private InvoiceDatabase invoiceDatabase;
+  private Cache<String, Invoice> invoiceCache;
 
   @Autowired
-  public InvoiceService(@NonNull InvoiceDatabase invoiceDatabase) {
+  public InvoiceService(@NonNull InvoiceDatabase invoiceDatabase, @NonNull Cache<String, Invoice> invoiceCache) {
     this.invoiceDatabase = invoiceDatabase;
+    this.invoiceCache = invoiceCache;
   }
 
   public List<Invoice> getAllInvoices() throws ServiceOperationException {
@@ -38,23 +59,117 @@ public class InvoiceService {
     }
   }
 
+  public Stream<Invoice> streamAllInvoices() throws ServiceOperationException {
+    try {
+      log.info("Streaming all invoices from database");
+      return invoiceDatabase.streamAll();
+    } catch (DatabaseOperationException e) {
+      log.error(String.format("An error occurred during streaming all invoices from database"));
+      throw new ServiceOperationException("An error occurred during streaming all invoices", e);
+    }
+  }
+
+  public Page<Invoice> getInvoices(@NonNull Pageable pageable) throws ServiceOperationException {
+    try {
+      log.info("Getting page of invoices from database");
+      Page<Invoice> result = invoiceDatabase.findAll(pageable);
+      log.debug(String.format("Getting page of invoices from database successful. Page: %s", pageable));
+      return result;
+    } catch (DatabaseOperationException e) {
+      log.error(String.format("An error occurred during getting page of invoices from database. Page: %s", pageable));
+      throw new ServiceOperationException(String.format("An error occurred during getting page of invoices. Page: %s", pageable), e);
+    }
+  }
+
+  public Page<InvoiceSummary> getInvoiceSummaries(@NonNull Pageable pageable) throws ServiceOperationException {
+    try {
+      log.info("Getting page of invoice summaries from database");
+      Page<InvoiceSummary> result = invoiceDatabase.findAllSummaries(pageable);
+      log.debug(String.format("Getting page of invoice summaries from database successful. Page: %s", pageable));
+      return result;
+    } catch (DatabaseOperationException e) {
+      log.error(String.format("An error occurred during getting page of invoice summaries from database. Page: %s", pageable));
+      throw new ServiceOperationException(String.format("An error occurred during getting page of invoice summaries. Page: %s", pageable), e);
+    }
+  }
+
+  public List<InvoiceSummary> getInvoiceSummariesBySellerName(@NonNull String sellerName) throws ServiceOperationException {
+    try {
+      log.info("Getting invoice summaries by seller name from database");
+      List<InvoiceSummary> result = invoiceDatabase.findAllSummariesBySellerName(sellerName);
+      log.debug(String.format("Getting invoice summaries by seller name from database successful. Seller name: %s", sellerName));
+      return result;
+    } catch (DatabaseOperationException e) {
+      log.error(String.format("An error occurred during getting invoice summaries by seller name from database. Seller name: %s", sellerName));
+      throw new ServiceOperationException(String.format("An error occurred during getting invoice summaries by seller name. Seller name: %s", sellerName), e);
+    }
+  }
+
+  public List<InvoiceSummary> getInvoiceSummariesByBuyerName(@NonNull String buyerName) throws ServiceOperationException {
+    try {
+      log.info("Getting invoice summaries by buyer name from database");
+      List<InvoiceSummary> result = invoiceDatabase.findAllSummariesByBuyerName(buyerName);
+      log.debug(String.format("Getting invoice summaries by buyer name from database successful. Buyer name: %s", buyerName));
+      return result;
+    } catch (DatabaseOperationException e) {
+      log.error(String.format("An error occurred during getting invoice summaries by buyer name from database. Buyer name: %s", buyerName));
+      throw new ServiceOperationException(String.format("An error occurred during getting invoice summaries by buyer name. Buyer name: %s", buyerName), e);
+    }
+  }
+
+  public List<SellerTotals> getSellerTotals(@NonNull LocalDate startDate, @NonNull LocalDate endDate) throws ServiceOperationException {
+    try {
+      log.info("Getting invoice totals by seller from database");
+      List<SellerTotals> result = invoiceDatabase.findTotalsBySeller(startDate, endDate);
+      log.debug(String.format("Getting invoice totals by seller from database successful. Dates: %s - %s", startDate, endDate));
+      return result;
+    } catch (DatabaseOperationException e) {
+      log.error(String.format("An error occurred during getting invoice totals by seller from database. Dates: %s - %s", startDate, endDate));
+      throw new ServiceOperationException(String.format("An error occurred during getting invoice totals by seller. Dates: %s - %s", startDate, endDate), e);
+    }
+  }
+
+  public List<MonthlyVatTotals> getMonthlyVatTotals(@NonNull LocalDate startDate, @NonNull LocalDate endDate) throws ServiceOperationException {
+    try {
+      log.info("Getting invoice tax totals by month from database");
+      List<MonthlyVatTotals> result = invoiceDatabase.findVatTotalsByMonth(startDate, endDate);
+      log.debug(String.format("Getting invoice tax totals by month from database successful. Dates: %s - %s", startDate, endDate));
+      return result;
+    } catch (DatabaseOperationException e) {
+      log.error(String.format("An error occurred during getting invoice tax totals by month from database. Dates: %s - %s", startDate, endDate));
+      throw new ServiceOperationException(String.format("An error occurred during getting invoice tax totals by month. Dates: %s - %s", startDate, endDate), e);
+    }
+  }
+
+  public List<DueDateTotals> getOutstandingTotals(@NonNull LocalDate asOfDate) throws ServiceOperationException {
+    try {
+      log.info("Getting outstanding invoice totals by due date from database");
+      List<DueDateTotals> result = invoiceDatabase.findOutstandingTotalsByDueDate(asOfDate);
+      log.debug(String.format("Getting outstanding invoice totals by due date from database successful. Date: %s", asOfDate));
+      return result;
+    } catch (DatabaseOperationException e) {
+      log.error(String.format("An error occurred during getting outstanding invoice totals by due date from database. Date: %s", asOfDate));
+      throw new ServiceOperationException(String.format("An error occurred during getting outstanding invoice totals by due date. Date: %s", asOfDate), e);
+    }
+  }
+
   public Optional<Invoice> getInvoice(@NonNull String invoiceId) throws ServiceOperationException {
     try {
       log.info(String.format("Getting invoice by id from database"));
       log.debug(String.format("Getting invoice by id from database - successful. Id:%s", invoiceId));
-      return invoiceDatabase.findById(invoiceId);
-    } catch (DatabaseOperationException e) {
+      return Optional.ofNullable(invoiceCache.get(invoiceId, this::loadInvoice)).map(InvoiceCopies::deepCopy);
+    } catch (CompletionException e) {
       log.error(String.format("An error occurred during getting single invoice from database by id. Invoice id: %s",
           invoiceId));
       throw new ServiceOperationException(String.format("An error occurred during getting single invoice by id from database. Invoice id: %s",
-          invoiceId), e);
+          invoiceId), e.getCause());
     }
   }
 
   public boolean invoiceExists(@NonNull String invoiceId) throws ServiceOperationException {
     try {
       log.info(String.format("Checking if invoice is existing in database"));
-      boolean invoiceExist = invoiceDatabase.existsById(invoiceId);
+      boolean invoiceExist = isCached(invoiceId) || invoiceDatabase.existsById(invoiceId);
       log.debug(String.format("Invoice with given id:%s exists: %s", invoiceId, invoiceExist));
       return invoiceExist;
     } catch (DatabaseOperationException e) {
@@ -73,6 +188,10 @@ public class InvoiceService {
       log.error(String.format("An error occurred during checking if invoice exists in database. Invoice id: %s",
           invoice));
       throw new ServiceOperationException(String.format("An error occurred during adding new invoice. Invoice: %s", invoice), e);
+    } finally {
+      if (invoice.getId() != null) {
+        invoiceCache.invalidate(invoice.getId());
+      }
     }
   }
 
@@ -80,7 +199,7 @@ public class InvoiceService {
     try {
       log.info(String.format("Updating invoice to database. Invoice :%s",invoice));
       String id = invoice.getId();
-      if (invoiceDatabase.existsById(id)) {
+      if (isCached(id) || invoiceDatabase.existsById(id)) {
         log.debug(String.format("Successful update of invoice to database. Invoice :%s",invoice));
         invoiceDatabase.save(invoice);
       } else {
@@ -90,6 +209,10 @@ public class InvoiceService {
     } catch (DatabaseOperationException e) {
       log.error(String.format("An error occurred during updating invoice. Invoice: %s", invoice));
       throw new ServiceOperationException(String.format("An error occurred during updating invoice. Invoice: %s", invoice), e);
+    } finally {
+      if (invoice.getId() != null) {
+        invoiceCache.invalidate(invoice.getId());
+      }
     }
   }
 
@@ -101,6 +224,89 @@ public class InvoiceService {
     } catch (DatabaseOperationException e) {
       log.error(String.format("An error occurred during deleting invoice. Invoice: %s", invoiceId));
       throw new ServiceOperationException(String.format("An error occurred during deleting invoice. Invoice: %s", invoiceId), e);
+    } finally {
+      invoiceCache.invalidate(invoiceId);
+    }
+  }
+
+  public Optional<Invoice> removeInvoice(@NonNull String invoiceId) throws ServiceOperationException {
+    try {
+      log.info("Removing invoice from database");
+      Optional<Invoice> removedInvoice = invoiceDatabase.findAndDeleteById(invoiceId);
+      log.debug(String.format("Removing invoice from database with id:%s - found: %s", invoiceId, removedInvoice.isPresent()));
+      return removedInvoice;
+    } catch (DatabaseOperationException e) {
+      log.error(String.format("An error occurred during removing invoice. Invoice: %s", invoiceId));
+      throw new ServiceOperationException(String.format("An error occurred during removing invoice. Invoice: %s", invoiceId), e);
+    } finally {
+      invoiceCache.invalidate(invoiceId);
+    }
+  }
+
+  public List<BatchItemResult> addInvoices(@NonNull List<Invoice> invoices) throws ServiceOperationException {
+    try {
+      log.info(String.format("Saving batch of %d invoices to database", invoices.size()));
+      return saveBatch(invoices);
+    } catch (DatabaseOperationException e) {
+      log.error(String.format("An error occurred during adding batch of %d invoices", invoices.size()));
+      throw new ServiceOperationException(String.format("An error occurred during adding batch of %d invoices", invoices.size()), e);
+    } finally {
+      invalidate(invoices);
+    }
+  }
+
+  public List<BatchItemResult> updateInvoices(@NonNull List<Invoice> invoices) throws ServiceOperationException {
+    try {
+      log.info(String.format("Updating batch of %d invoices in database", invoices.size()));
+      Set<String> existingIds = findExistingIds(invoices.stream().map(Invoice::getId).collect(Collectors.toList()));
+      List<BatchItemResult> results = new ArrayList<>();
+      List<Invoice> invoicesToSave = new ArrayList<>();
+      List<Integer> positions = new ArrayList<>();
+      for (int index = 0; index < invoices.size(); index++) {
+        String id = invoices.get(index).getId();
+        if (existingIds.contains(id)) {
+          invoicesToSave.add(invoices.get(index));
+          positions.add(index);
+        } else {
+          results.add(BatchItemResult.failed(index, id, Collections.singletonList(String.format("Invoice with id %s does not exist", id))));
+        }
+      }
+      for (BatchItemResult result : saveBatch(invoicesToSave)) {
+        result.setIndex(positions.get(result.getIndex()));
+        results.add(result);
+      }
+      results.sort(Comparator.comparingInt(BatchItemResult::getIndex));
+      log.debug(String.format("Updating batch of invoices in database finished. Not updated: %d", results.stream().filter(result -> !result.succeeded()).count()));
+      return results;
+    } catch (DatabaseOperationException e) {
+      log.error(String.format("An error occurred during updating batch of %d invoices", invoices.size()));
+      throw new ServiceOperationException(String.format("An error occurred during updating batch of %d invoices", invoices.size()), e);
+    } finally {
+      invalidate(invoices);
+    }
+  }
+
+  public List<BatchItemResult> deleteInvoices(@NonNull List<String> invoiceIds) throws ServiceOperationException {
+    try {
+      log.info(String.format("Deleting batch of %d invoices from database", invoiceIds.size()));
+      Map<Integer, String> failures = Collections.emptyMap();
+      try {
+        invoiceDatabase.deleteAllById(invoiceIds);
+      } catch (BatchOperationException e) {
+        log.debug(String.format("Some invoices from batch were not deleted: %s", e.getFailures()));
+        failures = e.getFailures();
+      }
+      List<BatchItemResult> results = new ArrayList<>();
+      for (int index = 0; index < invoiceIds.size(); index++) {
+        String id = invoiceIds.get(index);
+        results.add(failures.containsKey(index) ? BatchItemResult.failed(index, id, Collections.singletonList(failures.get(index))) : BatchItemResult.deleted(index, id));
+      }
+      return results;
+    } catch (DatabaseOperationException e) {
+      log.error(String.format("An error occurred during deleting batch of %d invoices", invoiceIds.size()));
+      throw new ServiceOperationException(String.format("An error occurred during deleting batch of %d invoices", invoiceIds.size()), e);
+    } finally {
+      invoiceIds.forEach(invoiceCache::invalidate);
     }
   }
 
@@ -112,19 +318,106 @@ public class InvoiceService {
     } catch (DatabaseOperationException e) {
       log.error(String.format("\"An error occurred during deleting all invoices"));
       throw new ServiceOperationException(("An error occurred during deleting all invoices"), e);
+    } finally {
+      invoiceCache.invalidateAll();
     }
   }
 
   public List<Invoice> getAllInvoicesIssuedInGivenDateRange(@NonNull LocalDate startDate, @NonNull LocalDate endDate) throws
       ServiceOperationException {
     log.info("Getting of all invoices from database in given data range");
+    validateDateRange(startDate, endDate);
+    try {
+      List<Invoice> result = new ArrayList<>();
+      invoiceDatabase.findAllByIssueDateBetween(startDate, endDate).forEach(result::add);
+      log.debug("Getting all invoices in given data range from database successful");
+      return result;
+    } catch (DatabaseOperationException e) {
+      log.error(String.format("An error occurred during getting invoices issued in given date range from database. Dates: %s - %s", startDate, endDate));
+      throw new ServiceOperationException(String.format("An error occurred during getting invoices issued in given date range. Dates: %s - %s", startDate, endDate), e);
+    }
+  }
+
+  public List<Invoice> getAllInvoicesDueInGivenDateRange(@NonNull LocalDate startDate, @NonNull LocalDate endDate) throws
+      ServiceOperationException {
+    log.info("Getting of all invoices due in given data range from database");
+    validateDateRange(startDate, endDate);
+    try {
+      List<Invoice> result = new ArrayList<>();
+      invoiceDatabase.findAllByDueDateBetween(startDate, endDate).forEach(result::add);
+      log.debug("Getting all invoices due in given data range from database successful");
+      return result;
+    } catch (DatabaseOperationException e) {
+      log.error(String.format("An error occurred during getting invoices due in given date range from database. Dates: %s - %s", startDate, endDate));
+      throw new ServiceOperationException(String.format("An error occurred during getting invoices due in given date range. Dates: %s - %s", startDate, endDate), e);
+    }
+  }
+
+  private void validateDateRange(LocalDate startDate, LocalDate endDate) {
     if (startDate.until(endDate, ChronoUnit.DAYS) < 0) {
       log.error("The end date must be newer or equal to start date");
       throw new IllegalArgumentException("The end date must be newer or equal to start date");
     }
-    log.debug("Getting all invoices in given data range from database successful");
-    return getAllInvoices().stream()
-        .filter(invoice -> invoice.getIssueDate().compareTo(startDate) >= 0 && invoice.getIssueDate().compareTo(endDate) <= 0)
-        .collect(Collectors.toList());
+  }
+
+  private List<BatchItemResult> saveBatch(List<Invoice> invoices) throws DatabaseOperationException {
+    if (invoices.isEmpty()) {
+      return new ArrayList<>();
+    }
+    List<?> savedInvoices;
+    Map<Integer, String> failures;
+    try {
+      savedInvoices = invoiceDatabase.saveAll(invoices);
+      failures = Collections.emptyMap();
+    } catch (BatchOperationException e) {
+      log.debug(String.format("Some invoices from batch were not saved: %s", e.getFailures()));
+      savedInvoices = e.getResults();
+      failures = e.getFailures();
+    }
+    List<BatchItemResult> results = new ArrayList<>();
+    Iterator<?> savedInvoice = savedInvoices.iterator();
+    for (int index = 0; index < invoices.size(); index++) {
+      if (failures.containsKey(index) || !savedInvoice.hasNext()) {
+        results.add(BatchItemResult.failed(index, invoices.get(index).getId(), Collections.singletonList(failures.getOrDefault(index, "Invoice was not saved."))));
+      } else {
+        results.add(BatchItemResult.saved(index, (Invoice) savedInvoice.next()));
+      }
+    }
+    return results;
+  }
+
+  private Set<String> findExistingIds(List<String> invoiceIds) throws DatabaseOperationException {
+    Set<String> existingIds = new HashSet<>();
+    List<String> idsToCheck = new ArrayList<>();
+    for (String invoiceId : invoiceIds) {
+      if (isCached(invoiceId)) {
+        existingIds.add(invoiceId);
+      } else {
+        idsToCheck.add(invoiceId);
+      }
+    }
+    if (!idsToCheck.isEmpty()) {
+      existingIds.addAll(invoiceDatabase.findExistingIds(idsToCheck));
+    }
+    return existingIds;
+  }
+
+  private void invalidate(List<Invoice> invoices) {
+    invoices.stream()
+        .map(Invoice::getId)
+        .filter(Objects::nonNull)
+        .forEach(invoiceCache::invalidate);
+  }
+
+  private Invoice loadInvoice(String invoiceId) {
+    try {
+      return invoiceDatabase.findById(invoiceId).orElse(null);
+    } catch (DatabaseOperationException e) {
+      throw new CompletionException(e);
+    }
+  }
+
+  private boolean isCached(String invoiceId) {
+    return invoiceCache.getIfPresent(invoiceId) != null;
   }
 }
@@ -0,0 +1,89 @@
+package pl.coderstrust.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import pl.coderstrust.database.invoice.ReactiveInvoiceDatabase;
+import pl.coderstrust.model.Invoice;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "pl.coderstrust.database", havingValue = "mongodb")
+public class ReactiveInvoiceService {
+
+  private final ReactiveInvoiceDatabase invoiceDatabase;
+  private final Cache<String, Invoice> invoiceCache;
+
+  @Autowired
+  public ReactiveInvoiceService(@NonNull ReactiveInvoiceDatabase invoiceDatabase, @NonNull Cache<String, Invoice> invoiceCache) {
+    this.invoiceDatabase = invoiceDatabase;
+    this.invoiceCache = invoiceCache;
+  }
+
+  public Flux<Invoice> getAllInvoices() {
+    log.info("Getting all invoices from database");
+    return invoiceDatabase.findAll()
+        .doOnError(e -> log.error("An error occurred during getting all invoices from database"))
+        .onErrorMap(e -> new ServiceOperationException("An error occurred during getting all invoices", e));
+  }
+
+  public Mono<Invoice> getInvoice(@NonNull String invoiceId) {
+    log.info("Getting invoice by id from database");
+    return invoiceDatabase.findById(invoiceId)
+        .doOnError(e -> log.error(String.format("An error occurred during getting single invoice from database by id. Invoice id: %s", invoiceId)))
+        .onErrorMap(e -> new ServiceOperationException(String.format("An error occurred during getting single invoice by id from database. Invoice id: %s", invoiceId), e));
+  }
+
+  public Mono<Boolean> invoiceExists(@NonNull String invoiceId) {
+    log.info("Checking if invoice is existing in database");
+    return invoiceDatabase.existsById(invoiceId)
+        .doOnError(e -> log.error(String.format("An error occurred during checking if invoice exists in database. Invoice id: %s", invoiceId)))
+        .onErrorMap(e -> new ServiceOperationException(String.format("An error occurred during checking if invoice exists in database. Invoice id: %s", invoiceId), e));
+  }
+
+  public Mono<Invoice> addInvoice(@NonNull Invoice invoice) {
+    log.info("Saving invoice to database");
+    return invoiceDatabase.save(invoice)
+        .doFinally(signal -> invalidate(invoice.getId()))
+        .doOnError(e -> log.error(String.format("An error occurred during adding new invoice. Invoice: %s", invoice)))
+        .onErrorMap(e -> new ServiceOperationException(String.format("An error occurred during adding new invoice. Invoice: %s", invoice), e));
+  }
+
+  public Mono<Invoice> updateInvoice(@NonNull Invoice invoice) {
+    log.info(String.format("Updating invoice to database. Invoice :%s", invoice));
+    return invoiceDatabase.existsById(invoice.getId())
+        .flatMap(exists -> exists
+            ? invoiceDatabase.save(invoice)
+            : Mono.error(new ServiceOperationException(String.format("Invoice with id %s does not exist", invoice.getId()))))
+        .doFinally(signal -> invalidate(invoice.getId()))
+        .doOnError(e -> log.error(String.format("An error occurred during updating invoice. Invoice: %s", invoice)))
+        .onErrorMap(e -> !(e instanceof ServiceOperationException), e -> new ServiceOperationException(String.format("An error occurred during updating invoice. Invoice: %s", invoice), e));
+  }
+
+  public Mono<Invoice> deleteInvoice(@NonNull String invoiceId) {
+    log.info("Deleting invoice from database");
+    return invoiceDatabase.deleteById(invoiceId)
+        .doFinally(signal -> invalidate(invoiceId))
+        .doOnError(e -> log.error(String.format("An error occurred during deleting invoice. Invoice: %s", invoiceId)))
+        .onErrorMap(e -> new ServiceOperationException(String.format("An error occurred during deleting invoice. Invoice: %s", invoiceId), e));
+  }
+
+  public Mono<Invoice> removeInvoice(@NonNull String invoiceId) {
+    log.info("Removing invoice from database");
+    return invoiceDatabase.findAndDeleteById(invoiceId)
+        .doFinally(signal -> invalidate(invoiceId))
+        .doOnError(e -> log.error(String.format("An error occurred during removing invoice. Invoice: %s", invoiceId)))
+        .onErrorMap(e -> new ServiceOperationException(String.format("An error occurred during removing invoice. Invoice: %s", invoiceId), e));
+  }
+
+  private void invalidate(String invoiceId) {
+    if (invoiceId != null) {
+      invoiceCache.invalidate(invoiceId);
+    }
+  }
+}
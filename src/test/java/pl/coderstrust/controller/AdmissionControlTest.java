@@ -0,0 +1,123 @@
+package pl.coderstrust.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+class AdmissionControlTest {
+
+  private final List<Runnable> pendingTasks = new ArrayList<>();
+  private final Executor queueingExecutor = pendingTasks::add;
+
+  @Test
+  void shouldRunHandlerOnExecutor() {
+    //given
+    AdmissionControl admissionControl = new AdmissionControl(queueingExecutor, 1, Duration.ofSeconds(5));
+    ResponseEntity<?> expectedResponse = new ResponseEntity<>(HttpStatus.OK);
+
+    //when
+    CompletableFuture<ResponseEntity<?>> response = admissionControl.submit("user", () -> expectedResponse, "generating pdfs");
+    pendingTasks.forEach(Runnable::run);
+
+    //then
+    assertEquals(expectedResponse, response.join());
+    assertEquals(0, admissionControl.getRequestsInProgress("user"));
+  }
+
+  @Test
+  void shouldReturnTooManyRequestsWhenClientExceedsItsLimit() {
+    //given
+    AdmissionControl admissionControl = new AdmissionControl(queueingExecutor, 1, Duration.ofSeconds(5));
+    admissionControl.submit("user", () -> new ResponseEntity<>(HttpStatus.OK), "generating pdfs");
+    ErrorMessage expectedErrorMessage = new ErrorMessage("Too many requests generating pdfs, try again later.");
+
+    //when
+    ResponseEntity<?> response = admissionControl.submit("user", () -> new ResponseEntity<>(HttpStatus.OK), "generating pdfs").join();
+
+    //then
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+    assertEquals("5", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    assertEquals(expectedErrorMessage, response.getBody());
+    assertEquals(1, pendingTasks.size());
+  }
+
+  @Test
+  void shouldAdmitOtherClientsWhenOneClientReachedItsLimit() {
+    //given
+    AdmissionControl admissionControl = new AdmissionControl(queueingExecutor, 1, Duration.ofSeconds(5));
+    admissionControl.submit("user", () -> new ResponseEntity<>(HttpStatus.OK), "generating pdfs");
+
+    //when
+    CompletableFuture<ResponseEntity<?>> response = admissionControl.submit("admin", () -> new ResponseEntity<>(HttpStatus.OK), "generating pdfs");
+
+    //then
+    assertFalse(response.isDone());
+    assertEquals(2, pendingTasks.size());
+  }
+
+  @Test
+  void shouldAdmitClientAgainWhenItsRequestCompleted() {
+    //given
+    AdmissionControl admissionControl = new AdmissionControl(queueingExecutor, 1, Duration.ofSeconds(5));
+    admissionControl.submit("user", () -> new ResponseEntity<>(HttpStatus.OK), "generating pdfs");
+    pendingTasks.remove(0).run();
+
+    //when
+    CompletableFuture<ResponseEntity<?>> response = admissionControl.submit("user", () -> new ResponseEntity<>(HttpStatus.OK), "generating pdfs");
+
+    //then
+    assertFalse(response.isDone());
+    assertEquals(1, admissionControl.getRequestsInProgress("user"));
+  }
+
+  @Test
+  void shouldNotLimitClientsWhenLimitIsNotPositive() {
+    //given
+    AdmissionControl admissionControl = new AdmissionControl(queueingExecutor, 0, Duration.ofSeconds(1));
+
+    //when
+    for (int i = 0; i < 10; i++) {
+      admissionControl.submit("user", () -> new ResponseEntity<>(HttpStatus.OK), "getting invoices");
+    }
+
+    //then
+    assertEquals(10, pendingTasks.size());
+    assertEquals(10, admissionControl.getRequestsInProgress("user"));
+  }
+
+  @Test
+  void shouldReturnServiceUnavailableAndReleaseClientWhenExecutorIsSaturated() {
+    //given
+    Executor saturatedExecutor = task -> {
+      throw new RejectedExecutionException();
+    };
+    AdmissionControl admissionControl = new AdmissionControl(saturatedExecutor, 1, Duration.ofSeconds(5));
+    ErrorMessage expectedErrorMessage = new ErrorMessage("Server is busy generating pdfs, try again later.");
+
+    //when
+    ResponseEntity<?> response = admissionControl.submit("user", () -> new ResponseEntity<>(HttpStatus.OK), "generating pdfs").join();
+
+    //then
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    assertEquals("5", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    assertEquals(expectedErrorMessage, response.getBody());
+    assertEquals(0, admissionControl.getRequestsInProgress("user"));
+  }
+
+  @Test
+  void constructorShouldThrowExceptionWhenArgumentIsNull() {
+    assertThrows(IllegalArgumentException.class, () -> new AdmissionControl(null, 1, Duration.ofSeconds(5)));
+    assertThrows(IllegalArgumentException.class, () -> new AdmissionControl(queueingExecutor, 1, null));
+  }
+}
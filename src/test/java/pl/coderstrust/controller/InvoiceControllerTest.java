@@ -4,19 +4,24 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.mockito.Mockito.doNothing;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.Before;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
@@ -25,6 +30,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -32,11 +41,17 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 import pl.coderstrust.configuration.ApplicationConfiguration;
 import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.BatchItemResult;
+import pl.coderstrust.model.Company;
+import pl.coderstrust.model.DueDateTotals;
 import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceSummary;
+import pl.coderstrust.model.SellerTotals;
 import pl.coderstrust.service.InvoicePdfService;
 import pl.coderstrust.service.InvoiceService;
 import pl.coderstrust.service.ServiceOperationException;
@@ -79,11 +94,14 @@ class InvoiceControllerTest {
     when(invoiceService.getAllInvoices()).thenReturn(expectedInvoiceList);
 
     //when
-    MvcResult result = mockMvc
+    MvcResult asyncResult = mockMvc
         .perform(MockMvcRequestBuilders
             .get(String.format(urlAddressTemplate, ""))
             .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
         .andReturn();
+    asyncResult.getAsyncResult();
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
 
     int httpStatus = result.getResponse().getStatus();
     List<Invoice> actualInvoices = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<Invoice>>() {
@@ -98,26 +116,572 @@ class InvoiceControllerTest {
 
   @Test
   @WithMockUser()
-  void shouldReturnInternalServerErrorDuringGettingAllInvoicesWhenSomethingWentWrongOnServer() throws Exception {
+  void shouldReturnInternalServerErrorDuringGettingAllInvoicesWhenSomethingWentWrongOnServer() throws Exception {
+    //given
+    when(invoiceService.getAllInvoices()).thenThrow(new ServiceOperationException());
+    ErrorMessage expectedErrorMessage = new ErrorMessage("Internal server error while getting invoices.");
+
+    //when
+    MvcResult asyncResult = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, ""))
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+    asyncResult.getAsyncResult();
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), httpStatus);
+    assertNotNull(actualErrorMessage);
+    assertEquals(expectedErrorMessage, actualErrorMessage);
+    verify(invoiceService).getAllInvoices();
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnPageOfInvoices() throws Exception {
+    //given
+    List<Invoice> expectedInvoiceList = Arrays.asList(InvoiceGenerator.getRandomInvoice(), InvoiceGenerator.getRandomInvoice());
+    PageRequest expectedPageRequest = PageRequest.of(1, 2, Sort.by(Sort.Order.desc("issueDate"), Sort.Order.asc("id")));
+    when(invoiceService.getInvoices(expectedPageRequest)).thenReturn(new PageImpl<>(expectedInvoiceList, expectedPageRequest, 5));
+
+    //when
+    MvcResult asyncResult = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, ""))
+            .param("page", "1")
+            .param("size", "2")
+            .param("sort", "issueDate,desc", "id")
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+    asyncResult.getAsyncResult();
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    JsonNode actualPage = mapper.readTree(result.getResponse().getContentAsString());
+    List<Invoice> actualInvoices = mapper.convertValue(actualPage.get("content"), new TypeReference<List<Invoice>>() {
+    });
+
+    //then
+    assertEquals(HttpStatus.OK.value(), httpStatus);
+    assertEquals(expectedInvoiceList, actualInvoices);
+    assertEquals(5, actualPage.get("totalElements").asInt());
+    verify(invoiceService).getInvoices(expectedPageRequest);
+    verify(invoiceService, never()).getAllInvoices();
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnBadRequestDuringGettingPageOfInvoicesWithInvalidParameters() throws Exception {
+    //given
+    ErrorMessage expectedErrorMessage = new ErrorMessage("Passed paging parameters are invalid.",
+        Arrays.asList("Page size must be between 1 and 1000", "Invoices cannot be sorted by property: comments"));
+
+    //when
+    MvcResult asyncResult = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, ""))
+            .param("size", "1001")
+            .param("sort", "comments")
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+    asyncResult.getAsyncResult();
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.BAD_REQUEST.value(), httpStatus);
+    assertEquals(expectedErrorMessage, actualErrorMessage);
+    verify(invoiceService, never()).getInvoices(any());
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnBadRequestDuringGettingSortedPageOfInvoicesBeyondSortedPageWindow() throws Exception {
+    //given
+    ErrorMessage expectedErrorMessage = new ErrorMessage("Passed paging parameters are invalid.",
+        Collections.singletonList("Sorted pages cannot reach beyond the first 10000 invoices"));
+
+    //when
+    MvcResult asyncResult = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, ""))
+            .param("page", "10")
+            .param("size", "1000")
+            .param("sort", "issueDate")
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+    asyncResult.getAsyncResult();
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.BAD_REQUEST.value(), httpStatus);
+    assertEquals(expectedErrorMessage, actualErrorMessage);
+    verify(invoiceService, never()).getInvoices(any());
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnInvoicesIssuedInDateRange() throws Exception {
+    //given
+    LocalDate from = LocalDate.of(2019, 1, 1);
+    LocalDate to = LocalDate.of(2019, 1, 31);
+    List<Invoice> expectedInvoiceList = Collections.singletonList(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(from));
+    when(invoiceService.getAllInvoicesIssuedInGivenDateRange(from, to)).thenReturn(expectedInvoiceList);
+
+    //when
+    MvcResult asyncResult = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, ""))
+            .param("from", "2019-01-01")
+            .param("to", "2019-01-31")
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+    asyncResult.getAsyncResult();
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    List<Invoice> actualInvoices = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<Invoice>>() {
+    });
+
+    //then
+    assertEquals(HttpStatus.OK.value(), httpStatus);
+    assertEquals(expectedInvoiceList, actualInvoices);
+    verify(invoiceService).getAllInvoicesIssuedInGivenDateRange(from, to);
+    verify(invoiceService, never()).getAllInvoices();
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnBadRequestDuringGettingInvoicesWithInvalidDateRange() throws Exception {
+    //given
+    ErrorMessage expectedErrorMessage = new ErrorMessage("Passed date range is invalid.",
+        Arrays.asList("The end date must be newer or equal to start date", "Paging parameters cannot be combined with date range"));
+
+    //when
+    MvcResult asyncResult = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, ""))
+            .param("from", "2019-02-01")
+            .param("to", "2019-01-01")
+            .param("size", "10")
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+    asyncResult.getAsyncResult();
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.BAD_REQUEST.value(), httpStatus);
+    assertEquals(expectedErrorMessage, actualErrorMessage);
+    verify(invoiceService, never()).getAllInvoicesIssuedInGivenDateRange(any(), any());
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnAllInvoiceSummaries() throws Exception {
+    //given
+    List<InvoiceSummary> expectedSummaries = Arrays.asList(new InvoiceSummary(InvoiceGenerator.getRandomInvoice()), new InvoiceSummary(InvoiceGenerator.getRandomInvoice()));
+    when(invoiceService.getInvoiceSummaries(Pageable.unpaged())).thenReturn(new PageImpl<>(expectedSummaries));
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, "summaries"))
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    List<InvoiceSummary> actualSummaries = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<InvoiceSummary>>() {
+    });
+
+    //then
+    assertEquals(HttpStatus.OK.value(), httpStatus);
+    assertEquals(expectedSummaries, actualSummaries);
+    verify(invoiceService).getInvoiceSummaries(Pageable.unpaged());
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnPageOfInvoiceSummaries() throws Exception {
+    //given
+    List<InvoiceSummary> expectedSummaries = Collections.singletonList(new InvoiceSummary(InvoiceGenerator.getRandomInvoice()));
+    PageRequest expectedPageRequest = PageRequest.of(0, 20, Sort.by(Sort.Order.asc("dueDate")));
+    when(invoiceService.getInvoiceSummaries(expectedPageRequest)).thenReturn(new PageImpl<>(expectedSummaries, expectedPageRequest, 1));
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, "summaries"))
+            .param("sort", "dueDate")
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    JsonNode actualPage = mapper.readTree(result.getResponse().getContentAsString());
+    List<InvoiceSummary> actualSummaries = mapper.convertValue(actualPage.get("content"), new TypeReference<List<InvoiceSummary>>() {
+    });
+
+    //then
+    assertEquals(HttpStatus.OK.value(), httpStatus);
+    assertEquals(expectedSummaries, actualSummaries);
+    assertEquals(1, actualPage.get("totalElements").asInt());
+    verify(invoiceService).getInvoiceSummaries(expectedPageRequest);
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnBadRequestDuringGettingPageOfInvoiceSummariesWithInvalidParameters() throws Exception {
+    //given
+    ErrorMessage expectedErrorMessage = new ErrorMessage("Passed paging parameters are invalid.", Collections.singletonList("Page number cannot be negative"));
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, "summaries"))
+            .param("page", "-1")
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.BAD_REQUEST.value(), httpStatus);
+    assertEquals(expectedErrorMessage, actualErrorMessage);
+    verify(invoiceService, never()).getInvoiceSummaries(any());
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnInvoiceSummariesBySellerName() throws Exception {
+    //given
+    List<InvoiceSummary> expectedSummaries = Collections.singletonList(new InvoiceSummary(InvoiceGenerator.getRandomInvoice()));
+    when(invoiceService.getInvoiceSummariesBySellerName("PolStal")).thenReturn(expectedSummaries);
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, "summaries"))
+            .param("sellerName", "PolStal")
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    List<InvoiceSummary> actualSummaries = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<InvoiceSummary>>() {
+    });
+
+    //then
+    assertEquals(HttpStatus.OK.value(), httpStatus);
+    assertEquals(expectedSummaries, actualSummaries);
+    verify(invoiceService).getInvoiceSummariesBySellerName("PolStal");
+    verify(invoiceService, never()).getInvoiceSummaries(any());
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnBadRequestDuringGettingInvoiceSummariesByNameWithInvalidParameters() throws Exception {
+    //given
+    ErrorMessage expectedErrorMessage = new ErrorMessage("Passed filtering parameters are invalid.",
+        Arrays.asList("Only one of seller name and buyer name can be passed", "Paging parameters cannot be combined with seller or buyer name"));
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, "summaries"))
+            .param("sellerName", "PolStal")
+            .param("buyerName", "Nowak")
+            .param("page", "0")
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.BAD_REQUEST.value(), httpStatus);
+    assertEquals(expectedErrorMessage, actualErrorMessage);
+    verify(invoiceService, never()).getInvoiceSummariesBySellerName(any());
+    verify(invoiceService, never()).getInvoiceSummariesByBuyerName(any());
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnInternalServerErrorDuringGettingInvoiceSummariesWhenSomethingWentWrongOnServer() throws Exception {
+    //given
+    ErrorMessage expectedErrorMessage = new ErrorMessage("Internal server error while getting invoice summaries.");
+    when(invoiceService.getInvoiceSummaries(Pageable.unpaged())).thenThrow(new ServiceOperationException());
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, "summaries"))
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), httpStatus);
+    assertEquals(expectedErrorMessage, actualErrorMessage);
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnInvoiceTotalsBySeller() throws Exception {
+    //given
+    LocalDate from = LocalDate.of(2019, 1, 1);
+    LocalDate to = LocalDate.of(2019, 1, 31);
+    List<SellerTotals> expectedTotals = Collections.singletonList(new SellerTotals("PolStal", 2, new BigDecimal("100"), new BigDecimal("123")));
+    when(invoiceService.getSellerTotals(from, to)).thenReturn(expectedTotals);
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, "reports/sellers"))
+            .param("from", "2019-01-01")
+            .param("to", "2019-01-31")
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    List<SellerTotals> actualTotals = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<SellerTotals>>() {
+    });
+
+    //then
+    assertEquals(HttpStatus.OK.value(), httpStatus);
+    assertEquals(expectedTotals, actualTotals);
+    verify(invoiceService).getSellerTotals(from, to);
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnBadRequestDuringGettingInvoiceTaxTotalsWithInvalidDateRange() throws Exception {
+    //given
+    ErrorMessage expectedErrorMessage = new ErrorMessage("The end date must be newer or equal to start date");
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, "reports/vat"))
+            .param("from", "2019-02-01")
+            .param("to", "2019-01-31")
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.BAD_REQUEST.value(), httpStatus);
+    assertEquals(expectedErrorMessage, actualErrorMessage);
+    verify(invoiceService, never()).getMonthlyVatTotals(any(), any());
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnOutstandingInvoiceTotalsAsOfCurrentDateByDefault() throws Exception {
+    //given
+    List<DueDateTotals> expectedTotals = Collections.singletonList(new DueDateTotals(LocalDate.of(2019, 2, 1), 1, new BigDecimal("123")));
+    when(invoiceService.getOutstandingTotals(any())).thenReturn(expectedTotals);
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, "reports/outstanding"))
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    List<DueDateTotals> actualTotals = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<DueDateTotals>>() {
+    });
+
+    //then
+    assertEquals(HttpStatus.OK.value(), httpStatus);
+    assertEquals(expectedTotals, actualTotals);
+    verify(invoiceService).getOutstandingTotals(LocalDate.now());
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnInternalServerErrorDuringGettingInvoiceTaxTotalsWhenSomethingWentWrongOnServer() throws Exception {
+    //given
+    ErrorMessage expectedErrorMessage = new ErrorMessage("Internal server error while getting invoice tax totals by month.");
+    when(invoiceService.getMonthlyVatTotals(any(), any())).thenThrow(new ServiceOperationException());
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, "reports/vat"))
+            .param("from", "2019-01-01")
+            .param("to", "2019-12-31")
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), httpStatus);
+    assertEquals(expectedErrorMessage, actualErrorMessage);
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldExportAllInvoices() throws Exception {
+    //given
+    List<Invoice> expectedInvoiceList = Arrays.asList(InvoiceGenerator.getRandomInvoice(), InvoiceGenerator.getRandomInvoice());
+    AtomicBoolean streamClosed = new AtomicBoolean();
+    when(invoiceService.streamAllInvoices()).thenReturn(expectedInvoiceList.stream().onClose(() -> streamClosed.set(true)));
+
+    //when
+    MvcResult asyncResult = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, "export"))
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+    asyncResult.getAsyncResult();
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    List<Invoice> actualInvoices = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<Invoice>>() {
+    });
+
+    //then
+    assertEquals(HttpStatus.OK.value(), httpStatus);
+    assertEquals(expectedInvoiceList, actualInvoices);
+    assertTrue(streamClosed.get());
+    verify(invoiceService).streamAllInvoices();
+    verify(invoiceService, never()).getAllInvoices();
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldStreamAllInvoicesAsNewlineDelimitedJson() throws Exception {
+    //given
+    List<Invoice> expectedInvoiceList = Arrays.asList(InvoiceGenerator.getRandomInvoice(), InvoiceGenerator.getRandomInvoice());
+    when(invoiceService.streamAllInvoices()).thenReturn(expectedInvoiceList.stream());
+
+    //when
+    MvcResult asyncResult = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, ""))
+            .accept("application/x-ndjson"))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+    asyncResult.getAsyncResult();
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    String[] lines = result.getResponse().getContentAsString().split("\n");
+    List<Invoice> actualInvoices = new ArrayList<>();
+    for (String line : lines) {
+      actualInvoices.add(mapper.readValue(line, Invoice.class));
+    }
+
+    //then
+    assertEquals(HttpStatus.OK.value(), httpStatus);
+    assertEquals("application/x-ndjson", result.getResponse().getContentType());
+    assertEquals(expectedInvoiceList, actualInvoices);
+    for (String line : lines) {
+      assertTrue(line.startsWith("{"), String.format("Expected line to start with invoice object, but was: %s", line));
+    }
+    verify(invoiceService, never()).getAllInvoices();
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnBadRequestWhenPagingParametersArePassedToInvoiceStreaming() throws Exception {
+    //given
+    ErrorMessage expectedErrorMessage = new ErrorMessage("Passed parameters are invalid.",
+        Collections.singletonList("Paging parameters and date range cannot be combined with streaming all invoices"));
+
+    //when
+    MvcResult asyncResult = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, ""))
+            .param("sort", "issueDate")
+            .accept("application/x-ndjson"))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+    asyncResult.getAsyncResult();
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.BAD_REQUEST.value(), httpStatus);
+    assertEquals(expectedErrorMessage, actualErrorMessage);
+    verify(invoiceService, never()).streamAllInvoices();
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnInternalServerErrorDuringStreamingInvoicesWhenSomethingWentWrongOnServer() throws Exception {
+    //given
+    ErrorMessage expectedErrorMessage = new ErrorMessage("Internal server error while streaming invoices.");
+    when(invoiceService.streamAllInvoices()).thenThrow(new ServiceOperationException());
+
+    //when
+    MvcResult asyncResult = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, ""))
+            .accept("application/x-ndjson"))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+    asyncResult.getAsyncResult();
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), httpStatus);
+    assertEquals(expectedErrorMessage, actualErrorMessage);
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnInternalServerErrorDuringExportingInvoicesWhenSomethingWentWrongOnServer() throws Exception {
     //given
-    when(invoiceService.getAllInvoices()).thenThrow(new ServiceOperationException());
-    ErrorMessage expectedErrorMessage = new ErrorMessage("Internal server error while getting invoices.");
+    ErrorMessage expectedErrorMessage = new ErrorMessage("Internal server error while exporting invoices.");
+    when(invoiceService.streamAllInvoices()).thenThrow(new ServiceOperationException());
 
     //when
-    MvcResult result = mockMvc
+    MvcResult asyncResult = mockMvc
         .perform(MockMvcRequestBuilders
-            .get(String.format(urlAddressTemplate, ""))
+            .get(String.format(urlAddressTemplate, "export"))
             .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
         .andReturn();
+    asyncResult.getAsyncResult();
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
 
     int httpStatus = result.getResponse().getStatus();
     ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
 
     //then
     assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), httpStatus);
-    assertNotNull(actualErrorMessage);
     assertEquals(expectedErrorMessage, actualErrorMessage);
-    verify(invoiceService).getAllInvoices();
   }
 
   @Test
@@ -144,6 +708,103 @@ class InvoiceControllerTest {
     verify(invoiceService).getInvoice(expectedInvoice.getId());
   }
 
+  @Test
+  @WithMockUser()
+  void shouldReturnInvoiceWithEntityTagOfItsVersion() throws Exception {
+    //given
+    Invoice expectedInvoice = InvoiceGenerator.getRandomInvoice();
+    expectedInvoice.setVersion(3L);
+    when(invoiceService.getInvoice(expectedInvoice.getId())).thenReturn(Optional.of(expectedInvoice));
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, expectedInvoice.getId()))
+            .header("If-None-Match", "\"2\"")
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    Invoice actualInvoice = mapper.readValue(result.getResponse().getContentAsString(), Invoice.class);
+
+    //then
+    assertEquals(HttpStatus.OK.value(), httpStatus);
+    assertEquals(expectedInvoice, actualInvoice);
+    assertEquals(InvoiceEntityTags.of(expectedInvoice), result.getResponse().getHeader("ETag"));
+    assertTrue(result.getResponse().getHeader("ETag").startsWith("\"3-"));
+    assertEquals("no-cache, private", result.getResponse().getHeader("Cache-Control"));
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnNotModifiedWithoutBodyWhenInvoiceVersionMatches() throws Exception {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    invoice.setVersion(3L);
+    when(invoiceService.getInvoice(invoice.getId())).thenReturn(Optional.of(invoice));
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, invoice.getId()))
+            .header("If-None-Match", String.format("\"1\", W/%s", InvoiceEntityTags.of(invoice)))
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andReturn();
+
+    //then
+    assertEquals(HttpStatus.NOT_MODIFIED.value(), result.getResponse().getStatus());
+    assertEquals(0, result.getResponse().getContentLength());
+    assertEquals(InvoiceEntityTags.of(invoice), result.getResponse().getHeader("ETag"));
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnInvoiceWhenOnlyDetailsOfItsSellerChangedSinceTaggedVersion() throws Exception {
+    //given
+    Invoice taggedInvoice = InvoiceGenerator.getRandomInvoice();
+    taggedInvoice.setVersion(3L);
+    Invoice invoice = InvoiceGenerator.copyInvoice(taggedInvoice);
+    invoice.setVersion(3L);
+    invoice.setSeller(new Company(taggedInvoice.getSeller().getName() + " renamed", taggedInvoice.getSeller().getTaxIdentificationNumber(),
+        taggedInvoice.getSeller().getAccountNumber(), taggedInvoice.getSeller().getContactDetails()));
+    when(invoiceService.getInvoice(invoice.getId())).thenReturn(Optional.of(invoice));
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, invoice.getId()))
+            .header("If-None-Match", InvoiceEntityTags.of(taggedInvoice))
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andReturn();
+
+    //then
+    assertEquals(HttpStatus.OK.value(), result.getResponse().getStatus());
+    assertNotEquals(InvoiceEntityTags.of(taggedInvoice), result.getResponse().getHeader("ETag"));
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnInvoiceWhenContentOfUnversionedInvoiceChangedSinceTaggedContent() throws Exception {
+    //given
+    Invoice taggedInvoice = InvoiceGenerator.getRandomInvoice();
+    Invoice invoice = InvoiceGenerator.copyInvoice(taggedInvoice);
+    invoice.setComments(taggedInvoice.getComments() + " changed");
+    when(invoiceService.getInvoice(invoice.getId())).thenReturn(Optional.of(invoice));
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplate, invoice.getId()))
+            .header("If-None-Match", InvoiceEntityTags.of(taggedInvoice))
+            .accept(MediaType.APPLICATION_JSON_UTF8))
+        .andReturn();
+
+    //then
+    assertEquals(HttpStatus.OK.value(), result.getResponse().getStatus());
+    assertEquals(InvoiceEntityTags.of(invoice), result.getResponse().getHeader("ETag"));
+    assertNotEquals(InvoiceEntityTags.of(taggedInvoice), result.getResponse().getHeader("ETag"));
+  }
+
   @Test
   @WithMockUser()
   void shouldReturnNotFoundStatusWhenInvoiceNotExisting() throws Exception {
@@ -350,6 +1011,88 @@ class InvoiceControllerTest {
     verify(invoiceService).updateInvoice(expectedInvoice);
   }
 
+  @Test
+  @WithMockUser()
+  void shouldUpdateInvoiceWithVersionFromMatchingEntityTag() throws Exception {
+    //given
+    Invoice currentInvoice = InvoiceGenerator.getRandomInvoice();
+    currentInvoice.setVersion(3L);
+    Invoice invoice = InvoiceGenerator.copyInvoice(currentInvoice);
+    invoice.setVersion(null);
+    Invoice expectedInvoice = InvoiceGenerator.copyInvoice(currentInvoice);
+    expectedInvoice.setVersion(3L);
+    when(invoiceService.getInvoice(currentInvoice.getId())).thenReturn(Optional.of(currentInvoice));
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .put(String.format(urlAddressTemplate, invoice.getId()))
+            .header("If-Match", InvoiceEntityTags.of(currentInvoice))
+            .contentType(MediaType.APPLICATION_JSON_UTF8)
+            .accept(MediaType.APPLICATION_JSON_UTF8)
+            .content(mapper.writeValueAsString(invoice)))
+        .andReturn();
+
+    //then
+    assertEquals(HttpStatus.OK.value(), result.getResponse().getStatus());
+    verify(invoiceService).updateInvoice(expectedInvoice);
+    verify(invoiceService, never()).invoiceExists(any());
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldUpdateUnversionedInvoiceMatchingContentEntityTagWithoutSettingVersion() throws Exception {
+    //given
+    Invoice currentInvoice = InvoiceGenerator.getRandomInvoice();
+    Invoice invoice = InvoiceGenerator.copyInvoice(currentInvoice);
+    invoice.setComments(currentInvoice.getComments() + " changed");
+    when(invoiceService.getInvoice(currentInvoice.getId())).thenReturn(Optional.of(currentInvoice));
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .put(String.format(urlAddressTemplate, invoice.getId()))
+            .header("If-Match", InvoiceEntityTags.of(currentInvoice))
+            .contentType(MediaType.APPLICATION_JSON_UTF8)
+            .accept(MediaType.APPLICATION_JSON_UTF8)
+            .content(mapper.writeValueAsString(invoice)))
+        .andReturn();
+
+    //then
+    assertEquals(HttpStatus.OK.value(), result.getResponse().getStatus());
+    verify(invoiceService).updateInvoice(invoice);
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnPreconditionFailedDuringUpdatingInvoiceModifiedSinceMatchedVersion() throws Exception {
+    //given
+    Invoice currentInvoice = InvoiceGenerator.getRandomInvoice();
+    Invoice matchedInvoice = InvoiceGenerator.copyInvoice(currentInvoice);
+    matchedInvoice.setVersion(3L);
+    currentInvoice.setVersion(4L);
+    when(invoiceService.getInvoice(currentInvoice.getId())).thenReturn(Optional.of(currentInvoice));
+    ErrorMessage expectedErrorMessage = new ErrorMessage("Invoice was modified since passed version.");
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .put(String.format(urlAddressTemplate, currentInvoice.getId()))
+            .header("If-Match", InvoiceEntityTags.of(matchedInvoice))
+            .contentType(MediaType.APPLICATION_JSON_UTF8)
+            .accept(MediaType.APPLICATION_JSON_UTF8)
+            .content(mapper.writeValueAsString(currentInvoice)))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.PRECONDITION_FAILED.value(), httpStatus);
+    assertEquals(expectedErrorMessage, actualErrorMessage);
+    verify(invoiceService, never()).updateInvoice(any());
+  }
+
   @Test
   @WithMockUser()
   void shouldReturnBadRequestDuringUpdatingInvoiceWithWrongId() throws Exception {
@@ -478,8 +1221,7 @@ class InvoiceControllerTest {
   void shouldDeleteInvoice() throws Exception {
     //given
     Invoice expectedInvoice = InvoiceGenerator.getRandomInvoice();
-    when(invoiceService.getInvoice(expectedInvoice.getId())).thenReturn(Optional.of(expectedInvoice));
-    doNothing().when(invoiceService).deleteInvoice(expectedInvoice.getId());
+    when(invoiceService.removeInvoice(expectedInvoice.getId())).thenReturn(Optional.of(expectedInvoice));
 
     //when
     MvcResult result = mockMvc
@@ -494,8 +1236,8 @@ class InvoiceControllerTest {
     assertEquals(HttpStatus.OK.value(), httpStatus);
     assertNotNull(actualInvoice);
     assertEquals(expectedInvoice, actualInvoice);
-    verify(invoiceService).deleteInvoice(expectedInvoice.getId());
-    verify(invoiceService).getInvoice(expectedInvoice.getId());
+    verify(invoiceService).removeInvoice(expectedInvoice.getId());
+    verify(invoiceService, never()).getInvoice(any());
   }
 
   @Test
@@ -503,7 +1245,7 @@ class InvoiceControllerTest {
   void shouldReturnNotFoundDuringDeletingNonExistingInvoice() throws Exception {
     //given
     Invoice expectedInvoice = InvoiceGenerator.getRandomInvoice();
-    when(invoiceService.getInvoice(expectedInvoice.getId())).thenReturn(Optional.ofNullable(null));
+    when(invoiceService.removeInvoice(expectedInvoice.getId())).thenReturn(Optional.empty());
     ErrorMessage expectedErrorMessage = new ErrorMessage("Invoice not found.");
 
     //when
@@ -519,14 +1261,14 @@ class InvoiceControllerTest {
     assertEquals(HttpStatus.NOT_FOUND.value(), httpStatus);
     assertNotNull(actualErrorMessage);
     assertEquals(expectedErrorMessage, actualErrorMessage);
-    verify(invoiceService).getInvoice(expectedInvoice.getId());
+    verify(invoiceService).removeInvoice(expectedInvoice.getId());
   }
 
   @Test
   @WithMockUser()  void shouldThrowInternalServerErrorDuringDeletingWhenSomethingWentWrongOnServer() throws Exception {
     //given
     Invoice expectedInvoice = InvoiceGenerator.getRandomInvoice();
-    when(invoiceService.getInvoice(expectedInvoice.getId())).thenThrow(new ServiceOperationException());
+    when(invoiceService.removeInvoice(expectedInvoice.getId())).thenThrow(new ServiceOperationException());
     ErrorMessage expectedErrorMessage = new ErrorMessage("Internal server error while deleting specified invoice.");
 
     //when
@@ -541,7 +1283,195 @@ class InvoiceControllerTest {
     assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), httpStatus);
     assertNotNull(actualInvoiceResponse);
     assertEquals(expectedErrorMessage, actualInvoiceResponse);
-    verify(invoiceService).getInvoice(expectedInvoice.getId());
+    verify(invoiceService).removeInvoice(expectedInvoice.getId());
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldAddBatchOfInvoicesPassedAsArrayAndReportInvalidOnes() throws Exception {
+    //given
+    Invoice validInvoice = InvoiceGenerator.getRandomInvoiceWithNoId();
+    Invoice invalidInvoice = InvoiceGenerator.getRandomInvoiceWithNoId();
+    invalidInvoice.setSeller(null);
+    Invoice addedInvoice = InvoiceGenerator.copyInvoice(validInvoice);
+    addedInvoice.setId("1");
+    when(invoiceService.addInvoices(Collections.singletonList(validInvoice))).thenReturn(new ArrayList<>(Collections.singletonList(BatchItemResult.saved(0, addedInvoice))));
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .post(String.format(urlAddressTemplate, "batch"))
+            .contentType(MediaType.APPLICATION_JSON_UTF8)
+            .accept(MediaType.APPLICATION_JSON_UTF8)
+            .content(mapper.writeValueAsString(Arrays.asList(invalidInvoice, validInvoice))))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    List<BatchItemResult> actualResults = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<BatchItemResult>>() {
+    });
+
+    //then
+    assertEquals(HttpStatus.MULTI_STATUS.value(), httpStatus);
+    assertEquals(2, actualResults.size());
+    assertEquals(0, actualResults.get(0).getIndex());
+    assertNotEquals(Collections.emptyList(), actualResults.get(0).getErrors());
+    assertEquals(BatchItemResult.saved(1, addedInvoice), actualResults.get(1));
+    verify(invoiceService).addInvoices(Collections.singletonList(validInvoice));
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldAddBatchOfInvoicesPassedAsNewlineDelimitedJson() throws Exception {
+    //given
+    Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithNoId();
+    Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithNoId();
+    Invoice addedInvoice1 = InvoiceGenerator.copyInvoice(invoice1);
+    addedInvoice1.setId("1");
+    Invoice addedInvoice2 = InvoiceGenerator.copyInvoice(invoice2);
+    addedInvoice2.setId("2");
+    List<BatchItemResult> expectedResults = Arrays.asList(BatchItemResult.saved(0, addedInvoice1), BatchItemResult.saved(1, addedInvoice2));
+    when(invoiceService.addInvoices(Arrays.asList(invoice1, invoice2))).thenReturn(new ArrayList<>(expectedResults));
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .post(String.format(urlAddressTemplate, "batch"))
+            .contentType("application/x-ndjson")
+            .accept(MediaType.APPLICATION_JSON_UTF8)
+            .content(mapper.writeValueAsString(invoice1) + "\n" + mapper.writeValueAsString(invoice2) + "\n"))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    List<BatchItemResult> actualResults = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<BatchItemResult>>() {
+    });
+
+    //then
+    assertEquals(HttpStatus.CREATED.value(), httpStatus);
+    assertEquals(expectedResults, actualResults);
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnBadRequestDuringAddingBatchWhichCannotBeRead() throws Exception {
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .post(String.format(urlAddressTemplate, "batch"))
+            .contentType("application/x-ndjson")
+            .accept(MediaType.APPLICATION_JSON_UTF8)
+            .content("{\"id\": "))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.BAD_REQUEST.value(), httpStatus);
+    assertEquals("Passed batch is invalid.", actualErrorMessage.getMessage());
+    verify(invoiceService, never()).addInvoices(any());
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnBadRequestDuringUpdatingEmptyBatch() throws Exception {
+    //given
+    ErrorMessage expectedErrorMessage = new ErrorMessage("Passed batch is invalid.", Collections.singletonList("Batch must contain at least one item"));
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .put(String.format(urlAddressTemplate, "batch"))
+            .contentType(MediaType.APPLICATION_JSON_UTF8)
+            .accept(MediaType.APPLICATION_JSON_UTF8)
+            .content("[]"))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.BAD_REQUEST.value(), httpStatus);
+    assertEquals(expectedErrorMessage, actualErrorMessage);
+    verify(invoiceService, never()).updateInvoices(any());
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldUpdateBatchOfInvoices() throws Exception {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    List<BatchItemResult> expectedResults = Collections.singletonList(BatchItemResult.saved(0, invoice));
+    when(invoiceService.updateInvoices(Collections.singletonList(invoice))).thenReturn(new ArrayList<>(expectedResults));
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .put(String.format(urlAddressTemplate, "batch"))
+            .contentType(MediaType.APPLICATION_JSON_UTF8)
+            .accept(MediaType.APPLICATION_JSON_UTF8)
+            .content(mapper.writeValueAsString(Collections.singletonList(invoice))))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    List<BatchItemResult> actualResults = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<BatchItemResult>>() {
+    });
+
+    //then
+    assertEquals(HttpStatus.OK.value(), httpStatus);
+    assertEquals(expectedResults, actualResults);
+    verify(invoiceService, never()).updateInvoice(any());
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldDeleteBatchOfInvoicesPassedAsNewlineDelimitedIds() throws Exception {
+    //given
+    List<BatchItemResult> serviceResults = Arrays.asList(BatchItemResult.deleted(0, "1"), BatchItemResult.failed(1, "2", Collections.singletonList("Invoice not found")));
+    when(invoiceService.deleteInvoices(Arrays.asList("1", "2"))).thenReturn(new ArrayList<>(serviceResults));
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .delete(String.format(urlAddressTemplate, "batch"))
+            .contentType("application/x-ndjson")
+            .accept(MediaType.APPLICATION_JSON_UTF8)
+            .content("\"1\"\n\"\"\n\"2\"\n"))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    List<BatchItemResult> actualResults = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<BatchItemResult>>() {
+    });
+
+    //then
+    assertEquals(HttpStatus.MULTI_STATUS.value(), httpStatus);
+    assertEquals(Arrays.asList(
+        BatchItemResult.deleted(0, "1"),
+        BatchItemResult.failed(1, "", Collections.singletonList("Id cannot be empty")),
+        BatchItemResult.failed(2, "2", Collections.singletonList("Invoice not found"))), actualResults);
+  }
+
+  @Test
+  @WithMockUser()
+  void shouldReturnInternalServerErrorDuringDeletingBatchWhenSomethingWentWrongOnServer() throws Exception {
+    //given
+    when(invoiceService.deleteInvoices(any())).thenThrow(new ServiceOperationException());
+    ErrorMessage expectedErrorMessage = new ErrorMessage("Internal server error while deleting batch of invoices.");
+
+    //when
+    MvcResult result = mockMvc
+        .perform(MockMvcRequestBuilders
+            .delete(String.format(urlAddressTemplate, "batch"))
+            .contentType(MediaType.APPLICATION_JSON_UTF8)
+            .accept(MediaType.APPLICATION_JSON_UTF8)
+            .content("[\"1\"]"))
+        .andReturn();
+
+    int httpStatus = result.getResponse().getStatus();
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), httpStatus);
+    assertEquals(expectedErrorMessage, actualErrorMessage);
   }
 
   @Test
@@ -554,11 +1484,14 @@ class InvoiceControllerTest {
     when(invoicePdfService.createPdf(invoiceToPdf)).thenReturn(expectedArray);
 
     //when
-    MvcResult result = mockMvc
+    MvcResult asyncResult = mockMvc
         .perform(MockMvcRequestBuilders
             .get(String.format(urlAddressTemplatePdf, invoiceToPdf.getId()))
             .accept(MediaType.APPLICATION_PDF_VALUE))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
         .andReturn();
+    asyncResult.getAsyncResult();
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
 
     int httpStatus = result.getResponse().getStatus();
     byte[] actualArray = result.getResponse().getContentAsByteArray();
@@ -571,6 +1504,31 @@ class InvoiceControllerTest {
     verify(invoicePdfService).createPdf(invoiceToPdf);
   }
 
+  @Test
+  @WithMockUser
+  void shouldReturnNotModifiedWithoutRenderingPdfWhenInvoiceVersionMatches() throws Exception {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    invoice.setVersion(7L);
+    when(invoiceService.getInvoice(invoice.getId())).thenReturn(Optional.of(invoice));
+
+    //when
+    MvcResult asyncResult = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get(String.format(urlAddressTemplatePdf, invoice.getId()))
+            .header("If-None-Match", InvoiceEntityTags.of(invoice))
+            .accept(MediaType.APPLICATION_PDF_VALUE))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+    asyncResult.getAsyncResult();
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+
+    //then
+    assertEquals(HttpStatus.NOT_MODIFIED.value(), result.getResponse().getStatus());
+    assertEquals(InvoiceEntityTags.of(invoice), result.getResponse().getHeader("ETag"));
+    verify(invoicePdfService, never()).createPdf(any());
+  }
+
   @Test
   @WithMockUser
   void shouldThrowNotFoundExceptionWhenTryingToGetPdfWithInvalidInvoiceId() throws Exception {
@@ -581,9 +1539,12 @@ class InvoiceControllerTest {
 
     //when
     invoicePdfService.createPdf(invoiceToPdf);
-    MvcResult result = mockMvc
+    MvcResult asyncResult = mockMvc
         .perform(MockMvcRequestBuilders.get(String.format(urlAddressTemplatePdf, invoiceToPdf.getId())))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
         .andReturn();
+    asyncResult.getAsyncResult();
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
 
     int httpStatus = result.getResponse().getStatus();
     ErrorMessage actualInvoiceResponse = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
@@ -606,9 +1567,12 @@ class InvoiceControllerTest {
     ErrorMessage expectedErrorMessage = new ErrorMessage("Internal server error while trying to get PDF of invoice.");
 
     //when
-    MvcResult result = mockMvc
+    MvcResult asyncResult = mockMvc
         .perform(MockMvcRequestBuilders.get(String.format(urlAddressTemplatePdf, invoiceToPdf.getId())))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
         .andReturn();
+    asyncResult.getAsyncResult();
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
 
     int httpStatus = result.getResponse().getStatus();
     ErrorMessage actualInvoiceResponse = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
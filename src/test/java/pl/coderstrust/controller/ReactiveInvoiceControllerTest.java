@@ -0,0 +1,178 @@
+package pl.coderstrust.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import pl.coderstrust.configuration.ApplicationConfiguration;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.service.ReactiveInvoiceService;
+import pl.coderstrust.service.ServiceOperationException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveInvoiceControllerTest {
+
+  private ObjectMapper mapper = new ApplicationConfiguration().getObjectMapper();
+  private final String urlAddressTemplate = "/reactive/invoices/%s";
+
+  @Mock
+  private ReactiveInvoiceService invoiceService;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setup() {
+    mockMvc = MockMvcBuilders
+        .standaloneSetup(new ReactiveInvoiceController(invoiceService))
+        .setMessageConverters(new MappingJackson2HttpMessageConverter(mapper))
+        .build();
+  }
+
+  @Test
+  void shouldReturnAllInvoicesWithoutBlockingRequestThread() throws Exception {
+    //given
+    List<Invoice> expectedInvoiceList = Arrays.asList(InvoiceGenerator.getRandomInvoice(), InvoiceGenerator.getRandomInvoice());
+    when(invoiceService.getAllInvoices()).thenReturn(Flux.fromIterable(expectedInvoiceList));
+
+    //when
+    MvcResult result = performAsync(MockMvcRequestBuilders.get(String.format(urlAddressTemplate, "")));
+    List<Invoice> actualInvoices = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<Invoice>>() {
+    });
+
+    //then
+    assertEquals(HttpStatus.OK.value(), result.getResponse().getStatus());
+    assertEquals(expectedInvoiceList, actualInvoices);
+  }
+
+  @Test
+  void shouldReturnNotFoundWhenInvoiceDoesNotExist() throws Exception {
+    //given
+    when(invoiceService.getInvoice("1")).thenReturn(Mono.empty());
+
+    //when
+    MvcResult result = performAsync(MockMvcRequestBuilders.get(String.format(urlAddressTemplate, "1")));
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.NOT_FOUND.value(), result.getResponse().getStatus());
+    assertEquals(new ErrorMessage("Invoice not found for passed id."), actualErrorMessage);
+  }
+
+  @Test
+  void shouldAddInvoice() throws Exception {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoiceWithNoId();
+    Invoice addedInvoice = InvoiceGenerator.copyInvoice(invoice);
+    addedInvoice.setId("1");
+    when(invoiceService.addInvoice(invoice)).thenReturn(Mono.just(addedInvoice));
+
+    //when
+    MvcResult result = performAsync(MockMvcRequestBuilders
+        .post(String.format(urlAddressTemplate, ""))
+        .content(mapper.writeValueAsString(invoice))
+        .contentType(MediaType.APPLICATION_JSON_UTF8));
+    Invoice actualInvoice = mapper.readValue(result.getResponse().getContentAsString(), Invoice.class);
+
+    //then
+    assertEquals(HttpStatus.CREATED.value(), result.getResponse().getStatus());
+    assertEquals(addedInvoice, actualInvoice);
+    assertEquals("/reactive/invoices/1", result.getResponse().getHeader("Location"));
+  }
+
+  @Test
+  void shouldReturnBadRequestWithoutCallingServiceWhenAddedInvoiceIsInvalid() throws Exception {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoiceWithNoId();
+    invoice.setSeller(null);
+
+    //when
+    MvcResult result = performAsync(MockMvcRequestBuilders
+        .post(String.format(urlAddressTemplate, ""))
+        .content(mapper.writeValueAsString(invoice))
+        .contentType(MediaType.APPLICATION_JSON_UTF8));
+
+    //then
+    assertEquals(HttpStatus.BAD_REQUEST.value(), result.getResponse().getStatus());
+    verify(invoiceService, never()).addInvoice(any());
+  }
+
+  @Test
+  void shouldDeleteInvoiceInSingleDatabaseCall() throws Exception {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    when(invoiceService.removeInvoice(invoice.getId())).thenReturn(Mono.just(invoice));
+
+    //when
+    MvcResult result = performAsync(MockMvcRequestBuilders.delete(String.format(urlAddressTemplate, invoice.getId())));
+    Invoice actualInvoice = mapper.readValue(result.getResponse().getContentAsString(), Invoice.class);
+
+    //then
+    assertEquals(HttpStatus.OK.value(), result.getResponse().getStatus());
+    assertEquals(invoice, actualInvoice);
+    verify(invoiceService, never()).invoiceExists(any());
+  }
+
+  @Test
+  void shouldReturnNotFoundWhenDeletedInvoiceDoesNotExist() throws Exception {
+    //given
+    when(invoiceService.removeInvoice("1")).thenReturn(Mono.empty());
+
+    //when
+    MvcResult result = performAsync(MockMvcRequestBuilders.delete(String.format(urlAddressTemplate, "1")));
+
+    //then
+    assertEquals(HttpStatus.NOT_FOUND.value(), result.getResponse().getStatus());
+    verify(invoiceService, never()).deleteInvoice(any());
+  }
+
+  @Test
+  void shouldReturnInternalServerErrorWhenSomethingWentWrongOnServer() throws Exception {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    when(invoiceService.invoiceExists(invoice.getId())).thenReturn(Mono.just(true));
+    when(invoiceService.updateInvoice(invoice)).thenReturn(Mono.error(new ServiceOperationException()));
+
+    //when
+    MvcResult result = performAsync(MockMvcRequestBuilders
+        .put(String.format(urlAddressTemplate, invoice.getId()))
+        .content(mapper.writeValueAsString(invoice))
+        .contentType(MediaType.APPLICATION_JSON_UTF8));
+    ErrorMessage actualErrorMessage = mapper.readValue(result.getResponse().getContentAsString(), ErrorMessage.class);
+
+    //then
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), result.getResponse().getStatus());
+    assertEquals(new ErrorMessage("Internal server error while updating specified invoice."), actualErrorMessage);
+  }
+
+  private MvcResult performAsync(MockHttpServletRequestBuilder request) throws Exception {
+    MvcResult asyncResult = mockMvc
+        .perform(request.accept(MediaType.APPLICATION_JSON_UTF8))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+    asyncResult.getAsyncResult();
+    return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(asyncResult)).andReturn();
+  }
+}
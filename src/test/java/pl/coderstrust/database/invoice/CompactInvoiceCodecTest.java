@@ -0,0 +1,143 @@
+package pl.coderstrust.database.invoice;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Company;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceEntry;
+import pl.coderstrust.model.InvoiceSummary;
+import pl.coderstrust.model.InvoiceType;
+import pl.coderstrust.model.UnitType;
+import pl.coderstrust.model.Vat;
+
+class CompactInvoiceCodecTest {
+
+  private CompactInvoiceCodec codec;
+
+  @BeforeEach
+  void setUp() {
+    codec = new CompactInvoiceCodec();
+  }
+
+  @Test
+  void shouldDecodeToInvoiceEqualToEncodedOne() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+
+    //when
+    Invoice decodedInvoice = codec.decode(codec.encode(invoice));
+
+    //then
+    assertEquals(invoice, decodedInvoice);
+    assertNotSame(invoice.getSeller(), decodedInvoice.getSeller());
+  }
+
+  @Test
+  void shouldKeepVersionOfEncodedInvoice() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    invoice.setVersion(7L);
+
+    //when
+    Invoice decodedInvoice = codec.decode(codec.encode(invoice));
+
+    //then
+    assertEquals(Long.valueOf(7L), decodedInvoice.getVersion());
+  }
+
+  @Test
+  void shouldDecodeSummaryWithoutDecodingWholeInvoice() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+
+    //when
+    InvoiceSummary summary = codec.decodeSummary(codec.encode(invoice));
+
+    //then
+    assertEquals(new InvoiceSummary(invoice), summary);
+  }
+
+  @Test
+  void shouldPreserveIdsAndScaleOfAmounts() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    invoice.getSeller().setId("seller-id");
+    invoice.getBuyer().getContactDetails().getAddress().setId("address-id");
+    invoice.setEntries(Arrays.asList(new InvoiceEntry("entry-id", "Screwdriver", 3L, UnitType.PIECE,
+        new BigDecimal("12.50"), Vat.VAT_8, new BigDecimal("37.500"), new BigDecimal("40.50"))));
+    invoice.setTotalNetValue(new BigDecimal("37.50"));
+    invoice.setTotalGrossValue(new BigDecimal("-40.5"));
+
+    //when
+    Invoice decodedInvoice = codec.decode(codec.encode(invoice));
+
+    //then
+    assertEquals(invoice, decodedInvoice);
+    assertEquals(3, decodedInvoice.getEntries().get(0).getNetValue().scale());
+  }
+
+  @Test
+  void shouldDecodeInvoiceWithMissingValues() {
+    //given
+    Company seller = new Company(null, null, null, null);
+    Invoice invoice = new Invoice(null, null, null, null, seller, null, Arrays.asList(new InvoiceEntry()), null, null, null);
+
+    //when
+    Invoice decodedInvoice = codec.decode(codec.encode(invoice));
+
+    //then
+    assertEquals(invoice, decodedInvoice);
+  }
+
+  @Test
+  void shouldShareDictionaryCodesBetweenInvoices() {
+    //given
+    Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificSellerName("seller");
+    Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificSellerName("seller");
+
+    //when
+    CompactInvoice compactInvoice1 = codec.encode(invoice1);
+    CompactInvoice compactInvoice2 = codec.encode(invoice2);
+
+    //then
+    assertArrayEquals(compactInvoice1.seller, compactInvoice2.seller);
+    assertArrayEquals(compactInvoice1.entryItems, compactInvoice2.entryItems);
+    assertEquals("seller", codec.decodeCompanyName(compactInvoice2.seller));
+  }
+
+  @Test
+  void shouldKeepDatesAndTypeAfterDecoding() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    invoice.setType(InvoiceType.DEBIT_MEMO);
+    invoice.setIssueDate(LocalDate.of(2019, 2, 28));
+    invoice.setDueDate(LocalDate.of(1969, 12, 31));
+
+    //when
+    Invoice decodedInvoice = codec.decode(codec.encode(invoice));
+
+    //then
+    assertEquals(InvoiceType.DEBIT_MEMO, decodedInvoice.getType());
+    assertEquals(invoice.getIssueDate(), decodedInvoice.getIssueDate());
+    assertEquals(invoice.getDueDate(), decodedInvoice.getDueDate());
+  }
+
+  @Test
+  void shouldThrowExceptionWhenAmountDoesNotFitInLong() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    invoice.setTotalNetValue(new BigDecimal("123456789012345678901234567890"));
+
+    //then
+    assertThrows(IllegalArgumentException.class, () -> codec.encode(invoice));
+  }
+}
@@ -0,0 +1,59 @@
+package pl.coderstrust.database.invoice;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SimpleNaturalIdLoadAccess;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.generators.CompanyGenerator;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Company;
+import pl.coderstrust.model.Invoice;
+
+@ExtendWith(MockitoExtension.class)
+class HibernateCompanyResolverTest {
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private Session session;
+
+  @Mock
+  private SimpleNaturalIdLoadAccess<Company> naturalIdLoadAccess;
+
+  @Test
+  void shouldStopInsertingAndNameUnresolvedCompaniesWhenInsertedCompaniesCannotBeFound() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    invoice.setSeller(CompanyGenerator.getSampleCompany());
+    invoice.setBuyer(null);
+    String snapshotKey = invoice.getSeller().getSnapshotKey();
+    when(entityManager.unwrap(Session.class)).thenReturn(session);
+    when(session.bySimpleNaturalId(Company.class)).thenReturn(naturalIdLoadAccess);
+    HibernateCompanyResolver resolver = new HibernateCompanyResolver(entityManager, transactionManager);
+
+    //when
+    DatabaseOperationException exception = assertThrows(DatabaseOperationException.class, () -> resolver.resolveParties(Collections.singletonList(invoice)));
+
+    //then
+    assertTrue(exception.getMessage().contains(snapshotKey));
+    verify(entityManager, times(3)).persist(any(Company.class));
+    verify(naturalIdLoadAccess, times(4)).load(snapshotKey);
+  }
+}
@@ -4,15 +4,24 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,10 +30,19 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
+import pl.coderstrust.database.BatchOperationException;
 import pl.coderstrust.database.DatabaseOperationException;
 import pl.coderstrust.generators.InvoiceGenerator;
 import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceSummary;
 
 @ExtendWith(MockitoExtension.class)
 class HibernateInvoiceDatabaseTest {
@@ -42,7 +60,7 @@ class HibernateInvoiceDatabaseTest {
   @Test
   void shouldSaveInvoiceToDatabase() throws DatabaseOperationException {
     //given
-    Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
+    Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithNoId();
     Invoice invoice2 = InvoiceGenerator.getRandomInvoice();
     when(hibernateInvoiceRepository.save(invoice1)).thenReturn(invoice2);
 
@@ -54,32 +72,169 @@ class HibernateInvoiceDatabaseTest {
     verify(hibernateInvoiceRepository).save(invoice1);
   }
 
+  @Test
+  void shouldSaveInvoiceWithCurrentVersionWhenVersionIsNotPassed() throws DatabaseOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    Invoice invoiceWithCurrentVersion = InvoiceGenerator.copyInvoice(invoice);
+    invoiceWithCurrentVersion.setVersion(3L);
+    when(hibernateInvoiceRepository.findVersionById(invoice.getKey())).thenReturn(Optional.of(3L));
+    when(hibernateInvoiceRepository.save(invoiceWithCurrentVersion)).thenReturn(invoiceWithCurrentVersion);
+
+    //when
+    Invoice actual = database.save(invoice);
+
+    //then
+    assertEquals(invoiceWithCurrentVersion, actual);
+    verify(hibernateInvoiceRepository).save(invoiceWithCurrentVersion);
+  }
+
+  @Test
+  void shouldSaveInvoiceWithUnknownIdAsNewInvoice() throws DatabaseOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    Invoice invoiceWithNoId = InvoiceGenerator.copyInvoice(invoice);
+    invoiceWithNoId.setId(null);
+    when(hibernateInvoiceRepository.findVersionById(invoice.getKey())).thenReturn(Optional.empty());
+    when(hibernateInvoiceRepository.save(invoiceWithNoId)).thenReturn(invoice);
+
+    //when
+    database.save(invoice);
+
+    //then
+    verify(hibernateInvoiceRepository).save(invoiceWithNoId);
+  }
+
+  @Test
+  void saveMethodShouldThrowExceptionWhenPassedVersionIsOutOfDate() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    invoice.setVersion(1L);
+    doThrow(new OptimisticLockingFailureException("Row was updated or deleted by another transaction")).when(hibernateInvoiceRepository).save(invoice);
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> database.save(invoice));
+    verify(hibernateInvoiceRepository, never()).findVersionById(invoice.getKey());
+  }
+
+  @Test
+  void shouldFindIdsOfExistingInvoicesWithSingleQuery() throws DatabaseOperationException {
+    //given
+    when(hibernateInvoiceRepository.findExistingKeys(Arrays.asList(1L, 3L))).thenReturn(Collections.singletonList(3L));
+
+    //when
+    Set<String> existingIds = database.findExistingIds(Arrays.asList("1", "not-a-key", "3"));
+
+    //then
+    assertEquals(Collections.singleton("3"), existingIds);
+    verify(hibernateInvoiceRepository, never()).existsById(any());
+  }
+
+  @Test
+  void shouldSaveAllInvoicesInBatches() throws DatabaseOperationException {
+    //given
+    Invoice newInvoice = InvoiceGenerator.getRandomInvoiceWithNoId();
+    Invoice existingInvoice = InvoiceGenerator.getRandomInvoice();
+    Invoice existingInvoiceWithCurrentVersion = InvoiceGenerator.copyInvoice(existingInvoice);
+    existingInvoiceWithCurrentVersion.setVersion(2L);
+    when(hibernateInvoiceRepository.getBatchSize()).thenReturn(50);
+    when(hibernateInvoiceRepository.findVersionsByKeys(Collections.singletonList(existingInvoice.getKey())))
+        .thenReturn(Collections.singletonList(new Object[] {existingInvoice.getKey(), 2L}));
+    when(hibernateInvoiceRepository.saveBatch(any())).thenAnswer(invocation -> new ArrayList<>(invocation.<List<Invoice>>getArgument(0)));
+
+    //when
+    List<Invoice> savedInvoices = database.saveAll(Arrays.asList(newInvoice, existingInvoice));
+
+    //then
+    assertEquals(Arrays.asList(newInvoice, existingInvoiceWithCurrentVersion), savedInvoices);
+    verify(hibernateInvoiceRepository, never()).save(any());
+    verify(hibernateInvoiceRepository, never()).findVersionById(any());
+  }
+
+  @Test
+  void shouldSaveEachBatchSeparatelyAndLookUpVersionsOncePerBatch() throws DatabaseOperationException {
+    //given
+    List<Invoice> invoices = Arrays.asList(InvoiceGenerator.getRandomInvoice(), InvoiceGenerator.getRandomInvoice(), InvoiceGenerator.getRandomInvoice());
+    when(hibernateInvoiceRepository.getBatchSize()).thenReturn(2);
+    when(hibernateInvoiceRepository.findVersionsByKeys(any())).thenReturn(Collections.emptyList());
+    when(hibernateInvoiceRepository.saveBatch(any())).thenAnswer(invocation -> new ArrayList<>(invocation.<List<Invoice>>getArgument(0)));
+
+    //when
+    List<Invoice> savedInvoices = database.saveAll(invoices);
+
+    //then
+    assertEquals(3, savedInvoices.size());
+    verify(hibernateInvoiceRepository, times(2)).saveBatch(any());
+    verify(hibernateInvoiceRepository, times(2)).findVersionsByKeys(any());
+  }
+
+  @Test
+  void saveAllMethodShouldReportInvoicesOfFailedBatchAndKeepEarlierBatches() {
+    //given
+    Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithNoId();
+    Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithNoId();
+    when(hibernateInvoiceRepository.getBatchSize()).thenReturn(1);
+    when(hibernateInvoiceRepository.saveBatch(any()))
+        .thenReturn(Collections.singletonList(invoice1))
+        .thenThrow(Mockito.mock(NonTransientDataAccessException.class));
+
+    //when
+    BatchOperationException exception = assertThrows(BatchOperationException.class, () -> database.saveAll(Arrays.asList(invoice1, invoice2)));
+
+    //then
+    assertEquals(Collections.singletonList(invoice1), exception.getResults());
+    assertEquals(Collections.singleton(1), exception.getFailures().keySet());
+  }
+
+  @Test
+  void saveAllMethodShouldThrowExceptionWhenPassedVersionIsOutOfDate() {
+    //given
+    List<Invoice> invoices = Collections.singletonList(InvoiceGenerator.getRandomInvoiceWithNoId());
+    when(hibernateInvoiceRepository.getBatchSize()).thenReturn(50);
+    doThrow(new OptimisticLockingFailureException("Row was updated or deleted by another transaction")).when(hibernateInvoiceRepository).saveBatch(any());
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> database.saveAll(invoices));
+  }
+
+  @Test
+  void saveAllMethodShouldThrowExceptionWhenNonTransientDataAccessExceptionOccurs() {
+    //given
+    List<Invoice> invoices = Collections.singletonList(InvoiceGenerator.getRandomInvoiceWithNoId());
+    NonTransientDataAccessException mockedException = Mockito.mock(NonTransientDataAccessException.class);
+    when(hibernateInvoiceRepository.getBatchSize()).thenReturn(50);
+    doThrow(mockedException).when(hibernateInvoiceRepository).saveBatch(any());
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> database.saveAll(invoices));
+  }
+
   @Test
   void shouldReturnFalseIfInvoiceNotExistsInDatabase() throws DatabaseOperationException {
     //given
     Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
-    when(hibernateInvoiceRepository.existsById(invoice1.getId())).thenReturn(false);
+    when(hibernateInvoiceRepository.existsById(invoice1.getKey())).thenReturn(false);
 
     //when
     boolean existById = database.existsById(invoice1.getId());
 
     //then
     assertFalse(existById);
-    verify(hibernateInvoiceRepository).existsById(invoice1.getId());
+    verify(hibernateInvoiceRepository).existsById(invoice1.getKey());
   }
 
   @Test
   void shouldReturnTrueIfInvoiceExistsInDatabase() throws DatabaseOperationException {
     //given
     Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
-    when(hibernateInvoiceRepository.existsById(invoice1.getId())).thenReturn(true);
+    when(hibernateInvoiceRepository.existsById(invoice1.getKey())).thenReturn(true);
 
     //when
     boolean existById = database.existsById(invoice1.getId());
 
     //then
     assertTrue(existById);
-    verify(hibernateInvoiceRepository).existsById(invoice1.getId());
+    verify(hibernateInvoiceRepository).existsById(invoice1.getKey());
   }
 
   @Test
@@ -113,15 +268,25 @@ class HibernateInvoiceDatabaseTest {
   @Transactional
   void shouldFindInvoice() throws DatabaseOperationException {
     //given
-    Invoice invoice = InvoiceGenerator.getRandomInvoiceWithSpecificId("d823bd11-0ba5-4474-a2dc-810ae027d7c1");
-    when(hibernateInvoiceRepository.findById("d823bd11-0ba5-4474-a2dc-810ae027d7c1")).thenReturn(Optional.of(invoice));
+    Invoice invoice = InvoiceGenerator.getRandomInvoiceWithSpecificId("1024");
+    when(hibernateInvoiceRepository.findById(1024L)).thenReturn(Optional.of(invoice));
 
     //when
-    Optional result = database.findById("d823bd11-0ba5-4474-a2dc-810ae027d7c1");
+    Optional result = database.findById("1024");
 
     //then
     assertEquals(invoice, result.get());
-    verify(hibernateInvoiceRepository).findById(invoice.getId());
+    verify(hibernateInvoiceRepository).findById(1024L);
+  }
+
+  @Test
+  void shouldNotFindInvoiceWithNonNumericId() throws DatabaseOperationException {
+    //when
+    Optional<Invoice> result = database.findById("d823bd11-0ba5-4474-a2dc-810ae027d7c1");
+
+    //then
+    assertFalse(result.isPresent());
+    verify(hibernateInvoiceRepository, never()).findById(any());
   }
 
   @Test
@@ -143,13 +308,141 @@ class HibernateInvoiceDatabaseTest {
     verify(hibernateInvoiceRepository).findAll();
   }
 
+  @Test
+  void shouldFindPageOfInvoices() throws DatabaseOperationException {
+    //given
+    Pageable pageable = PageRequest.of(1, 2, Sort.by("issueDate"));
+    Page<Invoice> expectedPage = new PageImpl<>(Arrays.asList(InvoiceGenerator.getRandomInvoice()), pageable, 3);
+    when(hibernateInvoiceRepository.findAll(pageable)).thenReturn(expectedPage);
+
+    //when
+    Page<Invoice> result = database.findAll(pageable);
+
+    //then
+    assertEquals(expectedPage, result);
+    verify(hibernateInvoiceRepository).findAll(pageable);
+  }
+
+  @Test
+  void shouldSortPageOfInvoicesByIdUsingSurrogateKey() throws DatabaseOperationException {
+    //given
+    Pageable pageable = PageRequest.of(0, 2, Sort.by(Sort.Order.desc("id"), Sort.Order.asc("issueDate")));
+    Pageable pageableByKey = PageRequest.of(0, 2, Sort.by(Sort.Order.desc("key"), Sort.Order.asc("issueDate")));
+    Page<Invoice> expectedPage = new PageImpl<>(Arrays.asList(InvoiceGenerator.getRandomInvoice()), pageableByKey, 1);
+    when(hibernateInvoiceRepository.findAll(pageableByKey)).thenReturn(expectedPage);
+
+    //when
+    Page<Invoice> result = database.findAll(pageable);
+
+    //then
+    assertEquals(expectedPage, result);
+    verify(hibernateInvoiceRepository).findAll(pageableByKey);
+  }
+
+  @Test
+  void findAllWithPageableMethodShouldThrowExceptionWhenAnErrorOccurDuringExecution() {
+    //given
+    NonTransientDataAccessException mockedException = Mockito.mock(NonTransientDataAccessException.class);
+    Pageable pageable = PageRequest.of(0, 2);
+
+    //when
+    doThrow(mockedException).when(hibernateInvoiceRepository).findAll(pageable);
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> database.findAll(pageable));
+    verify(hibernateInvoiceRepository).findAll(pageable);
+  }
+
+  @Test
+  void shouldStreamAllInvoices() throws DatabaseOperationException {
+    //given
+    List<Invoice> invoices = Arrays.asList(InvoiceGenerator.getRandomInvoice(), InvoiceGenerator.getRandomInvoice());
+    when(hibernateInvoiceRepository.streamAll()).thenReturn(invoices.stream());
+
+    //when
+    List<Invoice> result = database.streamAll().collect(Collectors.toList());
+
+    //then
+    assertEquals(invoices, result);
+    verify(hibernateInvoiceRepository).streamAll();
+    verify(hibernateInvoiceRepository, never()).findAll();
+  }
+
+  @Test
+  void streamAllMethodShouldThrowExceptionWhenAnErrorOccurDuringExecution() {
+    //given
+    NonTransientDataAccessException mockedException = Mockito.mock(NonTransientDataAccessException.class);
+
+    //when
+    doThrow(mockedException).when(hibernateInvoiceRepository).streamAll();
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> database.streamAll());
+    verify(hibernateInvoiceRepository).streamAll();
+  }
+
+  @Test
+  void shouldFindPageOfInvoiceSummaries() throws DatabaseOperationException {
+    //given
+    Pageable pageable = PageRequest.of(0, 2, Sort.by("issueDate"));
+    Page<InvoiceSummary> expectedPage = new PageImpl<>(Arrays.asList(new InvoiceSummary(InvoiceGenerator.getRandomInvoice())), pageable, 1);
+    when(hibernateInvoiceRepository.findAllSummaries(pageable)).thenReturn(expectedPage);
+
+    //when
+    Page<InvoiceSummary> result = database.findAllSummaries(pageable);
+
+    //then
+    assertEquals(expectedPage, result);
+    verify(hibernateInvoiceRepository).findAllSummaries(pageable);
+  }
+
+  @Test
+  void findAllSummariesMethodShouldThrowExceptionWhenAnErrorOccurDuringExecution() {
+    //given
+    NonTransientDataAccessException mockedException = Mockito.mock(NonTransientDataAccessException.class);
+    Pageable pageable = PageRequest.of(0, 2);
+
+    //when
+    doThrow(mockedException).when(hibernateInvoiceRepository).findAllSummaries(pageable);
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> database.findAllSummaries(pageable));
+    verify(hibernateInvoiceRepository).findAllSummaries(pageable);
+  }
+
+  @Test
+  void shouldFindAllInvoicesIssuedInDateRange() throws DatabaseOperationException {
+    //given
+    LocalDate fromDate = LocalDate.of(2019, 1, 1);
+    LocalDate toDate = LocalDate.of(2019, 1, 31);
+    List<Invoice> invoices = Collections.singletonList(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(fromDate));
+    when(hibernateInvoiceRepository.findAllByIssueDateBetween(fromDate, toDate)).thenReturn(invoices);
+
+    //when
+    Iterable<Invoice> result = database.findAllByIssueDateBetween(fromDate, toDate);
+
+    //then
+    assertEquals(invoices, result);
+    verify(hibernateInvoiceRepository, never()).findAll();
+  }
+
+  @Test
+  void shouldThrowExceptionWhenFindingInvoicesDueInDateRangeFails() {
+    //given
+    LocalDate fromDate = LocalDate.of(2019, 1, 1);
+    LocalDate toDate = LocalDate.of(2019, 1, 31);
+    when(hibernateInvoiceRepository.findAllByDueDateBetween(fromDate, toDate)).thenThrow(new NonTransientDataAccessResourceException("Connection refused"));
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> database.findAllByDueDateBetween(fromDate, toDate));
+  }
+
   @Test
   void shouldFindAllInvoicesBySellerName() throws DatabaseOperationException {
     //given
     Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificSellerName("SampleSeller");
-    Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificSellerName("WrongSellerName");
-    Invoice invoice3 = InvoiceGenerator.getRandomInvoiceWithSpecificSellerName("SampleSeller");
-    when(hibernateInvoiceRepository.findAll()).thenReturn(Arrays.asList(invoice1, invoice2, invoice3));
+    Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificSellerName("SampleSeller");
+    when(hibernateInvoiceRepository.findAllBySellerName("SampleSeller")).thenReturn(Arrays.asList(invoice1, invoice2));
 
     //when
     Iterable<Invoice> result = database.findAllBySellerName("SampleSeller");
@@ -157,17 +450,18 @@ class HibernateInvoiceDatabaseTest {
 
     //then
     assertEquals(invoice1, expectedInvoice.next());
-    assertEquals(invoice3, expectedInvoice.next());
-    verify(hibernateInvoiceRepository).findAll();
+    assertEquals(invoice2, expectedInvoice.next());
+    assertFalse(expectedInvoice.hasNext());
+    verify(hibernateInvoiceRepository).findAllBySellerName("SampleSeller");
+    verify(hibernateInvoiceRepository, never()).findAll();
   }
 
   @Test
   void shouldFindAllInvoicesByBuyerName() throws DatabaseOperationException {
     //given
     Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificBuyerName("SampleBuyer");
-    Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificBuyerName("WrongBuyerName");
-    Invoice invoice3 = InvoiceGenerator.getRandomInvoiceWithSpecificBuyerName("SampleBuyer");
-    when(hibernateInvoiceRepository.findAll()).thenReturn(Arrays.asList(invoice1, invoice2, invoice3));
+    Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificBuyerName("SampleBuyer");
+    when(hibernateInvoiceRepository.findAllByBuyerName("SampleBuyer")).thenReturn(Arrays.asList(invoice1, invoice2));
 
     //when
     Iterable<Invoice> result = database.findAllByBuyerName("SampleBuyer");
@@ -175,15 +469,17 @@ class HibernateInvoiceDatabaseTest {
 
     //then
     assertEquals(invoice1, expectedInvoice.next());
-    assertEquals(invoice3, expectedInvoice.next());
-    verify(hibernateInvoiceRepository).findAll();
+    assertEquals(invoice2, expectedInvoice.next());
+    assertFalse(expectedInvoice.hasNext());
+    verify(hibernateInvoiceRepository).findAllByBuyerName("SampleBuyer");
+    verify(hibernateInvoiceRepository, never()).findAll();
   }
 
   @Test
   void saveMethodShouldThrowExceptionWhenAnErrorOccurDuringExecution() {
     //given
     NonTransientDataAccessException mockedException = Mockito.mock(NonTransientDataAccessException.class);
-    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    Invoice invoice = InvoiceGenerator.getRandomInvoiceWithNoId();
 
     //when
     doThrow(mockedException).when(hibernateInvoiceRepository).save(invoice);
@@ -196,28 +492,28 @@ class HibernateInvoiceDatabaseTest {
   @Test
   void findByIdMethodShouldThrowExceptionWhenAnErrorOccurDuringExecution() {
     //given
-    String id = "d823bd11-0ba5-4474-a2dc-810ae027d7c1";
+    String id = "1024";
 
     //when
-    doThrow(NoSuchElementException.class).when(hibernateInvoiceRepository).findById(id);
+    doThrow(NoSuchElementException.class).when(hibernateInvoiceRepository).findById(1024L);
 
     //then
     assertThrows(DatabaseOperationException.class, () -> database.findById(id));
-    verify(hibernateInvoiceRepository).findById(id);
+    verify(hibernateInvoiceRepository).findById(1024L);
   }
 
   @Test
   void existByIdMethodShouldThrowExceptionWhenAnErrorOccurDuringExecution() {
     //given
     NonTransientDataAccessException mockedException = Mockito.mock(NonTransientDataAccessException.class);
-    String id = "d823bd11-0ba5-4474-a2dc-810ae027d7c1";
+    String id = "1024";
 
     //when
-    doThrow(mockedException).when(hibernateInvoiceRepository).existsById(id);
+    doThrow(mockedException).when(hibernateInvoiceRepository).existsById(1024L);
 
     //then
     assertThrows(DatabaseOperationException.class, () -> database.existsById(id));
-    verify(hibernateInvoiceRepository).existsById(id);
+    verify(hibernateInvoiceRepository).existsById(1024L);
   }
 
   @Test
@@ -252,11 +548,18 @@ class HibernateInvoiceDatabaseTest {
     String invoiceId = "33";
 
     //when
-    doThrow(EmptyResultDataAccessException.class).when(hibernateInvoiceRepository).deleteById(invoiceId);
+    doThrow(EmptyResultDataAccessException.class).when(hibernateInvoiceRepository).deleteById(33L);
 
     //then
     assertThrows(DatabaseOperationException.class, () -> database.deleteById(invoiceId));
-    verify(hibernateInvoiceRepository).deleteById(invoiceId);
+    verify(hibernateInvoiceRepository).deleteById(33L);
+  }
+
+  @Test
+  void deleteByIdMethodShouldThrowExceptionWhenPassedIdIsNotNumeric() {
+    //then
+    assertThrows(DatabaseOperationException.class, () -> database.deleteById("d823bd11-0ba5-4474-a2dc-810ae027d7c1"));
+    verify(hibernateInvoiceRepository, never()).deleteById(any());
   }
 
   @Test
@@ -279,11 +582,11 @@ class HibernateInvoiceDatabaseTest {
     String name = "SampleSellerName";
 
     //when
-    doThrow(mockedException).when(hibernateInvoiceRepository).findAll();
+    doThrow(mockedException).when(hibernateInvoiceRepository).findAllBySellerName(name);
 
     //then
     assertThrows(DatabaseOperationException.class, () -> database.findAllBySellerName(name));
-    verify(hibernateInvoiceRepository).findAll();
+    verify(hibernateInvoiceRepository).findAllBySellerName(name);
   }
 
   @Test
@@ -293,11 +596,11 @@ class HibernateInvoiceDatabaseTest {
     String name = "SampleBuyerName";
 
     //when
-    doThrow(mockedException).when(hibernateInvoiceRepository).findAll();
+    doThrow(mockedException).when(hibernateInvoiceRepository).findAllByBuyerName(name);
 
     //then
     assertThrows(DatabaseOperationException.class, () -> database.findAllByBuyerName(name));
-    verify(hibernateInvoiceRepository).findAll();
+    verify(hibernateInvoiceRepository).findAllByBuyerName(name);
   }
 
   @Test
@@ -305,6 +608,11 @@ class HibernateInvoiceDatabaseTest {
     assertThrows(IllegalArgumentException.class, () -> database.save(null));
   }
 
+  @Test
+  void saveAllMethodShouldThrowExceptionWhenPassedArgumentIsNull() {
+    assertThrows(IllegalArgumentException.class, () -> database.saveAll(null));
+  }
+
   @Test
   void findByIdMethodShouldThrowExceptionWhenPassedArgumentIsNull() {
     assertThrows(IllegalArgumentException.class, () -> database.findById(null));
@@ -6,19 +6,24 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static pl.coderstrust.generators.InvoiceGenerator.copyInvoice;
 import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoice;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoId;
 import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithSpecificBuyerName;
 import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithSpecificId;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate;
 import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithSpecificSellerName;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -34,11 +39,15 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import pl.coderstrust.configuration.ApplicationConfiguration;
 import pl.coderstrust.database.DatabaseOperationException;
 import pl.coderstrust.helpers.FileHelper;
 import pl.coderstrust.helpers.FileHelperException;
 import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceSummary;
 
 @ExtendWith(MockitoExtension.class)
 class InFileInvoiceDatabaseTest {
@@ -103,6 +112,7 @@ class InFileInvoiceDatabaseTest {
     Invoice invoice = getRandomInvoiceWithSpecificId("5");
     Invoice expectedInvoice = copyInvoice(invoice);
     expectedInvoice.setId("1");
+    expectedInvoice.setVersion(0L);
     String expectedInvoiceAsJson = mapper.writeValueAsString(expectedInvoice);
     when(fileHelperMock.readLines()).thenReturn(Collections.emptyList());
     doNothing().when(fileHelperMock).writeLine(expectedInvoiceAsJson);
@@ -122,11 +132,13 @@ class InFileInvoiceDatabaseTest {
     Invoice invoice1 = getRandomInvoiceWithSpecificId("3");
     Invoice invoice2 = getRandomInvoiceWithSpecificId("5");
     Invoice invoice3 = getRandomInvoiceWithSpecificId("3");
+    Invoice expectedInvoice = copyInvoice(invoice3);
+    expectedInvoice.setVersion(1L);
     String invoice1AsJson = mapper.writeValueAsString(invoice1);
     String invoice2AsJson = mapper.writeValueAsString(invoice2);
-    String invoice3AsJson = mapper.writeValueAsString(invoice3);
+    String expectedInvoiceAsJson = mapper.writeValueAsString(expectedInvoice);
     when(fileHelperMock.readLines()).thenReturn(Arrays.asList(invoice1AsJson, invoice2AsJson));
-    doNothing().when(fileHelperMock).writeLine(invoice3AsJson);
+    doNothing().when(fileHelperMock).writeLine(expectedInvoiceAsJson);
     doNothing().when(fileHelperMock).removeLine(1);
 
     //when
@@ -134,17 +146,35 @@ class InFileInvoiceDatabaseTest {
 
     //then
     assertNotEquals(invoice1, invoice3);
-    assertEquals(invoice3, savedInvoice);
-    verify(fileHelperMock).writeLine(invoice3AsJson);
+    assertEquals(expectedInvoice, savedInvoice);
+    verify(fileHelperMock).writeLine(expectedInvoiceAsJson);
     verify(fileHelperMock).removeLine(1);
   }
 
+  @Test
+  @DisplayName("Should throw DatabaseOperationException and keep stored invoice when save is invoked with outdated version.")
+  void saveShouldThrowExceptionWhenOutdatedVersionPassed() throws IOException, FileHelperException {
+    //given
+    Invoice storedInvoice = getRandomInvoiceWithSpecificId("3");
+    storedInvoice.setVersion(2L);
+    Invoice invoice = getRandomInvoiceWithSpecificId("3");
+    invoice.setVersion(1L);
+    when(fileHelperMock.readLines()).thenReturn(Collections.singletonList(mapper.writeValueAsString(storedInvoice)));
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> database.save(invoice));
+    verify(fileHelperMock, never()).removeLine(anyInt());
+    verify(fileHelperMock, never()).writeLine(anyString());
+  }
+
   @Test
   @DisplayName("Should throw DatabaseOperationException when save is invoked and fileHelper throws exception.")
   void saveShouldThrowExceptionWhenFileHelperThrowsException() throws IOException {
     //given
     final Invoice invoice = getRandomInvoiceWithSpecificId("1");
-    final String invoiceAsJson = mapper.writeValueAsString(invoice);
+    final Invoice invoiceToWrite = copyInvoice(invoice);
+    invoiceToWrite.setVersion(0L);
+    final String invoiceAsJson = mapper.writeValueAsString(invoiceToWrite);
     doThrow(IOException.class).when(fileHelperMock).writeLine(invoiceAsJson);
 
     //then
@@ -285,6 +315,132 @@ class InFileInvoiceDatabaseTest {
     verify(fileHelperMock).readLines();
   }
 
+  @Test
+  @DisplayName("Should return requested page of invoices and total number of invoices when findAll with pageable is invoked.")
+  void shouldReturnPageOfInvoices() throws DatabaseOperationException, IOException {
+    //given
+    final Invoice invoice1 = getRandomInvoice();
+    final Invoice invoice2 = getRandomInvoice();
+    final Invoice invoice3 = getRandomInvoice();
+    when(fileHelperMock.streamLines()).thenReturn(Stream.of(mapper.writeValueAsString(invoice1), mapper.writeValueAsString(invoice2),
+        mapper.writeValueAsString(invoice3)));
+
+    //when
+    Page<Invoice> page = database.findAll(PageRequest.of(1, 2));
+
+    //then
+    assertEquals(Collections.singletonList(invoice3), page.getContent());
+    assertEquals(3, page.getTotalElements());
+    verify(fileHelperMock).streamLines();
+  }
+
+  @Test
+  @DisplayName("Should return requested page of sorted invoices when findAll with sorted pageable is invoked.")
+  void shouldReturnPageOfSortedInvoices() throws DatabaseOperationException, IOException {
+    //given
+    final Invoice invoice1 = getRandomInvoiceWithSpecificId("1");
+    final Invoice invoice2 = getRandomInvoiceWithSpecificId("2");
+    final Invoice invoice3 = getRandomInvoiceWithSpecificId("10");
+    when(fileHelperMock.streamLines()).thenReturn(Stream.of(mapper.writeValueAsString(invoice2), mapper.writeValueAsString(invoice3),
+        mapper.writeValueAsString(invoice1)));
+
+    //when
+    Page<Invoice> page = database.findAll(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+
+    //then
+    assertEquals(Arrays.asList(invoice3, invoice2), page.getContent());
+    assertEquals(3, page.getTotalElements());
+  }
+
+  @Test
+  @DisplayName("Should throw DatabaseOperationException when findAll with pageable is invoked and fileHelper.streamLines throws exception.")
+  void findAllWithPageableShouldThrowExceptionWhenFileHelperStreamLinesThrowsException() throws IOException {
+    //given
+    doThrow(IOException.class).when(fileHelperMock).streamLines();
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> database.findAll(PageRequest.of(0, 2)));
+    verify(fileHelperMock).streamLines();
+  }
+
+  @Test
+  @DisplayName("Should build summaries once from file and keep them up to date when invoices are saved and deleted.")
+  void shouldReturnPageOfInvoiceSummariesAndKeepThemUpToDate() throws Exception {
+    //given
+    final Invoice invoice1 = getRandomInvoiceWithSpecificId("5");
+    final Invoice invoice2 = getRandomInvoiceWithSpecificId("7");
+    when(fileHelperMock.streamLines()).thenReturn(Stream.of(mapper.writeValueAsString(invoice1), mapper.writeValueAsString(invoice2)));
+    when(fileHelperMock.readLines()).thenReturn(Arrays.asList(mapper.writeValueAsString(invoice1), mapper.writeValueAsString(invoice2)));
+    database.findAllSummaries(PageRequest.of(0, 2));
+
+    //when
+    Invoice addedInvoice = database.save(getRandomInvoiceWithNoId());
+    database.deleteById("5");
+    Page<InvoiceSummary> page = database.findAllSummaries(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+
+    //then
+    assertEquals(Arrays.asList(new InvoiceSummary(invoice2), new InvoiceSummary(addedInvoice)), page.getContent());
+    assertEquals(2, page.getTotalElements());
+    verify(fileHelperMock).streamLines();
+  }
+
+  @Test
+  @DisplayName("Should throw DatabaseOperationException when findAllSummaries is invoked and fileHelper.streamLines throws exception.")
+  void findAllSummariesShouldThrowExceptionWhenFileHelperStreamLinesThrowsException() throws IOException {
+    //given
+    doThrow(IOException.class).when(fileHelperMock).streamLines();
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> database.findAllSummaries(PageRequest.of(0, 2)));
+    verify(fileHelperMock).streamLines();
+  }
+
+  @Test
+  @DisplayName("Should return invoices issued in date range using index built from file.")
+  void shouldReturnInvoicesIssuedInDateRange() throws DatabaseOperationException, IOException {
+    //given
+    final Invoice invoice1 = getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2019, 1, 20));
+    final Invoice invoice2 = getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2019, 1, 10));
+    final Invoice invoice3 = getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2019, 2, 1));
+    final List<String> lines = Arrays.asList(mapper.writeValueAsString(invoice1), mapper.writeValueAsString(invoice2), mapper.writeValueAsString(invoice3));
+    when(fileHelperMock.streamLines()).thenAnswer(invocation -> lines.stream());
+
+    //when
+    Iterable<Invoice> actualInvoices = database.findAllByIssueDateBetween(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 31));
+
+    //then
+    assertEquals(Arrays.asList(invoice2, invoice1), actualInvoices);
+    verify(fileHelperMock, times(2)).streamLines();
+    verify(fileHelperMock, never()).readLines();
+  }
+
+  @Test
+  @DisplayName("Should not read file again when no invoice is due in date range.")
+  void shouldReturnEmptyListWithoutReadingFileWhenNoInvoiceIsDueInDateRange() throws DatabaseOperationException, IOException {
+    //given
+    final Invoice invoice = getRandomInvoice();
+    invoice.setDueDate(LocalDate.of(2019, 1, 1));
+    final List<String> lines = Collections.singletonList(mapper.writeValueAsString(invoice));
+    when(fileHelperMock.streamLines()).thenAnswer(invocation -> lines.stream());
+
+    //when
+    Iterable<Invoice> actualInvoices = database.findAllByDueDateBetween(LocalDate.of(2019, 2, 1), LocalDate.of(2019, 2, 28));
+
+    //then
+    assertEquals(Collections.emptyList(), actualInvoices);
+    verify(fileHelperMock, times(1)).streamLines();
+  }
+
+  @Test
+  @DisplayName("Should throw DatabaseOperationException when findAllByIssueDateBetween is invoked and fileHelper.streamLines throws exception.")
+  void findAllByIssueDateBetweenShouldThrowExceptionWhenFileHelperStreamLinesThrowsException() throws IOException {
+    //given
+    doThrow(IOException.class).when(fileHelperMock).streamLines();
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> database.findAllByIssueDateBetween(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 31)));
+  }
+
   @Test
   @DisplayName("Should return all invoices associated with particular seller name.")
   void shouldReturnAllInvoicesBySellerName() throws DatabaseOperationException, IOException {
@@ -5,15 +5,31 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import pl.coderstrust.database.BatchOperationException;
 import pl.coderstrust.database.DatabaseOperationException;
 import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.DueDateTotals;
 import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceSummary;
+import pl.coderstrust.model.MonthlyVatTotals;
+import pl.coderstrust.model.SellerTotals;
 
 class InMemoryInvoiceDatabaseTest {
   private InvoiceDatabase database;
@@ -63,6 +79,38 @@ class InMemoryInvoiceDatabaseTest {
     assertTrue(existsById);
   }
 
+  @Test
+  void shouldSaveAllInvoicesIntoDatabase() throws DatabaseOperationException {
+    //given
+    List<Invoice> invoices = Arrays.asList(InvoiceGenerator.getRandomInvoiceWithNoId(), InvoiceGenerator.getRandomInvoiceWithNoId());
+
+    //when
+    List<Invoice> savedInvoices = database.saveAll(invoices);
+
+    //then
+    assertEquals(2, savedInvoices.size());
+    assertEquals(2, database.count());
+    assertEquals(Optional.of(savedInvoices.get(1)), database.findById(savedInvoices.get(1).getId()));
+  }
+
+  @Test
+  void shouldFindIdsOfExistingInvoices() throws DatabaseOperationException {
+    //given
+    Invoice invoice1 = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    Invoice invoice2 = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+
+    //when
+    Set<String> existingIds = database.findExistingIds(Arrays.asList(invoice1.getId(), "missing", invoice2.getId()));
+
+    //then
+    assertEquals(new HashSet<>(Arrays.asList(invoice1.getId(), invoice2.getId())), existingIds);
+  }
+
+  @Test
+  void saveAllMethodShouldThrowExceptionWhenPassedArgumentIsNull() {
+    assertThrows(IllegalArgumentException.class, () -> database.saveAll(null));
+  }
+
   @Test
   void shouldDeleteAllInvoicesInDatabase() throws DatabaseOperationException {
     //given
@@ -101,11 +149,62 @@ class InMemoryInvoiceDatabaseTest {
     assertFalse(existsById);
   }
 
+  @Test
+  void shouldFindAndDeleteInvoiceIfPresent() throws DatabaseOperationException {
+    //given
+    Invoice addedInvoice = database.save(InvoiceGenerator.getRandomInvoice());
+
+    //when
+    Optional<Invoice> removedInvoice = database.findAndDeleteById(addedInvoice.getId());
+
+    //then
+    assertEquals(Optional.of(addedInvoice), removedInvoice);
+    assertFalse(database.existsById(addedInvoice.getId()));
+  }
+
+  @Test
+  void shouldReturnEmptyOptionalWhenFindAndDeleteIsInvokedForNonExistingInvoice() throws DatabaseOperationException {
+    assertFalse(database.findAndDeleteById("1").isPresent());
+  }
+
+  @Test
+  void shouldReturnEmptyOptionalWhenInvoiceIsDeletedConcurrentlyDuringFindAndDelete() throws DatabaseOperationException {
+    //given
+    InvoiceDatabase spiedDatabase = spy(database);
+    String id = spiedDatabase.save(InvoiceGenerator.getRandomInvoice()).getId();
+    doAnswer(invocation -> {
+      invocation.callRealMethod();
+      return invocation.callRealMethod();
+    }).when(spiedDatabase).deleteById(id);
+
+    //when
+    Optional<Invoice> removedInvoice = spiedDatabase.findAndDeleteById(id);
+
+    //then
+    assertFalse(removedInvoice.isPresent());
+    assertFalse(spiedDatabase.existsById(id));
+  }
+
   @Test
   void shouldThrowExceptionIfMethodDeleteByIdIsInvokedForNonExistingInvoice() {
     assertThrows(DatabaseOperationException.class, () -> database.deleteById("1"));
   }
 
+  @Test
+  void shouldDeleteAllInvoicesByIdAndReportMissingOnes() throws DatabaseOperationException {
+    //given
+    Invoice firstInvoice = database.save(InvoiceGenerator.getRandomInvoice());
+    Invoice secondInvoice = database.save(InvoiceGenerator.getRandomInvoice());
+
+    //when
+    BatchOperationException exception = assertThrows(BatchOperationException.class,
+        () -> database.deleteAllById(Arrays.asList(firstInvoice.getId(), "missing", secondInvoice.getId())));
+
+    //then
+    assertEquals(Collections.singleton(1), exception.getFailures().keySet());
+    assertEquals(0, database.count());
+  }
+
   @Test
   void shouldCountingInvoicesInDatabase() throws DatabaseOperationException {
     //given
@@ -159,6 +258,109 @@ class InMemoryInvoiceDatabaseTest {
     assertArrayEquals(addedInvoices.toArray(), result.toArray());
   }
 
+  @Test
+  void shouldFindPageOfInvoicesInInsertionOrder() throws DatabaseOperationException {
+    //given
+    Invoice invoice1 = database.save(InvoiceGenerator.getRandomInvoice());
+    Invoice invoice2 = database.save(InvoiceGenerator.getRandomInvoice());
+    Invoice invoice3 = database.save(InvoiceGenerator.getRandomInvoice());
+
+    //when
+    Page<Invoice> firstPage = database.findAll(PageRequest.of(0, 2));
+    Page<Invoice> secondPage = database.findAll(PageRequest.of(1, 2));
+
+    //then
+    assertEquals(Arrays.asList(invoice1, invoice2), firstPage.getContent());
+    assertEquals(Collections.singletonList(invoice3), secondPage.getContent());
+    assertEquals(3, secondPage.getTotalElements());
+  }
+
+  @Test
+  void shouldFindPageOfInvoicesSortedByIssueDateDescending() throws DatabaseOperationException {
+    //given
+    Invoice invoice1 = database.save(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2019, 1, 2)));
+    Invoice invoice2 = database.save(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2019, 1, 3)));
+    database.save(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2019, 1, 1)));
+
+    //when
+    Page<Invoice> page = database.findAll(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "issueDate")));
+
+    //then
+    assertEquals(Arrays.asList(invoice2, invoice1), page.getContent());
+    assertEquals(3, page.getTotalElements());
+  }
+
+  @Test
+  void shouldThrowExceptionWhenSortingByUnsupportedProperty() {
+    assertThrows(IllegalArgumentException.class, () -> database.findAll(PageRequest.of(0, 2, Sort.by("comments"))));
+  }
+
+  @Test
+  void shouldFindInvoiceSummariesBySellerName() throws DatabaseOperationException {
+    //given
+    Invoice invoice1 = database.save(InvoiceGenerator.getRandomInvoice());
+    database.save(InvoiceGenerator.getRandomInvoice());
+
+    //when
+    List<InvoiceSummary> summaries = database.findAllSummariesBySellerName(invoice1.getSeller().getName());
+
+    //then
+    assertEquals(Collections.singletonList(new InvoiceSummary(invoice1)), summaries);
+  }
+
+  @Test
+  void shouldFindPageOfInvoiceSummariesSortedByIssueDate() throws DatabaseOperationException {
+    //given
+    Invoice invoice1 = database.save(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2019, 1, 2)));
+    database.save(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2019, 1, 3)));
+    Invoice invoice3 = database.save(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2019, 1, 1)));
+
+    //when
+    Page<InvoiceSummary> page = database.findAllSummaries(PageRequest.of(0, 2, Sort.by("issueDate")));
+
+    //then
+    assertEquals(Arrays.asList(new InvoiceSummary(invoice3), new InvoiceSummary(invoice1)), page.getContent());
+    assertEquals(3, page.getTotalElements());
+  }
+
+  @Test
+  void shouldFindInvoicesIssuedInDateRangeOrderedByIssueDate() throws DatabaseOperationException {
+    //given
+    Invoice invoice1 = database.save(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2019, 1, 20)));
+    Invoice invoice2 = database.save(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2019, 1, 10)));
+    database.save(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2019, 2, 1)));
+    Invoice movedInvoice = database.save(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2019, 1, 15)));
+    movedInvoice.setIssueDate(LocalDate.of(2018, 12, 31));
+    database.save(movedInvoice);
+
+    //when
+    Iterable<Invoice> invoices = database.findAllByIssueDateBetween(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 31));
+
+    //then
+    assertEquals(Arrays.asList(invoice2, invoice1), invoices);
+  }
+
+  @Test
+  void shouldFindInvoicesDueInDateRange() throws DatabaseOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    invoice.setDueDate(LocalDate.of(2019, 3, 1));
+    Invoice addedInvoice = database.save(invoice);
+    Invoice deletedInvoice = database.save(InvoiceGenerator.copyInvoice(invoice));
+    database.deleteById(deletedInvoice.getId());
+
+    //when
+    Iterable<Invoice> invoices = database.findAllByDueDateBetween(LocalDate.of(2019, 3, 1), LocalDate.of(2019, 3, 1));
+
+    //then
+    assertEquals(Collections.singletonList(addedInvoice), invoices);
+  }
+
+  @Test
+  void shouldThrowExceptionWhenDateRangeIsReversed() {
+    assertThrows(IllegalArgumentException.class, () -> database.findAllByIssueDateBetween(LocalDate.of(2019, 2, 1), LocalDate.of(2019, 1, 1)));
+  }
+
   @Test
   void shouldFindAllInvoicesBySellerName() throws DatabaseOperationException {
     //given
@@ -219,12 +421,43 @@ class InMemoryInvoiceDatabaseTest {
     Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
     Invoice addedInvoice = database.save(invoice1);
     Invoice invoiceToUpdate = InvoiceGenerator.getRandomInvoiceWithSpecificId(addedInvoice.getId());
+    Invoice expectedInvoice = InvoiceGenerator.copyInvoice(invoiceToUpdate);
+    expectedInvoice.setVersion(1L);
 
     //when
     Invoice updatedInvoice = database.save(invoiceToUpdate);
 
     //then
-    assertEquals(invoiceToUpdate, updatedInvoice);
+    assertEquals(expectedInvoice, updatedInvoice);
+  }
+
+  @Test
+  void shouldIncrementVersionOfInvoiceOnEachSave() throws DatabaseOperationException {
+    //given
+    Invoice addedInvoice = database.save(InvoiceGenerator.getRandomInvoice());
+    Invoice invoiceToUpdate = InvoiceGenerator.getRandomInvoiceWithSpecificId(addedInvoice.getId());
+    invoiceToUpdate.setVersion(addedInvoice.getVersion());
+
+    //when
+    Invoice updatedInvoice = database.save(invoiceToUpdate);
+
+    //then
+    assertEquals(Long.valueOf(0L), addedInvoice.getVersion());
+    assertEquals(Long.valueOf(1L), updatedInvoice.getVersion());
+    assertEquals(Optional.of(updatedInvoice), database.findById(addedInvoice.getId()));
+  }
+
+  @Test
+  void shouldThrowExceptionWhenSavingInvoiceWithOutdatedVersion() throws DatabaseOperationException {
+    //given
+    Invoice addedInvoice = database.save(InvoiceGenerator.getRandomInvoice());
+    Invoice updatedInvoice = database.save(InvoiceGenerator.getRandomInvoiceWithSpecificId(addedInvoice.getId()));
+    Invoice invoiceToUpdate = InvoiceGenerator.getRandomInvoiceWithSpecificId(addedInvoice.getId());
+    invoiceToUpdate.setVersion(addedInvoice.getVersion());
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> database.save(invoiceToUpdate));
+    assertEquals(Optional.of(updatedInvoice), database.findById(addedInvoice.getId()));
   }
 
   @Test
@@ -258,4 +491,84 @@ class InMemoryInvoiceDatabaseTest {
     assertThrows(IllegalArgumentException.class,
         () -> database.findAllByBuyerName(null));
   }
+
+  @Test
+  void shouldNotChangeStoredInvoiceWhenReturnedInvoiceIsModified() throws DatabaseOperationException {
+    //given
+    Invoice addedInvoice = database.save(InvoiceGenerator.getRandomInvoice());
+    Invoice foundInvoice = database.findById(addedInvoice.getId()).get();
+
+    //when
+    foundInvoice.getSeller().setName("changedSellerName");
+
+    //then
+    assertEquals(addedInvoice, database.findById(addedInvoice.getId()).get());
+  }
+
+  @Test
+  void shouldThrowExceptionWhenSavingInvoiceWithAmountOutOfRange() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    invoice.setTotalGrossValue(new BigDecimal("123456789012345678901234567890"));
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> database.save(invoice));
+  }
+
+  @Test
+  void shouldNotConsumeIdWhenSavingInvoiceFails() throws DatabaseOperationException {
+    //given
+    Invoice invalidInvoice = InvoiceGenerator.getRandomInvoiceWithNoId();
+    invalidInvoice.setTotalGrossValue(new BigDecimal("123456789012345678901234567890"));
+    Invoice firstInvoice = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    assertThrows(DatabaseOperationException.class, () -> database.save(invalidInvoice));
+
+    //when
+    Invoice secondInvoice = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+
+    //then
+    assertEquals(Long.parseLong(firstInvoice.getId()) + 1, Long.parseLong(secondInvoice.getId()));
+  }
+
+  @Test
+  void shouldSumInvoicesBySellerMonthAndDueDate() throws DatabaseOperationException {
+    //given
+    database.save(createInvoice("PolStal", LocalDate.of(2019, 1, 10), LocalDate.of(2019, 2, 10), "100", "123"));
+    database.save(createInvoice("Acme", LocalDate.of(2019, 1, 20), LocalDate.of(2019, 2, 10), "50", "54"));
+    database.save(createInvoice("PolStal", LocalDate.of(2019, 2, 5), LocalDate.of(2019, 3, 5), "10", "12.3"));
+    database.save(createInvoice("PolStal", LocalDate.of(2019, 3, 1), LocalDate.of(2019, 1, 15), "1000", "1230"));
+    LocalDate fromDate = LocalDate.of(2019, 1, 1);
+    LocalDate toDate = LocalDate.of(2019, 2, 28);
+
+    //when
+    List<SellerTotals> sellerTotals = database.findTotalsBySeller(fromDate, toDate);
+    List<MonthlyVatTotals> vatTotals = database.findVatTotalsByMonth(fromDate, toDate);
+    List<DueDateTotals> outstandingTotals = database.findOutstandingTotalsByDueDate(LocalDate.of(2019, 2, 1));
+
+    //then
+    assertEquals(Arrays.asList(
+        new SellerTotals("Acme", 1, new BigDecimal("50"), new BigDecimal("54")),
+        new SellerTotals("PolStal", 2, new BigDecimal("110"), new BigDecimal("135.3"))), sellerTotals);
+    assertEquals(Arrays.asList(
+        new MonthlyVatTotals(2019, 1, 2, new BigDecimal("150"), new BigDecimal("177"), new BigDecimal("27")),
+        new MonthlyVatTotals(2019, 2, 1, new BigDecimal("10"), new BigDecimal("12.3"), new BigDecimal("2.3"))), vatTotals);
+    assertEquals(Arrays.asList(
+        new DueDateTotals(LocalDate.of(2019, 2, 10), 2, new BigDecimal("177")),
+        new DueDateTotals(LocalDate.of(2019, 3, 5), 1, new BigDecimal("12.3"))), outstandingTotals);
+  }
+
+  @Test
+  void shouldThrowExceptionWhenSummingInvoicesInInvalidDateRange() {
+    assertThrows(IllegalArgumentException.class, () -> database.findTotalsBySeller(LocalDate.of(2019, 2, 1), LocalDate.of(2019, 1, 1)));
+  }
+
+  private Invoice createInvoice(String sellerName, LocalDate issueDate, LocalDate dueDate, String totalNetValue, String totalGrossValue) {
+    Invoice invoice = InvoiceGenerator.getRandomInvoiceWithNoId();
+    invoice.getSeller().setName(sellerName);
+    invoice.setIssueDate(issueDate);
+    invoice.setDueDate(dueDate);
+    invoice.setTotalNetValue(new BigDecimal(totalNetValue));
+    invoice.setTotalGrossValue(new BigDecimal(totalGrossValue));
+    return invoice;
+  }
 }
@@ -0,0 +1,67 @@
+package pl.coderstrust.database.invoice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+
+class InvoicePagingTest {
+
+  @Test
+  void shouldSortByIdPuttingNumericIdsInNumericOrderBeforeOtherIdsInLexicographicOrder() {
+    //given
+    List<Invoice> invoices = new ArrayList<>();
+    for (String id : Arrays.asList("b", "10", "9", "a", "09")) {
+      Invoice invoice = InvoiceGenerator.getRandomInvoice();
+      invoice.setId(id);
+      invoices.add(invoice);
+    }
+    Collections.shuffle(invoices);
+
+    //when
+    invoices.sort(InvoicePaging.invoiceComparator(Sort.by("id")));
+
+    //then
+    assertEquals(Arrays.asList("09", "9", "10", "a", "b"), invoices.stream().map(Invoice::getId).collect(Collectors.toList()));
+  }
+
+  @Test
+  void shouldReturnSortedPageWithinSortedPageWindow() {
+    //given
+    List<Invoice> invoices = new ArrayList<>();
+    for (int i = 1; i <= 5; i++) {
+      Invoice invoice = InvoiceGenerator.getRandomInvoice();
+      invoice.setId(String.valueOf(i));
+      invoices.add(invoice);
+    }
+    Collections.reverse(invoices);
+    PageRequest pageRequest = PageRequest.of(1, 2, Sort.by("id"));
+
+    //when
+    Page<Invoice> page = InvoicePaging.page(invoices.iterator(), pageRequest, InvoicePaging.invoiceComparator(pageRequest.getSort()));
+
+    //then
+    assertEquals(Arrays.asList("3", "4"), page.getContent().stream().map(Invoice::getId).collect(Collectors.toList()));
+    assertEquals(5, page.getTotalElements());
+  }
+
+  @Test
+  void shouldThrowExceptionWhenSortedPageReachesBeyondSortedPageWindow() {
+    //given
+    PageRequest pageRequest = PageRequest.of(InvoicePaging.MAX_SORTED_PAGE_WINDOW / 100, 100, Sort.by("issueDate"));
+
+    //then
+    assertThrows(IllegalArgumentException.class,
+        () -> InvoicePaging.page(Collections.<Invoice>emptyIterator(), pageRequest, InvoicePaging.invoiceComparator(pageRequest.getSort())));
+  }
+}
@@ -2,32 +2,80 @@ package pl.coderstrust.database.invoice;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static pl.coderstrust.generators.InvoiceGenerator.copyInvoice;
 
+import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
 import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.result.DeleteResult;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Meta;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.data.util.Pair;
 import pl.coderstrust.configuration.MongoDatabaseProperties;
+import pl.coderstrust.database.BatchOperationException;
 import pl.coderstrust.database.DatabaseOperationException;
 import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.DueDateTotals;
 import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceSummary;
+import pl.coderstrust.model.MonthlyVatTotals;
+import pl.coderstrust.model.SellerTotals;
 
 @ExtendWith(MockitoExtension.class)
 class MongoInvoiceDatabaseTest {
@@ -44,6 +92,15 @@ class MongoInvoiceDatabaseTest {
   @Mock
   private DeleteResult deleteResult;
 
+  @Mock
+  private IndexOperations indexOperations;
+
+  @Mock
+  private BulkOperations bulkOperations;
+
+  @Mock
+  private CloseableIterator<Invoice> cursor;
+
   @BeforeEach
   void setUp() {
     mongoInvoiceDatabase = new MongoInvoiceDatabase(mongoTemplate, properties);
@@ -53,16 +110,68 @@ class MongoInvoiceDatabaseTest {
   void shouldSaveInvoiceToDatabase() throws DatabaseOperationException {
     //given
     Invoice invoice = InvoiceGenerator.getRandomInvoiceWithNoId();
-    Invoice invoiceWithId = copyInvoice(invoice);
+    Invoice invoiceWithInitialVersion = copyInvoice(invoice);
+    invoiceWithInitialVersion.setVersion(0L);
+    Invoice invoiceWithId = copyInvoice(invoiceWithInitialVersion);
     invoiceWithId.setId("2");
-    when(mongoTemplate.save(invoice, properties.getCollectionName())).thenReturn(invoiceWithId);
+    when(mongoTemplate.save(invoiceWithInitialVersion, properties.getCollectionName())).thenReturn(invoiceWithId);
 
     //when
     Invoice actual = mongoInvoiceDatabase.save(invoice);
 
     //then
     assertEquals(invoiceWithId, actual);
-    verify(mongoTemplate).save(invoice, properties.getCollectionName());
+    verify(mongoTemplate).save(invoiceWithInitialVersion, properties.getCollectionName());
+  }
+
+  @Test
+  void shouldIncrementCurrentVersionWhenSavingInvoiceWithoutVersion() throws DatabaseOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    Invoice currentInvoice = copyInvoice(invoice);
+    currentInvoice.setVersion(2L);
+    Invoice invoiceWithNextVersion = copyInvoice(invoice);
+    invoiceWithNextVersion.setVersion(3L);
+    when(mongoTemplate.findOne(any(Query.class), eq(Invoice.class), eq(properties.getCollectionName()))).thenReturn(currentInvoice);
+    when(mongoTemplate.save(invoiceWithNextVersion, properties.getCollectionName())).thenReturn(invoiceWithNextVersion);
+
+    //when
+    Invoice actual = mongoInvoiceDatabase.save(invoice);
+
+    //then
+    assertEquals(invoiceWithNextVersion, actual);
+    verify(mongoTemplate).save(invoiceWithNextVersion, properties.getCollectionName());
+  }
+
+  @Test
+  void shouldReplaceInvoiceWhenPassedVersionIsCurrent() throws DatabaseOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    invoice.setVersion(2L);
+    Invoice invoiceWithNextVersion = copyInvoice(invoice);
+    invoiceWithNextVersion.setVersion(3L);
+    Query query = Query.query(Criteria.where("_id").is(invoice.getId()).and("version").is(2L));
+    when(mongoTemplate.findAndReplace(eq(query), eq(invoiceWithNextVersion), any(FindAndReplaceOptions.class), eq(Invoice.class),
+        eq(properties.getCollectionName()), eq(Invoice.class))).thenReturn(invoiceWithNextVersion);
+
+    //when
+    Invoice actual = mongoInvoiceDatabase.save(invoice);
+
+    //then
+    assertEquals(invoiceWithNextVersion, actual);
+    verify(mongoTemplate, never()).save(any(Invoice.class), anyString());
+  }
+
+  @Test
+  void saveMethodShouldThrowExceptionWhenPassedVersionIsOutOfDate() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    invoice.setVersion(2L);
+    when(mongoTemplate.findAndReplace(any(Query.class), any(Invoice.class), any(FindAndReplaceOptions.class), eq(Invoice.class),
+        eq(properties.getCollectionName()), eq(Invoice.class))).thenReturn(null);
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> mongoInvoiceDatabase.save(invoice));
   }
 
   @Test
@@ -156,13 +265,210 @@ class MongoInvoiceDatabaseTest {
     verify(mongoTemplate).findAll(Invoice.class, properties.getCollectionName());
   }
 
+  @Test
+  void shouldStreamAllInvoicesWithCursor() throws DatabaseOperationException {
+    //given
+    Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
+    Invoice invoice2 = InvoiceGenerator.getRandomInvoice();
+    Iterator<Invoice> invoices = Arrays.asList(invoice1, invoice2).iterator();
+    when(cursor.hasNext()).thenAnswer(invocation -> invoices.hasNext());
+    when(cursor.next()).thenAnswer(invocation -> invoices.next());
+    doCallRealMethod().when(cursor).forEachRemaining(any());
+    when(mongoTemplate.stream(any(Query.class), eq(Invoice.class), eq(properties.getCollectionName()))).thenReturn(cursor);
+
+    //when
+    List<Invoice> result;
+    try (Stream<Invoice> stream = mongoInvoiceDatabase.streamAll()) {
+      result = stream.collect(Collectors.toList());
+    }
+
+    //then
+    assertEquals(Arrays.asList(invoice1, invoice2), result);
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).stream(query.capture(), eq(Invoice.class), eq(properties.getCollectionName()));
+    assertEquals(new Document("_id", 1), query.getValue().getSortObject());
+    assertEquals(Integer.valueOf(properties.getCursorBatchSize()), query.getValue().getMeta().getCursorBatchSize());
+    assertFalse(query.getValue().getMeta().getFlags().contains(Meta.CursorOption.NO_TIMEOUT));
+    verify(cursor).close();
+    verify(mongoTemplate, never()).findAll(Invoice.class, properties.getCollectionName());
+  }
+
+  @Test
+  void shouldCloseCursorWhenStreamIsClosedBeforeBeingExhausted() throws DatabaseOperationException {
+    //given
+    properties.setNoCursorTimeout(true);
+    when(cursor.hasNext()).thenReturn(true);
+    when(cursor.next()).thenReturn(InvoiceGenerator.getRandomInvoice());
+    when(mongoTemplate.stream(any(Query.class), eq(Invoice.class), eq(properties.getCollectionName()))).thenReturn(cursor);
+
+    //when
+    try (Stream<Invoice> stream = mongoInvoiceDatabase.streamAll()) {
+      assertEquals(3, stream.limit(3).count());
+    }
+
+    //then
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).stream(query.capture(), eq(Invoice.class), eq(properties.getCollectionName()));
+    assertTrue(query.getValue().getMeta().getFlags().contains(Meta.CursorOption.NO_TIMEOUT));
+    verify(cursor).close();
+  }
+
+  @Test
+  void streamAllMethodShouldThrowExceptionWhenErrorOccursDuringExecution() {
+    //given
+    doThrow(MongoException.class).when(mongoTemplate).stream(any(Query.class), eq(Invoice.class), eq(properties.getCollectionName()));
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> mongoInvoiceDatabase.streamAll());
+  }
+
+  @Test
+  void shouldFindPageOfInvoices() throws DatabaseOperationException {
+    //given
+    Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
+    Invoice invoice2 = InvoiceGenerator.getRandomInvoice();
+    Pageable pageable = PageRequest.of(1, 2, Sort.by("issueDate"));
+    Query query = new Query().with(pageable);
+    when(mongoTemplate.find(query, Invoice.class, properties.getCollectionName())).thenReturn(Arrays.asList(invoice1, invoice2));
+    when(mongoTemplate.count(new Query(), Invoice.class, properties.getCollectionName())).thenReturn(5L);
+
+    //when
+    Page<Invoice> result = mongoInvoiceDatabase.findAll(pageable);
+
+    //then
+    assertEquals(Arrays.asList(invoice1, invoice2), result.getContent());
+    assertEquals(5, result.getTotalElements());
+    verify(mongoTemplate).find(query, Invoice.class, properties.getCollectionName());
+  }
+
+  @Test
+  void shouldFindPageOfInvoiceSummariesUsingProjection() throws DatabaseOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    Pageable pageable = PageRequest.of(0, 2);
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    when(mongoTemplate.find(queryCaptor.capture(), eq(Invoice.class), eq(properties.getCollectionName()))).thenReturn(Collections.singletonList(invoice));
+
+    //when
+    Page<InvoiceSummary> result = mongoInvoiceDatabase.findAllSummaries(pageable);
+
+    //then
+    assertEquals(Collections.singletonList(new InvoiceSummary(invoice)), result.getContent());
+    assertEquals(1, result.getTotalElements());
+    assertTrue(queryCaptor.getValue().getFieldsObject().containsKey("seller.name"));
+    assertFalse(queryCaptor.getValue().getFieldsObject().containsKey("entries"));
+  }
+
+  @Test
+  void shouldFindInvoiceSummariesBySellerNameUsingProjection() throws DatabaseOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    when(mongoTemplate.find(queryCaptor.capture(), eq(Invoice.class), eq(properties.getCollectionName()))).thenReturn(Collections.singletonList(invoice));
+
+    //when
+    List<InvoiceSummary> result = mongoInvoiceDatabase.findAllSummariesBySellerName(invoice.getSeller().getName());
+
+    //then
+    assertEquals(Collections.singletonList(new InvoiceSummary(invoice)), result);
+    assertEquals(new Document("seller.name", invoice.getSeller().getName()), queryCaptor.getValue().getQueryObject());
+    assertTrue(queryCaptor.getValue().getFieldsObject().containsKey("buyer.name"));
+    assertFalse(queryCaptor.getValue().getFieldsObject().containsKey("entries"));
+  }
+
+  @Test
+  void shouldFindInvoiceSummariesByBuyerNameUsingProjection() throws DatabaseOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    when(mongoTemplate.find(queryCaptor.capture(), eq(Invoice.class), eq(properties.getCollectionName()))).thenReturn(Collections.singletonList(invoice));
+
+    //when
+    List<InvoiceSummary> result = mongoInvoiceDatabase.findAllSummariesByBuyerName(invoice.getBuyer().getName());
+
+    //then
+    assertEquals(Collections.singletonList(new InvoiceSummary(invoice)), result);
+    assertEquals(new Document("buyer.name", invoice.getBuyer().getName()), queryCaptor.getValue().getQueryObject());
+    assertFalse(queryCaptor.getValue().getFieldsObject().containsKey("seller"));
+  }
+
+  @Test
+  void shouldFindAndDeleteInvoiceInSingleOperation() throws DatabaseOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    Query query = Query.query(Criteria.where("_id").is(invoice.getId()));
+    when(mongoTemplate.findAndRemove(query, Invoice.class, properties.getCollectionName())).thenReturn(invoice);
+
+    //when
+    Optional<Invoice> result = mongoInvoiceDatabase.findAndDeleteById(invoice.getId());
+
+    //then
+    assertEquals(Optional.of(invoice), result);
+    verify(mongoTemplate).findAndRemove(query, Invoice.class, properties.getCollectionName());
+    verify(mongoTemplate, never()).findById(any(), any(), any());
+  }
+
+  @Test
+  void shouldReturnEmptyOptionalWhenFindAndDeleteFoundNoInvoice() throws DatabaseOperationException {
+    //given
+    when(mongoTemplate.findAndRemove(any(Query.class), eq(Invoice.class), eq(properties.getCollectionName()))).thenReturn(null);
+
+    //when
+    Optional<Invoice> result = mongoInvoiceDatabase.findAndDeleteById("1");
+
+    //then
+    assertFalse(result.isPresent());
+  }
+
+  @Test
+  void shouldThrowExceptionWhenFindAndDeleteFails() {
+    //given
+    when(mongoTemplate.findAndRemove(any(Query.class), eq(Invoice.class), eq(properties.getCollectionName()))).thenThrow(new MongoException("Connection refused"));
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> mongoInvoiceDatabase.findAndDeleteById("1"));
+  }
+
+  @Test
+  void shouldFindInvoicesIssuedInDateRangeWithRangeQuery() throws DatabaseOperationException {
+    //given
+    LocalDate fromDate = LocalDate.of(2019, 1, 1);
+    LocalDate toDate = LocalDate.of(2019, 1, 31);
+    Invoice invoice = InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(fromDate);
+    Query query = Query.query(Criteria.where("issueDate").gte(fromDate).lte(toDate));
+    when(mongoTemplate.find(query, Invoice.class, properties.getCollectionName())).thenReturn(Collections.singletonList(invoice));
+
+    //when
+    Iterable<Invoice> result = mongoInvoiceDatabase.findAllByIssueDateBetween(fromDate, toDate);
+
+    //then
+    assertEquals(Collections.singletonList(invoice), result);
+    verify(mongoTemplate, never()).findAll(any(), any());
+  }
+
+  @Test
+  void shouldFindInvoicesDueInDateRangeWithRangeQuery() throws DatabaseOperationException {
+    //given
+    LocalDate fromDate = LocalDate.of(2019, 1, 1);
+    LocalDate toDate = LocalDate.of(2019, 1, 31);
+    Query query = Query.query(Criteria.where("dueDate").gte(fromDate).lte(toDate));
+    when(mongoTemplate.find(query, Invoice.class, properties.getCollectionName())).thenReturn(Collections.emptyList());
+
+    //when
+    Iterable<Invoice> result = mongoInvoiceDatabase.findAllByDueDateBetween(fromDate, toDate);
+
+    //then
+    assertEquals(Collections.emptyList(), result);
+    verify(mongoTemplate).find(query, Invoice.class, properties.getCollectionName());
+  }
+
   @Test
   void shouldFindAllInvoicesBySellerName() throws DatabaseOperationException {
     //given
     String sellerName = "SampleSeller";
     Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificSellerName(sellerName);
     Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificSellerName(sellerName);
-    when(mongoTemplate.find(Query.query(Criteria.where("sellerName").is(sellerName)), Invoice.class, properties.getCollectionName()))
+    when(mongoTemplate.find(Query.query(Criteria.where("seller.name").is(sellerName)), Invoice.class, properties.getCollectionName()))
         .thenReturn(Arrays.asList(invoice1, invoice2));
 
     //when
@@ -172,37 +478,211 @@ class MongoInvoiceDatabaseTest {
     Iterator<Invoice> expectedInvoice = result.iterator();
     assertEquals(invoice1, expectedInvoice.next());
     assertEquals(invoice2, expectedInvoice.next());
-    verify(mongoTemplate).find(Query.query(Criteria.where("sellerName").is(sellerName)), Invoice.class, properties.getCollectionName());
+    verify(mongoTemplate).find(Query.query(Criteria.where("seller.name").is(sellerName)), Invoice.class, properties.getCollectionName());
   }
 
   @Test
   void shouldFindAllInvoicesByBuyerName() throws DatabaseOperationException {
     //given
     String buyerName = "buyerName";
-    Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificSellerName(buyerName);
-    Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificSellerName(buyerName);
-    when(mongoTemplate.find(Query.query(Criteria.where("sellerName").is(buyerName)), Invoice.class, properties.getCollectionName()))
+    Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithSpecificBuyerName(buyerName);
+    Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithSpecificBuyerName(buyerName);
+    when(mongoTemplate.find(Query.query(Criteria.where("buyer.name").is(buyerName)), Invoice.class, properties.getCollectionName()))
         .thenReturn(Arrays.asList(invoice1, invoice2));
 
     //when
-    Iterable<Invoice> result = mongoInvoiceDatabase.findAllBySellerName(buyerName);
+    Iterable<Invoice> result = mongoInvoiceDatabase.findAllByBuyerName(buyerName);
 
     //then
     Iterator<Invoice> expectedInvoice = result.iterator();
     assertEquals(invoice1, expectedInvoice.next());
     assertEquals(invoice2, expectedInvoice.next());
-    verify(mongoTemplate).find(Query.query(Criteria.where("sellerName").is(buyerName)), Invoice.class, properties.getCollectionName());
+    verify(mongoTemplate).find(Query.query(Criteria.where("buyer.name").is(buyerName)), Invoice.class, properties.getCollectionName());
   }
 
   @Test
-  void saveMethodShouldThrowExceptionWhenErrorOccursDuringExecution() {
+  void shouldSaveAllNewInvoicesWithUnorderedBulkInsertsInBatches() throws DatabaseOperationException {
+    //given
+    properties.setBatchSize(2);
+    List<Invoice> invoices = Arrays.asList(InvoiceGenerator.getRandomInvoiceWithNoId(), InvoiceGenerator.getRandomInvoiceWithNoId(), InvoiceGenerator.getRandomInvoiceWithNoId());
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Invoice.class, properties.getCollectionName())).thenReturn(bulkOperations);
+    when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(2, 0, 0, 0, Collections.emptyList()));
+    ArgumentCaptor<List<Invoice>> insertedInvoices = ArgumentCaptor.forClass(List.class);
+
+    //when
+    List<Invoice> savedInvoices = mongoInvoiceDatabase.saveAll(invoices);
+
+    //then
+    verify(bulkOperations, times(2)).insert(insertedInvoices.capture());
+    verify(bulkOperations, times(2)).execute();
+    assertEquals(2, insertedInvoices.getAllValues().get(0).size());
+    assertEquals(1, insertedInvoices.getAllValues().get(1).size());
+    assertEquals(3, savedInvoices.size());
+    for (int i = 0; i < invoices.size(); i++) {
+      Invoice savedInvoice = savedInvoices.get(i);
+      assertNotNull(savedInvoice.getId());
+      assertEquals(Long.valueOf(0L), savedInvoice.getVersion());
+      assertEquals(invoices.get(i).getComments(), savedInvoice.getComments());
+    }
+  }
+
+  @Test
+  void shouldSaveAllExistingInvoicesWithVersionedUpdatesInBulk() throws DatabaseOperationException {
     //given
     Invoice invoice = InvoiceGenerator.getRandomInvoice();
-    doThrow(MongoException.class).when(mongoTemplate).save(invoice, properties.getCollectionName());
+    Invoice storedInvoice = copyInvoice(invoice);
+    storedInvoice.setVersion(4L);
+    when(mongoTemplate.find(any(Query.class), eq(Invoice.class), eq(properties.getCollectionName()))).thenReturn(Collections.singletonList(storedInvoice));
+    when(mongoTemplate.getConverter()).thenReturn(createConverter());
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Invoice.class, properties.getCollectionName())).thenReturn(bulkOperations);
+    when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, Collections.emptyList()));
+    ArgumentCaptor<List<Pair<Query, Update>>> updates = ArgumentCaptor.forClass(List.class);
+
+    //when
+    List<Invoice> savedInvoices = mongoInvoiceDatabase.saveAll(Collections.singletonList(invoice));
+
+    //then
+    verify(bulkOperations).updateOne(updates.capture());
+    verify(mongoTemplate).find(any(Query.class), eq(Invoice.class), eq(properties.getCollectionName()));
+    verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Invoice.class), anyString());
+    assertEquals(1, updates.getValue().size());
+    assertEquals(new Document("_id", invoice.getId()).append("version", 4L), updates.getValue().get(0).getFirst().getQueryObject());
+    assertEquals(5L, updates.getValue().get(0).getSecond().getUpdateObject().get("$set", Document.class).get("version"));
+    assertEquals(Long.valueOf(5L), savedInvoices.get(0).getVersion());
+  }
+
+  @Test
+  void saveAllMethodShouldReportInvoiceRemovedOrModifiedConcurrentlyAsConflictInsteadOfRecreatingIt() {
+    //given
+    properties.setBatchSize(1);
+    Invoice newInvoice = InvoiceGenerator.getRandomInvoiceWithNoId();
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    Invoice storedInvoice = copyInvoice(invoice);
+    storedInvoice.setVersion(4L);
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Invoice.class, properties.getCollectionName())).thenReturn(bulkOperations);
+    when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(1, 0, 0, 0, Collections.emptyList()));
+    when(mongoTemplate.find(any(Query.class), eq(Invoice.class), eq(properties.getCollectionName()))).thenReturn(Collections.singletonList(storedInvoice));
+    when(mongoTemplate.getConverter()).thenReturn(createConverter());
+
+    //when
+    BatchOperationException exception = assertThrows(BatchOperationException.class, () -> mongoInvoiceDatabase.saveAll(Arrays.asList(newInvoice, invoice)));
+
+    //then
+    assertEquals(Collections.singleton(1), exception.getFailures().keySet());
+    assertEquals(1, exception.getResults().size());
+    assertEquals(newInvoice.getComments(), ((Invoice) exception.getResults().get(0)).getComments());
+    verify(bulkOperations, never()).upsert(any(List.class));
+  }
+
+  @Test
+  void saveAllMethodShouldReadBackVersionsOnceToFindUnmatchedUpdates() {
+    //given
+    Invoice invoice1 = InvoiceGenerator.getRandomInvoice();
+    Invoice invoice2 = InvoiceGenerator.getRandomInvoice();
+    Invoice storedInvoice1 = copyInvoice(invoice1);
+    storedInvoice1.setVersion(4L);
+    Invoice storedInvoice2 = copyInvoice(invoice2);
+    storedInvoice2.setVersion(2L);
+    Invoice updatedInvoice1 = copyInvoice(invoice1);
+    updatedInvoice1.setVersion(5L);
+    Invoice modifiedInvoice2 = copyInvoice(invoice2);
+    modifiedInvoice2.setVersion(2L);
+    when(mongoTemplate.find(any(Query.class), eq(Invoice.class), eq(properties.getCollectionName())))
+        .thenReturn(Arrays.asList(storedInvoice1, storedInvoice2), Arrays.asList(updatedInvoice1, modifiedInvoice2));
+    when(mongoTemplate.getConverter()).thenReturn(createConverter());
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Invoice.class, properties.getCollectionName())).thenReturn(bulkOperations);
+    when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, Collections.emptyList()));
+    ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+
+    //when
+    BatchOperationException exception = assertThrows(BatchOperationException.class, () -> mongoInvoiceDatabase.saveAll(Arrays.asList(invoice1, invoice2)));
+
+    //then
+    verify(mongoTemplate, times(2)).find(queries.capture(), eq(Invoice.class), eq(properties.getCollectionName()));
+    assertEquals(Query.query(Criteria.where("_id").in(Arrays.asList(invoice1.getId(), invoice2.getId()))).getQueryObject(), queries.getAllValues().get(1).getQueryObject());
+    assertEquals(Collections.singleton(1), exception.getFailures().keySet());
+    assertEquals(1, exception.getResults().size());
+    assertEquals(Long.valueOf(5L), ((Invoice) exception.getResults().get(0)).getVersion());
+  }
+
+  @Test
+  void saveAllMethodShouldReportFailedInvoicesByPositionAndReturnOnlySavedOnes() {
+    //given
+    List<Invoice> invoices = Arrays.asList(InvoiceGenerator.getRandomInvoiceWithNoId(), InvoiceGenerator.getRandomInvoiceWithNoId());
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Invoice.class, properties.getCollectionName())).thenReturn(bulkOperations);
+    BulkOperationException bulkOperationException = Mockito.mock(BulkOperationException.class);
+    when(bulkOperationException.getErrors()).thenReturn(Collections.singletonList(new BulkWriteError(11000, "E11000 duplicate key error", new BasicDBObject(), 1)));
+    when(bulkOperationException.getResult()).thenReturn(Mockito.mock(com.mongodb.BulkWriteResult.class));
+    doThrow(bulkOperationException).when(bulkOperations).execute();
+
+    //when
+    BatchOperationException exception = assertThrows(BatchOperationException.class, () -> mongoInvoiceDatabase.saveAll(invoices));
+
+    //then
+    assertEquals(Collections.singletonMap(1, "E11000 duplicate key error"), exception.getFailures());
+    assertEquals(1, exception.getResults().size());
+    assertEquals(invoices.get(0).getComments(), ((Invoice) exception.getResults().get(0)).getComments());
+  }
+
+  @Test
+  void shouldFindIdsOfExistingInvoicesWithSingleQuery() throws DatabaseOperationException {
+    //given
+    Invoice storedInvoice = InvoiceGenerator.getRandomInvoice();
+    when(mongoTemplate.find(any(Query.class), eq(Invoice.class), eq(properties.getCollectionName()))).thenReturn(Collections.singletonList(storedInvoice));
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+
+    //when
+    Set<String> existingIds = mongoInvoiceDatabase.findExistingIds(Arrays.asList(storedInvoice.getId(), "missing"));
+
+    //then
+    assertEquals(Collections.singleton(storedInvoice.getId()), existingIds);
+    verify(mongoTemplate).find(query.capture(), eq(Invoice.class), eq(properties.getCollectionName()));
+    assertEquals(Query.query(Criteria.where("_id").in(Arrays.asList(storedInvoice.getId(), "missing"))).getQueryObject(), query.getValue().getQueryObject());
+  }
+
+  @Test
+  void shouldDeleteAllInvoicesByIdWithBulkRemoveAndReportMissingOnes() {
+    //given
+    Invoice storedInvoice = InvoiceGenerator.getRandomInvoice();
+    when(mongoTemplate.find(any(Query.class), eq(Invoice.class), eq(properties.getCollectionName()))).thenReturn(Collections.singletonList(storedInvoice));
+    when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Invoice.class, properties.getCollectionName())).thenReturn(bulkOperations);
+    when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 0, 1, 0, Collections.emptyList()));
+
+    //when
+    BatchOperationException exception = assertThrows(BatchOperationException.class, () -> mongoInvoiceDatabase.deleteAllById(Arrays.asList(storedInvoice.getId(), "missing")));
+
+    //then
+    verify(bulkOperations).remove(Collections.singletonList(Query.query(Criteria.where("_id").is(storedInvoice.getId()))));
+    verify(bulkOperations).execute();
+    assertEquals(Collections.singleton(1), exception.getFailures().keySet());
+  }
+
+  @Test
+  void shouldEnsureIndexesOnQueriedFields() {
+    //given
+    MongoInvoiceDatabase database = new MongoInvoiceDatabase(mongoTemplate, properties);
+    when(mongoTemplate.indexOps(properties.getCollectionName())).thenReturn(indexOperations);
+    ArgumentCaptor<IndexDefinition> indexes = ArgumentCaptor.forClass(IndexDefinition.class);
+
+    //when
+    database.ensureIndexes();
+
+    //then
+    verify(indexOperations, times(5)).ensureIndex(indexes.capture());
+    assertEquals(Arrays.asList("seller.name", "buyer.name", "seller.taxIdentificationNumber", "issueDate", "dueDate"), indexes.getAllValues().stream()
+        .map(index -> index.getIndexKeys().keySet().iterator().next())
+        .collect(Collectors.toList()));
+  }
+
+  @Test
+  void saveMethodShouldThrowExceptionWhenErrorOccursDuringExecution() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoiceWithNoId();
+    doThrow(MongoException.class).when(mongoTemplate).save(any(Invoice.class), eq(properties.getCollectionName()));
 
     //then
     assertThrows(DatabaseOperationException.class, () -> mongoInvoiceDatabase.save(invoice));
-    verify(mongoTemplate).save(invoice, properties.getCollectionName());
+    verify(mongoTemplate).save(any(Invoice.class), eq(properties.getCollectionName()));
   }
 
   @Test
@@ -289,24 +769,24 @@ class MongoInvoiceDatabaseTest {
   void findBySellerNameMethodShouldThrowExceptionWhenErrorOccursDuringExecution() {
     //given
     String sellerName = "SampleSellerName";
-    doThrow(MongoException.class).when(mongoTemplate).find(Query.query(Criteria.where("sellerName").is(sellerName)), Invoice.class,
+    doThrow(MongoException.class).when(mongoTemplate).find(Query.query(Criteria.where("seller.name").is(sellerName)), Invoice.class,
         properties.getCollectionName());
 
     //then
     assertThrows(DatabaseOperationException.class, () -> mongoInvoiceDatabase.findAllBySellerName(sellerName));
-    verify(mongoTemplate).find(Query.query(Criteria.where("sellerName").is(sellerName)), Invoice.class, properties.getCollectionName());
+    verify(mongoTemplate).find(Query.query(Criteria.where("seller.name").is(sellerName)), Invoice.class, properties.getCollectionName());
   }
 
   @Test
   void findByBuyerNameMethodShouldThrowExceptionWhenErrorOccursDuringExecution() {
     //given
     String buyerName = "SampleBuyerName";
-    doThrow(MongoException.class).when(mongoTemplate).find(Query.query(Criteria.where("buyerName").is(buyerName)), Invoice.class,
+    doThrow(MongoException.class).when(mongoTemplate).find(Query.query(Criteria.where("buyer.name").is(buyerName)), Invoice.class,
         properties.getCollectionName());
 
     //then
     assertThrows(DatabaseOperationException.class, () -> mongoInvoiceDatabase.findAllByBuyerName(buyerName));
-    verify(mongoTemplate).find(Query.query(Criteria.where("buyerName").is(buyerName)), Invoice.class, properties.getCollectionName());
+    verify(mongoTemplate).find(Query.query(Criteria.where("buyer.name").is(buyerName)), Invoice.class, properties.getCollectionName());
   }
 
   @Test
@@ -338,4 +818,117 @@ class MongoInvoiceDatabaseTest {
   void findAllByBuyerNameMethodShouldThrowExceptionWhenPassedArgumentIsNull() {
     assertThrows(IllegalArgumentException.class, () -> mongoInvoiceDatabase.findAllByBuyerName(null));
   }
+
+  @Test
+  void shouldSumInvoicesBySellerInDatabase() throws DatabaseOperationException {
+    //given
+    LocalDate fromDate = LocalDate.of(2019, 1, 1);
+    LocalDate toDate = LocalDate.of(2019, 1, 31);
+    List<SellerTotals> totals = Collections.singletonList(new SellerTotals("PolStal", 2, BigDecimal.TEN, new BigDecimal("12.3")));
+    when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(properties.getCollectionName()), eq(SellerTotals.class)))
+        .thenReturn(new AggregationResults<>(totals, new Document()));
+
+    //when
+    List<SellerTotals> actual = mongoInvoiceDatabase.findTotalsBySeller(fromDate, toDate);
+
+    //then
+    assertEquals(totals, actual);
+    List<Document> pipeline = capturePipeline(SellerTotals.class);
+    assertEquals(Arrays.asList("$match", "$group", "$project", "$sort"), stageNames(pipeline));
+    assertEquals(new Document("$gte", toDate(fromDate)).append("$lte", toDate(toDate)), stage(pipeline, 0).get("issueDate"));
+    assertEquals("$seller.name", stage(pipeline, 1).get("_id"));
+    assertEquals(new Document("$sum", new Document("$toDecimal", "$totalNetValue")), stage(pipeline, 1).get("totalNetValue"));
+    assertEquals("$_id", stage(pipeline, 2).get("sellerName"));
+    assertEquals(new Document("$toString", "$totalGrossValue"), stage(pipeline, 2).get("totalGrossValue"));
+  }
+
+  @Test
+  void shouldSumTaxOfInvoicesByMonthInDatabase() throws DatabaseOperationException {
+    //given
+    LocalDate fromDate = LocalDate.of(2019, 1, 1);
+    LocalDate toDate = LocalDate.of(2019, 12, 31);
+    List<MonthlyVatTotals> totals = Collections.singletonList(new MonthlyVatTotals(2019, 1, 2, BigDecimal.TEN, new BigDecimal("12.3"), new BigDecimal("2.3")));
+    when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(properties.getCollectionName()), eq(MonthlyVatTotals.class)))
+        .thenReturn(new AggregationResults<>(totals, new Document()));
+
+    //when
+    List<MonthlyVatTotals> actual = mongoInvoiceDatabase.findVatTotalsByMonth(fromDate, toDate);
+
+    //then
+    assertEquals(totals, actual);
+    List<Document> pipeline = capturePipeline(MonthlyVatTotals.class);
+    assertEquals(Arrays.asList("$match", "$project", "$group", "$project", "$sort"), stageNames(pipeline));
+    assertEquals(new Document("$year", new Document("date", "$issueDate").append("timezone", ZoneId.systemDefault().getId())), stage(pipeline, 1).get("year"));
+    assertEquals(new Document("year", "$year").append("month", "$month"), stage(pipeline, 2).get("_id"));
+    assertEquals("$_id.month", stage(pipeline, 3).get("month"));
+    assertEquals(new Document("$toString", new Document("$subtract", Arrays.asList("$totalGrossValue", "$totalNetValue"))), stage(pipeline, 3).get("totalVatValue"));
+  }
+
+  @Test
+  void shouldSumOutstandingInvoicesByDueDateInDatabase() throws DatabaseOperationException {
+    //given
+    LocalDate asOfDate = LocalDate.of(2019, 1, 1);
+    List<DueDateTotals> totals = Collections.singletonList(new DueDateTotals(asOfDate, 2, new BigDecimal("12.3")));
+    when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(properties.getCollectionName()), eq(DueDateTotals.class)))
+        .thenReturn(new AggregationResults<>(totals, new Document()));
+
+    //when
+    List<DueDateTotals> actual = mongoInvoiceDatabase.findOutstandingTotalsByDueDate(asOfDate);
+
+    //then
+    assertEquals(totals, actual);
+    List<Document> pipeline = capturePipeline(DueDateTotals.class);
+    assertEquals(Arrays.asList("$match", "$group", "$project", "$sort"), stageNames(pipeline));
+    assertEquals(new Document("$gte", toDate(asOfDate)), stage(pipeline, 0).get("dueDate"));
+    assertEquals("$dueDate", stage(pipeline, 1).get("_id"));
+    assertEquals("$_id", stage(pipeline, 2).get("dueDate"));
+  }
+
+  @Test
+  void shouldThrowExceptionWhenAggregationFails() {
+    //given
+    doThrow(new MongoException("Connection refused")).when(mongoTemplate).aggregate(any(TypedAggregation.class), eq(properties.getCollectionName()), eq(SellerTotals.class));
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> mongoInvoiceDatabase.findTotalsBySeller(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 31)));
+  }
+
+  @Test
+  void findTotalsBySellerMethodShouldThrowExceptionWhenDateRangeIsInvalid() {
+    assertThrows(IllegalArgumentException.class, () -> mongoInvoiceDatabase.findTotalsBySeller(null, LocalDate.of(2019, 1, 31)));
+    assertThrows(IllegalArgumentException.class, () -> mongoInvoiceDatabase.findVatTotalsByMonth(LocalDate.of(2019, 2, 1), LocalDate.of(2019, 1, 31)));
+    assertThrows(IllegalArgumentException.class, () -> mongoInvoiceDatabase.findOutstandingTotalsByDueDate(null));
+  }
+
+  private List<Document> capturePipeline(Class<?> outputType) {
+    ArgumentCaptor<TypedAggregation> aggregation = ArgumentCaptor.forClass(TypedAggregation.class);
+    verify(mongoTemplate).aggregate(aggregation.capture(), eq(properties.getCollectionName()), eq(outputType));
+    MappingMongoConverter converter = createConverter();
+    AggregationOperationContext context = new TypeBasedAggregationOperationContext(Invoice.class, converter.getMappingContext(), new QueryMapper(converter));
+    return aggregation.getValue().toPipeline(context);
+  }
+
+  private List<String> stageNames(List<Document> pipeline) {
+    return pipeline.stream().map(stage -> stage.keySet().iterator().next()).collect(Collectors.toList());
+  }
+
+  private Document stage(List<Document> pipeline, int index) {
+    Document stage = pipeline.get(index);
+    return stage.get(stage.keySet().iterator().next(), Document.class);
+  }
+
+  private Date toDate(LocalDate date) {
+    return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+  }
+
+  private MappingMongoConverter createConverter() {
+    MongoCustomConversions conversions = new MongoCustomConversions(Collections.emptyList());
+    MongoMappingContext mappingContext = new MongoMappingContext();
+    mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+    mappingContext.afterPropertiesSet();
+    MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+    converter.setCustomConversions(conversions);
+    converter.afterPropertiesSet();
+    return converter;
+  }
 }
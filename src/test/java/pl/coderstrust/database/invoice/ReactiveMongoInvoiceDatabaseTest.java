@@ -0,0 +1,223 @@
+package pl.coderstrust.database.invoice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static pl.coderstrust.generators.InvoiceGenerator.copyInvoice;
+
+import com.mongodb.MongoException;
+import java.util.Arrays;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import pl.coderstrust.configuration.MongoDatabaseProperties;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveMongoInvoiceDatabaseTest {
+
+  private ReactiveInvoiceDatabase database;
+  private MongoDatabaseProperties properties = new MongoDatabaseProperties();
+
+  @Mock
+  private ReactiveMongoTemplate mongoTemplate;
+
+  @BeforeEach
+  void setUp() {
+    database = new ReactiveMongoInvoiceDatabase(mongoTemplate, properties);
+  }
+
+  @Test
+  void shouldSaveNewInvoiceWithInitialVersion() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoiceWithNoId();
+    Invoice invoiceWithInitialVersion = copyInvoice(invoice);
+    invoiceWithInitialVersion.setVersion(0L);
+    Invoice savedInvoice = copyInvoice(invoiceWithInitialVersion);
+    savedInvoice.setId("1");
+    when(mongoTemplate.save(invoiceWithInitialVersion, properties.getCollectionName())).thenReturn(Mono.just(savedInvoice));
+
+    //when
+    Invoice actual = database.save(invoice).block();
+
+    //then
+    assertEquals(savedInvoice, actual);
+    verify(mongoTemplate).save(invoiceWithInitialVersion, properties.getCollectionName());
+  }
+
+  @Test
+  void shouldIncrementCurrentVersionWhenSavingInvoiceWithoutVersion() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    Invoice currentInvoice = copyInvoice(invoice);
+    currentInvoice.setVersion(4L);
+    Invoice invoiceToSave = copyInvoice(invoice);
+    invoiceToSave.setVersion(5L);
+    when(mongoTemplate.findOne(any(Query.class), eq(Invoice.class), eq(properties.getCollectionName()))).thenReturn(Mono.just(currentInvoice));
+    when(mongoTemplate.save(invoiceToSave, properties.getCollectionName())).thenReturn(Mono.just(invoiceToSave));
+
+    //when
+    Invoice actual = database.save(invoice).block();
+
+    //then
+    assertEquals(invoiceToSave, actual);
+  }
+
+  @Test
+  void shouldReplaceInvoiceWithPassedVersion() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    invoice.setVersion(2L);
+    Invoice replacedInvoice = copyInvoice(invoice);
+    replacedInvoice.setVersion(3L);
+    when(mongoTemplate.findAndReplace(any(Query.class), eq(replacedInvoice), any(FindAndReplaceOptions.class), eq(Invoice.class), eq(properties.getCollectionName()), eq(Invoice.class)))
+        .thenReturn(Mono.just(replacedInvoice));
+
+    //when
+    Invoice actual = database.save(invoice).block();
+
+    //then
+    assertEquals(replacedInvoice, actual);
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).findAndReplace(query.capture(), eq(replacedInvoice), any(FindAndReplaceOptions.class), eq(Invoice.class), eq(properties.getCollectionName()), eq(Invoice.class));
+    assertEquals(new Document("_id", invoice.getId()).append("version", 2L), query.getValue().getQueryObject());
+  }
+
+  @Test
+  void shouldSignalErrorWhenReplacedVersionIsOutdated() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    invoice.setVersion(2L);
+    when(mongoTemplate.findAndReplace(any(Query.class), any(Invoice.class), any(FindAndReplaceOptions.class), eq(Invoice.class), eq(properties.getCollectionName()), eq(Invoice.class)))
+        .thenReturn(Mono.empty());
+
+    //when
+    Mono<Invoice> result = database.save(invoice);
+
+    //then
+    Exception exception = assertThrows(Exception.class, result::block);
+    assertTrue(exception.getCause() instanceof DatabaseOperationException);
+  }
+
+  @Test
+  void shouldFindInvoiceById() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    when(mongoTemplate.findById(invoice.getId(), Invoice.class, properties.getCollectionName())).thenReturn(Mono.just(invoice));
+
+    //when
+    Invoice actual = database.findById(invoice.getId()).block();
+
+    //then
+    assertEquals(invoice, actual);
+  }
+
+  @Test
+  void shouldFindAllInvoices() {
+    //given
+    List<Invoice> invoices = Arrays.asList(InvoiceGenerator.getRandomInvoice(), InvoiceGenerator.getRandomInvoice());
+    when(mongoTemplate.findAll(Invoice.class, properties.getCollectionName())).thenReturn(Flux.fromIterable(invoices));
+
+    //when
+    List<Invoice> actual = database.findAll().collectList().block();
+
+    //then
+    assertEquals(invoices, actual);
+  }
+
+  @Test
+  void shouldFindAllInvoicesBySellerName() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    Query query = Query.query(Criteria.where("seller.name").is(invoice.getSeller().getName()));
+    when(mongoTemplate.find(query, Invoice.class, properties.getCollectionName())).thenReturn(Flux.just(invoice));
+
+    //when
+    List<Invoice> actual = database.findAllBySellerName(invoice.getSeller().getName()).collectList().block();
+
+    //then
+    assertEquals(Arrays.asList(invoice), actual);
+  }
+
+  @Test
+  void shouldDeleteInvoiceById() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    when(mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(invoice.getId())), Invoice.class, properties.getCollectionName())).thenReturn(Mono.just(invoice));
+
+    //when
+    Invoice actual = database.deleteById(invoice.getId()).block();
+
+    //then
+    assertEquals(invoice, actual);
+  }
+
+  @Test
+  void shouldSignalErrorWhenDeletingNotExistingInvoice() {
+    //given
+    when(mongoTemplate.findAndRemove(any(Query.class), eq(Invoice.class), eq(properties.getCollectionName()))).thenReturn(Mono.empty());
+
+    //when
+    Mono<Invoice> result = database.deleteById("1");
+
+    //then
+    Exception exception = assertThrows(Exception.class, result::block);
+    assertTrue(exception.getCause() instanceof DatabaseOperationException);
+  }
+
+  @Test
+  void shouldCompleteEmptyWhenFindAndDeleteFoundNoInvoice() {
+    //given
+    when(mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is("1")), Invoice.class, properties.getCollectionName())).thenReturn(Mono.empty());
+
+    //when
+    Invoice actual = database.findAndDeleteById("1").block();
+
+    //then
+    assertNull(actual);
+  }
+
+  @Test
+  void shouldMapDriverErrorsToDatabaseOperationException() {
+    //given
+    when(mongoTemplate.findById("1", Invoice.class, properties.getCollectionName())).thenReturn(Mono.error(new MongoException("Connection refused")));
+
+    //when
+    Mono<Invoice> result = database.findById("1");
+
+    //then
+    Exception exception = assertThrows(Exception.class, result::block);
+    assertTrue(exception.getCause() instanceof DatabaseOperationException);
+  }
+
+  @Test
+  void constructorShouldThrowExceptionWhenArgumentIsNull() {
+    assertThrows(IllegalArgumentException.class, () -> new ReactiveMongoInvoiceDatabase(null, properties));
+    assertThrows(IllegalArgumentException.class, () -> new ReactiveMongoInvoiceDatabase(mongoTemplate, null));
+  }
+
+  @Test
+  void methodsShouldThrowExceptionWhenArgumentIsNull() {
+    assertThrows(IllegalArgumentException.class, () -> database.save(null));
+    assertThrows(IllegalArgumentException.class, () -> database.findById(null));
+    assertThrows(IllegalArgumentException.class, () -> database.deleteById(null));
+  }
+}
@@ -0,0 +1,332 @@
+package pl.coderstrust.database.invoice;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import pl.coderstrust.configuration.ApplicationConfiguration;
+import pl.coderstrust.configuration.TieredDatabaseProperties;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.helpers.FileHelper;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceSummary;
+
+class TieredInvoiceDatabaseTest {
+
+  private static final ObjectMapper mapper = new ApplicationConfiguration().getObjectMapper();
+  private static final long INVOICE_SIZE = TieredInvoiceDatabase.estimateSize(InvoiceGenerator.getRandomInvoice());
+
+  private File databaseFile;
+  private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    databaseFile = File.createTempFile("tiered_invoice_database", ".txt");
+    databaseFile.delete();
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @AfterEach
+  void tearDown() {
+    databaseFile.delete();
+  }
+
+  private InFileInvoiceDatabase createColdTier() throws DatabaseOperationException {
+    return new InFileInvoiceDatabase(new FileHelper(databaseFile.getPath()), mapper);
+  }
+
+  private TieredInvoiceDatabase createDatabase(int hotTierCapacity, HotTierEvictionPolicy evictionPolicy) throws DatabaseOperationException {
+    TieredDatabaseProperties properties = new TieredDatabaseProperties();
+    properties.setHotTierMaxBytes(hotTierCapacity * (INVOICE_SIZE + 100));
+    properties.setEvictionPolicy(evictionPolicy);
+    return new TieredInvoiceDatabase(createColdTier(), properties, meterRegistry);
+  }
+
+  private double counter(String name, String tier) {
+    return meterRegistry.get(name).tag("tier", tier).counter().count();
+  }
+
+  @Test
+  void shouldWriteSavedInvoiceThroughToColdTierAndServeItFromHotTier() throws DatabaseOperationException {
+    //given
+    TieredInvoiceDatabase database = createDatabase(2, HotTierEvictionPolicy.LRU);
+
+    //when
+    Invoice savedInvoice = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+
+    //then
+    assertEquals(Optional.of(savedInvoice), createColdTier().findById(savedInvoice.getId()));
+    assertEquals(Optional.of(savedInvoice), database.findById(savedInvoice.getId()));
+    assertEquals(1, counter("invoice.database.tier.hits", "hot"));
+  }
+
+  @Test
+  void shouldNotChangeHotTierInvoiceWhenCallerModifiesCompaniesOrEntriesOfSavedOrFoundInvoice() throws DatabaseOperationException {
+    //given
+    TieredInvoiceDatabase database = createDatabase(2, HotTierEvictionPolicy.LRU);
+    Invoice invoice = InvoiceGenerator.getRandomInvoiceWithNoId();
+    Invoice savedInvoice = database.save(invoice);
+    Invoice expectedInvoice = createColdTier().findById(savedInvoice.getId()).get();
+
+    //when
+    invoice.getSeller().setName("Changed seller");
+    Invoice foundInvoice = database.findById(savedInvoice.getId()).get();
+    foundInvoice.getBuyer().getContactDetails().setEmail("changed@example.com");
+    foundInvoice.getEntries().clear();
+
+    //then
+    assertEquals(Optional.of(expectedInvoice), database.findById(savedInvoice.getId()));
+    assertEquals(2, counter("invoice.database.tier.hits", "hot"));
+  }
+
+  @Test
+  void shouldWriteUpdatedInvoiceThroughToColdTier() throws DatabaseOperationException {
+    //given
+    TieredInvoiceDatabase database = createDatabase(2, HotTierEvictionPolicy.LRU);
+    Invoice savedInvoice = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    Invoice updatedInvoice = InvoiceGenerator.getRandomInvoiceWithSpecificId(savedInvoice.getId());
+
+    //when
+    Invoice writtenInvoice = database.save(updatedInvoice);
+
+    //then
+    updatedInvoice.setVersion(savedInvoice.getVersion() + 1);
+    assertEquals(updatedInvoice, writtenInvoice);
+    assertEquals(Optional.of(updatedInvoice), createColdTier().findById(savedInvoice.getId()));
+    assertEquals(Optional.of(updatedInvoice), database.findById(savedInvoice.getId()));
+  }
+
+  @Test
+  void shouldEvictLeastRecentlyUsedInvoiceFromHotTierWhenHotTierIsFull() throws DatabaseOperationException {
+    //given
+    TieredInvoiceDatabase database = createDatabase(2, HotTierEvictionPolicy.LRU);
+    Invoice invoice1 = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    Invoice invoice2 = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    database.findById(invoice1.getId());
+
+    //when
+    database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+
+    //then
+    assertEquals(1, meterRegistry.get("invoice.database.tier.evictions").counter().count());
+    assertEquals(Optional.of(invoice2), database.findById(invoice2.getId()));
+    assertEquals(1, counter("invoice.database.tier.hits", "cold"));
+    assertEquals(3, database.count());
+  }
+
+  @Test
+  void shouldEvictLeastFrequentlyUsedInvoiceFromHotTierWhenHotTierIsFull() throws DatabaseOperationException {
+    //given
+    TieredInvoiceDatabase database = createDatabase(2, HotTierEvictionPolicy.LFU);
+    Invoice invoice1 = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    Invoice invoice2 = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    database.findById(invoice1.getId());
+    database.findById(invoice1.getId());
+    database.findById(invoice2.getId());
+
+    //when
+    database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+
+    //then
+    database.findById(invoice2.getId());
+    assertEquals(1, counter("invoice.database.tier.hits", "cold"));
+    assertEquals(3, counter("invoice.database.tier.hits", "hot"));
+  }
+
+  @Test
+  void shouldPromoteInvoiceFromColdTierOnColdHit() throws DatabaseOperationException {
+    //given
+    TieredInvoiceDatabase database = createDatabase(1, HotTierEvictionPolicy.LRU);
+    Invoice invoice1 = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+
+    //when
+    Optional<Invoice> coldHit = database.findById(invoice1.getId());
+    Optional<Invoice> hotHit = database.findById(invoice1.getId());
+
+    //then
+    assertEquals(Optional.of(invoice1), coldHit);
+    assertEquals(Optional.of(invoice1), hotHit);
+    assertEquals(1, counter("invoice.database.tier.hits", "cold"));
+    assertEquals(1, counter("invoice.database.tier.hits", "hot"));
+    assertEquals(0.5, meterRegistry.get("invoice.database.tier.hit.ratio").tag("tier", "hot").gauge().value());
+  }
+
+  @Test
+  void shouldCountMissWhenInvoiceIsNotPresentInAnyTier() throws DatabaseOperationException {
+    //given
+    TieredInvoiceDatabase database = createDatabase(1, HotTierEvictionPolicy.LRU);
+
+    //when
+    Optional<Invoice> invoice = database.findById("-1");
+
+    //then
+    assertFalse(invoice.isPresent());
+    assertEquals(1, meterRegistry.get("invoice.database.tier.misses").counter().count());
+  }
+
+  @Test
+  void shouldReturnInvoicesFromBothTiersWithoutStaleCopies() throws DatabaseOperationException {
+    //given
+    TieredInvoiceDatabase database = createDatabase(1, HotTierEvictionPolicy.LRU);
+    Invoice invoice1 = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    Invoice invoice2 = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    Invoice updatedInvoice1 = database.save(InvoiceGenerator.getRandomInvoiceWithSpecificId(invoice1.getId()));
+
+    //when
+    List<Invoice> invoices = new ArrayList<>();
+    database.findAll().forEach(invoices::add);
+
+    //then
+    assertEquals(2, invoices.size());
+    assertTrue(invoices.contains(invoice2));
+    assertTrue(invoices.contains(updatedInvoice1));
+    assertEquals(2, database.count());
+  }
+
+  @Test
+  void shouldFindPageOfInvoicesFromBothTiers() throws DatabaseOperationException {
+    //given
+    TieredInvoiceDatabase database = createDatabase(1, HotTierEvictionPolicy.LRU);
+    database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    Invoice invoice2 = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    Invoice invoice3 = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+
+    //when
+    Page<Invoice> page = database.findAll(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+
+    //then
+    assertEquals(Arrays.asList(invoice3, invoice2), page.getContent());
+    assertEquals(3, page.getTotalElements());
+  }
+
+  @Test
+  void shouldFindPageOfInvoiceSummariesFromBothTiers() throws DatabaseOperationException {
+    //given
+    TieredInvoiceDatabase database = createDatabase(1, HotTierEvictionPolicy.LRU);
+    Invoice invoice1 = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    Invoice invoice2 = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+
+    //when
+    Page<InvoiceSummary> page = database.findAllSummaries(PageRequest.of(0, 2, Sort.by("id")));
+
+    //then
+    assertEquals(Arrays.asList(new InvoiceSummary(invoice1), new InvoiceSummary(invoice2)), page.getContent());
+    assertEquals(2, page.getTotalElements());
+  }
+
+  @Test
+  void shouldFindInvoicesBySellerNameInBothTiers() throws DatabaseOperationException {
+    //given
+    TieredInvoiceDatabase database = createDatabase(1, HotTierEvictionPolicy.LRU);
+    Invoice invoice1 = database.save(InvoiceGenerator.getRandomInvoiceWithNoIdAndSpecificSellerName("seller"));
+    Invoice invoice2 = database.save(InvoiceGenerator.getRandomInvoiceWithNoIdAndSpecificSellerName("seller"));
+    database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+
+    //when
+    List<Invoice> invoices = new ArrayList<>();
+    database.findAllBySellerName("seller").forEach(invoices::add);
+
+    //then
+    assertEquals(2, invoices.size());
+    assertTrue(invoices.contains(invoice1));
+    assertTrue(invoices.contains(invoice2));
+  }
+
+  @Test
+  void shouldFindInvoicesIssuedInDateRangeInBothTiers() throws DatabaseOperationException {
+    //given
+    TieredInvoiceDatabase database = createDatabase(1, HotTierEvictionPolicy.LRU);
+    Invoice invoice1 = database.save(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2019, 1, 10)));
+    Invoice invoice2 = database.save(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2019, 1, 20)));
+    database.save(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2019, 2, 1)));
+
+    //when
+    List<Invoice> invoices = new ArrayList<>();
+    database.findAllByIssueDateBetween(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 31)).forEach(invoices::add);
+
+    //then
+    assertEquals(2, invoices.size());
+    assertTrue(invoices.contains(invoice1));
+    assertTrue(invoices.contains(invoice2));
+  }
+
+  @Test
+  void shouldDeleteInvoiceFromBothTiers() throws DatabaseOperationException {
+    //given
+    TieredInvoiceDatabase database = createDatabase(1, HotTierEvictionPolicy.LRU);
+    Invoice invoice1 = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    database.findById(invoice1.getId());
+
+    //when
+    database.deleteById(invoice1.getId());
+
+    //then
+    assertFalse(database.existsById(invoice1.getId()));
+    assertFalse(createColdTier().existsById(invoice1.getId()));
+    assertThrows(DatabaseOperationException.class, () -> database.deleteById(invoice1.getId()));
+  }
+
+  @Test
+  void shouldKeepSavedInvoicesAndContinueIdSequenceAfterRestart() throws DatabaseOperationException {
+    //given
+    TieredInvoiceDatabase database = createDatabase(5, HotTierEvictionPolicy.LRU);
+    database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    Invoice invoice2 = database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+
+    //when
+    TieredInvoiceDatabase restartedDatabase = createDatabase(5, HotTierEvictionPolicy.LRU);
+    Invoice invoice3 = restartedDatabase.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+
+    //then
+    assertEquals(Optional.of(invoice2), restartedDatabase.findById(invoice2.getId()));
+    assertEquals("3", invoice3.getId());
+    assertEquals(3, restartedDatabase.count());
+  }
+
+  @Test
+  void shouldDeleteAllInvoicesFromBothTiers() throws DatabaseOperationException {
+    //given
+    TieredInvoiceDatabase database = createDatabase(1, HotTierEvictionPolicy.LRU);
+    database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+    database.save(InvoiceGenerator.getRandomInvoiceWithNoId());
+
+    //when
+    database.deleteAll();
+
+    //then
+    assertEquals(0, database.count());
+    assertEquals(0, createColdTier().count());
+  }
+
+  @Test
+  void shouldThrowExceptionIfMethodSaveInvokedWithNull() throws DatabaseOperationException {
+    TieredInvoiceDatabase database = createDatabase(1, HotTierEvictionPolicy.LRU);
+    assertThrows(IllegalArgumentException.class, () -> database.save(null));
+  }
+
+  @Test
+  void shouldThrowExceptionIfMethodFindByIdInvokedWithNull() throws DatabaseOperationException {
+    TieredInvoiceDatabase database = createDatabase(1, HotTierEvictionPolicy.LRU);
+    assertThrows(IllegalArgumentException.class, () -> database.findById(null));
+  }
+}
@@ -0,0 +1,74 @@
+package pl.coderstrust.integrationtests.database;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+class ConcurrentThroughputBenchmark {
+
+  private static final int[] THREAD_COUNTS = {1, 2, 4, 8};
+  private static final double MIN_SCALING_EFFICIENCY = 0.5;
+  private static final double MAX_SINGLE_CORE_SLOWDOWN = 0.8;
+
+  interface Operation {
+    void execute(int thread, int iteration) throws Exception;
+  }
+
+  static Map<Integer, Double> run(String name, int operationsPerThread, Operation operation) throws Exception {
+    measure(THREAD_COUNTS[THREAD_COUNTS.length - 1], operationsPerThread, operation);
+    Map<Integer, Double> throughputByThreads = new LinkedHashMap<>();
+    for (int threads : THREAD_COUNTS) {
+      double throughput = measure(threads, operationsPerThread, operation);
+      throughputByThreads.put(threads, throughput);
+      log.info(String.format("%s: %d threads, %.0f operations/s", name, threads, throughput));
+    }
+    return throughputByThreads;
+  }
+
+  static void assertThroughputScales(Map<Integer, Double> throughputByThreads) {
+    double singleThreadThroughput = throughputByThreads.get(1);
+    int processors = Runtime.getRuntime().availableProcessors();
+    throughputByThreads.forEach((threads, throughput) -> {
+      double expectedSpeedup = Math.max(MAX_SINGLE_CORE_SLOWDOWN, MIN_SCALING_EFFICIENCY * Math.min(threads, processors));
+      assertTrue(throughput >= singleThreadThroughput * expectedSpeedup,
+          String.format("Throughput with %d threads was %.0f operations/s, expected at least %.1fx of single thread throughput %.0f operations/s",
+              threads, throughput, expectedSpeedup, singleThreadThroughput));
+    });
+  }
+
+  static double measure(int threads, int operationsPerThread, Operation operation) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      CountDownLatch startSignal = new CountDownLatch(1);
+      List<Future<?>> results = new ArrayList<>();
+      for (int thread = 0; thread < threads; thread++) {
+        int threadNumber = thread;
+        results.add(executor.submit(() -> {
+          startSignal.await();
+          for (int iteration = 0; iteration < operationsPerThread; iteration++) {
+            operation.execute(threadNumber, iteration);
+          }
+          return null;
+        }));
+      }
+      long startTime = System.nanoTime();
+      startSignal.countDown();
+      for (Future<?> result : results) {
+        result.get();
+      }
+      long elapsedTime = System.nanoTime() - startTime;
+      return threads * operationsPerThread / (elapsedTime / 1_000_000_000.0);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package pl.coderstrust.integrationtests.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoId;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.invoice.HibernateInvoiceDatabase;
+import pl.coderstrust.database.invoice.HibernateInvoiceRepository;
+import pl.coderstrust.database.invoice.InvoiceDatabase;
+import pl.coderstrust.generators.CompanyGenerator;
+import pl.coderstrust.model.Invoice;
+
+@Slf4j
+@ExtendWith(SpringExtension.class)
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.show_sql=false", "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HibernateInvoiceDatabaseBatchIT {
+
+  @Autowired
+  private HibernateInvoiceRepository repository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private InvoiceDatabase database;
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    database = new HibernateInvoiceDatabase(repository);
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @AfterEach
+  void cleanDatabase() {
+    repository.deleteAll();
+  }
+
+  @Test
+  void shouldInsertAllInvoicesUsingJdbcBatches() throws DatabaseOperationException {
+    //given
+    List<Invoice> invoices = getRandomInvoices(500);
+
+    //when
+    List<Invoice> savedInvoices = database.saveAll(invoices);
+
+    //then
+    assertEquals(500, savedInvoices.size());
+    assertEquals(500, database.count());
+    assertTrue(statistics.getPrepareStatementCount() * 10 < statistics.getEntityInsertCount(),
+        String.format("Expected inserts to be batched, but %d statements were prepared for %d inserted entities", statistics.getPrepareStatementCount(), statistics.getEntityInsertCount()));
+  }
+
+  @Test
+  void shouldUpdateAllInvoicesInBatches() throws DatabaseOperationException {
+    //given
+    List<Invoice> savedInvoices = database.saveAll(getRandomInvoices(100));
+    List<Invoice> invoicesToUpdate = new ArrayList<>();
+    for (Invoice invoice : savedInvoices) {
+      Invoice invoiceToUpdate = new Invoice(invoice);
+      invoiceToUpdate.setComments("Updated in batch");
+      invoicesToUpdate.add(invoiceToUpdate);
+    }
+
+    //when
+    database.saveAll(invoicesToUpdate);
+
+    //then
+    assertEquals(100, database.count());
+    for (Invoice invoice : database.findAll()) {
+      assertEquals("Updated in batch", invoice.getComments());
+      assertEquals(Long.valueOf(1), invoice.getVersion());
+    }
+  }
+
+  @Test
+  void shouldCommitEachBatchInItsOwnTransaction() throws DatabaseOperationException {
+    //given
+    List<Invoice> invoices = new ArrayList<>();
+    for (int i = 0; i < 120; i++) {
+      invoices.add(getInvoiceWithSampleParties());
+    }
+    database.save(getInvoiceWithSampleParties());
+    statistics.clear();
+
+    //when
+    database.saveAll(invoices);
+    long transactionCount = statistics.getTransactionCount();
+
+    //then
+    assertEquals(3, transactionCount);
+    assertEquals(121, database.count());
+  }
+
+  @Test
+  @Tag("benchmark")
+  void shouldImportInvoicesFasterThanSavingThemOneByOne() throws DatabaseOperationException {
+    //given
+    List<Invoice> invoicesSavedOneByOne = getRandomInvoices(1000);
+    List<Invoice> invoicesSavedInBatches = getRandomInvoices(1000);
+
+    //when
+    long startTime = System.nanoTime();
+    for (Invoice invoice : invoicesSavedOneByOne) {
+      database.save(invoice);
+    }
+    double oneByOneRate = 1000 / ((System.nanoTime() - startTime) / 1_000_000_000.0);
+    startTime = System.nanoTime();
+    database.saveAll(invoicesSavedInBatches);
+    double batchRate = 1000 / ((System.nanoTime() - startTime) / 1_000_000_000.0);
+    log.info(String.format("Hibernate: save %.0f invoices/s, saveAll %.0f invoices/s (1M invoices in %.1f min)", oneByOneRate, batchRate, 1_000_000 / batchRate / 60));
+
+    //then
+    assertEquals(2000, database.count());
+    assertTrue(batchRate > oneByOneRate);
+  }
+
+  private Invoice getInvoiceWithSampleParties() {
+    Invoice invoice = getRandomInvoiceWithNoId();
+    invoice.setSeller(CompanyGenerator.getSampleCompany("Batch seller"));
+    invoice.setBuyer(CompanyGenerator.getSampleCompany("Batch buyer"));
+    return invoice;
+  }
+
+  private List<Invoice> getRandomInvoices(int count) {
+    List<Invoice> invoices = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      invoices.add(getRandomInvoiceWithNoId());
+    }
+    return invoices;
+  }
+}
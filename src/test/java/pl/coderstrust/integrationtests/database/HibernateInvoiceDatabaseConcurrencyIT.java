@@ -0,0 +1,114 @@
+package pl.coderstrust.integrationtests.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoId;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.invoice.HibernateInvoiceDatabase;
+import pl.coderstrust.database.invoice.HibernateInvoiceRepository;
+import pl.coderstrust.database.invoice.InvoiceDatabase;
+import pl.coderstrust.model.Invoice;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.show_sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HibernateInvoiceDatabaseConcurrencyIT {
+
+  @Autowired
+  private HibernateInvoiceRepository repository;
+
+  private InvoiceDatabase database;
+
+  @BeforeEach
+  void setUp() {
+    database = new HibernateInvoiceDatabase(repository);
+  }
+
+  @AfterEach
+  void cleanDatabase() {
+    repository.deleteAll();
+  }
+
+  @Test
+  @Tag("benchmark")
+  void shouldScaleMixedReadWriteThroughputWithThreads() throws Exception {
+    //given
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      ids.add(database.save(getRandomInvoiceWithNoId()).getId());
+    }
+
+    //when
+    Map<Integer, Double> throughput = ConcurrentThroughputBenchmark.run("Hibernate", 300, (thread, iteration) -> {
+      if (iteration % 5 == 0) {
+        database.save(getRandomInvoiceWithNoId());
+      } else {
+        database.findById(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+      }
+    });
+
+    //then
+    ConcurrentThroughputBenchmark.assertThroughputScales(throughput);
+  }
+
+  @Test
+  void shouldRejectUpdateOfOutdatedVersion() throws DatabaseOperationException {
+    //given
+    Invoice invoice = database.save(getRandomInvoiceWithNoId());
+    Invoice firstCopy = database.findById(invoice.getId()).get();
+    Invoice secondCopy = database.findById(invoice.getId()).get();
+    firstCopy.setComments("first");
+    secondCopy.setComments("second");
+
+    //when
+    database.save(firstCopy);
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> database.save(secondCopy));
+    assertEquals("first", database.findById(invoice.getId()).get().getComments());
+  }
+
+  @Test
+  void shouldNotLoseConcurrentUpdates() throws Exception {
+    //given
+    Invoice invoice = getRandomInvoiceWithNoId();
+    invoice.setTotalNetValue(BigDecimal.ZERO);
+    String id = database.save(invoice).getId();
+
+    //when
+    ConcurrentThroughputBenchmark.measure(8, 20, (thread, iteration) -> {
+      boolean saved = false;
+      while (!saved) {
+        Invoice current = database.findById(id).get();
+        current.setTotalNetValue(current.getTotalNetValue().add(BigDecimal.ONE));
+        try {
+          database.save(current);
+          saved = true;
+        } catch (DatabaseOperationException e) {
+          Thread.yield();
+        }
+      }
+    });
+
+    //then
+    assertEquals(0, new BigDecimal(160).compareTo(database.findById(id).get().getTotalNetValue()));
+  }
+}
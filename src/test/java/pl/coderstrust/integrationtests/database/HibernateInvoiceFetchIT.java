@@ -0,0 +1,147 @@
+package pl.coderstrust.integrationtests.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoId;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoIdAndSpecificSellerName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.coderstrust.database.invoice.HibernateInvoiceRepository;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceSummary;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.show_sql=false", "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HibernateInvoiceFetchIT {
+
+  @Autowired
+  private HibernateInvoiceRepository repository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @AfterEach
+  void cleanDatabase() {
+    repository.deleteAll();
+  }
+
+  @Test
+  void shouldLoadInvoicePageWithConstantNumberOfStatements() {
+    //given
+    saveRandomInvoices(30);
+
+    //when
+    long statementsForSmallPage = countStatements(() -> repository.findAll(PageRequest.of(0, 5)));
+    long statementsForLargePage = countStatements(() -> repository.findAll(PageRequest.of(0, 25)));
+    Page<Invoice> page = repository.findAll(PageRequest.of(1, 25));
+
+    //then
+    assertTrue(statementsForLargePage <= 3, String.format("Loading invoice page took %d statements", statementsForLargePage));
+    assertEquals(statementsForSmallPage, statementsForLargePage);
+    assertEquals(5, page.getContent().size());
+    assertEquals(30, page.getTotalElements());
+  }
+
+  @Test
+  void shouldLoadAllInvoicesWithAssociationsWithConstantNumberOfStatements() {
+    //given
+    saveRandomInvoices(10);
+    long statementsForTenInvoices = countStatements(() -> repository.findAll());
+    saveRandomInvoices(20);
+
+    //when
+    long statementsForThirtyInvoices = countStatements(() -> {
+      List<Invoice> invoices = repository.findAll();
+      invoices.forEach(invoice -> invoice.getSeller().getContactDetails().getAddress().getCity());
+      return invoices;
+    });
+
+    //then
+    assertTrue(statementsForThirtyInvoices <= 2, String.format("Loading all invoices took %d statements", statementsForThirtyInvoices));
+    assertEquals(statementsForTenInvoices, statementsForThirtyInvoices);
+  }
+
+  @Test
+  void shouldLoadInvoicesBySellerNameWithConstantNumberOfStatements() {
+    //given
+    for (int i = 0; i < 10; i++) {
+      repository.save(getRandomInvoiceWithNoIdAndSpecificSellerName("SampleSeller"));
+    }
+
+    //when
+    long statements = countStatements(() -> repository.findAllBySellerName("SampleSeller"));
+
+    //then
+    assertTrue(statements <= 2, String.format("Loading invoices by seller name took %d statements", statements));
+  }
+
+  @Test
+  void shouldLoadInvoiceByIdWithConstantNumberOfStatements() {
+    //given
+    Invoice invoice = repository.save(getRandomInvoiceWithNoId());
+
+    //when
+    long statements = countStatements(() -> repository.findById(invoice.getKey()));
+
+    //then
+    assertTrue(statements <= 2, String.format("Loading invoice by id took %d statements", statements));
+  }
+
+  @Test
+  void shouldLoadPageOfInvoiceSummariesWithoutLoadingEntities() {
+    //given
+    saveRandomInvoices(30);
+
+    //when
+    long statements = countStatements(() -> repository.findAllSummaries(PageRequest.of(1, 25, Sort.by(Sort.Direction.DESC, "issueDate"))));
+    Page<InvoiceSummary> page = repository.findAllSummaries(PageRequest.of(1, 25, Sort.by(Sort.Direction.DESC, "issueDate")));
+
+    //then
+    assertTrue(statements <= 2, String.format("Loading invoice summaries page took %d statements", statements));
+    assertEquals(0, statistics.getEntityLoadCount());
+    assertEquals(5, page.getContent().size());
+    assertEquals(30, page.getTotalElements());
+    assertTrue(page.getContent().get(0).getSellerName() != null);
+  }
+
+  private long countStatements(Supplier<?> query) {
+    statistics.clear();
+    query.get();
+    return statistics.getPrepareStatementCount();
+  }
+
+  private void saveRandomInvoices(int count) {
+    List<Invoice> invoices = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      invoices.add(getRandomInvoiceWithNoId());
+    }
+    repository.saveAll(invoices);
+  }
+}
@@ -0,0 +1,85 @@
+package pl.coderstrust.integrationtests.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoId;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoIdAndSpecificBuyerName;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoIdAndSpecificSellerName;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import pl.coderstrust.database.invoice.HibernateInvoiceRepository;
+import pl.coderstrust.model.Invoice;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+class HibernateInvoiceRepositoryIT {
+
+  @Autowired
+  private HibernateInvoiceRepository repository;
+
+  @Test
+  void shouldFindAllInvoicesBySellerName() {
+    //given
+    Invoice invoice1 = repository.save(getRandomInvoiceWithNoIdAndSpecificSellerName("SampleSeller"));
+    repository.save(getRandomInvoiceWithNoIdAndSpecificSellerName("WrongSellerName"));
+    Invoice invoice3 = repository.save(getRandomInvoiceWithNoIdAndSpecificSellerName("SampleSeller"));
+
+    //when
+    List<Invoice> invoices = repository.findAllBySellerName("SampleSeller");
+
+    //then
+    assertEquals(Arrays.asList(invoice1, invoice3), invoices);
+  }
+
+  @Test
+  void shouldFindAllInvoicesByBuyerName() {
+    //given
+    Invoice invoice1 = repository.save(getRandomInvoiceWithNoIdAndSpecificBuyerName("SampleBuyer"));
+    repository.save(getRandomInvoiceWithNoIdAndSpecificBuyerName("WrongBuyerName"));
+    Invoice invoice3 = repository.save(getRandomInvoiceWithNoIdAndSpecificBuyerName("SampleBuyer"));
+
+    //when
+    List<Invoice> invoices = repository.findAllByBuyerName("SampleBuyer");
+
+    //then
+    assertEquals(Arrays.asList(invoice1, invoice3), invoices);
+  }
+
+  @Test
+  void shouldFindAllInvoicesBySellerTaxIdentificationNumber() {
+    //given
+    Invoice invoice1 = getRandomInvoiceWithNoId();
+    invoice1.getSeller().setTaxIdentificationNumber("715-10-01-126");
+    invoice1 = repository.save(invoice1);
+    repository.save(getRandomInvoiceWithNoId());
+
+    //when
+    List<Invoice> invoices = repository.findAllBySellerTaxIdentificationNumber("715-10-01-126");
+
+    //then
+    assertEquals(Arrays.asList(invoice1), invoices);
+  }
+
+  @Test
+  void shouldFindAllInvoicesIssuedInSpecificDateRange() {
+    //given
+    Invoice invoice1 = getRandomInvoiceWithNoId();
+    invoice1.setIssueDate(LocalDate.of(2019, 1, 10));
+    invoice1 = repository.save(invoice1);
+    Invoice invoice2 = getRandomInvoiceWithNoId();
+    invoice2.setIssueDate(LocalDate.of(2019, 2, 10));
+    repository.save(invoice2);
+
+    //when
+    List<Invoice> invoices = repository.findAllByIssueDateBetween(LocalDate.of(2019, 1, 1), LocalDate.of(2019, 1, 31));
+
+    //then
+    assertEquals(Arrays.asList(invoice1), invoices);
+  }
+}
@@ -0,0 +1,112 @@
+package pl.coderstrust.integrationtests.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoId;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.invoice.HibernateInvoiceDatabase;
+import pl.coderstrust.database.invoice.HibernateInvoiceRepository;
+import pl.coderstrust.database.invoice.InvoiceDatabase;
+import pl.coderstrust.model.Invoice;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.show_sql=false", "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HibernateInvoiceStreamIT {
+
+  @Autowired
+  private HibernateInvoiceRepository repository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private DataSource dataSource;
+
+  private InvoiceDatabase database;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    database = new HibernateInvoiceDatabase(repository);
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @AfterEach
+  void cleanDatabase() {
+    repository.deleteAll();
+  }
+
+  @Test
+  void shouldStreamAllInvoicesWithSingleStatement() throws DatabaseOperationException {
+    //given
+    List<Invoice> invoices = new ArrayList<>();
+    for (int i = 0; i < 250; i++) {
+      invoices.add(getRandomInvoiceWithNoId());
+    }
+    database.saveAll(invoices);
+    List<Invoice> expected = repository.findAll().stream()
+        .sorted(Comparator.comparing(Invoice::getKey))
+        .collect(Collectors.toList());
+    statistics.clear();
+
+    //when
+    List<Invoice> actual;
+    try (Stream<Invoice> stream = database.streamAll()) {
+      actual = stream.collect(Collectors.toList());
+    }
+
+    //then
+    assertEquals(1, statistics.getPrepareStatementCount());
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getId(), actual.get(i).getId());
+      assertEquals(expected.get(i).getSeller(), actual.get(i).getSeller());
+      assertEquals(expected.get(i).getBuyer(), actual.get(i).getBuyer());
+      assertEquals(new ArrayList<>(expected.get(i).getEntries()), new ArrayList<>(actual.get(i).getEntries()));
+    }
+  }
+
+  @Test
+  void shouldReleaseConnectionWhenStreamIsClosedBeforeBeingExhausted() throws DatabaseOperationException {
+    //given
+    for (int i = 0; i < 10; i++) {
+      database.save(getRandomInvoiceWithNoId());
+    }
+    HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
+
+    //when
+    Stream<Invoice> stream = database.streamAll();
+    assertEquals(3, stream.limit(3).count());
+    int activeConnectionsWhileStreaming = hikariDataSource.getHikariPoolMXBean().getActiveConnections();
+    stream.close();
+
+    //then
+    assertTrue(activeConnectionsWhileStreaming > 0);
+    assertEquals(0, hikariDataSource.getHikariPoolMXBean().getActiveConnections());
+    assertEquals(10, database.count());
+  }
+}
@@ -0,0 +1,141 @@
+package pl.coderstrust.integrationtests.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoId;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoIdAndSpecificSellerName;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.coderstrust.configuration.HibernateCacheMetrics;
+import pl.coderstrust.database.invoice.HibernateInvoiceRepository;
+import pl.coderstrust.model.Invoice;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.show_sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HibernateSecondLevelCacheIT {
+
+  @Autowired
+  private HibernateInvoiceRepository repository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    sessionFactory.getCache().evictAllRegions();
+    statistics = sessionFactory.getStatistics();
+  }
+
+  @AfterEach
+  void cleanDatabase() {
+    repository.deleteAll();
+  }
+
+  @Test
+  void shouldLoadInvoiceFromCacheWithoutQueryingDatabase() {
+    //given
+    Invoice invoice = repository.save(getRandomInvoiceWithNoId());
+    repository.findById(invoice.getKey());
+    statistics.clear();
+
+    //when
+    Invoice cachedInvoice = repository.findById(invoice.getKey()).get();
+
+    //then
+    assertEquals(invoice.getSeller(), cachedInvoice.getSeller());
+    assertEquals(invoice.getBuyer(), cachedInvoice.getBuyer());
+    assertEquals(new ArrayList<>(invoice.getEntries()), new ArrayList<>(cachedInvoice.getEntries()));
+    assertEquals(0, statistics.getPrepareStatementCount());
+    assertEquals(1, statistics.getQueryCacheHitCount());
+    assertTrue(statistics.getDomainDataRegionStatistics("invoice").getHitCount() > 0);
+    assertTrue(statistics.getDomainDataRegionStatistics("company").getHitCount() > 0);
+    assertTrue(statistics.getDomainDataRegionStatistics("address").getHitCount() > 0);
+  }
+
+  @Test
+  void shouldNotReturnStaleInvoiceAfterUpdate() {
+    //given
+    Invoice invoice = repository.save(getRandomInvoiceWithNoId());
+    Invoice cachedInvoice = repository.findById(invoice.getKey()).get();
+    cachedInvoice.setComments("Updated comments");
+
+    //when
+    repository.save(cachedInvoice);
+    Invoice updatedInvoice = repository.findById(invoice.getKey()).get();
+
+    //then
+    assertEquals("Updated comments", updatedInvoice.getComments());
+    assertEquals(Long.valueOf(1), updatedInvoice.getVersion());
+  }
+
+  @Test
+  void shouldInvalidateCachedQueryResultsWhenInvoicesChange() {
+    //given
+    repository.save(getRandomInvoiceWithNoIdAndSpecificSellerName("SampleSeller"));
+    repository.findAllBySellerName("SampleSeller");
+
+    //when
+    repository.save(getRandomInvoiceWithNoIdAndSpecificSellerName("SampleSeller"));
+
+    //then
+    assertEquals(2, repository.findAllBySellerName("SampleSeller").size());
+  }
+
+  @Test
+  void shouldRecordHitsAndMissesPerRegion() {
+    //given
+    Invoice invoice = repository.save(getRandomInvoiceWithNoId());
+    statistics.clear();
+    entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+    //when
+    repository.findById(invoice.getKey());
+    repository.findById(invoice.getKey());
+
+    //then
+    assertEquals(1, statistics.getQueryCacheMissCount());
+    assertEquals(1, statistics.getQueryCacheHitCount());
+    assertEquals(1, statistics.getDomainDataRegionStatistics("invoice").getPutCount());
+    assertEquals(1, statistics.getDomainDataRegionStatistics("invoice").getHitCount());
+  }
+
+  @Test
+  void shouldExposeHitsAndMissesPerRegionAsMetrics() {
+    //given
+    Invoice invoice = repository.save(getRandomInvoiceWithNoId());
+    statistics.clear();
+    entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    MeterRegistry registry = new SimpleMeterRegistry();
+    new HibernateCacheMetrics(entityManagerFactory).bindTo(registry);
+
+    //when
+    repository.findById(invoice.getKey());
+    repository.findById(invoice.getKey());
+
+    //then
+    assertEquals(1, registry.get("hibernate.cache.region.requests").tags("region", "invoice", "result", "hit").functionCounter().count());
+    assertEquals(1, registry.get("hibernate.cache.region.puts").tags("region", "invoice").functionCounter().count());
+    assertEquals(2, registry.get("hibernate.cache.region.puts").tags("region", "company").functionCounter().count());
+    assertEquals(1, registry.get("hibernate.cache.region.requests").tags("region", "default-query-results-region", "result", "miss").functionCounter().count());
+  }
+}
@@ -0,0 +1,225 @@
+package pl.coderstrust.integrationtests.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.invoice.HibernateInvoiceDatabase;
+import pl.coderstrust.database.invoice.HibernateInvoiceRepository;
+import pl.coderstrust.database.invoice.InvoiceDatabase;
+import pl.coderstrust.generators.CompanyGenerator;
+import pl.coderstrust.model.Company;
+import pl.coderstrust.model.Invoice;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest(properties = {"spring.datasource.generate-unique-name=true", "spring.jpa.properties.hibernate.show_sql=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+class HibernateSharedCompanyIT {
+
+  private static final List<String> COMPANY_TABLES = Arrays.asList("Company", "ContactDetails", "Address", "AccountNumber");
+
+  @Autowired
+  private HibernateInvoiceRepository repository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private InvoiceDatabase database;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    database = new HibernateInvoiceDatabase(repository);
+    SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    sessionFactory.getCache().evictAllRegions();
+    statistics = sessionFactory.getStatistics();
+  }
+
+  @AfterEach
+  void cleanDatabase() {
+    repository.deleteAll();
+  }
+
+  @Test
+  void shouldInsertCompanyRowsOnlyOnceForInvoicesOfTheSameParties() throws DatabaseOperationException {
+    //given
+    String sellerName = uniqueName("seller");
+    String buyerName = uniqueName("buyer");
+    long companyRowsBefore = countCompanyRows();
+    Invoice firstInvoice = database.save(getInvoiceWithParties(sellerName, buyerName));
+    statistics.clear();
+
+    //when
+    for (int i = 0; i < 10; i++) {
+      database.save(getInvoiceWithParties(sellerName, buyerName));
+    }
+
+    //then
+    long insertsPerInvoice = statistics.getEntityInsertCount() / 10;
+    assertEquals(1 + firstInvoice.getEntries().size(), insertsPerInvoice);
+    assertEquals(COMPANY_TABLES.size() * 2, countCompanyRows() - companyRowsBefore);
+  }
+
+  @Test
+  void shouldShareCompanyRowsBetweenInvoicesSavedInBatch() throws DatabaseOperationException {
+    //given
+    String sellerName = uniqueName("seller");
+    String buyerName = uniqueName("buyer");
+    List<Invoice> invoices = new ArrayList<>();
+    for (int i = 0; i < 120; i++) {
+      invoices.add(getInvoiceWithParties(sellerName, buyerName));
+    }
+    long companyRowsBefore = countCompanyRows();
+
+    //when
+    List<Invoice> savedInvoices = database.saveAll(invoices);
+
+    //then
+    assertEquals(COMPANY_TABLES.size() * 2, countCompanyRows() - companyRowsBefore);
+    String sellerId = savedInvoices.get(0).getSeller().getId();
+    assertTrue(savedInvoices.stream().allMatch(invoice -> sellerId.equals(invoice.getSeller().getId())));
+  }
+
+  @Test
+  void shouldNotChangeSellerOfEarlierInvoiceWhenSellerWithSameTaxIdentificationNumberHasDifferentName() throws DatabaseOperationException {
+    //given
+    Invoice firstInvoice = getInvoiceWithParties(uniqueName("seller"), uniqueName("buyer"));
+    Invoice secondInvoice = getInvoiceWithParties(uniqueName("seller"), uniqueName("buyer"));
+    secondInvoice.getSeller().getContactDetails().getAddress().setCity("Krakow");
+    assertEquals(firstInvoice.getSeller().getTaxIdentificationNumber(), secondInvoice.getSeller().getTaxIdentificationNumber());
+    String firstSellerName = firstInvoice.getSeller().getName();
+    String firstSellerCity = firstInvoice.getSeller().getContactDetails().getAddress().getCity();
+    Invoice savedFirstInvoice = database.save(firstInvoice);
+    long companyRowsBefore = countCompanyRows();
+
+    //when
+    Invoice savedSecondInvoice = database.save(secondInvoice);
+
+    //then
+    Company firstSeller = database.findById(savedFirstInvoice.getId()).get().getSeller();
+    assertEquals(firstSellerName, firstSeller.getName());
+    assertEquals(firstSellerCity, firstSeller.getContactDetails().getAddress().getCity());
+    assertNotEquals(firstSeller.getId(), database.findById(savedSecondInvoice.getId()).get().getSeller().getId());
+    assertEquals(COMPANY_TABLES.size() * 2, countCompanyRows() - companyRowsBefore);
+  }
+
+  @Test
+  void shouldSaveConcurrentFirstInvoicesOfTheSameNewParties() throws Exception {
+    //given
+    String sellerName = uniqueName("seller");
+    String buyerName = uniqueName("buyer");
+    int threads = 8;
+    long companyRowsBefore = countCompanyRows();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch startSignal = new CountDownLatch(1);
+    List<Future<Invoice>> savedInvoices = new ArrayList<>();
+
+    //when
+    try {
+      for (int i = 0; i < threads; i++) {
+        Invoice invoice = getInvoiceWithParties(sellerName, buyerName);
+        savedInvoices.add(executor.submit(() -> {
+          startSignal.await();
+          return database.save(invoice);
+        }));
+      }
+      startSignal.countDown();
+      for (Future<Invoice> savedInvoice : savedInvoices) {
+        savedInvoice.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    //then
+    assertEquals(COMPANY_TABLES.size() * 2, countCompanyRows() - companyRowsBefore);
+    String sellerId = savedInvoices.get(0).get().getSeller().getId();
+    for (Future<Invoice> savedInvoice : savedInvoices) {
+      assertEquals(sellerId, savedInvoice.get().getSeller().getId());
+    }
+  }
+
+  @Test
+  void shouldResolveCompanyBySnapshotKeyFromCache() throws DatabaseOperationException {
+    //given
+    String sellerName = uniqueName("seller");
+    String buyerName = uniqueName("buyer");
+    database.save(getInvoiceWithParties(sellerName, buyerName));
+    statistics.clear();
+
+    //when
+    database.save(getInvoiceWithParties(sellerName, buyerName));
+
+    //then
+    assertEquals(2, statistics.getNaturalIdCacheHitCount());
+    assertEquals(0, statistics.getNaturalIdQueryExecutionCount());
+  }
+
+  @Test
+  void shouldKeepSharedCompanyWhenInvoiceIsDeleted() throws DatabaseOperationException {
+    //given
+    String sellerName = uniqueName("seller");
+    String buyerName = uniqueName("buyer");
+    Invoice firstInvoice = database.save(getInvoiceWithParties(sellerName, buyerName));
+    Invoice secondInvoice = database.save(getInvoiceWithParties(sellerName, buyerName));
+
+    //when
+    database.deleteById(firstInvoice.getId());
+
+    //then
+    assertEquals(secondInvoice.getSeller(), database.findById(secondInvoice.getId()).get().getSeller());
+  }
+
+  private Invoice getInvoiceWithParties(String sellerName, String buyerName) {
+    Invoice invoice = getRandomInvoiceWithNoId();
+    invoice.setSeller(CompanyGenerator.getSampleCompany(sellerName));
+    invoice.setBuyer(CompanyGenerator.getSampleCompany(buyerName));
+    return invoice;
+  }
+
+  private String uniqueName(String prefix) {
+    return String.format("%s-%s", prefix, UUID.randomUUID());
+  }
+
+  private long countCompanyRows() {
+    EntityManager entityManager = entityManagerFactory.createEntityManager();
+    try {
+      long rows = 0;
+      for (String table : COMPANY_TABLES) {
+        rows += entityManager.createQuery(String.format("select count(row) from %s row", table), Long.class).getSingleResult();
+      }
+      return rows;
+    } finally {
+      entityManager.close();
+    }
+  }
+}
@@ -0,0 +1,198 @@
+package pl.coderstrust.integrationtests.database;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoId;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.FileSystemUtils;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.invoice.HibernateInvoiceDatabase;
+import pl.coderstrust.database.invoice.HibernateInvoiceRepository;
+import pl.coderstrust.database.invoice.InvoiceDatabase;
+import pl.coderstrust.model.Invoice;
+
+@Slf4j
+@ExtendWith(SpringExtension.class)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.show_sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HibernateSurrogateKeyIT {
+
+  private static final int INVOICES = 20_000;
+  private static final int ENTRIES_PER_INVOICE = 3;
+  private static final int BATCH_SIZE = 50;
+
+  @Autowired
+  private HibernateInvoiceRepository repository;
+
+  @Autowired
+  private DataSource dataSource;
+
+  private InvoiceDatabase database;
+
+  @BeforeEach
+  void setUp() {
+    database = new HibernateInvoiceDatabase(repository);
+  }
+
+  @AfterEach
+  void cleanDatabase() {
+    repository.deleteAll();
+  }
+
+  @Test
+  void shouldExposeSequenceGeneratedKeysAsInvoiceIds() throws DatabaseOperationException, SQLException {
+    //given
+    List<Invoice> invoices = new ArrayList<>();
+    for (int i = 0; i < 120; i++) {
+      invoices.add(getRandomInvoiceWithNoId());
+    }
+
+    //when
+    List<Invoice> savedInvoices = database.saveAll(invoices);
+
+    //then
+    for (int i = 0; i < savedInvoices.size(); i++) {
+      Invoice invoice = savedInvoices.get(i);
+      assertEquals(String.valueOf(invoice.getKey()), invoice.getId());
+      assertTrue(i == 0 || savedInvoices.get(i - 1).getKey() < invoice.getKey());
+      assertEquals(invoice.getId(), database.findById(invoice.getId()).get().getId());
+    }
+    assertEquals(50, querySequenceIncrement("INVOICE_SEQ"));
+  }
+
+  @Test
+  @Tag("benchmark")
+  void shouldInsertFasterAndUseLessSpaceWithPooledSequenceKeysThanWithUuidKeys() throws SQLException, IOException {
+    //given
+    Path directory = Files.createTempDirectory("surrogate-keys");
+
+    //when
+    double uuidThroughput;
+    try (Connection connection = DriverManager.getConnection(String.format("jdbc:h2:%s", directory.resolve("uuid")))) {
+      uuidThroughput = insertBenchmarkRows(connection, "varchar(36)", new UuidKeys());
+      execute(connection, "shutdown compact");
+    }
+    long uuidSize = Files.size(directory.resolve("uuid.mv.db"));
+    double sequenceThroughput;
+    try (Connection connection = DriverManager.getConnection(String.format("jdbc:h2:%s", directory.resolve("sequence")))) {
+      sequenceThroughput = insertBenchmarkRows(connection, "bigint", new PooledSequenceKeys(connection));
+      execute(connection, "shutdown compact");
+    }
+    long sequenceSize = Files.size(directory.resolve("sequence.mv.db"));
+    FileSystemUtils.deleteRecursively(directory);
+    log.info(String.format("uuid2 keys: %.0f invoices/s, %d bytes; pooled sequence keys: %.0f invoices/s, %d bytes", uuidThroughput, uuidSize, sequenceThroughput, sequenceSize));
+
+    //then
+    assertTrue(sequenceSize < uuidSize, String.format("Expected sequence keyed tables to be smaller than %d bytes, but were %d bytes", uuidSize, sequenceSize));
+    assertTrue(sequenceThroughput > uuidThroughput * 0.8,
+        String.format("Expected sequence keyed inserts to keep up with %.0f invoices/s, but were %.0f invoices/s", uuidThroughput, sequenceThroughput));
+  }
+
+  private double insertBenchmarkRows(Connection connection, String keyType, KeySource keys) throws SQLException {
+    execute(connection, String.format("create table benchmark_invoice (id %s not null primary key, comments varchar(255))", keyType),
+        String.format("create table benchmark_entry (id %s not null primary key, invoice_id %s not null references benchmark_invoice(id), item varchar(255))", keyType, keyType),
+        "create index benchmark_entry_invoice_idx on benchmark_entry(invoice_id)");
+    try (PreparedStatement invoiceStatement = connection.prepareStatement("insert into benchmark_invoice (id, comments) values (?, ?)");
+         PreparedStatement entryStatement = connection.prepareStatement("insert into benchmark_entry (id, invoice_id, item) values (?, ?, ?)")) {
+      connection.setAutoCommit(false);
+      long startTime = System.nanoTime();
+      for (int invoice = 1; invoice <= INVOICES; invoice++) {
+        Object invoiceKey = keys.next(connection);
+        invoiceStatement.setObject(1, invoiceKey);
+        invoiceStatement.setString(2, "Benchmark invoice");
+        invoiceStatement.addBatch();
+        for (int entry = 0; entry < ENTRIES_PER_INVOICE; entry++) {
+          entryStatement.setObject(1, keys.next(connection));
+          entryStatement.setObject(2, invoiceKey);
+          entryStatement.setString(3, "Benchmark entry");
+          entryStatement.addBatch();
+        }
+        if (invoice % BATCH_SIZE == 0) {
+          invoiceStatement.executeBatch();
+          entryStatement.executeBatch();
+          connection.commit();
+        }
+      }
+      invoiceStatement.executeBatch();
+      entryStatement.executeBatch();
+      connection.commit();
+      return INVOICES / ((System.nanoTime() - startTime) / 1_000_000_000.0);
+    }
+  }
+
+  private long querySequenceIncrement(String sequence) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+         Statement statement = connection.createStatement();
+         ResultSet result = statement.executeQuery(String.format("select increment from information_schema.sequences where sequence_name = '%s'", sequence))) {
+      result.next();
+      return result.getLong(1);
+    }
+  }
+
+  private void execute(Connection connection, String... statements) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      for (String sql : statements) {
+        statement.execute(sql);
+      }
+    }
+  }
+
+  private interface KeySource {
+    Object next(Connection connection) throws SQLException;
+  }
+
+  private static class UuidKeys implements KeySource {
+    @Override
+    public Object next(Connection connection) {
+      return UUID.randomUUID().toString();
+    }
+  }
+
+  private class PooledSequenceKeys implements KeySource {
+    private long next;
+    private long limit;
+
+    PooledSequenceKeys(Connection connection) throws SQLException {
+      execute(connection, String.format("create sequence benchmark_seq start with 1 increment by %d", BATCH_SIZE));
+    }
+
+    @Override
+    public Object next(Connection connection) throws SQLException {
+      if (next == limit) {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("call next value for benchmark_seq")) {
+          result.next();
+          limit = result.getLong(1);
+          next = limit - BATCH_SIZE;
+        }
+      }
+      return ++next;
+    }
+  }
+}
@@ -57,6 +57,7 @@ public class InFileInvoiceDatabaseIT {
     Invoice invoice = getRandomInvoiceWithSpecificId("1");
     Invoice alteredInvoice = copyInvoice(invoice);
     alteredInvoice.setId("17");
+    invoice.setVersion(0L);
     String invoiceAsJson = mapper.writeValueAsString(invoice);
     FileUtils.writeLines(expectedDatabaseFile, Collections.singleton(invoiceAsJson), null);
 
@@ -76,6 +77,7 @@ public class InFileInvoiceDatabaseIT {
     Invoice invoice3 = getRandomInvoiceWithSpecificId("3");
     Invoice alteredInvoice3 = copyInvoice(invoice3);
     alteredInvoice3.setId("15");
+    invoice3.setVersion(0L);
     String invoice1AsJson = mapper.writeValueAsString(invoice1);
     String invoice2AsJson = mapper.writeValueAsString(invoice2);
     String invoice3AsJson = mapper.writeValueAsString(invoice3);
@@ -96,8 +98,10 @@ public class InFileInvoiceDatabaseIT {
     //given
     Invoice invoice = getRandomInvoiceWithSpecificId("1");
     Invoice alteredInvoice = getRandomInvoiceWithSpecificId("1");
+    Invoice expectedInvoice = copyInvoice(alteredInvoice);
+    expectedInvoice.setVersion(1L);
     String invoiceAsJson = mapper.writeValueAsString(invoice);
-    String alteredInvoiceAsJson = mapper.writeValueAsString(alteredInvoice);
+    String alteredInvoiceAsJson = mapper.writeValueAsString(expectedInvoice);
     FileUtils.writeLines(expectedDatabaseFile, Collections.singleton(alteredInvoiceAsJson), null);
     FileUtils.writeLines(databaseFile, Collections.singleton(invoiceAsJson), null);
 
@@ -0,0 +1,132 @@
+package pl.coderstrust.integrationtests.database;
+
+import static junit.framework.TestCase.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoId;
+
+import com.mongodb.MongoClient;
+import cz.jirutka.spring.embedmongo.EmbeddedMongoFactoryBean;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import pl.coderstrust.configuration.MongoDatabaseProperties;
+import pl.coderstrust.database.BatchOperationException;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.invoice.InvoiceDatabase;
+import pl.coderstrust.database.invoice.MongoInvoiceDatabase;
+import pl.coderstrust.model.Invoice;
+
+@Slf4j
+class MongoInvoiceBulkIT {
+
+  private static final int BULK_INVOICES = 100_000;
+  private static final int SINGLE_INVOICES = 5_000;
+
+  private static MongoTemplate mongoTemplate;
+  private static MongoDatabaseProperties properties;
+  private static InvoiceDatabase mongoDatabase;
+
+  @BeforeAll
+  static void setUp() throws IOException {
+    properties = new MongoDatabaseProperties();
+    properties.setHost("localhost");
+    properties.setDatabaseName("invoices-bulk-test");
+    properties.setCollectionName("invoices");
+    properties.setBatchSize(1000);
+    EmbeddedMongoFactoryBean mongo = new EmbeddedMongoFactoryBean();
+    mongo.setBindIp(properties.getHost());
+    MongoClient mongoClient = mongo.getObject();
+    assertNotNull(mongoClient);
+    mongoTemplate = new MongoTemplate(mongoClient, properties.getDatabaseName());
+    mongoDatabase = new MongoInvoiceDatabase(mongoTemplate, properties);
+  }
+
+  @AfterEach
+  void cleanDatabase() {
+    mongoTemplate.getCollection(properties.getCollectionName()).drop();
+  }
+
+  @Test
+  @Tag("benchmark")
+  void shouldSaveInvoicesInBulkFasterThanOneByOne() throws DatabaseOperationException {
+    //given
+    List<Invoice> singleInvoices = getRandomInvoices(SINGLE_INVOICES);
+    List<Invoice> bulkInvoices = getRandomInvoices(BULK_INVOICES);
+
+    //when
+    long startTime = System.nanoTime();
+    for (Invoice invoice : singleInvoices) {
+      mongoDatabase.save(invoice);
+    }
+    double singleThroughput = SINGLE_INVOICES / ((System.nanoTime() - startTime) / 1_000_000_000.0);
+    startTime = System.nanoTime();
+    List<Invoice> savedInvoices = mongoDatabase.saveAll(bulkInvoices);
+    double bulkThroughput = BULK_INVOICES / ((System.nanoTime() - startTime) / 1_000_000_000.0);
+    log.info(String.format("MongoDB: one by one %.0f documents/s, bulk %.0f documents/s", singleThroughput, bulkThroughput));
+
+    //then
+    assertEquals(BULK_INVOICES, savedInvoices.size());
+    assertEquals(SINGLE_INVOICES + BULK_INVOICES, mongoDatabase.count());
+    assertEquals(savedInvoices.get(BULK_INVOICES - 1), mongoDatabase.findById(savedInvoices.get(BULK_INVOICES - 1).getId()).get());
+    assertTrue(bulkThroughput > singleThroughput * 2,
+        String.format("Expected bulk saving to be at least twice as fast as %.0f documents/s, but was %.0f documents/s", singleThroughput, bulkThroughput));
+  }
+
+  @Test
+  void shouldUpdateInvoicesInBulkAndReportOutdatedVersionsByPosition() throws DatabaseOperationException {
+    //given
+    List<Invoice> savedInvoices = mongoDatabase.saveAll(getRandomInvoices(3));
+    List<Invoice> invoicesToUpdate = new ArrayList<>();
+    for (Invoice invoice : savedInvoices) {
+      Invoice invoiceToUpdate = new Invoice(invoice);
+      invoiceToUpdate.setComments(null);
+      invoicesToUpdate.add(invoiceToUpdate);
+    }
+    invoicesToUpdate.get(1).setVersion(7L);
+
+    //when
+    BatchOperationException exception = assertThrows(BatchOperationException.class, () -> mongoDatabase.saveAll(invoicesToUpdate));
+
+    //then
+    assertEquals(Collections.singleton(1), exception.getFailures().keySet());
+    assertEquals(2, exception.getResults().size());
+    Invoice firstInvoice = mongoDatabase.findById(savedInvoices.get(0).getId()).get();
+    assertEquals(null, firstInvoice.getComments());
+    assertEquals(Long.valueOf(1L), firstInvoice.getVersion());
+    assertEquals(savedInvoices.get(1), mongoDatabase.findById(savedInvoices.get(1).getId()).get());
+    assertEquals(Long.valueOf(1L), mongoDatabase.findById(savedInvoices.get(2).getId()).get().getVersion());
+  }
+
+  @Test
+  void shouldDeleteInvoicesInBulkAndReportMissingOnes() throws DatabaseOperationException {
+    //given
+    List<Invoice> savedInvoices = mongoDatabase.saveAll(getRandomInvoices(3));
+
+    //when
+    BatchOperationException exception = assertThrows(BatchOperationException.class,
+        () -> mongoDatabase.deleteAllById(Arrays.asList(savedInvoices.get(0).getId(), "5c3f5a2b9d1e8a0001a1b2c3", savedInvoices.get(2).getId())));
+
+    //then
+    assertEquals(Collections.singleton(1), exception.getFailures().keySet());
+    assertEquals(1, mongoDatabase.count());
+    assertTrue(mongoDatabase.existsById(savedInvoices.get(1).getId()));
+  }
+
+  private List<Invoice> getRandomInvoices(int count) {
+    List<Invoice> invoices = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      invoices.add(getRandomInvoiceWithNoId());
+    }
+    return invoices;
+  }
+}
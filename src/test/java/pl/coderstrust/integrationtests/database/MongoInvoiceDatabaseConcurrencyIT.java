@@ -0,0 +1,116 @@
+package pl.coderstrust.integrationtests.database;
+
+import static junit.framework.TestCase.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoId;
+
+import com.mongodb.MongoClient;
+import cz.jirutka.spring.embedmongo.EmbeddedMongoFactoryBean;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import pl.coderstrust.configuration.MongoDatabaseProperties;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.invoice.InvoiceDatabase;
+import pl.coderstrust.database.invoice.MongoInvoiceDatabase;
+import pl.coderstrust.model.Invoice;
+
+class MongoInvoiceDatabaseConcurrencyIT {
+
+  private static MongoTemplate mongoTemplate;
+  private static MongoDatabaseProperties properties;
+  private static InvoiceDatabase mongoDatabase;
+
+  @BeforeAll
+  static void setUp() throws IOException {
+    properties = new MongoDatabaseProperties();
+    properties.setHost("localhost");
+    properties.setDatabaseName("invoices-concurrency-test");
+    properties.setCollectionName("invoices");
+    EmbeddedMongoFactoryBean mongo = new EmbeddedMongoFactoryBean();
+    mongo.setBindIp(properties.getHost());
+    MongoClient mongoClient = mongo.getObject();
+    assertNotNull(mongoClient);
+    mongoTemplate = new MongoTemplate(mongoClient, properties.getDatabaseName());
+    mongoDatabase = new MongoInvoiceDatabase(mongoTemplate, properties);
+  }
+
+  @AfterEach
+  void cleanDatabase() {
+    mongoTemplate.getCollection(properties.getCollectionName()).drop();
+  }
+
+  @Test
+  @Tag("benchmark")
+  void shouldScaleMixedReadWriteThroughputWithThreads() throws Exception {
+    //given
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      ids.add(mongoDatabase.save(getRandomInvoiceWithNoId()).getId());
+    }
+
+    //when
+    Map<Integer, Double> throughput = ConcurrentThroughputBenchmark.run("MongoDB", 1000, (thread, iteration) -> {
+      if (iteration % 5 == 0) {
+        mongoDatabase.save(getRandomInvoiceWithNoId());
+      } else {
+        mongoDatabase.findById(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+      }
+    });
+
+    //then
+    ConcurrentThroughputBenchmark.assertThroughputScales(throughput);
+  }
+
+  @Test
+  void shouldRejectUpdateOfOutdatedVersion() throws DatabaseOperationException {
+    //given
+    Invoice invoice = mongoDatabase.save(getRandomInvoiceWithNoId());
+    Invoice firstCopy = mongoDatabase.findById(invoice.getId()).get();
+    Invoice secondCopy = mongoDatabase.findById(invoice.getId()).get();
+    firstCopy.setComments("first");
+    secondCopy.setComments("second");
+
+    //when
+    mongoDatabase.save(firstCopy);
+
+    //then
+    assertThrows(DatabaseOperationException.class, () -> mongoDatabase.save(secondCopy));
+    assertEquals("first", mongoDatabase.findById(invoice.getId()).get().getComments());
+  }
+
+  @Test
+  void shouldNotLoseConcurrentUpdates() throws Exception {
+    //given
+    Invoice invoice = getRandomInvoiceWithNoId();
+    invoice.setTotalNetValue(BigDecimal.ZERO);
+    String id = mongoDatabase.save(invoice).getId();
+
+    //when
+    ConcurrentThroughputBenchmark.measure(8, 20, (thread, iteration) -> {
+      boolean saved = false;
+      while (!saved) {
+        Invoice current = mongoDatabase.findById(id).get();
+        current.setTotalNetValue(current.getTotalNetValue().add(BigDecimal.ONE));
+        try {
+          mongoDatabase.save(current);
+          saved = true;
+        } catch (DatabaseOperationException e) {
+          Thread.yield();
+        }
+      }
+    });
+
+    //then
+    assertEquals(0, new BigDecimal(160).compareTo(mongoDatabase.findById(id).get().getTotalNetValue()));
+  }
+}
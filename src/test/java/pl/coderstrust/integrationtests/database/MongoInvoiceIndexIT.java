@@ -0,0 +1,124 @@
+package pl.coderstrust.integrationtests.database;
+
+import static junit.framework.TestCase.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoIdAndSpecificBuyerName;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoIdAndSpecificSellerName;
+
+import com.mongodb.MongoClient;
+import cz.jirutka.spring.embedmongo.EmbeddedMongoFactoryBean;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import pl.coderstrust.configuration.MongoDatabaseProperties;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.invoice.MongoInvoiceDatabase;
+
+class MongoInvoiceIndexIT {
+
+  private static MongoTemplate mongoTemplate;
+  private static MongoDatabaseProperties properties;
+  private static MongoInvoiceDatabase mongoDatabase;
+
+  @BeforeAll
+  static void setUp() throws IOException {
+    properties = new MongoDatabaseProperties();
+    properties.setHost("localhost");
+    properties.setDatabaseName("invoices-index-test");
+    properties.setCollectionName("invoices");
+    EmbeddedMongoFactoryBean mongo = new EmbeddedMongoFactoryBean();
+    mongo.setBindIp(properties.getHost());
+    MongoClient mongoClient = mongo.getObject();
+    assertNotNull(mongoClient);
+    mongoTemplate = new MongoTemplate(mongoClient, properties.getDatabaseName());
+    mongoDatabase = new MongoInvoiceDatabase(mongoTemplate, properties);
+  }
+
+  @BeforeEach
+  void createIndexes() throws DatabaseOperationException {
+    mongoDatabase.ensureIndexes();
+    for (int i = 0; i < 50; i++) {
+      mongoDatabase.save(getRandomInvoiceWithNoIdAndSpecificSellerName(String.format("Seller %d", i)));
+      mongoDatabase.save(getRandomInvoiceWithNoIdAndSpecificBuyerName(String.format("Buyer %d", i)));
+    }
+  }
+
+  @AfterEach
+  void cleanDatabase() {
+    mongoTemplate.getCollection(properties.getCollectionName()).drop();
+  }
+
+  private static Stream<Arguments> indexedQueries() {
+    Date from = toDate(LocalDate.of(2019, 1, 1));
+    Date to = toDate(LocalDate.of(2019, 1, 31));
+    return Stream.of(
+        Arguments.of(new Document("seller.name", "Seller 7"), "invoice_seller_name_idx"),
+        Arguments.of(new Document("buyer.name", "Buyer 7"), "invoice_buyer_name_idx"),
+        Arguments.of(new Document("seller.taxIdentificationNumber", "1234567890"), "invoice_seller_taxIdentificationNumber_idx"),
+        Arguments.of(new Document("issueDate", new Document("$gte", from).append("$lte", to)), "invoice_issueDate_idx"),
+        Arguments.of(new Document("dueDate", new Document("$gte", from).append("$lte", to)), "invoice_dueDate_idx")
+    );
+  }
+
+  @ParameterizedTest
+  @MethodSource("indexedQueries")
+  void shouldUseIndexForQuery(Document filter, String expectedIndex) {
+    //when
+    Document explanation = mongoTemplate.getDb().runCommand(new Document("explain", new Document("find", properties.getCollectionName()).append("filter", filter))
+        .append("verbosity", "queryPlanner"));
+
+    //then
+    Document winningPlan = explanation.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+    List<String> usedIndexes = new ArrayList<>();
+    collectIndexScans(winningPlan, usedIndexes);
+    assertEquals(1, usedIndexes.size(), String.format("Expected single index scan, but winning plan was: %s", winningPlan.toJson()));
+    assertEquals(expectedIndex, usedIndexes.get(0));
+  }
+
+  @ParameterizedTest
+  @MethodSource("indexedQueries")
+  void shouldCreateIndexesOnlyOnce(Document filter, String expectedIndex) {
+    //when
+    mongoDatabase.ensureIndexes();
+
+    //then
+    List<String> indexNames = mongoTemplate.indexOps(properties.getCollectionName()).getIndexInfo().stream()
+        .map(IndexInfo::getName)
+        .collect(Collectors.toList());
+    assertTrue(indexNames.contains(expectedIndex));
+    assertEquals(6, indexNames.size());
+  }
+
+  private static void collectIndexScans(Document stage, List<String> usedIndexes) {
+    if ("IXSCAN".equals(stage.getString("stage"))) {
+      usedIndexes.add(stage.getString("indexName"));
+    }
+    Document inputStage = stage.get("inputStage", Document.class);
+    if (inputStage != null) {
+      collectIndexScans(inputStage, usedIndexes);
+    }
+    List<?> inputStages = stage.get("inputStages", List.class);
+    if (inputStages != null) {
+      inputStages.forEach(input -> collectIndexScans((Document) input, usedIndexes));
+    }
+  }
+
+  private static Date toDate(LocalDate date) {
+    return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+  }
+}
@@ -0,0 +1,148 @@
+package pl.coderstrust.integrationtests.database;
+
+import static junit.framework.TestCase.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoIdAndSpecificSellerName;
+
+import com.mongodb.MongoClient;
+import cz.jirutka.spring.embedmongo.EmbeddedMongoFactoryBean;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import pl.coderstrust.configuration.MongoDatabaseProperties;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.invoice.InMemoryInvoiceDatabase;
+import pl.coderstrust.database.invoice.InvoiceDatabase;
+import pl.coderstrust.database.invoice.MongoInvoiceDatabase;
+import pl.coderstrust.model.DueDateTotals;
+import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.MonthlyVatTotals;
+import pl.coderstrust.model.SellerTotals;
+
+class MongoInvoiceReportIT {
+
+  private static final int INVOICE_COUNT = 20_000;
+  private static final LocalDate FROM_DATE = LocalDate.of(2019, 1, 1);
+  private static final LocalDate TO_DATE = LocalDate.of(2019, 6, 30);
+
+  private static MongoTemplate mongoTemplate;
+  private static MongoDatabaseProperties properties;
+  private static MongoInvoiceDatabase mongoDatabase;
+  private static InvoiceDatabase inMemoryDatabase;
+
+  @BeforeAll
+  static void setUp() throws IOException, DatabaseOperationException {
+    properties = new MongoDatabaseProperties();
+    properties.setHost("localhost");
+    properties.setDatabaseName("invoices-report-test");
+    properties.setCollectionName("invoices");
+    EmbeddedMongoFactoryBean mongo = new EmbeddedMongoFactoryBean();
+    mongo.setVersion("4.0.2");
+    mongo.setBindIp(properties.getHost());
+    MongoClient mongoClient = mongo.getObject();
+    assertNotNull(mongoClient);
+    mongoTemplate = new MongoTemplate(mongoClient, properties.getDatabaseName());
+    mongoDatabase = new MongoInvoiceDatabase(mongoTemplate, properties);
+    mongoDatabase.ensureIndexes();
+    inMemoryDatabase = new InMemoryInvoiceDatabase();
+    List<Invoice> invoices = new ArrayList<>();
+    for (int i = 0; i < INVOICE_COUNT; i++) {
+      Invoice invoice = getRandomInvoiceWithNoIdAndSpecificSellerName(String.format("Seller %d", i % 25));
+      invoice.setIssueDate(LocalDate.of(2018, 10, 1).plusDays(ThreadLocalRandom.current().nextInt(365)));
+      invoice.setDueDate(invoice.getIssueDate().plusDays(ThreadLocalRandom.current().nextInt(60)));
+      invoice.setTotalNetValue(new BigDecimal(ThreadLocalRandom.current().nextInt(100_000)).movePointLeft(2));
+      invoice.setTotalGrossValue(invoice.getTotalNetValue().multiply(new BigDecimal("1.23")).setScale(2, BigDecimal.ROUND_HALF_UP));
+      invoices.add(invoice);
+    }
+    mongoDatabase.saveAll(invoices);
+    inMemoryDatabase.saveAll(invoices);
+  }
+
+  @AfterAll
+  static void cleanDatabase() {
+    mongoTemplate.getCollection(properties.getCollectionName()).drop();
+  }
+
+  @Test
+  void shouldSumInvoicesBySellerLikeJavaImplementation() throws DatabaseOperationException {
+    //when
+    List<SellerTotals> actual = mongoDatabase.findTotalsBySeller(FROM_DATE, TO_DATE);
+
+    //then
+    List<SellerTotals> expected = inMemoryDatabase.findTotalsBySeller(FROM_DATE, TO_DATE);
+    assertEquals(25, actual.size());
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getSellerName(), actual.get(i).getSellerName());
+      assertEquals(expected.get(i).getInvoiceCount(), actual.get(i).getInvoiceCount());
+      assertEquals(0, expected.get(i).getTotalNetValue().compareTo(actual.get(i).getTotalNetValue()));
+      assertEquals(0, expected.get(i).getTotalGrossValue().compareTo(actual.get(i).getTotalGrossValue()));
+    }
+  }
+
+  @Test
+  void shouldSumTaxOfInvoicesByMonthLikeJavaImplementation() throws DatabaseOperationException {
+    //when
+    List<MonthlyVatTotals> actual = mongoDatabase.findVatTotalsByMonth(FROM_DATE, TO_DATE);
+
+    //then
+    List<MonthlyVatTotals> expected = inMemoryDatabase.findVatTotalsByMonth(FROM_DATE, TO_DATE);
+    assertEquals(6, actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getYear(), actual.get(i).getYear());
+      assertEquals(expected.get(i).getMonth(), actual.get(i).getMonth());
+      assertEquals(expected.get(i).getInvoiceCount(), actual.get(i).getInvoiceCount());
+      assertEquals(0, expected.get(i).getTotalNetValue().compareTo(actual.get(i).getTotalNetValue()));
+      assertEquals(0, expected.get(i).getTotalGrossValue().compareTo(actual.get(i).getTotalGrossValue()));
+      assertEquals(0, expected.get(i).getTotalVatValue().compareTo(actual.get(i).getTotalVatValue()));
+    }
+  }
+
+  @Test
+  void shouldSumOutstandingInvoicesByDueDateLikeJavaImplementation() throws DatabaseOperationException {
+    //given
+    LocalDate asOfDate = LocalDate.of(2019, 8, 1);
+
+    //when
+    List<DueDateTotals> actual = mongoDatabase.findOutstandingTotalsByDueDate(asOfDate);
+
+    //then
+    List<DueDateTotals> expected = inMemoryDatabase.findOutstandingTotalsByDueDate(asOfDate);
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i).getDueDate(), actual.get(i).getDueDate());
+      assertEquals(expected.get(i).getInvoiceCount(), actual.get(i).getInvoiceCount());
+      assertEquals(0, expected.get(i).getTotalGrossValue().compareTo(actual.get(i).getTotalGrossValue()));
+    }
+  }
+
+  @Test
+  void shouldSumInvoicesBySellerLikeLoadingThemIntoApplication() throws DatabaseOperationException {
+    //given
+    Map<String, BigDecimal> expected = new HashMap<>();
+    for (Invoice invoice : mongoDatabase.findAll()) {
+      if (!invoice.getIssueDate().isBefore(FROM_DATE) && !invoice.getIssueDate().isAfter(TO_DATE)) {
+        expected.merge(invoice.getSeller().getName(), invoice.getTotalGrossValue(), BigDecimal::add);
+      }
+    }
+
+    //when
+    List<SellerTotals> actual = mongoDatabase.findTotalsBySeller(FROM_DATE, TO_DATE);
+
+    //then
+    assertEquals(25, expected.size());
+    assertEquals(expected.size(), actual.size());
+    for (SellerTotals totals : actual) {
+      assertEquals(0, expected.get(totals.getSellerName()).compareTo(totals.getTotalGrossValue()));
+    }
+  }
+}
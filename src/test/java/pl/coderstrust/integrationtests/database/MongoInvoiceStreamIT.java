@@ -0,0 +1,120 @@
+package pl.coderstrust.integrationtests.database;
+
+import static junit.framework.TestCase.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoId;
+
+import com.mongodb.MongoClient;
+import cz.jirutka.spring.embedmongo.EmbeddedMongoFactoryBean;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import pl.coderstrust.configuration.MongoDatabaseProperties;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.invoice.InvoiceDatabase;
+import pl.coderstrust.database.invoice.MongoInvoiceDatabase;
+import pl.coderstrust.model.Invoice;
+
+class MongoInvoiceStreamIT {
+
+  private static final int INVOICE_COUNT = 20_000;
+
+  private static MongoTemplate mongoTemplate;
+  private static MongoDatabaseProperties properties;
+  private static InvoiceDatabase mongoDatabase;
+
+  @BeforeAll
+  static void setUp() throws IOException, DatabaseOperationException {
+    properties = new MongoDatabaseProperties();
+    properties.setHost("localhost");
+    properties.setDatabaseName("invoices-stream-test");
+    properties.setCollectionName("invoices");
+    EmbeddedMongoFactoryBean mongo = new EmbeddedMongoFactoryBean();
+    mongo.setBindIp(properties.getHost());
+    MongoClient mongoClient = mongo.getObject();
+    assertNotNull(mongoClient);
+    mongoTemplate = new MongoTemplate(mongoClient, properties.getDatabaseName());
+    mongoDatabase = new MongoInvoiceDatabase(mongoTemplate, properties);
+    List<Invoice> invoices = new ArrayList<>();
+    for (int i = 0; i < INVOICE_COUNT; i++) {
+      invoices.add(getRandomInvoiceWithNoId());
+    }
+    mongoDatabase.saveAll(invoices);
+  }
+
+  @AfterAll
+  static void cleanDatabase() {
+    mongoTemplate.getCollection(properties.getCollectionName()).drop();
+  }
+
+  @Test
+  void shouldStreamAllInvoicesOrderedById() throws DatabaseOperationException {
+    //when
+    List<String> ids;
+    try (Stream<Invoice> stream = mongoDatabase.streamAll()) {
+      ids = stream.map(Invoice::getId).collect(Collectors.toList());
+    }
+
+    //then
+    assertEquals(INVOICE_COUNT, ids.size());
+    assertEquals(ids.stream().sorted().collect(Collectors.toList()), ids);
+  }
+
+  @Test
+  void shouldReturnFirstInvoiceBeforeWholeCollectionIsRead() throws DatabaseOperationException {
+    //given
+    long returnedDocuments = getReturnedDocuments();
+
+    //when
+    long returnedDocumentsForFirstInvoice;
+    try (Stream<Invoice> stream = mongoDatabase.streamAll()) {
+      Iterator<Invoice> iterator = stream.iterator();
+      iterator.next();
+      returnedDocumentsForFirstInvoice = getReturnedDocuments() - returnedDocuments;
+    }
+
+    //then
+    assertTrue(returnedDocumentsForFirstInvoice <= properties.getCursorBatchSize(),
+        String.format("Expected at most %d documents to be read for the first invoice, but %d were read", properties.getCursorBatchSize(), returnedDocumentsForFirstInvoice));
+  }
+
+  @Test
+  void shouldCloseServerCursorWhenStreamIsClosedBeforeBeingExhausted() throws DatabaseOperationException {
+    //given
+    long openCursors = getOpenCursors();
+
+    //when
+    Stream<Invoice> stream = mongoDatabase.streamAll();
+    assertEquals(properties.getCursorBatchSize() + 1, stream.limit(properties.getCursorBatchSize() + 1).count());
+    long openCursorsWhileStreaming = getOpenCursors();
+    stream.close();
+
+    //then
+    assertEquals(openCursors + 1, openCursorsWhileStreaming);
+    assertEquals(openCursors, getOpenCursors());
+  }
+
+  private long getReturnedDocuments() {
+    Document documents = mongoTemplate.getDb().runCommand(new Document("serverStatus", 1))
+        .get("metrics", Document.class)
+        .get("document", Document.class);
+    return ((Number) documents.get("returned")).longValue();
+  }
+
+  private long getOpenCursors() {
+    Document cursors = mongoTemplate.getDb().runCommand(new Document("serverStatus", 1))
+        .get("metrics", Document.class)
+        .get("cursor", Document.class)
+        .get("open", Document.class);
+    return ((Number) cursors.get("total")).longValue();
+  }
+}
@@ -0,0 +1,148 @@
+package pl.coderstrust.integrationtests.database;
+
+import static junit.framework.TestCase.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static pl.coderstrust.generators.InvoiceGenerator.getRandomInvoiceWithNoId;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ServerAddress;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import cz.jirutka.spring.embedmongo.EmbeddedMongoFactoryBean;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import pl.coderstrust.configuration.MongoDatabaseProperties;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.invoice.ReactiveInvoiceDatabase;
+import pl.coderstrust.database.invoice.ReactiveMongoInvoiceDatabase;
+import pl.coderstrust.model.Invoice;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Slf4j
+class ReactiveMongoInvoiceDatabaseConcurrencyIT {
+
+  private static final int CONCURRENT_QUERIES = 5000;
+  private static final int MAX_ADDITIONAL_THREADS = 32;
+
+  private static com.mongodb.MongoClient blockingClient;
+  private static MongoClient mongoClient;
+  private static ReactiveMongoTemplate mongoTemplate;
+  private static MongoDatabaseProperties properties;
+  private static ReactiveInvoiceDatabase database;
+
+  @BeforeAll
+  static void setUp() throws IOException {
+    properties = new MongoDatabaseProperties();
+    properties.setHost("localhost");
+    properties.setDatabaseName("invoices-reactive-test");
+    properties.setCollectionName("invoices");
+    EmbeddedMongoFactoryBean mongo = new EmbeddedMongoFactoryBean();
+    mongo.setBindIp(properties.getHost());
+    blockingClient = mongo.getObject();
+    assertNotNull(blockingClient);
+    MongoClientSettings settings = MongoClientSettings.builder()
+        .applyToClusterSettings(builder -> builder.hosts(Collections.singletonList(new ServerAddress(properties.getHost(), blockingClient.getAddress().getPort()))))
+        .applyToConnectionPoolSettings(builder -> builder.maxSize(20).maxWaitQueueSize(properties.getMaxWaitQueueSize()))
+        .build();
+    mongoClient = MongoClients.create(settings);
+    mongoTemplate = new ReactiveMongoTemplate(mongoClient, properties.getDatabaseName());
+    database = new ReactiveMongoInvoiceDatabase(mongoTemplate, properties);
+  }
+
+  @AfterEach
+  void cleanDatabase() {
+    database.deleteAll().block();
+  }
+
+  @AfterAll
+  static void closeClients() {
+    mongoClient.close();
+    blockingClient.close();
+  }
+
+  @Test
+  @Tag("benchmark")
+  void shouldServeThousandsOfConcurrentQueriesWithFewThreads() {
+    //given
+    List<String> ids = Flux.range(0, 200)
+        .flatMap(i -> database.save(getRandomInvoiceWithNoId()))
+        .map(Invoice::getId)
+        .collectList()
+        .block();
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    int threadsBefore = threads.getThreadCount();
+    threads.resetPeakThreadCount();
+    Set<String> emittingThreads = ConcurrentHashMap.newKeySet();
+
+    //when
+    long startTime = System.nanoTime();
+    Long found = Flux.range(0, CONCURRENT_QUERIES)
+        .flatMap(i -> database.findById(ids.get(i % ids.size())), CONCURRENT_QUERIES)
+        .doOnNext(invoice -> emittingThreads.add(Thread.currentThread().getName()))
+        .count()
+        .block();
+    long elapsedTime = System.nanoTime() - startTime;
+
+    //then
+    log.info(String.format("Reactive MongoDB: %d concurrent queries in %d ms, %d emitting threads, peak %d threads (%d before)",
+        CONCURRENT_QUERIES, elapsedTime / 1_000_000, emittingThreads.size(), threads.getPeakThreadCount(), threadsBefore));
+    assertEquals(Long.valueOf(CONCURRENT_QUERIES), found);
+    assertTrue(threads.getPeakThreadCount() - threadsBefore <= MAX_ADDITIONAL_THREADS,
+        String.format("Peak thread count %d exceeded %d threads before by more than %d", threads.getPeakThreadCount(), threadsBefore, MAX_ADDITIONAL_THREADS));
+    assertTrue(emittingThreads.size() <= MAX_ADDITIONAL_THREADS);
+  }
+
+  @Test
+  void shouldRejectUpdateOfOutdatedVersion() {
+    //given
+    Invoice invoice = database.save(getRandomInvoiceWithNoId()).block();
+    Invoice firstCopy = database.findById(invoice.getId()).block();
+    Invoice secondCopy = database.findById(invoice.getId()).block();
+    firstCopy.setComments("first");
+    secondCopy.setComments("second");
+
+    //when
+    database.save(firstCopy).block();
+    Throwable error = database.save(secondCopy).then(Mono.<Throwable>empty()).onErrorResume(Mono::just).block();
+
+    //then
+    assertTrue(error instanceof DatabaseOperationException);
+    assertEquals("first", database.findById(invoice.getId()).block().getComments());
+  }
+
+  @Test
+  void shouldNotLoseConcurrentUpdates() {
+    //given
+    Invoice invoice = getRandomInvoiceWithNoId();
+    invoice.setTotalNetValue(BigDecimal.ZERO);
+    String id = database.save(invoice).block().getId();
+
+    //when
+    Flux.range(0, 160)
+        .flatMap(i -> Mono.defer(() -> database.findById(id))
+            .flatMap(current -> {
+              current.setTotalNetValue(current.getTotalNetValue().add(BigDecimal.ONE));
+              return database.save(current);
+            })
+            .retry(error -> error instanceof DatabaseOperationException), 8)
+        .blockLast();
+
+    //then
+    assertEquals(0, new BigDecimal(160).compareTo(database.findById(id).block().getTotalNetValue()));
+  }
+}
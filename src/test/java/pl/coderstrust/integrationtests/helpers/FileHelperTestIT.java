@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -164,6 +165,28 @@ class FileHelperTestIT {
     assertThrows(FileNotFoundException.class, new FileHelper(INPUT_FILE)::readLines);
   }
 
+  @Test
+  void shouldStreamLinesFromFile() throws IOException {
+    //given
+    List<String> expected = Arrays.asList("1", "2", "3");
+    createFile(INPUT_FILE, expected);
+    FileHelper fileHelper = new FileHelper(INPUT_FILE);
+
+    //when
+    List<String> result;
+    try (Stream<String> lines = fileHelper.streamLines()) {
+      result = lines.collect(Collectors.toList());
+    }
+
+    //then
+    assertEquals(expected, result);
+  }
+
+  @Test
+  void shouldThrowExceptionWhenTryingToStreamLinesFromNotExistingFile() {
+    assertThrows(FileNotFoundException.class, new FileHelper(INPUT_FILE)::streamLines);
+  }
+
   @Test
   void shouldClearDataFromExistingFile() throws IOException {
     //given
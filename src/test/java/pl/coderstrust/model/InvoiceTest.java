@@ -60,4 +60,32 @@ class InvoiceTest {
     assertEquals(totalGrossValue, invoice.getTotalGrossValue());
     assertEquals(comments, invoice.getComments());
   }
+
+  @Test
+  void shouldExposeNumericIdAsSurrogateKey() {
+    //given
+    Invoice invoice = new Invoice(id, invoiceType, issueDate, dueDate, seller, buyer, entries,
+        totalNetValue, totalGrossValue, comments);
+
+    //when
+    invoice.setKey(42L);
+
+    //then
+    assertEquals(Long.valueOf(42L), invoice.getKey());
+    assertEquals("42", invoice.getId());
+  }
+
+  @Test
+  void shouldHaveNoSurrogateKeyWhenIdIsNotNumeric() {
+    //given
+    Invoice invoice = new Invoice(id, invoiceType, issueDate, dueDate, seller, buyer, entries,
+        totalNetValue, totalGrossValue, comments);
+
+    //when
+    invoice.setId("5c3f5a2b9d1e8a0001a1b2c3");
+
+    //then
+    assertNull(invoice.getKey());
+    assertEquals("5c3f5a2b9d1e8a0001a1b2c3", invoice.getId());
+  }
 }
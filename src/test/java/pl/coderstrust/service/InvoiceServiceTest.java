@@ -3,27 +3,48 @@ package pl.coderstrust.service;
 import static org.junit.Assert.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import pl.coderstrust.database.BatchOperationException;
 import pl.coderstrust.database.DatabaseOperationException;
 import pl.coderstrust.database.invoice.InvoiceDatabase;
 import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.BatchItemResult;
+import pl.coderstrust.model.DueDateTotals;
 import pl.coderstrust.model.Invoice;
+import pl.coderstrust.model.InvoiceCopies;
+import pl.coderstrust.model.InvoiceSummary;
+import pl.coderstrust.model.MonthlyVatTotals;
+import pl.coderstrust.model.SellerTotals;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -31,11 +52,13 @@ class InvoiceServiceTest {
   @Mock
   private InvoiceDatabase database;
 
+  private Cache<String, Invoice> invoiceCache;
   private InvoiceService invoiceService;
 
   @BeforeEach
   void setUp() {
-    invoiceService = new InvoiceService(database);
+    invoiceCache = Caffeine.newBuilder().maximumSize(100).recordStats().build();
+    invoiceService = new InvoiceService(database, invoiceCache);
   }
 
   @Test
@@ -96,6 +119,160 @@ class InvoiceServiceTest {
     verify(database).findAll();
   }
 
+  @Test
+  void shouldReturnPageOfInvoices() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    Pageable pageable = PageRequest.of(0, 2);
+    Page<Invoice> page = new PageImpl<>(InvoiceGenerator.getRandomInvoices().subList(0, 2), pageable, 10);
+    when(database.findAll(pageable)).thenReturn(page);
+
+    //when
+    Page<Invoice> actual = invoiceService.getInvoices(pageable);
+
+    //then
+    assertEquals(page, actual);
+    verify(database).findAll(pageable);
+  }
+
+  @Test
+  void shouldThrowExceptionWhenGettingPageOfInvoicesFails() throws DatabaseOperationException {
+    //given
+    Pageable pageable = PageRequest.of(0, 2);
+    doThrow(DatabaseOperationException.class).when(database).findAll(pageable);
+
+    //then
+    assertThrows(ServiceOperationException.class, () -> invoiceService.getInvoices(pageable));
+  }
+
+  @Test
+  void shouldStreamAllInvoices() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    List<Invoice> invoices = InvoiceGenerator.getRandomInvoices();
+    when(database.streamAll()).thenReturn(invoices.stream());
+
+    //when
+    List<Invoice> actual = invoiceService.streamAllInvoices().collect(Collectors.toList());
+
+    //then
+    assertEquals(invoices, actual);
+    verify(database).streamAll();
+  }
+
+  @Test
+  void shouldThrowExceptionWhenStreamingAllInvoicesFails() throws DatabaseOperationException {
+    //given
+    doThrow(DatabaseOperationException.class).when(database).streamAll();
+
+    //then
+    assertThrows(ServiceOperationException.class, () -> invoiceService.streamAllInvoices());
+  }
+
+  @Test
+  void shouldReturnPageOfInvoiceSummaries() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    Pageable pageable = PageRequest.of(0, 2);
+    Page<InvoiceSummary> page = new PageImpl<>(Collections.singletonList(new InvoiceSummary(InvoiceGenerator.getRandomInvoice())), pageable, 1);
+    when(database.findAllSummaries(pageable)).thenReturn(page);
+
+    //when
+    Page<InvoiceSummary> actual = invoiceService.getInvoiceSummaries(pageable);
+
+    //then
+    assertEquals(page, actual);
+    verify(database).findAllSummaries(pageable);
+  }
+
+  @Test
+  void shouldReturnInvoiceSummariesBySellerName() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    List<InvoiceSummary> summaries = Collections.singletonList(new InvoiceSummary(invoice));
+    when(database.findAllSummariesBySellerName(invoice.getSeller().getName())).thenReturn(summaries);
+
+    //when
+    List<InvoiceSummary> actual = invoiceService.getInvoiceSummariesBySellerName(invoice.getSeller().getName());
+
+    //then
+    assertEquals(summaries, actual);
+    verify(database).findAllSummariesBySellerName(invoice.getSeller().getName());
+  }
+
+  @Test
+  void shouldThrowExceptionWhenGettingInvoiceSummariesByBuyerNameFails() throws DatabaseOperationException {
+    //given
+    doThrow(DatabaseOperationException.class).when(database).findAllSummariesByBuyerName("PolStal");
+
+    //then
+    assertThrows(ServiceOperationException.class, () -> invoiceService.getInvoiceSummariesByBuyerName("PolStal"));
+  }
+
+  @Test
+  void shouldThrowExceptionWhenGettingPageOfInvoiceSummariesFails() throws DatabaseOperationException {
+    //given
+    Pageable pageable = PageRequest.of(0, 2);
+    doThrow(DatabaseOperationException.class).when(database).findAllSummaries(pageable);
+
+    //then
+    assertThrows(ServiceOperationException.class, () -> invoiceService.getInvoiceSummaries(pageable));
+  }
+
+  @Test
+  void shouldReturnInvoiceTotalsBySeller() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    LocalDate startDate = LocalDate.of(2019, 1, 1);
+    LocalDate endDate = LocalDate.of(2019, 1, 31);
+    List<SellerTotals> totals = Collections.singletonList(new SellerTotals("PolStal", 1, BigDecimal.TEN, BigDecimal.TEN));
+    when(database.findTotalsBySeller(startDate, endDate)).thenReturn(totals);
+
+    //when
+    List<SellerTotals> actual = invoiceService.getSellerTotals(startDate, endDate);
+
+    //then
+    assertEquals(totals, actual);
+    verify(database).findTotalsBySeller(startDate, endDate);
+  }
+
+  @Test
+  void shouldReturnInvoiceTaxTotalsByMonth() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    LocalDate startDate = LocalDate.of(2019, 1, 1);
+    LocalDate endDate = LocalDate.of(2019, 12, 31);
+    List<MonthlyVatTotals> totals = Collections.singletonList(new MonthlyVatTotals(2019, 1, 1, BigDecimal.TEN, BigDecimal.TEN, BigDecimal.ZERO));
+    when(database.findVatTotalsByMonth(startDate, endDate)).thenReturn(totals);
+
+    //when
+    List<MonthlyVatTotals> actual = invoiceService.getMonthlyVatTotals(startDate, endDate);
+
+    //then
+    assertEquals(totals, actual);
+    verify(database).findVatTotalsByMonth(startDate, endDate);
+  }
+
+  @Test
+  void shouldReturnOutstandingInvoiceTotals() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    LocalDate asOfDate = LocalDate.of(2019, 1, 1);
+    List<DueDateTotals> totals = Collections.singletonList(new DueDateTotals(asOfDate, 1, BigDecimal.TEN));
+    when(database.findOutstandingTotalsByDueDate(asOfDate)).thenReturn(totals);
+
+    //when
+    List<DueDateTotals> actual = invoiceService.getOutstandingTotals(asOfDate);
+
+    //then
+    assertEquals(totals, actual);
+    verify(database).findOutstandingTotalsByDueDate(asOfDate);
+  }
+
+  @Test
+  void shouldThrowExceptionWhenGettingInvoiceTotalsFails() throws DatabaseOperationException {
+    //given
+    LocalDate asOfDate = LocalDate.of(2019, 1, 1);
+    doThrow(DatabaseOperationException.class).when(database).findOutstandingTotalsByDueDate(asOfDate);
+
+    //then
+    assertThrows(ServiceOperationException.class, () -> invoiceService.getOutstandingTotals(asOfDate));
+  }
+
   @Test
   void shouldReturnEmptyListWhenDatabaseIsEmpty() throws DatabaseOperationException, ServiceOperationException {
     //given
@@ -116,18 +293,31 @@ class InvoiceServiceTest {
     LocalDate endDate = LocalDate.of(2018, 12, 5);
 
     List<Invoice> expected = InvoiceGenerator.getRandomInvoicesIssuedInSpecificDateRange(startDate, endDate);
-    List<Invoice> invoices = new ArrayList<>();
-    invoices.add(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2016, 11, 3)));
-    invoices.addAll(expected);
-    invoices.add(InvoiceGenerator.getRandomInvoiceWithSpecificIssueDate(LocalDate.of(2017, 12, 3)));
-    when(database.findAll()).thenReturn(invoices);
+    when(database.findAllByIssueDateBetween(startDate, endDate)).thenReturn(expected);
 
     //when
     Iterable<Invoice> actual = invoiceService.getAllInvoicesIssuedInGivenDateRange(startDate, endDate);
 
     //then
     assertEquals(expected, actual);
-    verify(database).findAll();
+    verify(database).findAllByIssueDateBetween(startDate, endDate);
+    verify(database, never()).findAll();
+  }
+
+  @Test
+  void shouldReturnAllInvoicesDueInGivenDateRange() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    LocalDate startDate = LocalDate.of(2018, 12, 3);
+    LocalDate endDate = LocalDate.of(2018, 12, 5);
+    List<Invoice> expected = Collections.singletonList(InvoiceGenerator.getRandomInvoice());
+    when(database.findAllByDueDateBetween(startDate, endDate)).thenReturn(expected);
+
+    //when
+    List<Invoice> actual = invoiceService.getAllInvoicesDueInGivenDateRange(startDate, endDate);
+
+    //then
+    assertEquals(expected, actual);
+    verify(database).findAllByDueDateBetween(startDate, endDate);
   }
 
   @Test
@@ -137,14 +327,14 @@ class InvoiceServiceTest {
     LocalDate startDate = LocalDate.of(2018, 12, 3);
     LocalDate endDate = LocalDate.of(2018, 12, 5);
 
-    when(database.findAll()).thenReturn(new ArrayList<>());
+    when(database.findAllByIssueDateBetween(startDate, endDate)).thenReturn(new ArrayList<>());
 
     //when
     List<Invoice> actual = invoiceService.getAllInvoicesIssuedInGivenDateRange(startDate, endDate);
 
     //then
     assertEquals(new ArrayList<>(), actual);
-    verify(database).findAll();
+    verify(database).findAllByIssueDateBetween(startDate, endDate);
   }
 
   @Test
@@ -174,6 +364,30 @@ class InvoiceServiceTest {
     verify(database).deleteById(id);
   }
 
+  @Test
+  void shouldRemoveInvoiceAndReturnIt() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    when(database.findAndDeleteById(invoice.getId())).thenReturn(Optional.of(invoice));
+
+    //when
+    Optional<Invoice> removedInvoice = invoiceService.removeInvoice(invoice.getId());
+
+    //then
+    assertEquals(Optional.of(invoice), removedInvoice);
+    verify(database).findAndDeleteById(invoice.getId());
+    verify(database, never()).findById(any());
+  }
+
+  @Test
+  void shouldThrowExceptionWhenRemoveInvoiceWentWrong() throws DatabaseOperationException {
+    //given
+    doThrow(DatabaseOperationException.class).when(database).findAndDeleteById("1");
+
+    //then
+    assertThrows(ServiceOperationException.class, () -> invoiceService.removeInvoice("1"));
+  }
+
   @Test
   void shouldDeleteAllInvoices() throws DatabaseOperationException, ServiceOperationException {
     //given
@@ -257,6 +471,206 @@ class InvoiceServiceTest {
     verify(database).findById(id);
   }
 
+  @Test
+  void shouldServeRepeatedReadsOfInvoiceFromCache() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    when(database.findById(invoice.getId())).thenReturn(Optional.of(invoice));
+
+    //when
+    invoiceService.getInvoice(invoice.getId());
+    Optional<Invoice> actual = invoiceService.getInvoice(invoice.getId());
+
+    //then
+    assertEquals(Optional.of(invoice), actual);
+    verify(database, times(1)).findById(invoice.getId());
+    assertEquals(1, invoiceCache.stats().hitCount());
+    assertEquals(1, invoiceCache.stats().missCount());
+  }
+
+  @Test
+  void shouldNotShareCachedInvoiceWithCallers() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    String comments = invoice.getComments();
+    when(database.findById(invoice.getId())).thenReturn(Optional.of(invoice));
+
+    //when
+    invoiceService.getInvoice(invoice.getId()).get().setComments("changed by caller");
+    Optional<Invoice> actual = invoiceService.getInvoice(invoice.getId());
+
+    //then
+    assertEquals(comments, actual.get().getComments());
+  }
+
+  @Test
+  void shouldNotShareCompaniesOrEntriesOfCachedInvoiceWithCallers() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    Invoice expectedInvoice = InvoiceCopies.deepCopy(invoice);
+    when(database.findById(invoice.getId())).thenReturn(Optional.of(invoice));
+
+    //when
+    Invoice firstInvoice = invoiceService.getInvoice(invoice.getId()).get();
+    firstInvoice.getSeller().setName("Changed seller");
+    firstInvoice.getBuyer().getContactDetails().setEmail("changed@example.com");
+    firstInvoice.getEntries().clear();
+    Optional<Invoice> actual = invoiceService.getInvoice(invoice.getId());
+
+    //then
+    assertEquals(Optional.of(expectedInvoice), actual);
+    verify(database).findById(invoice.getId());
+  }
+
+  @Test
+  void shouldNotCacheMissingInvoice() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    when(database.findById("1")).thenReturn(Optional.empty());
+
+    //when
+    invoiceService.getInvoice("1");
+    invoiceService.getInvoice("1");
+
+    //then
+    verify(database, times(2)).findById("1");
+    assertEquals(0, invoiceCache.estimatedSize());
+  }
+
+  @Test
+  void shouldCheckExistenceOfCachedInvoiceWithoutDatabase() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    when(database.findById(invoice.getId())).thenReturn(Optional.of(invoice));
+    invoiceService.getInvoice(invoice.getId());
+
+    //when
+    boolean exists = invoiceService.invoiceExists(invoice.getId());
+
+    //then
+    assertTrue(exists);
+    verify(database, never()).existsById(any());
+  }
+
+  @Test
+  void shouldInvalidateCachedInvoiceOnUpdate() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    Invoice updatedInvoice = InvoiceGenerator.copyInvoice(invoice);
+    updatedInvoice.setComments("updated");
+    when(database.findById(invoice.getId())).thenReturn(Optional.of(invoice), Optional.of(updatedInvoice));
+    when(database.save(updatedInvoice)).thenReturn(updatedInvoice);
+    invoiceService.getInvoice(invoice.getId());
+
+    //when
+    invoiceService.updateInvoice(updatedInvoice);
+    Optional<Invoice> actual = invoiceService.getInvoice(invoice.getId());
+
+    //then
+    assertEquals(Optional.of(updatedInvoice), actual);
+    verify(database, times(2)).findById(invoice.getId());
+  }
+
+  @Test
+  void shouldInvalidateCachedInvoiceEvenWhenDeletingFails() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    when(database.findById(invoice.getId())).thenReturn(Optional.of(invoice));
+    doThrow(DatabaseOperationException.class).when(database).findAndDeleteById(invoice.getId());
+    invoiceService.getInvoice(invoice.getId());
+
+    //when
+    assertThrows(ServiceOperationException.class, () -> invoiceService.removeInvoice(invoice.getId()));
+
+    //then
+    assertNull(invoiceCache.getIfPresent(invoice.getId()));
+  }
+
+  @Test
+  void shouldInvalidateWholeCacheOnDeletingAllInvoices() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    when(database.findById(invoice.getId())).thenReturn(Optional.of(invoice));
+    invoiceService.getInvoice(invoice.getId());
+
+    //when
+    invoiceService.deleteAllInvoices();
+
+    //then
+    assertEquals(0, invoiceCache.estimatedSize());
+  }
+
+  @Test
+  void shouldAddBatchOfInvoicesAndReportFailedOnesByPosition() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    Invoice invoice1 = InvoiceGenerator.getRandomInvoiceWithNoId();
+    Invoice invoice2 = InvoiceGenerator.getRandomInvoiceWithNoId();
+    Invoice invoice3 = InvoiceGenerator.getRandomInvoiceWithNoId();
+    Invoice savedInvoice1 = InvoiceGenerator.copyInvoice(invoice1);
+    savedInvoice1.setId("1");
+    Invoice savedInvoice3 = InvoiceGenerator.copyInvoice(invoice3);
+    savedInvoice3.setId("3");
+    when(database.saveAll(Arrays.asList(invoice1, invoice2, invoice3)))
+        .thenThrow(new BatchOperationException("1 of 3 invoices could not be saved.", Collections.singletonMap(1, "Duplicate key"), Arrays.asList(savedInvoice1, savedInvoice3)));
+
+    //when
+    List<BatchItemResult> results = invoiceService.addInvoices(Arrays.asList(invoice1, invoice2, invoice3));
+
+    //then
+    assertEquals(Arrays.asList(BatchItemResult.saved(0, savedInvoice1), BatchItemResult.failed(1, null, Collections.singletonList("Duplicate key")),
+        BatchItemResult.saved(2, savedInvoice3)), results);
+  }
+
+  @Test
+  void shouldThrowExceptionWhenAddingBatchOfInvoicesWentWrong() throws DatabaseOperationException {
+    //given
+    List<Invoice> invoices = Collections.singletonList(InvoiceGenerator.getRandomInvoiceWithNoId());
+    when(database.saveAll(invoices)).thenThrow(new DatabaseOperationException("Connection refused"));
+
+    //then
+    assertThrows(ServiceOperationException.class, () -> invoiceService.addInvoices(invoices));
+  }
+
+  @Test
+  void shouldUpdateOnlyExistingInvoicesFromBatchAndInvalidateThem() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    Invoice cachedInvoice = InvoiceGenerator.getRandomInvoice();
+    Invoice missingInvoice = InvoiceGenerator.getRandomInvoice();
+    Invoice storedInvoice = InvoiceGenerator.getRandomInvoice();
+    invoiceCache.put(cachedInvoice.getId(), InvoiceGenerator.copyInvoice(cachedInvoice));
+    when(database.findExistingIds(Arrays.asList(missingInvoice.getId(), storedInvoice.getId()))).thenReturn(Collections.singleton(storedInvoice.getId()));
+    when(database.saveAll(Arrays.asList(cachedInvoice, storedInvoice))).thenReturn(Arrays.asList(cachedInvoice, storedInvoice));
+
+    //when
+    List<BatchItemResult> results = invoiceService.updateInvoices(Arrays.asList(cachedInvoice, missingInvoice, storedInvoice));
+
+    //then
+    assertEquals(Arrays.asList(
+        BatchItemResult.saved(0, cachedInvoice),
+        BatchItemResult.failed(1, missingInvoice.getId(), Collections.singletonList(String.format("Invoice with id %s does not exist", missingInvoice.getId()))),
+        BatchItemResult.saved(2, storedInvoice)), results);
+    assertNull(invoiceCache.getIfPresent(cachedInvoice.getId()));
+  }
+
+  @Test
+  void shouldDeleteBatchOfInvoicesAndReportMissingOnes() throws DatabaseOperationException, ServiceOperationException {
+    //given
+    List<String> ids = Arrays.asList("1", "2");
+    doThrow(new BatchOperationException("1 of 2 invoices could not be deleted.", Collections.singletonMap(0, "There is no invoice with id: 1")))
+        .when(database).deleteAllById(ids);
+
+    //when
+    List<BatchItemResult> results = invoiceService.deleteInvoices(ids);
+
+    //then
+    assertEquals(Arrays.asList(BatchItemResult.failed(0, "1", Collections.singletonList("There is no invoice with id: 1")), BatchItemResult.deleted(1, "2")), results);
+  }
+
+  @Test
+  void constructorShouldThrowExceptionWhenArgumentIsNull() {
+    assertThrows(IllegalArgumentException.class, () -> new InvoiceService(null, invoiceCache));
+    assertThrows(IllegalArgumentException.class, () -> new InvoiceService(database, null));
+  }
+
   @Test
   void shouldThrowExceptionWhenAddInvoiceInvokedWithNull() {
     assertThrows(IllegalArgumentException.class, () -> invoiceService.addInvoice(null));
@@ -346,11 +760,11 @@ class InvoiceServiceTest {
     //given
     LocalDate startDate = LocalDate.of(2019, 12, 1);
     LocalDate endDate = LocalDate.of(2019, 12, 5);
-    doThrow(DatabaseOperationException.class).when(database).findAll();
+    doThrow(DatabaseOperationException.class).when(database).findAllByIssueDateBetween(startDate, endDate);
 
     //then
     assertThrows(ServiceOperationException.class, () -> invoiceService.getAllInvoicesIssuedInGivenDateRange(startDate, endDate));
-    verify(database).findAll();
+    verify(database).findAllByIssueDateBetween(startDate, endDate);
   }
 
   @Test
@@ -0,0 +1,150 @@
+package pl.coderstrust.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.coderstrust.database.DatabaseOperationException;
+import pl.coderstrust.database.invoice.ReactiveInvoiceDatabase;
+import pl.coderstrust.generators.InvoiceGenerator;
+import pl.coderstrust.model.Invoice;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveInvoiceServiceTest {
+
+  @Mock
+  private ReactiveInvoiceDatabase database;
+
+  private Cache<String, Invoice> invoiceCache = Caffeine.newBuilder().build();
+  private ReactiveInvoiceService invoiceService;
+
+  @BeforeEach
+  void setUp() {
+    invoiceService = new ReactiveInvoiceService(database, invoiceCache);
+  }
+
+  @Test
+  void shouldReturnAllInvoices() {
+    //given
+    List<Invoice> invoices = Arrays.asList(InvoiceGenerator.getRandomInvoice(), InvoiceGenerator.getRandomInvoice());
+    when(database.findAll()).thenReturn(Flux.fromIterable(invoices));
+
+    //when
+    List<Invoice> actual = invoiceService.getAllInvoices().collectList().block();
+
+    //then
+    assertEquals(invoices, actual);
+    verify(database).findAll();
+  }
+
+  @Test
+  void shouldAddInvoice() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoiceWithNoId();
+    Invoice addedInvoice = InvoiceGenerator.copyInvoice(invoice);
+    addedInvoice.setId("1");
+    when(database.save(invoice)).thenReturn(Mono.just(addedInvoice));
+
+    //when
+    Invoice actual = invoiceService.addInvoice(invoice).block();
+
+    //then
+    assertEquals(addedInvoice, actual);
+    verify(database).save(invoice);
+  }
+
+  @Test
+  void shouldUpdateExistingInvoice() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    when(database.existsById(invoice.getId())).thenReturn(Mono.just(true));
+    when(database.save(invoice)).thenReturn(Mono.just(invoice));
+
+    invoiceCache.put(invoice.getId(), InvoiceGenerator.copyInvoice(invoice));
+
+    //when
+    Invoice actual = invoiceService.updateInvoice(invoice).block();
+
+    //then
+    assertEquals(invoice, actual);
+    verify(database).save(invoice);
+    assertNull(invoiceCache.getIfPresent(invoice.getId()));
+  }
+
+  @Test
+  void shouldSignalErrorWhenUpdatingNotExistingInvoice() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    when(database.existsById(invoice.getId())).thenReturn(Mono.just(false));
+
+    //when
+    Mono<Invoice> result = invoiceService.updateInvoice(invoice);
+
+    //then
+    Exception exception = assertThrows(Exception.class, result::block);
+    assertTrue(exception.getCause() instanceof ServiceOperationException);
+    verify(database, never()).save(any());
+  }
+
+  @Test
+  void shouldDeleteInvoice() {
+    //given
+    Invoice invoice = InvoiceGenerator.getRandomInvoice();
+    when(database.deleteById(invoice.getId())).thenReturn(Mono.just(invoice));
+
+    //when
+    Invoice actual = invoiceService.deleteInvoice(invoice.getId()).block();
+
+    //then
+    assertEquals(invoice, actual);
+    verify(database).deleteById(invoice.getId());
+  }
+
+  @Test
+  void shouldRemoveInvoiceOrCompleteEmptyWhenMissing() {
+    //given
+    when(database.findAndDeleteById("1")).thenReturn(Mono.empty());
+
+    //when
+    Invoice actual = invoiceService.removeInvoice("1").block();
+
+    //then
+    assertNull(actual);
+    verify(database).findAndDeleteById("1");
+  }
+
+  @Test
+  void shouldMapDatabaseErrorsToServiceOperationException() {
+    //given
+    when(database.findById("1")).thenReturn(Mono.error(new DatabaseOperationException("Connection refused")));
+
+    //when
+    Mono<Invoice> result = invoiceService.getInvoice("1");
+
+    //then
+    Exception exception = assertThrows(Exception.class, result::block);
+    assertTrue(exception.getCause() instanceof ServiceOperationException);
+  }
+
+  @Test
+  void constructorShouldThrowExceptionWhenArgumentIsNull() {
+    assertThrows(IllegalArgumentException.class, () -> new ReactiveInvoiceService(null, invoiceCache));
+    assertThrows(IllegalArgumentException.class, () -> new ReactiveInvoiceService(database, null));
+  }
+}